@@ -0,0 +1,104 @@
+package com.daaeboul.taskmanagementsystem.benchmark;
+
+import com.daaeboul.taskmanagementsystem.model.BaseEntity;
+import com.daaeboul.taskmanagementsystem.repository.project.ProjectRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import com.daaeboul.taskmanagementsystem.service.task.CriticalPathService;
+import com.daaeboul.taskmanagementsystem.service.task.TaskDependencyIndex;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Spring context with the task and project repositories, {@link TaskDependencyIndex} and
+ * {@link CriticalPathService} over an in-memory H2 database in MariaDB mode, as a stand-in for the real database.
+ * The schema is generated from the entities, and the tasks of a {@link SyntheticDag} are inserted without a
+ * project or into one project.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EntityScan(basePackageClasses = BaseEntity.class)
+@EnableJpaRepositories(basePackageClasses = {TaskRepository.class, ProjectRepository.class})
+@Import({TaskDependencyIndex.class, CriticalPathService.class})
+public class BenchmarkDatabase {
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    /**
+     * Starts the context on an empty database. Command-line arguments take precedence over application.properties.
+     */
+    static ConfigurableApplicationContext start() {
+        return SpringApplication.run(BenchmarkDatabase.class,
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.main.web-application-type=none",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.org.hibernate.orm.jdbc.bind=warn",
+                "--logging.level.org.springframework.security=warn");
+    }
+
+    /**
+     * Inserts the tasks and dependencies of a DAG without a project and sets the open-predecessor counts, all
+     * tasks being open.
+     */
+    static void load(JdbcTemplate jdbcTemplate, SyntheticDag dag) {
+        load(jdbcTemplate, dag, null);
+    }
+
+    /**
+     * Inserts the tasks and dependencies of a DAG and sets the open-predecessor counts, all tasks being open.
+     * Each task gets an estimated duration of one to five days.
+     *
+     * @param projectId The ID of a project to create and put every task in, or null for none.
+     */
+    static void load(JdbcTemplate jdbcTemplate, SyntheticDag dag, Long projectId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (projectId != null) {
+            jdbcTemplate.update("INSERT INTO project (id, project_name, created_at, version) VALUES (?, ?, ?, 0)",
+                    projectId, "Project " + projectId, now);
+        }
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (long taskId : dag.taskIds()) {
+            rows.add(new Object[]{taskId, "Task " + taskId, 1 + (int) (taskId % 5), projectId, now});
+            if (rows.size() == INSERT_BATCH_SIZE) {
+                insertTasks(jdbcTemplate, rows);
+            }
+        }
+        insertTasks(jdbcTemplate, rows);
+        for (int e = 0; e < dag.edgeCount(); e++) {
+            rows.add(new Object[]{dag.dependentTaskId(e), dag.dependsOnTaskId(e), now});
+            if (rows.size() == INSERT_BATCH_SIZE) {
+                insertDependencies(jdbcTemplate, rows);
+            }
+        }
+        insertDependencies(jdbcTemplate, rows);
+        jdbcTemplate.update("UPDATE task t SET open_predecessor_count = "
+                + "(SELECT COUNT(*) FROM task_dependency td WHERE td.task_id = t.id)");
+    }
+
+    private static void insertTasks(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO task (id, task_title, estimated_duration_days, project_id, created_at, "
+                + "version, open_predecessor_count) VALUES (?, ?, ?, ?, ?, 0, 0)", rows);
+        rows.clear();
+    }
+
+    private static void insertDependencies(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO task_dependency (task_id, depends_on_task_id, created_at) "
+                + "VALUES (?, ?, ?)", rows);
+        rows.clear();
+    }
+}
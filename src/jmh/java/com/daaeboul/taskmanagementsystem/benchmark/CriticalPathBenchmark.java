@@ -0,0 +1,63 @@
+package com.daaeboul.taskmanagementsystem.benchmark;
+
+import com.daaeboul.taskmanagementsystem.dto.task.ProjectCriticalPath;
+import com.daaeboul.taskmanagementsystem.service.task.CriticalPathService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The critical path of a whole project against {@link BenchmarkDatabase}, end to end: the schedule state of every
+ * task and the project's edges are read, then the schedule is computed. With 800,000 edges the project has
+ * 200,000 tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CriticalPathBenchmark {
+
+    private static final long PROJECT_ID = 1L;
+    private static final LocalDate START = LocalDate.of(2026, 1, 5);
+
+    @Param({"40000", "800000"})
+    public int edgeCount;
+
+    private ConfigurableApplicationContext context;
+    private CriticalPathService criticalPathService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        BenchmarkDatabase.load(context.getBean(JdbcTemplate.class), SyntheticDag.generate(edgeCount, SyntheticDag.DEFAULT_SEED),
+                PROJECT_ID);
+        criticalPathService = context.getBean(CriticalPathService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProjectCriticalPath findCriticalPath() {
+        return criticalPathService.findCriticalPath(PROJECT_ID, START);
+    }
+}
@@ -0,0 +1,125 @@
+package com.daaeboul.taskmanagementsystem.benchmark;
+
+import com.daaeboul.taskmanagementsystem.service.task.TaskDependencyIndex;
+import com.daaeboul.taskmanagementsystem.service.task.graph.DependencyGraph;
+import com.daaeboul.taskmanagementsystem.service.task.graph.LongLongHashMap;
+import com.daaeboul.taskmanagementsystem.service.task.graph.TaskClosure;
+import com.daaeboul.taskmanagementsystem.service.task.graph.TopologicalLevels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory side of the dependency operations of {@link com.daaeboul.taskmanagementsystem.service.task.TaskDependencyService}
+ * and {@link com.daaeboul.taskmanagementsystem.service.task.CriticalPathService}, on synthetic DAGs of 1k to 1M
+ * edges. The index is loaded from {@link SyntheticDagRepositories}, so no database time is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DependencyGraphBenchmark {
+
+    /**
+     * Number of edges checked together by {@link #batchCycleCheck}, like one bulk import request.
+     */
+    static final int BATCH_SIZE = 1000;
+
+    private static final int CANDIDATES = 1 << 12;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int edgeCount;
+
+    private SyntheticDag dag;
+    private TaskDependencyIndex index;
+    private long[] candidateTasks;
+    private long[] candidateDependsOn;
+    private long[] batchRoots;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dag = SyntheticDag.generate(edgeCount, SyntheticDag.DEFAULT_SEED);
+        index = new TaskDependencyIndex(SyntheticDagRepositories.taskRepository(dag),
+                SyntheticDagRepositories.taskDependencyRepository(dag),
+                SyntheticDagRepositories.transactionManager(), 1000);
+        index.findDependencyIds(dag.taskId(0));
+
+        // Random pairs in either direction, so some candidate edges would close a cycle and some would not.
+        SplittableRandom random = new SplittableRandom(SyntheticDag.DEFAULT_SEED + 1);
+        candidateTasks = new long[CANDIDATES];
+        candidateDependsOn = new long[CANDIDATES];
+        for (int i = 0; i < CANDIDATES; i++) {
+            int a = random.nextInt(dag.taskCount());
+            int b = (a + 1 + random.nextInt(dag.taskCount() - 1)) % dag.taskCount();
+            candidateTasks[i] = dag.taskId(a);
+            candidateDependsOn[i] = dag.taskId(b);
+        }
+        batchRoots = new long[Math.min(BATCH_SIZE, CANDIDATES)];
+        System.arraycopy(candidateDependsOn, 0, batchRoots, 0, batchRoots.length);
+    }
+
+    /**
+     * The check before a single dependency is created: a search for a path back from the task depended on.
+     */
+    @Benchmark
+    public long[] cycleCheck() {
+        int i = next++ & (CANDIDATES - 1);
+        return index.findDependencyPath(candidateDependsOn[i], candidateTasks[i], null);
+    }
+
+    /**
+     * The check of a bulk import: one upstream copy, the new edges added, and one strongly connected components pass.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public LongLongHashMap batchCycleCheck() {
+        DependencyGraph graph = index.copyUpstream(batchRoots);
+        for (int i = 0; i < batchRoots.length; i++) {
+            graph.addEdge(candidateTasks[i], candidateDependsOn[i]);
+        }
+        return graph.cyclicComponents();
+    }
+
+    /**
+     * Everything a task transitively depends on, as listed by the upstream endpoint.
+     */
+    @Benchmark
+    public TaskClosure transitiveClosure() {
+        int i = next++ & (CANDIDATES - 1);
+        return index.findClosure(candidateTasks[i], true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The level-by-level order of a whole project.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public TopologicalLevels topologicalSort() {
+        return TopologicalLevels.sort(dag.taskIds(), dag.dependentNodes(), dag.dependedOn());
+    }
+
+    /**
+     * Building a project's graph from the rows its queries return, after the index has been cleared.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int coldLoad() {
+        index.clear();
+        return index.countDependencies(dag.taskId(0));
+    }
+}
@@ -0,0 +1,81 @@
+package com.daaeboul.taskmanagementsystem.benchmark;
+
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import com.daaeboul.taskmanagementsystem.service.task.TaskDependencyIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The database side of the dependency operations, against {@link BenchmarkDatabase}: loading the index cold and
+ * maintaining the ready set when a task is completed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RepositoryBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int edgeCount;
+
+    private ConfigurableApplicationContext context;
+    private SyntheticDag dag;
+    private TaskDependencyIndex index;
+    private TaskRepository taskRepository;
+    private TransactionTemplate transactionTemplate;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        dag = SyntheticDag.generate(edgeCount, SyntheticDag.DEFAULT_SEED);
+        BenchmarkDatabase.load(context.getBean(JdbcTemplate.class), dag);
+        index = context.getBean(TaskDependencyIndex.class);
+        taskRepository = context.getBean(TaskRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * The first lookup after a restart: the task's project key, then the task IDs and edges of the whole graph.
+     */
+    @Benchmark
+    public int coldLoad() {
+        index.clear();
+        return index.countDependencies(dag.taskId(0));
+    }
+
+    /**
+     * What completing or reopening a task costs the ready set: one recount of the open predecessors of its dependents.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Integer readySetRecount() {
+        long taskId = dag.taskId(next++ % dag.taskCount());
+        return transactionTemplate.execute(status -> taskRepository.recountOpenPredecessorsOfDependents(List.of(taskId)));
+    }
+}
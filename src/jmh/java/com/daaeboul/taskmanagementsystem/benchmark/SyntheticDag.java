@@ -0,0 +1,115 @@
+package com.daaeboul.taskmanagementsystem.benchmark;
+
+import com.daaeboul.taskmanagementsystem.service.task.graph.DependencyGraph;
+import com.daaeboul.taskmanagementsystem.service.task.graph.LongLongHashMap;
+
+import java.util.SplittableRandom;
+
+/**
+ * Reproducible random dependency DAG for benchmarks. The same edge count and seed always give the same graph.
+ * <p>
+ * There are a quarter as many tasks as edges, or enough for the edges to fit in small graphs. Task IDs run from 1 to the task count, and a task only depends
+ * on tasks with lower IDs, so the graph is acyclic. Most dependencies point at one of the
+ * {@value #LOCAL_WINDOW} preceding tasks, as they tend to in real projects; one in {@value #LONG_RANGE_ONE_IN}
+ * points anywhere earlier, which gives deep transitive closures.
+ */
+public final class SyntheticDag {
+
+    public static final long DEFAULT_SEED = 0x5EED_DA6L;
+
+    static final int LOCAL_WINDOW = 64;
+    static final int LONG_RANGE_ONE_IN = 10;
+
+    private final int taskCount;
+    private final long[] taskIds;
+    private final int[] dependentNodes;
+    private final int[] dependedOn;
+
+    private SyntheticDag(int taskCount, int[] dependentNodes, int[] dependedOn) {
+        this.taskCount = taskCount;
+        this.taskIds = new long[taskCount];
+        for (int node = 0; node < taskCount; node++) {
+            taskIds[node] = node + 1L;
+        }
+        this.dependentNodes = dependentNodes;
+        this.dependedOn = dependedOn;
+    }
+
+    /**
+     * Generates a DAG with exactly the given number of distinct edges.
+     *
+     * @param edgeCount The number of edges, at least 1.
+     * @param seed      The seed of the random generator.
+     */
+    public static SyntheticDag generate(int edgeCount, long seed) {
+        int taskCount = Math.max(edgeCount / 4, (int) Math.ceil(Math.sqrt(2.0 * edgeCount)) + 1);
+        SplittableRandom random = new SplittableRandom(seed);
+        LongLongHashMap seen = new LongLongHashMap(edgeCount);
+        int[] dependentNodes = new int[edgeCount];
+        int[] dependedOn = new int[edgeCount];
+        int size = 0;
+        while (size < edgeCount) {
+            int dependent = 1 + random.nextInt(taskCount - 1);
+            int dependency = random.nextInt(LONG_RANGE_ONE_IN) == 0
+                    ? random.nextInt(dependent)
+                    : dependent - 1 - random.nextInt(Math.min(dependent, LOCAL_WINDOW));
+            long key = (long) dependent * taskCount + dependency;
+            if (!seen.containsKey(key)) {
+                seen.put(key, size);
+                dependentNodes[size] = dependent;
+                dependedOn[size] = dependency;
+                size++;
+            }
+        }
+        return new SyntheticDag(taskCount, dependentNodes, dependedOn);
+    }
+
+    public int taskCount() {
+        return taskCount;
+    }
+
+    public int edgeCount() {
+        return dependentNodes.length;
+    }
+
+    /**
+     * Returns the task IDs by node number. The array is shared, not copied.
+     */
+    public long[] taskIds() {
+        return taskIds;
+    }
+
+    public long taskId(int node) {
+        return taskIds[node];
+    }
+
+    /**
+     * Returns, for every edge, the node number of the dependent task. The array is shared, not copied.
+     */
+    public int[] dependentNodes() {
+        return dependentNodes;
+    }
+
+    /**
+     * Returns, for every edge, the node number of the task depended on. The array is shared, not copied.
+     */
+    public int[] dependedOn() {
+        return dependedOn;
+    }
+
+    public long dependentTaskId(int edge) {
+        return taskIds[dependentNodes[edge]];
+    }
+
+    public long dependsOnTaskId(int edge) {
+        return taskIds[dependedOn[edge]];
+    }
+
+    public DependencyGraph toGraph() {
+        DependencyGraph graph = new DependencyGraph();
+        for (int e = 0; e < dependentNodes.length; e++) {
+            graph.addEdge(dependentTaskId(e), dependsOnTaskId(e));
+        }
+        return graph;
+    }
+}
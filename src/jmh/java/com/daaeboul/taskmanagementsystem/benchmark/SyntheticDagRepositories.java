@@ -0,0 +1,92 @@
+package com.daaeboul.taskmanagementsystem.benchmark;
+
+import com.daaeboul.taskmanagementsystem.repository.task.TaskDependencyRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskEdge;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositories that answer the queries {@link com.daaeboul.taskmanagementsystem.service.task.TaskDependencyIndex}
+ * loads a project with from a {@link SyntheticDag} held in memory, all of whose tasks belong to project
+ * {@value #PROJECT_ID}. They let the graph code be measured without a database; any other query throws.
+ * Their transactions do nothing.
+ */
+final class SyntheticDagRepositories {
+
+    static final long PROJECT_ID = 1L;
+
+    private SyntheticDagRepositories() {
+    }
+
+    static TaskRepository taskRepository(SyntheticDag dag) {
+        List<Long> taskIds = new ArrayList<>(dag.taskCount());
+        for (long taskId : dag.taskIds()) {
+            taskIds.add(taskId);
+        }
+        return (TaskRepository) Proxy.newProxyInstance(TaskRepository.class.getClassLoader(),
+                new Class<?>[]{TaskRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findProjectKeyById" -> Optional.of(PROJECT_ID);
+                    case "findIdsByProjectId" -> taskIds;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static TaskDependencyRepository taskDependencyRepository(SyntheticDag dag) {
+        List<TaskEdge> edges = new ArrayList<>(dag.edgeCount());
+        for (int e = 0; e < dag.edgeCount(); e++) {
+            edges.add(new Edge(dag.dependentTaskId(e), dag.dependsOnTaskId(e)));
+        }
+        return (TaskDependencyRepository) Proxy.newProxyInstance(TaskDependencyRepository.class.getClassLoader(),
+                new Class<?>[]{TaskDependencyRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findEdgesFromProject" -> edges;
+                    case "findEdgesIntoProject" -> List.of();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static PlatformTransactionManager transactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    private static final class Edge implements TaskEdge {
+
+        private final Long taskId;
+        private final Long dependsOnTaskId;
+
+        private Edge(Long taskId, Long dependsOnTaskId) {
+            this.taskId = taskId;
+            this.dependsOnTaskId = dependsOnTaskId;
+        }
+
+        @Override
+        public Long getTaskId() {
+            return taskId;
+        }
+
+        @Override
+        public Long getDependsOnTaskId() {
+            return dependsOnTaskId;
+        }
+    }
+}
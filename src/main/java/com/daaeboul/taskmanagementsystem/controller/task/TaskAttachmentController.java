@@ -1,14 +1,30 @@
 package com.daaeboul.taskmanagementsystem.controller.task;
 
+import com.daaeboul.taskmanagementsystem.dto.task.TaskAttachmentDownload;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskAttachmentMetadata;
+import com.daaeboul.taskmanagementsystem.dto.task.UploadSessionRequest;
+import com.daaeboul.taskmanagementsystem.dto.task.UploadSessionStatus;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
 import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.TaskAttachmentNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.UploadSessionNotFoundException;
 import com.daaeboul.taskmanagementsystem.model.task.Task;
 import com.daaeboul.taskmanagementsystem.model.task.TaskAttachment;
+import com.daaeboul.taskmanagementsystem.service.task.AttachmentUploadService;
 import com.daaeboul.taskmanagementsystem.service.task.TaskAttachmentService;
 import com.daaeboul.taskmanagementsystem.service.task.TaskService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,11 +33,14 @@ import java.util.Optional;
 public class TaskAttachmentController {
 
     private final TaskAttachmentService taskAttachmentService;
+    private final AttachmentUploadService attachmentUploadService;
     private final TaskService taskService;
 
     @Autowired
-    public TaskAttachmentController(TaskAttachmentService taskAttachmentService, TaskService taskService) {
+    public TaskAttachmentController(TaskAttachmentService taskAttachmentService,
+                                    AttachmentUploadService attachmentUploadService, TaskService taskService) {
         this.taskAttachmentService = taskAttachmentService;
+        this.attachmentUploadService = attachmentUploadService;
         this.taskService = taskService;
     }
 
@@ -36,42 +55,171 @@ public class TaskAttachmentController {
         }
     }
 
+    @PostMapping(value = "/{taskId}/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<TaskAttachmentMetadata> uploadTaskAttachment(@PathVariable Long taskId,
+                                                                       @RequestPart("file") MultipartFile file,
+                                                                       @RequestParam(required = false) String checksum) throws IOException {
+        try (InputStream content = file.getInputStream()) {
+            return upload(taskId, file.getOriginalFilename(), file.getContentType(), checksum, content);
+        }
+    }
+
+    /**
+     * Raw upload. A client that sends the checksum of the content with {@code Expect: 100-continue} does not
+     * have to send the content at all when the task already has an attachment with that content, since the body
+     * is then never read.
+     */
+    @PostMapping(value = "/{taskId}/upload", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<TaskAttachmentMetadata> uploadTaskAttachment(@PathVariable Long taskId,
+                                                                       @RequestParam String fileName,
+                                                                       @RequestParam(required = false) String fileType,
+                                                                       @RequestParam(required = false) String checksum,
+                                                                       InputStream content) {
+        return upload(taskId, fileName, fileType, checksum, content);
+    }
+
+    private ResponseEntity<TaskAttachmentMetadata> upload(Long taskId, String fileName, String fileType, String checksum,
+                                                          InputStream content) {
+        if (fileName == null || fileName.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            TaskAttachment attachment = taskAttachmentService.uploadTaskAttachment(taskId, fileName, fileType, checksum, content);
+            return ResponseEntity.ok(TaskAttachmentMetadata.from(attachment));
+        } catch (TaskNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Returns the metadata of a task attachment; its content is downloaded from {@code /{id}/content}.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<TaskAttachment> findTaskAttachmentById(@PathVariable Long id) {
-        return taskAttachmentService.findTaskAttachmentById(id)
+    public ResponseEntity<TaskAttachmentMetadata> findTaskAttachmentById(@PathVariable Long id) {
+        return taskAttachmentService.findTaskAttachmentMetadataById(id)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    /**
+     * Starts a resumable upload: the file is then sent in numbered chunks, in any order and in parallel, and
+     * committed once every chunk has arrived. A failed chunk is simply sent again.
+     */
+    @PostMapping("/{taskId}/upload-sessions")
+    public ResponseEntity<UploadSessionStatus> createUploadSession(@PathVariable Long taskId,
+                                                                   @RequestBody UploadSessionRequest request) {
+        try {
+            return ResponseEntity.ok(attachmentUploadService.createUploadSession(taskId, request));
+        } catch (TaskNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/upload-sessions/{sessionId}")
+    public ResponseEntity<UploadSessionStatus> findUploadSessionStatus(@PathVariable Long sessionId) {
+        try {
+            return ResponseEntity.ok(attachmentUploadService.findUploadSessionStatus(sessionId));
+        } catch (UploadSessionNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PutMapping(value = "/upload-sessions/{sessionId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Void> writeUploadChunk(@PathVariable Long sessionId, @PathVariable int index,
+                                                 InputStream content) {
+        try {
+            attachmentUploadService.writeChunk(sessionId, index, content);
+            return ResponseEntity.noContent().build();
+        } catch (UploadSessionNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/upload-sessions/{sessionId}/commit")
+    public ResponseEntity<TaskAttachmentMetadata> commitUploadSession(@PathVariable Long sessionId) {
+        try {
+            TaskAttachment attachment = attachmentUploadService.commitUploadSession(sessionId);
+            return ResponseEntity.ok(TaskAttachmentMetadata.from(attachment));
+        } catch (UploadSessionNotFoundException | TaskNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/upload-sessions/{sessionId}")
+    public ResponseEntity<Void> deleteUploadSession(@PathVariable Long sessionId) {
+        try {
+            attachmentUploadService.deleteUploadSession(sessionId);
+            return ResponseEntity.noContent().build();
+        } catch (UploadSessionNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Downloads the content of a task attachment. The content is streamed from storage rather than loaded, with
+     * its {@code Content-Length}. A {@code Range} request gets just the requested byte ranges, so an interrupted
+     * download can be resumed, and the checksum serves as the {@code ETag}, so a request whose
+     * {@code If-None-Match} names it gets {@code 304 Not Modified} without the content.
+     */
+    @GetMapping("/{id}/content")
+    public ResponseEntity<Resource> downloadTaskAttachment(@PathVariable Long id) {
+        TaskAttachmentDownload download;
+        try {
+            download = taskAttachmentService.openTaskAttachment(id);
+        } catch (TaskAttachmentNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(mediaTypeOf(download.getFileType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(download.getFileName(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString());
+        if (download.getChecksum() != null) {
+            response.eTag(download.getChecksum());
+        }
+        return response.body(download.getContent());
+    }
+
+    private static MediaType mediaTypeOf(String fileType) {
+        if (fileType == null) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+        try {
+            return MediaType.parseMediaType(fileType);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
     @GetMapping("/task/{taskId}")
-    public ResponseEntity<List<TaskAttachment>> findTaskAttachmentsByTaskId(@PathVariable Long taskId) {
-        List<TaskAttachment> taskAttachments = taskAttachmentService.findTaskAttachmentsByTaskId(taskId);
+    public ResponseEntity<List<TaskAttachmentMetadata>> findTaskAttachmentsByTaskId(@PathVariable Long taskId) {
+        List<TaskAttachmentMetadata> taskAttachments = taskAttachmentService.findTaskAttachmentsByTaskId(taskId);
         return ResponseEntity.ok(taskAttachments);
     }
 
     @GetMapping("/search/file-name/{fileName}")
-    public ResponseEntity<List<TaskAttachment>> findTaskAttachmentsByFileName(@PathVariable String fileName) {
-        List<TaskAttachment> taskAttachments = taskAttachmentService.findTaskAttachmentsByFileName(fileName);
+    public ResponseEntity<List<TaskAttachmentMetadata>> findTaskAttachmentsByFileName(@PathVariable String fileName) {
+        List<TaskAttachmentMetadata> taskAttachments = taskAttachmentService.findTaskAttachmentsByFileName(fileName);
+        return ResponseEntity.ok(taskAttachments);
+    }
+
+    @GetMapping("/search/file-type")
+    public ResponseEntity<List<TaskAttachmentMetadata>> findTaskAttachmentsByFileType(@RequestParam String fileType) {
+        List<TaskAttachmentMetadata> taskAttachments = taskAttachmentService.findTaskAttachmentsByFileType(fileType);
         return ResponseEntity.ok(taskAttachments);
     }
 
 
+    /**
+     * Updates a task attachment. Only the name and type of an attachment with stored content can be changed;
+     * giving it new content is rejected with {@code 400}, and new content is uploaded as a new attachment.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<TaskAttachment> updateTaskAttachment(@PathVariable Long id, @RequestBody TaskAttachment taskAttachmentDetails) {
+    public ResponseEntity<TaskAttachmentMetadata> updateTaskAttachment(@PathVariable Long id, @RequestBody TaskAttachment taskAttachmentDetails) {
         try {
-            // Fetch the existing task attachment by ID
-            TaskAttachment existingTaskAttachment = taskAttachmentService.findTaskAttachmentById(id)
-                    .orElseThrow(() -> new TaskAttachmentNotFoundException("Task attachment not found with ID: " + id));
-
-            // Update the existing task attachment with the provided details
-            existingTaskAttachment.setFileName(taskAttachmentDetails.getFileName());
-            existingTaskAttachment.setFileSize(taskAttachmentDetails.getFileSize());
-            existingTaskAttachment.setFileType(taskAttachmentDetails.getFileType());
-            existingTaskAttachment.setFileContent(taskAttachmentDetails.getFileContent());
-
-            // Save the updated task attachment
-            TaskAttachment updatedTaskAttachment = taskAttachmentService.updateTaskAttachment(existingTaskAttachment);
-            return ResponseEntity.ok(updatedTaskAttachment);
+            TaskAttachment updatedTaskAttachment = taskAttachmentService.updateTaskAttachment(id, taskAttachmentDetails);
+            return ResponseEntity.ok(TaskAttachmentMetadata.from(updatedTaskAttachment));
         } catch (TaskAttachmentNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
@@ -1,13 +1,24 @@
 package com.daaeboul.taskmanagementsystem.controller.task;
 
 
+import com.daaeboul.taskmanagementsystem.dto.BulkItemResult;
+import com.daaeboul.taskmanagementsystem.dto.CursorPage;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskBulkUpdate;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskChange;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDetail;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskExportFormat;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskProjectStats;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSearchCriteria;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSummary;
 import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskVersionConflictException;
 import com.daaeboul.taskmanagementsystem.model.task.Task;
 import com.daaeboul.taskmanagementsystem.model.user.User;
 import com.daaeboul.taskmanagementsystem.model.project.Project;
 import com.daaeboul.taskmanagementsystem.model.transition.Status;
 import com.daaeboul.taskmanagementsystem.model.task.Category;
 import com.daaeboul.taskmanagementsystem.model.task.TaskPriority;
+import com.daaeboul.taskmanagementsystem.service.task.TaskExportService;
 import com.daaeboul.taskmanagementsystem.service.task.TaskService;
 import com.daaeboul.taskmanagementsystem.service.user.UserService;
 import com.daaeboul.taskmanagementsystem.service.project.ProjectService;
@@ -15,11 +26,17 @@ import com.daaeboul.taskmanagementsystem.service.transition.StatusService;
 import com.daaeboul.taskmanagementsystem.service.task.CategoryService;
 import com.daaeboul.taskmanagementsystem.service.task.TaskPriorityService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -27,6 +44,7 @@ import java.util.Optional;
 public class TaskController {
 
     private final TaskService taskService;
+    private final TaskExportService taskExportService;
     private final UserService userService;
     private final ProjectService projectService;
     private final StatusService statusService;
@@ -34,8 +52,9 @@ public class TaskController {
     private final TaskPriorityService taskPriorityService;
 
     @Autowired
-    public TaskController(TaskService taskService, UserService userService, ProjectService projectService, StatusService statusService, CategoryService categoryService, TaskPriorityService taskPriorityService) {
+    public TaskController(TaskService taskService, TaskExportService taskExportService, UserService userService, ProjectService projectService, StatusService statusService, CategoryService categoryService, TaskPriorityService taskPriorityService) {
         this.taskService = taskService;
+        this.taskExportService = taskExportService;
         this.userService = userService;
         this.projectService = projectService;
         this.statusService = statusService;
@@ -49,21 +68,51 @@ public class TaskController {
         return ResponseEntity.ok(createdTask);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkItemResult>> createTasks(@RequestBody List<Task> tasks) {
+        return ResponseEntity.ok(taskService.createTasks(tasks));
+    }
+
+    @PatchMapping("/bulk")
+    public ResponseEntity<List<BulkItemResult>> updateTasks(@RequestBody List<TaskBulkUpdate> updates) {
+        return ResponseEntity.ok(taskService.updateTasks(updates));
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<List<BulkItemResult>> deleteTasks(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(taskService.deleteTasks(ids));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Task> findTaskById(@PathVariable Long id) {
-        Optional<Task> task = taskService.findTaskById(id);
-        return task.map(ResponseEntity::ok)
+    public ResponseEntity<TaskDetail> findTaskById(@PathVariable Long id, WebRequest request) {
+        Optional<Long> version = taskService.findTaskVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(eTag(version.get()))) {
+            return null;
+        }
+        return taskService.findTaskDetailById(id)
+                .map(detail -> ResponseEntity.ok().eTag(eTag(detail.getVersion())).body(detail))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<TaskDetail> findTaskDetailById(@PathVariable Long id) {
+        return taskService.findTaskDetailById(id)
+                .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping
-    public ResponseEntity<List<Task>> findAllTasks() {
+    public ResponseEntity<List<TaskSummary>> findAllTasks() {
         List<Task> tasks = taskService.findAllTasks();
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(summaries(tasks));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Task> updateTask(@PathVariable Long id, @RequestBody Task taskDetails) {
+    public ResponseEntity<Task> updateTask(@PathVariable Long id, @RequestBody Task taskDetails,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
             Optional<Task> optionalTask = taskService.findTaskById(id);
             if (!optionalTask.isPresent()) {
@@ -71,6 +120,7 @@ public class TaskController {
             }
 
             Task existingTask = optionalTask.get();
+            taskService.checkVersion(existingTask, ifMatchVersion(ifMatch));
 
             if (taskDetails.getAssignee() != null) {
                 User assignee = userService.findUserById(taskDetails.getAssignee().getId())
@@ -105,13 +155,25 @@ public class TaskController {
             existingTask.setTaskTitle(taskDetails.getTaskTitle());
             existingTask.setTaskDescription(taskDetails.getTaskDescription());
             existingTask.setTaskDueDate(taskDetails.getTaskDueDate());
+            existingTask.setEstimatedDurationDays(taskDetails.getEstimatedDurationDays());
             existingTask.setTaskType(taskDetails.getTaskType());
             existingTask.setCompletedAt(taskDetails.getCompletedAt());
-            existingTask.setDependencies(taskDetails.getDependencies());
-            existingTask.setPrecedencies(taskDetails.getPrecedencies());
 
             Task updatedTask = taskService.updateTask(existingTask);
-            return ResponseEntity.ok(updatedTask);
+            return ResponseEntity.ok().eTag(eTag(updatedTask.getVersion())).body(updatedTask);
+        } catch (TaskNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            throw new TaskVersionConflictException("Task was modified concurrently: " + id);
+        }
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Void> patchTask(@PathVariable Long id, @RequestBody Map<String, Object> patch,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            Task patchedTask = taskService.patchTask(id, patch, ifMatchVersion(ifMatch));
+            return ResponseEntity.noContent().eTag(eTag(patchedTask.getVersion())).build();
         } catch (TaskNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
@@ -128,96 +190,272 @@ public class TaskController {
     }
 
     @GetMapping("/assignee/{assigneeId}")
-    public ResponseEntity<List<Task>> findTasksByAssignee(@PathVariable Long assigneeId) {
+    public ResponseEntity<List<TaskSummary>> findTasksByAssignee(@PathVariable Long assigneeId) {
         User assignee = userService.findUserById(assigneeId)
                 .orElseThrow(() -> new TaskNotFoundException("Assignee not found"));
         List<Task> tasks = taskService.findTasksByAssignee(assignee);
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(summaries(tasks));
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<Task>> findTasksByCategory(@PathVariable Long categoryId) {
+    public ResponseEntity<List<TaskSummary>> findTasksByCategory(@PathVariable Long categoryId) {
         Category category = categoryService.findCategoryById(categoryId)
                 .orElseThrow(() -> new TaskNotFoundException("Category not found"));
         List<Task> tasks = taskService.findTasksByCategory(category);
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(summaries(tasks));
     }
 
     @GetMapping("/priority/{priorityId}")
-    public ResponseEntity<List<Task>> findTasksByPriority(@PathVariable Long priorityId) {
+    public ResponseEntity<List<TaskSummary>> findTasksByPriority(@PathVariable Long priorityId) {
         TaskPriority priority = taskPriorityService.findTaskPriorityById(priorityId)
                 .orElseThrow(() -> new TaskNotFoundException("Priority not found"));
         List<Task> tasks = taskService.findTasksByPriority(priority);
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(summaries(tasks));
     }
 
     @GetMapping("/project/{projectId}")
-    public ResponseEntity<List<Task>> findTasksByProject(@PathVariable Long projectId) {
+    public ResponseEntity<List<TaskSummary>> findTasksByProject(@PathVariable Long projectId) {
         Project project = projectService.findProjectById(projectId)
                 .orElseThrow(() -> new TaskNotFoundException("Project not found"));
         List<Task> tasks = taskService.findTasksByProject(project);
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(summaries(tasks));
+    }
+
+    @GetMapping("/project/{projectId}/stats")
+    public ResponseEntity<TaskProjectStats> findProjectStats(@PathVariable Long projectId) {
+        projectService.findProjectById(projectId)
+                .orElseThrow(() -> new TaskNotFoundException("Project not found"));
+        return ResponseEntity.ok(taskService.findProjectStats(projectId, LocalDate.now()));
     }
 
     @GetMapping("/status/{statusId}")
-    public ResponseEntity<List<Task>> findTasksByStatus(@PathVariable Long statusId) {
+    public ResponseEntity<List<TaskSummary>> findTasksByStatus(@PathVariable Long statusId) {
         Status status = statusService.findStatusById(statusId)
                 .orElseThrow(() -> new TaskNotFoundException("Status not found"));
         List<Task> tasks = taskService.findTasksByStatus(status);
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(summaries(tasks));
     }
 
     @GetMapping("/due-before/{date}")
-    public ResponseEntity<List<Task>> findTasksDueBefore(@PathVariable LocalDate date) {
+    public ResponseEntity<List<TaskSummary>> findTasksDueBefore(@PathVariable LocalDate date) {
         List<Task> tasks = taskService.findTasksDueBefore(date);
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(summaries(tasks));
     }
 
     @GetMapping("/due-after/{date}")
-    public ResponseEntity<List<Task>> findTasksDueAfter(@PathVariable LocalDate date) {
+    public ResponseEntity<List<TaskSummary>> findTasksDueAfter(@PathVariable LocalDate date) {
         List<Task> tasks = taskService.findTasksDueAfter(date);
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(summaries(tasks));
     }
 
     @GetMapping("/due-between")
-    public ResponseEntity<List<Task>> findTasksDueBetween(@RequestParam LocalDate startDate, @RequestParam LocalDate endDate) {
+    public ResponseEntity<List<TaskSummary>> findTasksDueBetween(@RequestParam LocalDate startDate, @RequestParam LocalDate endDate) {
         List<Task> tasks = taskService.findTasksDueBetween(startDate, endDate);
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(summaries(tasks));
     }
 
     @GetMapping("/incomplete")
-    public ResponseEntity<List<Task>> findIncompleteTasks() {
+    public ResponseEntity<List<TaskSummary>> findIncompleteTasks() {
         List<Task> tasks = taskService.findIncompleteTasks();
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(summaries(tasks));
     }
 
     @GetMapping("/completed")
-    public ResponseEntity<List<Task>> findCompletedTasks() {
+    public ResponseEntity<List<TaskSummary>> findCompletedTasks() {
         List<Task> tasks = taskService.findCompletedTasks();
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(summaries(tasks));
     }
 
     @GetMapping("/assignee/{assigneeId}/status/{statusId}")
-    public ResponseEntity<List<Task>> findTasksByAssigneeAndStatus(@PathVariable Long assigneeId, @PathVariable Long statusId) {
+    public ResponseEntity<List<TaskSummary>> findTasksByAssigneeAndStatus(@PathVariable Long assigneeId, @PathVariable Long statusId) {
         User assignee = userService.findUserById(assigneeId)
                 .orElseThrow(() -> new TaskNotFoundException("Assignee not found"));
         Status status = statusService.findStatusById(statusId)
                 .orElseThrow(() -> new TaskNotFoundException("Status not found"));
         List<Task> tasks = taskService.findTasksByAssigneeAndStatus(assignee, status);
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(summaries(tasks));
     }
 
     @GetMapping("/overdue/project/{projectId}/date/{date}")
-    public ResponseEntity<List<Task>> findOverdueTasksByProject(@PathVariable Long projectId, @PathVariable LocalDate date) {
+    public ResponseEntity<List<TaskSummary>> findOverdueTasksByProject(@PathVariable Long projectId, @PathVariable LocalDate date) {
         Project project = projectService.findProjectById(projectId)
                 .orElseThrow(() -> new TaskNotFoundException("Project not found"));
         List<Task> tasks = taskService.findOverdueTasksByProject(project, date);
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(summaries(tasks));
     }
 
     @GetMapping("/deleted")
-    public ResponseEntity<List<Task>> findAllDeletedTasks() {
+    public ResponseEntity<List<TaskSummary>> findAllDeletedTasks() {
         List<Task> tasks = taskService.findAllDeletedTasks();
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(summaries(tasks));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<TaskSummary>> searchTasks(TaskSearchCriteria criteria,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.searchTasks(criteria, cursor, limit));
+    }
+
+    @GetMapping("/ready")
+    public ResponseEntity<CursorPage<TaskSummary>> findReadyTasks(@RequestParam(required = false) Long projectId,
+                                                                  @RequestParam(required = false) Long assigneeId,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findReadyTasks(projectId, assigneeId, cursor, limit));
+    }
+
+    @GetMapping("/blocked")
+    public ResponseEntity<CursorPage<TaskSummary>> findBlockedTasks(@RequestParam(required = false) Long projectId,
+                                                                    @RequestParam(required = false) Long assigneeId,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findBlockedTasks(projectId, assigneeId, cursor, limit));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(TaskSearchCriteria criteria,
+                                                             @RequestParam(defaultValue = "NDJSON") TaskExportFormat format) {
+        StreamingResponseBody body = out -> taskExportService.exportTasks(criteria, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks." + format.getFileExtension() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<CursorPage<TaskChange>> findTaskChanges(@RequestParam(required = false) String since,
+                                                                  @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findTaskChanges(since, limit));
+    }
+
+    @GetMapping("/paged")
+    public ResponseEntity<CursorPage<TaskSummary>> findAllTasksPaged(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findTasksPage(cursor, limit));
+    }
+
+    @GetMapping("/assignee/{assigneeId}/paged")
+    public ResponseEntity<CursorPage<TaskSummary>> findTasksByAssigneePaged(@PathVariable Long assigneeId,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findTasksByAssigneePage(assigneeId, cursor, limit));
+    }
+
+    @GetMapping("/category/{categoryId}/paged")
+    public ResponseEntity<CursorPage<TaskSummary>> findTasksByCategoryPaged(@PathVariable Long categoryId,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findTasksByCategoryPage(categoryId, cursor, limit));
+    }
+
+    @GetMapping("/priority/{priorityId}/paged")
+    public ResponseEntity<CursorPage<TaskSummary>> findTasksByPriorityPaged(@PathVariable Long priorityId,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findTasksByPriorityPage(priorityId, cursor, limit));
+    }
+
+    @GetMapping("/project/{projectId}/paged")
+    public ResponseEntity<CursorPage<TaskSummary>> findTasksByProjectPaged(@PathVariable Long projectId,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findTasksByProjectPage(projectId, cursor, limit));
+    }
+
+    @GetMapping("/status/{statusId}/paged")
+    public ResponseEntity<CursorPage<TaskSummary>> findTasksByStatusPaged(@PathVariable Long statusId,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findTasksByStatusPage(statusId, cursor, limit));
+    }
+
+    @GetMapping("/due-before/{date}/paged")
+    public ResponseEntity<CursorPage<TaskSummary>> findTasksDueBeforePaged(@PathVariable LocalDate date,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findTasksDueBeforePage(date, cursor, limit));
+    }
+
+    @GetMapping("/due-after/{date}/paged")
+    public ResponseEntity<CursorPage<TaskSummary>> findTasksDueAfterPaged(@PathVariable LocalDate date,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findTasksDueAfterPage(date, cursor, limit));
+    }
+
+    @GetMapping("/due-between/paged")
+    public ResponseEntity<CursorPage<TaskSummary>> findTasksDueBetweenPaged(@RequestParam LocalDate startDate, @RequestParam LocalDate endDate,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findTasksDueBetweenPage(startDate, endDate, cursor, limit));
+    }
+
+    @GetMapping("/incomplete/paged")
+    public ResponseEntity<CursorPage<TaskSummary>> findIncompleteTasksPaged(@RequestParam(required = false) String cursor,
+                                                                     @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findIncompleteTasksPage(cursor, limit));
+    }
+
+    @GetMapping("/completed/paged")
+    public ResponseEntity<CursorPage<TaskSummary>> findCompletedTasksPaged(@RequestParam(required = false) String cursor,
+                                                                    @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findCompletedTasksPage(cursor, limit));
+    }
+
+    @GetMapping("/assignee/{assigneeId}/status/{statusId}/paged")
+    public ResponseEntity<CursorPage<TaskSummary>> findTasksByAssigneeAndStatusPaged(@PathVariable Long assigneeId, @PathVariable Long statusId,
+                                                                              @RequestParam(required = false) String cursor,
+                                                                              @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findTasksByAssigneeAndStatusPage(assigneeId, statusId, cursor, limit));
+    }
+
+    @GetMapping("/overdue/project/{projectId}/date/{date}/paged")
+    public ResponseEntity<CursorPage<TaskSummary>> findOverdueTasksByProjectPaged(@PathVariable Long projectId, @PathVariable LocalDate date,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findOverdueTasksByProjectPage(projectId, date, cursor, limit));
+    }
+
+    @GetMapping("/deleted/paged")
+    public ResponseEntity<CursorPage<TaskSummary>> findAllDeletedTasksPaged(@RequestParam(required = false) String cursor,
+                                                                     @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskService.findAllDeletedTasksPage(cursor, limit));
+    }
+
+    /**
+     * Formats a task version as a strong entity tag.
+     */
+    private static String eTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Maps tasks loaded with their references to list rows, so no lazy association is serialized.
+     */
+    private static List<TaskSummary> summaries(List<Task> tasks) {
+        return tasks.stream().map(TaskSummary::from).toList();
+    }
+
+    /**
+     * Reads the version a conditional update is based on from its If-Match header.
+     *
+     * @return The expected version, or null if the header is absent or {@code *}.
+     * @throws TaskVersionConflictException If the header is not a single strong entity tag produced by this API,
+     *                                      which can therefore never match.
+     */
+    private static Long ifMatchVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new TaskVersionConflictException("If-Match does not match the current entity tag: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new TaskVersionConflictException("If-Match does not match the current entity tag: " + ifMatch);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,35 @@
 package com.daaeboul.taskmanagementsystem.controller.task;
 
+import com.daaeboul.taskmanagementsystem.dto.task.DueDateChange;
+import com.daaeboul.taskmanagementsystem.dto.task.DueDateImpact;
+import com.daaeboul.taskmanagementsystem.dto.task.ProjectCriticalPath;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDependencyCycle;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDependencyDiff;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDependencyDiffResult;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDependencyImportResult;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskExportFormat;
+import com.daaeboul.taskmanagementsystem.dto.task.TransitiveDependency;
+import com.daaeboul.taskmanagementsystem.exceptions.project.project.ProjectNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskDependendy.TaskDependencyCycleException;
 import com.daaeboul.taskmanagementsystem.model.task.Task;
 import com.daaeboul.taskmanagementsystem.model.task.TaskDependency;
+import com.daaeboul.taskmanagementsystem.service.task.CriticalPathService;
 import com.daaeboul.taskmanagementsystem.service.task.TaskDependencyService;
+import com.daaeboul.taskmanagementsystem.service.task.TaskExportService;
 import com.daaeboul.taskmanagementsystem.service.task.TaskService;
+import com.daaeboul.taskmanagementsystem.service.task.graph.TopologicalLevels;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,11 +39,16 @@ public class TaskDependencyController {
 
     private final TaskDependencyService taskDependencyService;
     private final TaskService taskService;
+    private final CriticalPathService criticalPathService;
+    private final TaskExportService taskExportService;
 
     @Autowired
-    public TaskDependencyController(TaskDependencyService taskDependencyService, TaskService taskService) {
+    public TaskDependencyController(TaskDependencyService taskDependencyService, TaskService taskService,
+                                    CriticalPathService criticalPathService, TaskExportService taskExportService) {
         this.taskDependencyService = taskDependencyService;
         this.taskService = taskService;
+        this.criticalPathService = criticalPathService;
+        this.taskExportService = taskExportService;
     }
 
     @PostMapping
@@ -32,6 +57,11 @@ public class TaskDependencyController {
         return ResponseEntity.ok(createdTaskDependency);
     }
 
+    @PostMapping("/import")
+    public ResponseEntity<List<TaskDependencyImportResult>> importTaskDependencies(@RequestBody List<TaskDependency.TaskDependencyId> edges) {
+        return ResponseEntity.ok(taskDependencyService.importTaskDependencies(edges));
+    }
+
     @GetMapping("/{taskId}/{dependsOnTaskId}")
     public ResponseEntity<TaskDependency> findTaskDependencyById(@PathVariable Long taskId, @PathVariable Long dependsOnTaskId) {
         TaskDependency.TaskDependencyId id = new TaskDependency.TaskDependencyId(taskId, dependsOnTaskId);
@@ -46,6 +76,16 @@ public class TaskDependencyController {
         return ResponseEntity.ok(taskDependencies);
     }
 
+    @PatchMapping("/task/{taskId}")
+    public ResponseEntity<TaskDependencyDiffResult> applyDependencyDiff(@PathVariable Long taskId,
+                                                                        @RequestBody TaskDependencyDiff diff) {
+        try {
+            return ResponseEntity.ok(taskDependencyService.applyDependencyDiff(taskId, diff));
+        } catch (TaskNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/task/{taskId}/paged")
     public ResponseEntity<Page<TaskDependency>> findTaskDependenciesByTaskId(@PathVariable Long taskId, Pageable pageable) {
         Page<TaskDependency> taskDependencies = taskDependencyService.findTaskDependenciesByTaskId(taskId, pageable);
@@ -61,9 +101,8 @@ public class TaskDependencyController {
     @PutMapping("/{taskId}/{dependsOnTaskId}")
     public ResponseEntity<TaskDependency> updateTaskDependency(@PathVariable Long taskId, @PathVariable Long dependsOnTaskId, @RequestBody TaskDependency taskDependencyDetails) {
         TaskDependency.TaskDependencyId id = new TaskDependency.TaskDependencyId(taskId, dependsOnTaskId);
-        taskDependencyDetails.setId(id);
 
-        TaskDependency updatedTaskDependency = taskDependencyService.updateTaskDependency(taskDependencyDetails);
+        TaskDependency updatedTaskDependency = taskDependencyService.updateTaskDependency(id, taskDependencyDetails);
         return ResponseEntity.ok(updatedTaskDependency);
     }
 
@@ -103,4 +142,71 @@ public class TaskDependencyController {
         List<Task> dependents = taskDependencyService.findDirectDependentsForTask(taskId);
         return ResponseEntity.ok(dependents);
     }
+
+    @GetMapping("/upstream/{taskId}")
+    public ResponseEntity<List<TransitiveDependency>> findUpstreamTasks(@PathVariable Long taskId,
+                                                                        @RequestParam(required = false) Integer maxDepth,
+                                                                        @RequestParam(required = false) Long statusId) {
+        if (maxDepth != null && maxDepth < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(taskDependencyService.findUpstreamTasks(taskId, maxDepth, statusId));
+        } catch (TaskNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/downstream/{taskId}")
+    public ResponseEntity<List<TransitiveDependency>> findDownstreamTasks(@PathVariable Long taskId,
+                                                                          @RequestParam(required = false) Integer maxDepth,
+                                                                          @RequestParam(required = false) Long statusId) {
+        if (maxDepth != null && maxDepth < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(taskDependencyService.findDownstreamTasks(taskId, maxDepth, statusId));
+        } catch (TaskNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/project/{projectId}/critical-path")
+    public ResponseEntity<ProjectCriticalPath> findCriticalPath(@PathVariable Long projectId,
+                                                                @RequestParam(required = false) LocalDate start) {
+        try {
+            return ResponseEntity.ok(criticalPathService.findCriticalPath(projectId,
+                    start != null ? start : LocalDate.now(ZoneOffset.UTC)));
+        } catch (ProjectNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/due-date-simulation")
+    public ResponseEntity<List<DueDateImpact>> simulateDueDates(@RequestBody List<DueDateChange> changes) {
+        try {
+            return ResponseEntity.ok(criticalPathService.simulateDueDates(changes));
+        } catch (TaskNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/project/{projectId}/topological-order")
+    public ResponseEntity<StreamingResponseBody> exportTopologicalOrder(@PathVariable Long projectId) {
+        try {
+            TopologicalLevels order = criticalPathService.findTopologicalOrder(projectId);
+            StreamingResponseBody body = out -> taskExportService.exportTopologicalOrder(order, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(TaskExportFormat.NDJSON.getContentType()))
+                    .header("X-Level-Count", String.valueOf(order.levelCount()))
+                    .body(body);
+        } catch (ProjectNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @ExceptionHandler(TaskDependencyCycleException.class)
+    public ResponseEntity<TaskDependencyCycle> handleCycle(TaskDependencyCycleException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new TaskDependencyCycle(e.getMessage(), e.getCycle()));
+    }
 }
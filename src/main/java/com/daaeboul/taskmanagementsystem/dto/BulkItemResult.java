@@ -0,0 +1,49 @@
+package com.daaeboul.taskmanagementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of one item of a bulk request.
+ */
+@Getter
+@AllArgsConstructor
+public class BulkItemResult {
+
+    public enum Outcome {
+        CREATED,
+        UPDATED,
+        DELETED,
+        /**
+         * The item was already present and was left as it is.
+         */
+        SKIPPED,
+        NOT_FOUND,
+        FAILED
+    }
+
+    /**
+     * Position of the item in the request.
+     */
+    private final int index;
+
+    /**
+     * ID of the affected entity, if known.
+     */
+    private final Long id;
+
+    private final Outcome outcome;
+
+    /**
+     * Why the item failed, null unless the outcome is FAILED.
+     */
+    private final String error;
+
+    public static BulkItemResult of(int index, Long id, Outcome outcome) {
+        return new BulkItemResult(index, id, outcome, null);
+    }
+
+    public static BulkItemResult failed(int index, Long id, String error) {
+        return new BulkItemResult(index, id, Outcome.FAILED, error);
+    }
+}
@@ -0,0 +1,31 @@
+package com.daaeboul.taskmanagementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A single page of a keyset-paginated listing.
+ *
+ * @param <T> The type of the items on the page.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    /**
+     * The items on this page, in the listing's sort order.
+     */
+    private final List<T> items;
+
+    /**
+     * Opaque token to pass back as {@code cursor} to fetch the next page, or null on the last page.
+     */
+    private final String nextCursor;
+
+    /**
+     * Whether another page follows this one.
+     */
+    private final boolean hasMore;
+}
@@ -0,0 +1,19 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A proposed due date for one task in a due-date simulation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DueDateChange {
+
+    private Long taskId;
+    private LocalDate dueDate;
+}
@@ -0,0 +1,28 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * A task whose due date can no longer be met under a set of proposed due-date changes.
+ */
+@Getter
+@AllArgsConstructor
+public class DueDateImpact {
+
+    private final Long taskId;
+
+    /**
+     * The task's current due date, or its proposed one if the task is among the changes.
+     */
+    private final LocalDate dueDate;
+
+    /**
+     * The earliest due date its dependencies leave the task with.
+     */
+    private final LocalDate earliestDueDate;
+
+    private final long slipDays;
+}
@@ -0,0 +1,27 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Critical-path analysis of a project: the earliest date all of its open work can be finished, the chain of
+ * dependent tasks that determines that date, and the schedule of every task.
+ */
+@Getter
+@AllArgsConstructor
+public class ProjectCriticalPath {
+
+    private final Long projectId;
+    private final LocalDate start;
+    private final LocalDate finish;
+
+    /**
+     * Task IDs of the critical chain, from the task that starts first to the one that finishes last.
+     */
+    private final List<Long> criticalPath;
+
+    private final List<TaskSchedule> tasks;
+}
@@ -0,0 +1,26 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.core.io.Resource;
+
+/**
+ * The content of a task attachment, ready to be served, with the metadata needed to describe it.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskAttachmentDownload {
+
+    private final String fileName;
+    private final String fileType;
+
+    /**
+     * Lower-case hex SHA-256 of the content, or null for content saved through the JSON endpoint.
+     */
+    private final String checksum;
+
+    /**
+     * The content; not read until the response is written.
+     */
+    private final Resource content;
+}
@@ -0,0 +1,27 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import com.daaeboul.taskmanagementsystem.model.task.TaskAttachment;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model of a task attachment without its content.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskAttachmentMetadata {
+
+    private final Long id;
+    private final String fileName;
+    private final String fileType;
+    private final Long fileSize;
+    private final String checksum;
+    private final LocalDateTime createdAt;
+
+    public static TaskAttachmentMetadata from(TaskAttachment attachment) {
+        return new TaskAttachmentMetadata(attachment.getId(), attachment.getFileName(), attachment.getFileType(),
+                attachment.getFileSize(), attachment.getChecksum(), attachment.getCreatedAt());
+    }
+}
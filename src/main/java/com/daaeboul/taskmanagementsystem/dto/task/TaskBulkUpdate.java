@@ -0,0 +1,20 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * One item of a bulk task update: the task ID, optionally the version the patch was based on (the bulk counterpart
+ * of {@code If-Match}), and a JSON Merge Patch document with the same fields as {@code PATCH /api/v1/tasks/{id}}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBulkUpdate {
+    private Long id;
+    private Long version;
+    private Map<String, Object> changes;
+}
@@ -0,0 +1,35 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import com.daaeboul.taskmanagementsystem.model.task.Task;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the task change feed: either the current state of a created or updated task,
+ * or a tombstone carrying only the ID of a deleted task.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskChange {
+
+    private final Long id;
+
+    private final LocalDateTime updatedAt;
+
+    private final boolean deleted;
+
+    /**
+     * Current state of the task, null for tombstones.
+     */
+    private final TaskSummary task;
+
+    public static TaskChange upsert(Task task) {
+        return new TaskChange(task.getId(), task.getUpdatedAt(), false, TaskSummary.from(task));
+    }
+
+    public static TaskChange tombstone(Long id, LocalDateTime updatedAt) {
+        return new TaskChange(id, updatedAt, true, null);
+    }
+}
@@ -0,0 +1,17 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Number of tasks sharing one value of a grouping dimension such as status or assignee.
+ * The ID and name are null for the group of tasks that have no value for the dimension.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskCount {
+
+    private final Long id;
+    private final String name;
+    private final Long count;
+}
@@ -0,0 +1,100 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskValidationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset page: the value of the sort key and the task ID used as tie-breaker.
+ * Clients only ever see the encoded form, which is an opaque URL-safe token.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskCursor {
+
+    /**
+     * Lowest date MariaDB can store; used as the seek position of the first page of date-keyed listings.
+     */
+    public static final LocalDate FIRST_DATE = LocalDate.of(1000, 1, 1);
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * String form of the sort key of the last row, or null when the listing is keyed on the ID only.
+     */
+    private final String sortValue;
+
+    /**
+     * ID of the last row.
+     */
+    private final long id;
+
+    /**
+     * Decodes a cursor token received from a client.
+     *
+     * @param token The opaque token, may be null or blank for the first page.
+     * @return The decoded cursor, or null if no token was given.
+     * @throws TaskValidationException If the token is malformed.
+     */
+    public static TaskCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new TaskValidationException("Invalid cursor: " + token);
+            }
+            String sortValue = separator == 0 ? null : raw.substring(0, separator);
+            long id = Long.parseLong(raw.substring(separator + 1));
+            return new TaskCursor(sortValue, id);
+        } catch (IllegalArgumentException e) {
+            throw new TaskValidationException("Invalid cursor: " + token);
+        }
+    }
+
+    /**
+     * Encodes this cursor as an opaque URL-safe token.
+     *
+     * @return The token to hand to the client.
+     */
+    public String encode() {
+        String raw = (sortValue == null ? "" : sortValue) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Interprets the sort value as a date.
+     *
+     * @return The sort value as a date.
+     * @throws TaskValidationException If the cursor was not produced by a date-keyed listing.
+     */
+    public LocalDate sortValueAsDate() {
+        try {
+            return LocalDate.parse(sortValue);
+        } catch (NullPointerException | DateTimeParseException e) {
+            throw new TaskValidationException("Cursor is not a date cursor");
+        }
+    }
+
+    /**
+     * Interprets the sort value as a timestamp.
+     *
+     * @return The sort value as a timestamp.
+     * @throws TaskValidationException If the cursor was not produced by a timestamp-keyed listing.
+     */
+    public LocalDateTime sortValueAsDateTime() {
+        try {
+            return LocalDateTime.parse(sortValue);
+        } catch (NullPointerException | DateTimeParseException e) {
+            throw new TaskValidationException("Cursor is not a timestamp cursor");
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Response body for a rejected dependency that would close a cycle.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskDependencyCycle {
+
+    private final String message;
+
+    /**
+     * The task IDs along the cycle, starting and ending with the dependent task of the rejected edge.
+     */
+    private final List<Long> cycle;
+}
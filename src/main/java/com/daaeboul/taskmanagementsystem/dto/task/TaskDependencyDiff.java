@@ -0,0 +1,38 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Changes to the dependencies of one task, as task IDs to link or unlink on either side of it.
+ * Adding an existing dependency or removing a missing one is a no-op.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskDependencyDiff {
+
+    /**
+     * Tasks the task should start depending on.
+     */
+    private List<Long> addDependencies = new ArrayList<>();
+
+    /**
+     * Tasks the task should stop depending on.
+     */
+    private List<Long> removeDependencies = new ArrayList<>();
+
+    /**
+     * Tasks that should start depending on the task.
+     */
+    private List<Long> addDependents = new ArrayList<>();
+
+    /**
+     * Tasks that should stop depending on the task.
+     */
+    private List<Long> removeDependents = new ArrayList<>();
+}
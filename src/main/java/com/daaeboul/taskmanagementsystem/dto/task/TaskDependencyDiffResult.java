@@ -0,0 +1,18 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import com.daaeboul.taskmanagementsystem.model.task.TaskDependency;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The dependency edges a {@link TaskDependencyDiff} actually created and deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskDependencyDiffResult {
+
+    private final List<TaskDependency.TaskDependencyId> added;
+    private final List<TaskDependency.TaskDependencyId> removed;
+}
@@ -0,0 +1,43 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import com.daaeboul.taskmanagementsystem.dto.BulkItemResult;
+import com.daaeboul.taskmanagementsystem.model.task.TaskDependency;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of one edge of a task dependency import.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskDependencyImportResult {
+
+    /**
+     * Position of the edge in the request.
+     */
+    private final int index;
+
+    /**
+     * The edge as given.
+     */
+    private final TaskDependency.TaskDependencyId id;
+
+    private final BulkItemResult.Outcome outcome;
+
+    /**
+     * Why the edge was not created, null if it was created or skipped.
+     */
+    private final String error;
+
+    public static TaskDependencyImportResult of(int index, TaskDependency.TaskDependencyId id, BulkItemResult.Outcome outcome) {
+        return new TaskDependencyImportResult(index, id, outcome, null);
+    }
+
+    public static TaskDependencyImportResult notFound(int index, TaskDependency.TaskDependencyId id, String error) {
+        return new TaskDependencyImportResult(index, id, BulkItemResult.Outcome.NOT_FOUND, error);
+    }
+
+    public static TaskDependencyImportResult failed(int index, TaskDependency.TaskDependencyId id, String error) {
+        return new TaskDependencyImportResult(index, id, BulkItemResult.Outcome.FAILED, error);
+    }
+}
@@ -0,0 +1,39 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import com.daaeboul.taskmanagementsystem.model.task.Task;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Read model of a single task: the summary fields plus the description and the IDs of the tasks on either side
+ * of its dependencies. Dependencies are returned as IDs rather than nested tasks to keep the response bounded.
+ */
+@Getter
+public class TaskDetail extends TaskSummary {
+
+    private final String taskDescription;
+
+    /**
+     * Optimistic lock version, sent as the entity tag of the response.
+     */
+    private final Long version;
+
+    /**
+     * IDs of the tasks this task depends on.
+     */
+    private final List<Long> dependsOnTaskIds;
+
+    /**
+     * IDs of the tasks that depend on this task.
+     */
+    private final List<Long> dependentTaskIds;
+
+    public TaskDetail(Task task, List<Long> dependsOnTaskIds, List<Long> dependentTaskIds) {
+        super(task);
+        this.taskDescription = task.getTaskDescription();
+        this.version = task.getVersion();
+        this.dependsOnTaskIds = dependsOnTaskIds;
+        this.dependentTaskIds = dependentTaskIds;
+    }
+}
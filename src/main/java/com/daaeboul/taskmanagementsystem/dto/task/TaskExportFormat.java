@@ -0,0 +1,25 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Output formats of the task export.
+ */
+@Getter
+@AllArgsConstructor
+public enum TaskExportFormat {
+
+    /**
+     * One JSON task summary per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * RFC 4180 CSV with a header row.
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+}
@@ -0,0 +1,17 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A task in the topological order of its project, with its level: 0 for a task without dependencies within the
+ * project, otherwise one more than the highest level among its dependencies. Tasks of the same level can be
+ * worked on in parallel.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskLevel {
+
+    private final int level;
+    private final TaskSummary task;
+}
@@ -0,0 +1,29 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Dashboard counts of the live tasks of a project.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskProjectStats {
+
+    private final Long projectId;
+    private final long total;
+    private final long completed;
+    private final long open;
+
+    /**
+     * Open tasks whose due date is before today.
+     */
+    private final long overdue;
+
+    private final List<TaskCount> byStatus;
+    private final List<TaskCount> byPriority;
+    private final List<TaskCount> byCategory;
+    private final List<TaskCount> byAssignee;
+}
@@ -0,0 +1,22 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Critical-path schedule of one task. Slack is the number of days the task can slip without delaying the
+ * project or missing its own due date; it is negative when the due date cannot be met.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskSchedule {
+
+    private final Long taskId;
+    private final LocalDate earliestStart;
+    private final LocalDate earliestFinish;
+    private final LocalDate latestFinish;
+    private final int slackDays;
+    private final boolean critical;
+}
@@ -0,0 +1,55 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Filters accepted by the task search endpoint. Every field is optional; the filters that are set are combined with AND.
+ */
+@Data
+@NoArgsConstructor
+public class TaskSearchCriteria {
+
+    /**
+     * Sort orders the search can serve from an index. Both are tie-broken on the task ID.
+     */
+    public enum SortKey {
+        ID,
+        DUE_DATE
+    }
+
+    private Long projectId;
+    private Long assigneeId;
+    private Long statusId;
+    private Long priorityId;
+    private Long categoryId;
+    private Long taskTypeId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueTo;
+
+    /**
+     * True for completed tasks only, false for incomplete tasks only, null for both.
+     */
+    private Boolean completed;
+
+    private SortKey sort = SortKey.ID;
+
+    /**
+     * Whether the search is narrowed by a column that leads one of the task indexes, so it never scans the whole table.
+     * A due date range alone only qualifies when sorting by due date: the due date index then serves both the range
+     * and the order, whereas sorting it by ID would need a sort of the whole range.
+     *
+     * @return True if a project or assignee is set, or a due date bound is set and the sort is by due date.
+     */
+    public boolean isIndexAnchored() {
+        return projectId != null || assigneeId != null
+                || (sort == SortKey.DUE_DATE && (dueFrom != null || dueTo != null));
+    }
+}
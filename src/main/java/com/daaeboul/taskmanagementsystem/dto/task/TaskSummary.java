@@ -0,0 +1,66 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import com.daaeboul.taskmanagementsystem.model.task.Task;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read model of a task for list responses. References are flattened to their ID and display name,
+ * so serializing a summary never touches a lazy association.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskSummary {
+
+    private final Long id;
+    private final String taskTitle;
+    private final LocalDate taskDueDate;
+    private final LocalDateTime completedAt;
+    private final Long assigneeId;
+    private final String assigneeUsername;
+    private final Long projectId;
+    private final String projectName;
+    private final Long statusId;
+    private final String statusName;
+    private final Long priorityId;
+    private final String priorityName;
+    private final Long categoryId;
+    private final String categoryName;
+    private final Long taskTypeId;
+    private final String taskTypeName;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    /**
+     * Builds a summary from a task whose references were fetched with the {@code Task.references} entity graph.
+     *
+     * @param task The task to summarize.
+     */
+    protected TaskSummary(Task task) {
+        this.id = task.getId();
+        this.taskTitle = task.getTaskTitle();
+        this.taskDueDate = task.getTaskDueDate();
+        this.completedAt = task.getCompletedAt();
+        this.assigneeId = task.getAssignee() == null ? null : task.getAssignee().getId();
+        this.assigneeUsername = task.getAssignee() == null ? null : task.getAssignee().getUsername();
+        this.projectId = task.getProject() == null ? null : task.getProject().getId();
+        this.projectName = task.getProject() == null ? null : task.getProject().getProjectName();
+        this.statusId = task.getStatus() == null ? null : task.getStatus().getId();
+        this.statusName = task.getStatus() == null ? null : task.getStatus().getStatusName();
+        this.priorityId = task.getPriority() == null ? null : task.getPriority().getId();
+        this.priorityName = task.getPriority() == null ? null : task.getPriority().getPriorityName();
+        this.categoryId = task.getCategory() == null ? null : task.getCategory().getId();
+        this.categoryName = task.getCategory() == null ? null : task.getCategory().getCategoryName();
+        this.taskTypeId = task.getTaskType() == null ? null : task.getTaskType().getId();
+        this.taskTypeName = task.getTaskType() == null ? null : task.getTaskType().getTaskTypeName();
+        this.createdAt = task.getCreatedAt();
+        this.updatedAt = task.getUpdatedAt();
+    }
+
+    public static TaskSummary from(Task task) {
+        return new TaskSummary(task);
+    }
+}
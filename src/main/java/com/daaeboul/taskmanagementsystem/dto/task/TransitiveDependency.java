@@ -0,0 +1,16 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A task reached by following dependency edges from another task, with its distance in edges:
+ * 1 for a direct dependency or dependent, 2 for one of theirs, and so on.
+ */
+@Getter
+@AllArgsConstructor
+public class TransitiveDependency {
+
+    private final int depth;
+    private final TaskSummary task;
+}
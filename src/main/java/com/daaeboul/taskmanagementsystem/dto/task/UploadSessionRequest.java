@@ -0,0 +1,28 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A request to start a resumable attachment upload.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionRequest {
+
+    private String fileName;
+    private String fileType;
+    private Long fileSize;
+
+    /**
+     * Size of every chunk but the last.
+     */
+    private Long chunkSize;
+
+    /**
+     * Hex SHA-256 of the whole file, or null.
+     */
+    private String checksum;
+}
@@ -0,0 +1,35 @@
+package com.daaeboul.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Progress of a resumable attachment upload: what has arrived, as byte ranges, and which chunks are still
+ * missing.
+ */
+@Getter
+@AllArgsConstructor
+public class UploadSessionStatus {
+
+    private final Long id;
+    private final Long taskId;
+    private final String fileName;
+    private final long fileSize;
+    private final long chunkSize;
+    private final int chunkCount;
+    private final List<ByteRange> receivedRanges;
+    private final List<Integer> missingChunks;
+
+    /**
+     * A range of bytes, with both ends inclusive as in a {@code Range} header.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ByteRange {
+
+        private final long first;
+        private final long last;
+    }
+}
@@ -0,0 +1,11 @@
+package com.daaeboul.taskmanagementsystem.exceptions.task.task;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class TaskValidationException extends RuntimeException {
+    public TaskValidationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.INTERNAL_SERVER_ERROR)
+public class TaskAttachmentStorageException extends RuntimeException {
+    public TaskAttachmentStorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
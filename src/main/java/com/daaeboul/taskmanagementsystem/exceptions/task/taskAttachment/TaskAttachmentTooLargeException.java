@@ -0,0 +1,11 @@
+package com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.PAYLOAD_TOO_LARGE)
+public class TaskAttachmentTooLargeException extends RuntimeException {
+    public TaskAttachmentTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an upload session cannot be committed in its current state: it is missing chunks, or it is being
+ * committed already.
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class UploadSessionConflictException extends RuntimeException {
+    public UploadSessionConflictException(String message) {
+        super(message);
+    }
+}
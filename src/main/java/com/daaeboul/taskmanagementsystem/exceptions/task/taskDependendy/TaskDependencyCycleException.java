@@ -0,0 +1,24 @@
+package com.daaeboul.taskmanagementsystem.exceptions.task.taskDependendy;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class TaskDependencyCycleException extends RuntimeException {
+
+    /**
+     * The task IDs along the cycle, starting and ending with the dependent task of the rejected edge.
+     */
+    private final List<Long> cycle;
+
+    public TaskDependencyCycleException(String message, List<Long> cycle) {
+        super(message);
+        this.cycle = List.copyOf(cycle);
+    }
+
+    public List<Long> getCycle() {
+        return cycle;
+    }
+}
@@ -18,7 +18,7 @@ import java.util.Set;
 @RequiredArgsConstructor
 @NoArgsConstructor
 @Table(name = "`group`") // Backticks are used because "group" is a reserved keyword in SQL
-@SQLDelete(sql = "UPDATE `group` SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE `group` SET deleted_at = NOW(), version = version + 1 WHERE id = ? AND version = ?")
 public class Group extends BaseEntity implements SoftDeletable {
 
 
@@ -19,7 +19,7 @@ import java.util.Set;
 @Setter
 @Entity
 @Table(name = "project")
-@SQLDelete(sql = "UPDATE project SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE project SET deleted_at = NOW(), version = version + 1 WHERE id = ? AND version = ?")
 public class Project extends BaseEntity implements SoftDeletable {
 
     @NotBlank
@@ -0,0 +1,57 @@
+package com.daaeboul.taskmanagementsystem.model.task;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * A unique attachment content in the blob store, shared by every attachment with the same SHA-256 checksum.
+ * The row exists exactly as long as at least one attachment references it; the blob is deleted with the row.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "attachment_blob")
+@EntityListeners(AuditingEntityListener.class)
+public class AttachmentBlob {
+
+    /**
+     * Lower-case hex SHA-256 of the content.
+     */
+    @Id
+    @Column(name = "checksum", length = 64)
+    private String checksum;
+
+    /**
+     * Key of the content in the blob store. A blob that is deleted and uploaded again gets a new key, so a late
+     * deletion of the old one never removes the new one.
+     */
+    @Column(name = "storage_key", nullable = false, length = 64)
+    private String storageKey;
+
+    @Column(name = "size", nullable = false)
+    private long size;
+
+    /**
+     * Number of attachments referencing the content.
+     */
+    @Column(name = "reference_count", nullable = false)
+    private int referenceCount;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public AttachmentBlob(String checksum, String storageKey, long size) {
+        this.checksum = checksum;
+        this.storageKey = storageKey;
+        this.size = size;
+        this.referenceCount = 1;
+    }
+}
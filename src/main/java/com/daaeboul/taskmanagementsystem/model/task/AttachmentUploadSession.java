@@ -0,0 +1,65 @@
+package com.daaeboul.taskmanagementsystem.model.task;
+
+import com.daaeboul.taskmanagementsystem.model.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A resumable upload of a task attachment. The client declares the size of the file and of its chunks up front,
+ * sends the chunks in any order, possibly in parallel and more than once, and commits the session once all of
+ * them have arrived. The chunks themselves are kept outside the database until then.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "attachment_upload_session")
+public class AttachmentUploadSession extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "task_id", nullable = false)
+    private Task task;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "file_type")
+    private String fileType;
+
+    @Column(name = "file_size", nullable = false)
+    private long fileSize;
+
+    /**
+     * Size of every chunk but the last, which holds the rest of the file.
+     */
+    @Column(name = "chunk_size", nullable = false)
+    private long chunkSize;
+
+    /**
+     * Lower-case hex SHA-256 the assembled file must have, or null to accept any content.
+     */
+    @Column(name = "checksum", length = 64)
+    private String checksum;
+
+    /**
+     * Set while the session is being committed, so that it is committed only once.
+     */
+    @Column(name = "committing", nullable = false)
+    private boolean committing;
+
+    /**
+     * Returns the number of chunks, rounding up without overflowing for chunk sizes near {@link Long#MAX_VALUE}.
+     */
+    public int getChunkCount() {
+        return (int) ((fileSize - 1) / chunkSize + 1);
+    }
+
+    /**
+     * Returns the size of a chunk.
+     *
+     * @param index The index of the chunk, less than the chunk count.
+     */
+    public long chunkSizeOf(int index) {
+        return index < getChunkCount() - 1 ? chunkSize : fileSize - (long) index * chunkSize;
+    }
+}
@@ -7,10 +7,13 @@ import com.daaeboul.taskmanagementsystem.model.project.Project;
 import com.daaeboul.taskmanagementsystem.model.user.User;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.SQLDelete;
 
 import java.time.LocalDate;
@@ -23,10 +26,35 @@ import java.util.Set;
 @Entity
 @NoArgsConstructor
 @EqualsAndHashCode(callSuper = true)
-@Table(name = "task")
-@SQLDelete(sql = "UPDATE task SET deleted_at = NOW() WHERE id = ?")
+@NamedEntityGraph(name = Task.REFERENCES_GRAPH, attributeNodes = {
+        @NamedAttributeNode("assignee"),
+        @NamedAttributeNode("project"),
+        @NamedAttributeNode("status"),
+        @NamedAttributeNode("priority"),
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("taskType")
+})
+@Table(name = "task", indexes = {
+        @Index(name = "idx_task_due_date", columnList = "task_due_date, id"),
+        @Index(name = "idx_task_completed_at", columnList = "completed_at, id"),
+        @Index(name = "idx_task_deleted_at", columnList = "deleted_at, id"),
+        @Index(name = "idx_task_updated_at", columnList = "updated_at, id, deleted_at"),
+        @Index(name = "idx_task_project_status", columnList = "project_id, status_id, id"),
+        @Index(name = "idx_task_project_due_date", columnList = "project_id, task_due_date, id"),
+        @Index(name = "idx_task_assignee_status", columnList = "assignee_id, status_id, id"),
+        @Index(name = "idx_task_assignee_due_date", columnList = "assignee_id, task_due_date, id"),
+        @Index(name = "idx_task_project_open_predecessors", columnList = "project_id, open_predecessor_count, id"),
+        @Index(name = "idx_task_assignee_open_predecessors", columnList = "assignee_id, open_predecessor_count, id")
+})
+@DynamicUpdate
+@SQLDelete(sql = "UPDATE task SET deleted_at = NOW(), updated_at = NOW(), version = version + 1 WHERE id = ? AND version = ?")
 public class Task extends BaseEntity implements SoftDeletable {
 
+    /**
+     * Entity graph that fetches every to-one reference in the same query as the task.
+     */
+    public static final String REFERENCES_GRAPH = "Task.references";
+
     @NotBlank
     @Column(name = "task_title", nullable = false)
     private String taskTitle;
@@ -41,6 +69,13 @@ public class Task extends BaseEntity implements SoftDeletable {
     @Column(name = "task_due_date")
     private LocalDate taskDueDate;
 
+    /**
+     * Estimated working time in days, used for critical-path scheduling; null when not estimated.
+     */
+    @PositiveOrZero
+    @Column(name = "estimated_duration_days")
+    private Integer estimatedDurationDays;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
@@ -64,6 +99,14 @@ public class Task extends BaseEntity implements SoftDeletable {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
 
+    /**
+     * Number of tasks this task depends on that are neither completed nor soft-deleted. Maintained by bulk
+     * recount statements in {@code TaskRepository}, never written through the entity.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "open_predecessor_count", nullable = false, insertable = false, updatable = false)
+    private int openPredecessorCount;
+
     // Implementing SoftDeletable
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
@@ -24,7 +24,24 @@ public class TaskAttachment extends BaseEntity {
     @Column(name = "file_size")
     private Long fileSize;
 
+    /**
+     * Content of attachments created through the JSON endpoint. Streamed uploads leave it empty and keep the
+     * content in the blob store instead.
+     */
     @Lob
     @Column(name = "file_content")
     private byte[] fileContent;
+
+    /**
+     * Key of the content in the {@link com.daaeboul.taskmanagementsystem.service.storage.BlobStore}, or null if
+     * the content is held in {@link #fileContent}.
+     */
+    @Column(name = "storage_key", length = 64)
+    private String storageKey;
+
+    /**
+     * Lower-case hex SHA-256 of the content, computed while it was uploaded.
+     */
+    @Column(name = "checksum", length = 64)
+    private String checksum;
 }
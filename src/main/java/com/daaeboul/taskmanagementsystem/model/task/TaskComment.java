@@ -14,7 +14,7 @@ import java.time.LocalDateTime;
 @Setter
 @Entity
 @Table(name = "task_comment")
-@SQLDelete(sql = "UPDATE task_comment SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE task_comment SET deleted_at = NOW(), version = version + 1 WHERE id = ? AND version = ?")
 public class TaskComment extends BaseEntity implements SoftDeletable {
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -20,7 +20,7 @@ import java.util.Set;
 @Entity
 @NoArgsConstructor
 @Table(name = "workflow")
-@SQLDelete(sql = "UPDATE workflow SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE workflow SET deleted_at = NOW(), version = version + 1 WHERE id = ? AND version = ?")
 public class Workflow extends BaseEntity implements SoftDeletable {
 
     @NonNull
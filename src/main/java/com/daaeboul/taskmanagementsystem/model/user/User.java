@@ -22,7 +22,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @RequiredArgsConstructor
 @Table(name = "user")
-@SQLDelete(sql = "UPDATE user SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE user SET deleted_at = NOW(), version = version + 1 WHERE id = ? AND version = ?")
 public class User extends BaseEntity implements SoftDeletable {
 
     @Size(min = 8)
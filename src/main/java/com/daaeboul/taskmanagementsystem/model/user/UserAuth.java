@@ -22,7 +22,7 @@ import java.time.LocalDateTime;
 @Setter
 @Entity
 @Table(name = "user_auth")
-@SQLDelete(sql = "UPDATE user_auth SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE user_auth SET deleted_at = NOW(), version = version + 1 WHERE id = ? AND version = ?")
 public class UserAuth extends BaseEntity implements SoftDeletable {
 
 
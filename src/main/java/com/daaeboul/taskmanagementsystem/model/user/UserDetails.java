@@ -23,7 +23,7 @@ import java.time.LocalDateTime;
 @Entity
 @NoArgsConstructor
 @Table(name = "user_details")
-@SQLDelete(sql = "UPDATE user_details SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE user_details SET deleted_at = NOW(), version = version + 1 WHERE id = ? AND version = ?")
 public class UserDetails extends BaseEntity implements SoftDeletable {
 
 
@@ -0,0 +1,26 @@
+package com.daaeboul.taskmanagementsystem.repository.task;
+
+import com.daaeboul.taskmanagementsystem.model.task.AttachmentBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AttachmentBlobRepository extends JpaRepository<AttachmentBlob, String> {
+
+    /**
+     * Finds the blob with the given checksum and locks its row until the end of the transaction, so that taking
+     * and releasing references to it are serialized.
+     *
+     * @param checksum The SHA-256 checksum of the content.
+     * @return An Optional containing the locked blob if the content is stored, otherwise empty.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM AttachmentBlob b WHERE b.checksum = :checksum")
+    Optional<AttachmentBlob> findByChecksumForUpdate(@Param("checksum") String checksum);
+}
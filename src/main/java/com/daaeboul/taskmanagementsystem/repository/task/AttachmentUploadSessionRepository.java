@@ -0,0 +1,37 @@
+package com.daaeboul.taskmanagementsystem.repository.task;
+
+import com.daaeboul.taskmanagementsystem.model.task.AttachmentUploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AttachmentUploadSessionRepository extends JpaRepository<AttachmentUploadSession, Long> {
+
+    /**
+     * Marks an upload session as being committed, or as no longer being committed, unless it already is.
+     *
+     * @param id         The ID of the upload session.
+     * @param committing Whether the session is being committed.
+     * @return 1 if the flag was changed, 0 if the session is not found or the flag already had that value.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AttachmentUploadSession s SET s.committing = :committing WHERE s.id = :id AND s.committing <> :committing")
+    int updateCommitting(@Param("id") Long id, @Param("committing") boolean committing);
+
+    /**
+     * Finds the upload sessions created before a point in time.
+     *
+     * @param createdAt The point in time.
+     * @return The IDs of the sessions.
+     */
+    @Query("SELECT s.id FROM AttachmentUploadSession s WHERE s.createdAt < :createdAt")
+    List<Long> findIdsCreatedBefore(@Param("createdAt") LocalDateTime createdAt);
+}
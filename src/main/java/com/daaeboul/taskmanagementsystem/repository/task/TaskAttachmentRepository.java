@@ -1,8 +1,11 @@
 package com.daaeboul.taskmanagementsystem.repository.task;
 
+import com.daaeboul.taskmanagementsystem.dto.task.TaskAttachmentMetadata;
 import com.daaeboul.taskmanagementsystem.model.task.TaskAttachment;
 import lombok.NonNull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -19,6 +22,17 @@ public interface TaskAttachmentRepository extends JpaRepository<TaskAttachment,
      */
     List<TaskAttachment> findByTaskId(Long taskId);
 
+    /**
+     * Lists the metadata of a task's attachments. Selects only the metadata columns, so the content is never read.
+     *
+     * @param taskId The ID of the task.
+     * @return The metadata of the task's attachments, oldest first.
+     */
+    @Query("SELECT new com.daaeboul.taskmanagementsystem.dto.task.TaskAttachmentMetadata(" +
+            "a.id, a.fileName, a.fileType, a.fileSize, a.checksum, a.createdAt) " +
+            "FROM TaskAttachment a WHERE a.task.id = :taskId ORDER BY a.id")
+    List<TaskAttachmentMetadata> findMetadataByTaskId(@Param("taskId") Long taskId);
+
     /**
      * Finds a task attachment by its ID.
      *
@@ -27,6 +41,17 @@ public interface TaskAttachmentRepository extends JpaRepository<TaskAttachment,
      */
     @NonNull Optional<TaskAttachment> findById(@NonNull Long id);
 
+    /**
+     * Finds the metadata of a task attachment by its ID, without reading its content.
+     *
+     * @param id The ID of the task attachment.
+     * @return An Optional containing the metadata if the attachment is found, otherwise empty.
+     */
+    @Query("SELECT new com.daaeboul.taskmanagementsystem.dto.task.TaskAttachmentMetadata(" +
+            "a.id, a.fileName, a.fileType, a.fileSize, a.checksum, a.createdAt) " +
+            "FROM TaskAttachment a WHERE a.id = :id")
+    Optional<TaskAttachmentMetadata> findMetadataById(@Param("id") Long id);
+
     /**
      * Finds task attachments by file name (case-insensitive).
      *
@@ -35,6 +60,17 @@ public interface TaskAttachmentRepository extends JpaRepository<TaskAttachment,
      */
     List<TaskAttachment> findByFileNameIgnoreCase(String fileName);
 
+    /**
+     * Finds the metadata of task attachments by file name (case-insensitive), without reading their content.
+     *
+     * @param fileName The file name to search for.
+     * @return The metadata of the attachments with the matching file name, oldest first.
+     */
+    @Query("SELECT new com.daaeboul.taskmanagementsystem.dto.task.TaskAttachmentMetadata(" +
+            "a.id, a.fileName, a.fileType, a.fileSize, a.checksum, a.createdAt) " +
+            "FROM TaskAttachment a WHERE LOWER(a.fileName) = LOWER(:fileName) ORDER BY a.id")
+    List<TaskAttachmentMetadata> findMetadataByFileNameIgnoreCase(@Param("fileName") String fileName);
+
     /**
      * Finds task attachments by file type (case-insensitive).
      *
@@ -43,6 +79,17 @@ public interface TaskAttachmentRepository extends JpaRepository<TaskAttachment,
      */
     List<TaskAttachment> findByFileTypeIgnoreCase(String fileType);
 
+    /**
+     * Finds the metadata of task attachments by file type (case-insensitive), without reading their content.
+     *
+     * @param fileType The file type to search for.
+     * @return The metadata of the attachments with the matching file type, oldest first.
+     */
+    @Query("SELECT new com.daaeboul.taskmanagementsystem.dto.task.TaskAttachmentMetadata(" +
+            "a.id, a.fileName, a.fileType, a.fileSize, a.checksum, a.createdAt) " +
+            "FROM TaskAttachment a WHERE LOWER(a.fileType) = LOWER(:fileType) ORDER BY a.id")
+    List<TaskAttachmentMetadata> findMetadataByFileTypeIgnoreCase(@Param("fileType") String fileType);
+
     /**
      * Checks if a task attachment exists with the given ID.
      *
@@ -50,4 +97,23 @@ public interface TaskAttachmentRepository extends JpaRepository<TaskAttachment,
      * @return True if a task attachment with the given ID exists, false otherwise.
      */
     boolean existsById(@NonNull Long id);
+
+    /**
+     * Checks if a task has an attachment with the given content.
+     *
+     * @param taskId   The ID of the task.
+     * @param checksum The hex SHA-256 checksum of the content.
+     * @return True if one of the task's attachments has content with that checksum, false otherwise.
+     */
+    boolean existsByTaskIdAndChecksum(Long taskId, String checksum);
+
+    /**
+     * Finds the checksum of a task attachment whose content is in the blob store, without loading the attachment.
+     *
+     * @param id The ID of the task attachment.
+     * @return An Optional containing the checksum, or empty if the attachment is not found or keeps its content
+     * in the row.
+     */
+    @Query("SELECT a.checksum FROM TaskAttachment a WHERE a.id = :id AND a.storageKey IS NOT NULL")
+    Optional<String> findStoredChecksumById(@Param("id") Long id);
 }
@@ -0,0 +1,16 @@
+package com.daaeboul.taskmanagementsystem.repository.task;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position and state of a task in the change feed. Every column is part of {@code idx_task_updated_at},
+ * so reading keys never touches the table rows.
+ */
+public interface TaskChangeKey {
+
+    Long getId();
+
+    LocalDateTime getUpdatedAt();
+
+    LocalDateTime getDeletedAt();
+}
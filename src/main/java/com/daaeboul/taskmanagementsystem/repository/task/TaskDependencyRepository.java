@@ -5,10 +5,12 @@ import com.daaeboul.taskmanagementsystem.model.task.TaskDependency.TaskDependenc
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -93,4 +95,93 @@ public interface TaskDependencyRepository extends JpaRepository<TaskDependency,
      */
     @Query("SELECT td.task FROM TaskDependency td WHERE td.dependsOnTask.id = :taskId")
     List<Task> findDirectDependentsForTask(@Param("taskId") Long taskId);
-}
\ No newline at end of file
+
+    /**
+     * Finds the IDs of the tasks that a given task directly depends on, without loading any entity.
+     *
+     * @param taskId the ID of the task that has dependencies
+     * @return the IDs of the tasks the given task depends on
+     */
+    @Query("SELECT td.id.dependsOnTaskId FROM TaskDependency td WHERE td.id.taskId = :taskId")
+    List<Long> findDependsOnTaskIds(@Param("taskId") Long taskId);
+
+    /**
+     * Finds the IDs of the tasks that directly depend on a given task, without loading any entity.
+     *
+     * @param taskId the ID of the task that other tasks depend on
+     * @return the IDs of the tasks that depend on the given task
+     */
+    @Query("SELECT td.id.taskId FROM TaskDependency td WHERE td.id.dependsOnTaskId = :taskId")
+    List<Long> findDependentTaskIds(@Param("taskId") Long taskId);
+
+    /**
+     * Finds which of the given tasks a task directly depends on, reading only the matching index entries.
+     *
+     * @param taskId the ID of the task that has dependencies
+     * @param ids    the IDs of the candidate prerequisite tasks
+     * @return the subset of the IDs the task depends on
+     */
+    @Query("SELECT td.id.dependsOnTaskId FROM TaskDependency td WHERE td.id.taskId = :taskId AND td.id.dependsOnTaskId IN :ids")
+    List<Long> findDependsOnTaskIdsIn(@Param("taskId") Long taskId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds which of the given tasks directly depend on a task, reading only the matching index entries.
+     *
+     * @param taskId the ID of the task that other tasks depend on
+     * @param ids    the IDs of the candidate dependent tasks
+     * @return the subset of the IDs that depend on the task
+     */
+    @Query("SELECT td.id.taskId FROM TaskDependency td WHERE td.id.dependsOnTaskId = :taskId AND td.id.taskId IN :ids")
+    List<Long> findDependentTaskIdsIn(@Param("taskId") Long taskId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the dependencies of a task on the given tasks in one statement, without loading them.
+     *
+     * @param taskId the ID of the task that has the dependencies
+     * @param ids    the IDs of the prerequisite tasks
+     * @return the number of dependencies deleted
+     */
+    @Modifying
+    @Query("DELETE FROM TaskDependency td WHERE td.id.taskId = :taskId AND td.id.dependsOnTaskId IN :ids")
+    int deleteDependencies(@Param("taskId") Long taskId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the dependencies of the given tasks on a task in one statement, without loading them.
+     *
+     * @param taskId the ID of the task that the others depend on
+     * @param ids    the IDs of the dependent tasks
+     * @return the number of dependencies deleted
+     */
+    @Modifying
+    @Query("DELETE FROM TaskDependency td WHERE td.id.dependsOnTaskId = :taskId AND td.id.taskId IN :ids")
+    int deleteDependents(@Param("taskId") Long taskId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the dependency edges whose dependent task belongs to a project.
+     *
+     * @param projectId the ID of the project
+     * @return the edges, without loading any entity
+     */
+    @Query("SELECT td.id.taskId AS taskId, td.id.dependsOnTaskId AS dependsOnTaskId FROM TaskDependency td " +
+            "WHERE td.task.project.id = :projectId")
+    List<TaskEdge> findEdgesFromProject(@Param("projectId") Long projectId);
+
+    /**
+     * Finds the dependency edges whose prerequisite task belongs to a project.
+     *
+     * @param projectId the ID of the project
+     * @return the edges, without loading any entity
+     */
+    @Query("SELECT td.id.taskId AS taskId, td.id.dependsOnTaskId AS dependsOnTaskId FROM TaskDependency td " +
+            "WHERE td.dependsOnTask.project.id = :projectId")
+    List<TaskEdge> findEdgesIntoProject(@Param("projectId") Long projectId);
+
+    /**
+     * Finds the dependency edges that touch a task without a project on either side.
+     *
+     * @return the edges, without loading any entity
+     */
+    @Query("SELECT td.id.taskId AS taskId, td.id.dependsOnTaskId AS dependsOnTaskId FROM TaskDependency td " +
+            "WHERE td.task.project IS NULL OR td.dependsOnTask.project IS NULL")
+    List<TaskEdge> findEdgesWithoutProject();
+}
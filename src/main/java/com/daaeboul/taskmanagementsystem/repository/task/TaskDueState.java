@@ -0,0 +1,20 @@
+package com.daaeboul.taskmanagementsystem.repository.task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a task that decide whether it is overdue.
+ */
+public interface TaskDueState {
+
+    Long getId();
+
+    Long getProjectId();
+
+    LocalDate getTaskDueDate();
+
+    LocalDateTime getCompletedAt();
+
+    LocalDateTime getDeletedAt();
+}
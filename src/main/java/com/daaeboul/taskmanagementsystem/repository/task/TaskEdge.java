@@ -0,0 +1,11 @@
+package com.daaeboul.taskmanagementsystem.repository.task;
+
+/**
+ * A dependency edge read without loading either task: {@code taskId} depends on {@code dependsOnTaskId}.
+ */
+public interface TaskEdge {
+
+    Long getTaskId();
+
+    Long getDependsOnTaskId();
+}
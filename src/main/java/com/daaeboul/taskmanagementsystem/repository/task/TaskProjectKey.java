@@ -0,0 +1,11 @@
+package com.daaeboul.taskmanagementsystem.repository.task;
+
+/**
+ * The project of a task, with 0 standing for tasks that belong to no project.
+ */
+public interface TaskProjectKey {
+
+    Long getId();
+
+    Long getProjectKey();
+}
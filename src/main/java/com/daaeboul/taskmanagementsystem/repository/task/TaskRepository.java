@@ -1,5 +1,6 @@
 package com.daaeboul.taskmanagementsystem.repository.task;
 
+import com.daaeboul.taskmanagementsystem.dto.task.TaskCount;
 import com.daaeboul.taskmanagementsystem.model.transition.Status;
 import com.daaeboul.taskmanagementsystem.model.project.Project;
 import com.daaeboul.taskmanagementsystem.model.task.Category;
@@ -7,15 +8,32 @@ import com.daaeboul.taskmanagementsystem.model.task.Task;
 import com.daaeboul.taskmanagementsystem.model.task.TaskPriority;
 import com.daaeboul.taskmanagementsystem.model.user.User;
 import com.daaeboul.taskmanagementsystem.repository.BaseSoftDeletableRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface TaskRepository extends BaseSoftDeletableRepository<Task, Long> {
+public interface TaskRepository extends BaseSoftDeletableRepository<Task, Long>, JpaSpecificationExecutor<Task> {
+
+    /**
+     * Finds all tasks together with all of their to-one references. The list queries below fetch the same graph,
+     * so their results can be turned into {@code TaskSummary} rows without a query per reference.
+     *
+     * @return A list of all tasks.
+     */
+    @Override
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    List<Task> findAll();
 
     /**
      * Finds tasks assigned to a specific user.
@@ -23,6 +41,7 @@ public interface TaskRepository extends BaseSoftDeletableRepository<Task, Long>
      * @param assignee The user to whom the tasks are assigned.
      * @return A list of tasks assigned to the specified user.
      */
+    @EntityGraph(Task.REFERENCES_GRAPH)
     List<Task> findByAssignee(User assignee);
 
     /**
@@ -31,6 +50,7 @@ public interface TaskRepository extends BaseSoftDeletableRepository<Task, Long>
      * @param category The category of the tasks to search for.
      * @return A list of tasks belonging to the specified category.
      */
+    @EntityGraph(Task.REFERENCES_GRAPH)
     List<Task> findByCategory(Category category);
 
     /**
@@ -39,6 +59,7 @@ public interface TaskRepository extends BaseSoftDeletableRepository<Task, Long>
      * @param priority The priority of the tasks to search for.
      * @return A list of tasks with the specified priority.
      */
+    @EntityGraph(Task.REFERENCES_GRAPH)
     List<Task> findByPriority(TaskPriority priority);
 
     /**
@@ -47,6 +68,7 @@ public interface TaskRepository extends BaseSoftDeletableRepository<Task, Long>
      * @param project The project associated with the tasks to search for.
      * @return A list of tasks associated with the specified project.
      */
+    @EntityGraph(Task.REFERENCES_GRAPH)
     List<Task> findByProject(Project project);
 
     /**
@@ -55,6 +77,7 @@ public interface TaskRepository extends BaseSoftDeletableRepository<Task, Long>
      * @param status The status of the tasks to search for.
      * @return A list of tasks with the specified status.
      */
+    @EntityGraph(Task.REFERENCES_GRAPH)
     List<Task> findByStatus(Status status);
 
     /**
@@ -63,6 +86,7 @@ public interface TaskRepository extends BaseSoftDeletableRepository<Task, Long>
      * @param date The date to compare with task due dates.
      * @return A list of tasks with due dates before the specified date.
      */
+    @EntityGraph(Task.REFERENCES_GRAPH)
     List<Task> findByTaskDueDateBefore(LocalDate date);
 
     /**
@@ -71,6 +95,7 @@ public interface TaskRepository extends BaseSoftDeletableRepository<Task, Long>
      * @param date The date to compare with task due dates.
      * @return A list of tasks with due dates after the specified date.
      */
+    @EntityGraph(Task.REFERENCES_GRAPH)
     List<Task> findByTaskDueDateAfter(LocalDate date);
 
     /**
@@ -80,6 +105,7 @@ public interface TaskRepository extends BaseSoftDeletableRepository<Task, Long>
      * @param endDate   The end date of the range to compare with task due dates.
      * @return A list of tasks with due dates within the specified range.
      */
+    @EntityGraph(Task.REFERENCES_GRAPH)
     List<Task> findByTaskDueDateBetween(LocalDate startDate, LocalDate endDate);
 
     /**
@@ -87,6 +113,7 @@ public interface TaskRepository extends BaseSoftDeletableRepository<Task, Long>
      *
      * @return A list of incomplete tasks.
      */
+    @EntityGraph(Task.REFERENCES_GRAPH)
     List<Task> findByCompletedAtIsNull();
 
     /**
@@ -94,6 +121,7 @@ public interface TaskRepository extends BaseSoftDeletableRepository<Task, Long>
      *
      * @return A list of completed tasks.
      */
+    @EntityGraph(Task.REFERENCES_GRAPH)
     List<Task> findByCompletedAtIsNotNull();
 
     /**
@@ -103,17 +131,22 @@ public interface TaskRepository extends BaseSoftDeletableRepository<Task, Long>
      * @param status   The status of the tasks to search for.
      * @return A list of tasks matching the given assignee and status criteria.
      */
+    @EntityGraph(Task.REFERENCES_GRAPH)
     @Query("SELECT t FROM Task t WHERE t.assignee = :assignee AND t.status = :status")
     List<Task> findTasksByAssigneeAndStatus(@Param("assignee") User assignee, @Param("status") Status status);
 
     /**
      * Finds overdue tasks for a specific project.
      *
+     * Completed and soft-deleted tasks are never overdue.
+     *
      * @param project The project for which to find overdue tasks.
      * @param date    The reference date to determine if a task is overdue.
      * @return A list of overdue tasks for the given project.
      */
-    @Query("SELECT t FROM Task t WHERE t.project = :project AND t.taskDueDate < :date")
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    @Query("SELECT t FROM Task t WHERE t.project = :project AND t.taskDueDate < :date " +
+            "AND t.completedAt IS NULL AND t.deletedAt IS NULL ORDER BY t.taskDueDate, t.id")
     List<Task> findOverdueTasksByProject(@Param("project") Project project, @Param("date") LocalDate date);
 
 
@@ -122,6 +155,430 @@ public interface TaskRepository extends BaseSoftDeletableRepository<Task, Long>
      *
      * @return A list of soft-deleted tasks.
      */
+    @EntityGraph(Task.REFERENCES_GRAPH)
     @Query("SELECT t FROM Task t WHERE t.deletedAt IS NOT NULL")
     List<Task> findAllDeleted();
+
+    /**
+     * Finds a task by ID together with all of its to-one references.
+     *
+     * @param id The ID of the task.
+     * @return An Optional containing the task with its references initialized, otherwise empty.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    @Query("SELECT t FROM Task t WHERE t.id = :id")
+    Optional<Task> findWithReferencesById(@Param("id") Long id);
+
+    /**
+     * Reads only the version of a task, served from the primary key without loading the row into the persistence context.
+     *
+     * @param id The ID of the task.
+     * @return An Optional containing the version if the task exists, otherwise empty.
+     */
+    @Query("SELECT t.version FROM Task t WHERE t.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Finds tasks by ID together with all of their to-one references, including soft-deleted ones.
+     *
+     * @param ids The IDs of the tasks.
+     * @return The tasks found, in no particular order.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    @Query("SELECT t FROM Task t WHERE t.id IN :ids")
+    List<Task> findWithReferencesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /*
+     * Keyset (seek) pagination.
+     *
+     * Every method below returns the rows that sort strictly after a given (sort key, id) position,
+     * in (sort key, id) order. Callers pass an unsorted Pageable of page 0, so Hibernate emits a plain
+     * LIMIT without OFFSET and the cost of a page does not depend on how deep into the listing it is.
+     * The to-one references are fetched in the same query, so a page costs one statement.
+     */
+
+    /**
+     * Finds the next page of tasks ordered by ID.
+     *
+     * @param afterId  The ID of the last task of the previous page, 0 for the first page.
+     * @param pageable Page size, must be page 0.
+     * @return Up to {@code pageable.getPageSize()} tasks with an ID greater than {@code afterId}.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    List<Task> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Finds the next page of tasks assigned to a specific user, ordered by ID.
+     *
+     * @param assigneeId The ID of the user to whom the tasks are assigned.
+     * @param afterId    The ID of the last task of the previous page, 0 for the first page.
+     * @param pageable   Page size, must be page 0.
+     * @return The next page of tasks assigned to the specified user.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    List<Task> findByAssigneeIdAndIdGreaterThanOrderByIdAsc(Long assigneeId, Long afterId, Pageable pageable);
+
+    /**
+     * Finds the next page of tasks belonging to a specific category, ordered by ID.
+     *
+     * @param categoryId The ID of the category.
+     * @param afterId    The ID of the last task of the previous page, 0 for the first page.
+     * @param pageable   Page size, must be page 0.
+     * @return The next page of tasks belonging to the specified category.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    List<Task> findByCategoryIdAndIdGreaterThanOrderByIdAsc(Long categoryId, Long afterId, Pageable pageable);
+
+    /**
+     * Finds the next page of tasks with a specific priority, ordered by ID.
+     *
+     * @param priorityId The ID of the priority.
+     * @param afterId    The ID of the last task of the previous page, 0 for the first page.
+     * @param pageable   Page size, must be page 0.
+     * @return The next page of tasks with the specified priority.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    List<Task> findByPriorityIdAndIdGreaterThanOrderByIdAsc(Long priorityId, Long afterId, Pageable pageable);
+
+    /**
+     * Finds the next page of tasks associated with a specific project, ordered by ID.
+     *
+     * @param projectId The ID of the project.
+     * @param afterId   The ID of the last task of the previous page, 0 for the first page.
+     * @param pageable  Page size, must be page 0.
+     * @return The next page of tasks associated with the specified project.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    List<Task> findByProjectIdAndIdGreaterThanOrderByIdAsc(Long projectId, Long afterId, Pageable pageable);
+
+    /**
+     * Finds the next page of tasks with a specific status, ordered by ID.
+     *
+     * @param statusId The ID of the status.
+     * @param afterId  The ID of the last task of the previous page, 0 for the first page.
+     * @param pageable Page size, must be page 0.
+     * @return The next page of tasks with the specified status.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    List<Task> findByStatusIdAndIdGreaterThanOrderByIdAsc(Long statusId, Long afterId, Pageable pageable);
+
+    /**
+     * Finds the next page of tasks assigned to a specific user and having a particular status, ordered by ID.
+     *
+     * @param assigneeId The ID of the assignee.
+     * @param statusId   The ID of the status.
+     * @param afterId    The ID of the last task of the previous page, 0 for the first page.
+     * @param pageable   Page size, must be page 0.
+     * @return The next page of tasks matching the given assignee and status.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    List<Task> findByAssigneeIdAndStatusIdAndIdGreaterThanOrderByIdAsc(Long assigneeId, Long statusId, Long afterId, Pageable pageable);
+
+    /**
+     * Finds the next page of incomplete tasks, ordered by ID.
+     *
+     * @param afterId  The ID of the last task of the previous page, 0 for the first page.
+     * @param pageable Page size, must be page 0.
+     * @return The next page of tasks with a null completedAt.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    List<Task> findByCompletedAtIsNullAndIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Finds the next page of completed tasks, ordered by ID.
+     *
+     * @param afterId  The ID of the last task of the previous page, 0 for the first page.
+     * @param pageable Page size, must be page 0.
+     * @return The next page of tasks with a non-null completedAt.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    List<Task> findByCompletedAtIsNotNullAndIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Finds the next page of soft-deleted tasks, ordered by ID.
+     *
+     * @param afterId  The ID of the last task of the previous page, 0 for the first page.
+     * @param pageable Page size, must be page 0.
+     * @return The next page of tasks with a non-null deletedAt.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    List<Task> findByDeletedAtIsNotNullAndIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Finds the next page of tasks due before a specific date, ordered by due date and ID.
+     *
+     * @param date         The exclusive upper bound for the due date.
+     * @param afterDueDate The due date of the last task of the previous page, {@code TaskCursor.FIRST_DATE} for the first page.
+     * @param afterId      The ID of the last task of the previous page, 0 for the first page.
+     * @param pageable     Page size, must be page 0.
+     * @return The next page of tasks due before the specified date.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    @Query("SELECT t FROM Task t WHERE t.taskDueDate < :date " +
+            "AND t.taskDueDate >= :afterDueDate AND (t.taskDueDate > :afterDueDate OR t.id > :afterId) " +
+            "ORDER BY t.taskDueDate, t.id")
+    List<Task> findDueBeforeAfterCursor(@Param("date") LocalDate date, @Param("afterDueDate") LocalDate afterDueDate,
+                                        @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Finds the next page of tasks due after a specific date, ordered by due date and ID.
+     *
+     * @param date         The exclusive lower bound for the due date.
+     * @param afterDueDate The due date of the last task of the previous page, {@code TaskCursor.FIRST_DATE} for the first page.
+     * @param afterId      The ID of the last task of the previous page, 0 for the first page.
+     * @param pageable     Page size, must be page 0.
+     * @return The next page of tasks due after the specified date.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    @Query("SELECT t FROM Task t WHERE t.taskDueDate > :date " +
+            "AND t.taskDueDate >= :afterDueDate AND (t.taskDueDate > :afterDueDate OR t.id > :afterId) " +
+            "ORDER BY t.taskDueDate, t.id")
+    List<Task> findDueAfterAfterCursor(@Param("date") LocalDate date, @Param("afterDueDate") LocalDate afterDueDate,
+                                       @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Finds the next page of tasks due between two dates (inclusive), ordered by due date and ID.
+     *
+     * @param startDate    The start date of the range.
+     * @param endDate      The end date of the range.
+     * @param afterDueDate The due date of the last task of the previous page, {@code TaskCursor.FIRST_DATE} for the first page.
+     * @param afterId      The ID of the last task of the previous page, 0 for the first page.
+     * @param pageable     Page size, must be page 0.
+     * @return The next page of tasks due within the specified range.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    @Query("SELECT t FROM Task t WHERE t.taskDueDate BETWEEN :startDate AND :endDate " +
+            "AND t.taskDueDate >= :afterDueDate AND (t.taskDueDate > :afterDueDate OR t.id > :afterId) " +
+            "ORDER BY t.taskDueDate, t.id")
+    List<Task> findDueBetweenAfterCursor(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+                                         @Param("afterDueDate") LocalDate afterDueDate, @Param("afterId") Long afterId,
+                                         Pageable pageable);
+
+    /**
+     * Finds the next page of overdue tasks for a specific project, ordered by due date and ID.
+     * Completed and soft-deleted tasks are never overdue.
+     *
+     * @param projectId    The ID of the project.
+     * @param date         The reference date to determine if a task is overdue.
+     * @param afterDueDate The due date of the last task of the previous page, {@code TaskCursor.FIRST_DATE} for the first page.
+     * @param afterId      The ID of the last task of the previous page, 0 for the first page.
+     * @param pageable     Page size, must be page 0.
+     * @return The next page of overdue tasks for the given project.
+     */
+    @EntityGraph(Task.REFERENCES_GRAPH)
+    @Query("SELECT t FROM Task t WHERE t.project.id = :projectId AND t.taskDueDate < :date " +
+            "AND t.completedAt IS NULL AND t.deletedAt IS NULL " +
+            "AND t.taskDueDate >= :afterDueDate AND (t.taskDueDate > :afterDueDate OR t.id > :afterId) " +
+            "ORDER BY t.taskDueDate, t.id")
+    List<Task> findOverdueByProjectAfterCursor(@Param("projectId") Long projectId, @Param("date") LocalDate date,
+                                               @Param("afterDueDate") LocalDate afterDueDate, @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
+    /**
+     * Finds which of the given IDs belong to tasks that are not soft-deleted.
+     *
+     * @param ids The IDs to check.
+     * @return The subset of the IDs that belong to live tasks.
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.id IN :ids AND t.deletedAt IS NULL")
+    List<Long> findLiveIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Soft-deletes the given tasks in a single statement.
+     *
+     * @param ids The IDs of the tasks to delete.
+     * @param now The deletion timestamp.
+     * @return The number of tasks deleted.
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.deletedAt = :now, t.updatedAt = :now, t.version = t.version + 1 " +
+            "WHERE t.id IN :ids AND t.deletedAt IS NULL")
+    int softDeleteAllById(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Finds the next page of the change feed: tasks created, updated or soft-deleted after a cursor position,
+     * ordered by update time then ID. Served from {@code idx_task_updated_at} alone.
+     *
+     * @param afterUpdatedAt The update time of the last change of the previous page.
+     * @param afterId        The ID of the last change of the previous page, 0 for the first page.
+     * @param until          Exclusive upper bound on the update time.
+     * @param pageable       Page size, must be page 0.
+     * @return The keys of the next changes.
+     */
+    @Query("SELECT t.id AS id, t.updatedAt AS updatedAt, t.deletedAt AS deletedAt FROM Task t " +
+            "WHERE t.updatedAt >= :afterUpdatedAt AND (t.updatedAt > :afterUpdatedAt OR t.id > :afterId) " +
+            "AND t.updatedAt < :until ORDER BY t.updatedAt, t.id")
+    List<TaskChangeKey> findChangesAfterCursor(@Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                                               @Param("afterId") Long afterId,
+                                               @Param("until") LocalDateTime until,
+                                               Pageable pageable);
+
+    /**
+     * Counts the live tasks of a project, how many of them are completed and how many are open and overdue.
+     *
+     * @param projectId The ID of the project.
+     * @param today     The date before which an open task is overdue.
+     * @return The totals of the project.
+     */
+    @Query("SELECT COUNT(t) AS total, " +
+            "SUM(CASE WHEN t.completedAt IS NOT NULL THEN 1 ELSE 0 END) AS completed, " +
+            "SUM(CASE WHEN t.completedAt IS NULL AND t.taskDueDate < :today THEN 1 ELSE 0 END) AS overdue " +
+            "FROM Task t WHERE t.project.id = :projectId AND t.deletedAt IS NULL")
+    TaskTotals countTotalsByProject(@Param("projectId") Long projectId, @Param("today") LocalDate today);
+
+    /**
+     * Counts the live tasks of a project per status.
+     *
+     * @param projectId The ID of the project.
+     * @return One count per status in use, largest first.
+     */
+    @Query("SELECT new com.daaeboul.taskmanagementsystem.dto.task.TaskCount(s.id, s.statusName, COUNT(t)) " +
+            "FROM Task t LEFT JOIN t.status s WHERE t.project.id = :projectId AND t.deletedAt IS NULL " +
+            "GROUP BY s.id, s.statusName ORDER BY COUNT(t) DESC")
+    List<TaskCount> countByStatus(@Param("projectId") Long projectId);
+
+    /**
+     * Counts the live tasks of a project per priority.
+     *
+     * @param projectId The ID of the project.
+     * @return One count per priority in use, largest first.
+     */
+    @Query("SELECT new com.daaeboul.taskmanagementsystem.dto.task.TaskCount(p.id, p.priorityName, COUNT(t)) " +
+            "FROM Task t LEFT JOIN t.priority p WHERE t.project.id = :projectId AND t.deletedAt IS NULL " +
+            "GROUP BY p.id, p.priorityName ORDER BY COUNT(t) DESC")
+    List<TaskCount> countByPriority(@Param("projectId") Long projectId);
+
+    /**
+     * Counts the live tasks of a project per category.
+     *
+     * @param projectId The ID of the project.
+     * @return One count per category in use, largest first.
+     */
+    @Query("SELECT new com.daaeboul.taskmanagementsystem.dto.task.TaskCount(c.id, c.categoryName, COUNT(t)) " +
+            "FROM Task t LEFT JOIN t.category c WHERE t.project.id = :projectId AND t.deletedAt IS NULL " +
+            "GROUP BY c.id, c.categoryName ORDER BY COUNT(t) DESC")
+    List<TaskCount> countByCategory(@Param("projectId") Long projectId);
+
+    /**
+     * Counts the live tasks of a project per assignee.
+     *
+     * @param projectId The ID of the project.
+     * @return One count per assignee, largest first.
+     */
+    @Query("SELECT new com.daaeboul.taskmanagementsystem.dto.task.TaskCount(u.id, u.username, COUNT(t)) " +
+            "FROM Task t LEFT JOIN t.assignee u WHERE t.project.id = :projectId AND t.deletedAt IS NULL " +
+            "GROUP BY u.id, u.username ORDER BY COUNT(t) DESC")
+    List<TaskCount> countByAssignee(@Param("projectId") Long projectId);
+
+    /**
+     * Reads the due state of the open, live tasks due within a range of days.
+     *
+     * @param from  The first due date, inclusive.
+     * @param until The last due date, exclusive.
+     * @return The due states of the matching tasks.
+     */
+    @Query("SELECT t.id AS id, t.project.id AS projectId, t.taskDueDate AS taskDueDate, " +
+            "t.completedAt AS completedAt, t.deletedAt AS deletedAt FROM Task t " +
+            "WHERE t.taskDueDate >= :from AND t.taskDueDate < :until AND t.completedAt IS NULL AND t.deletedAt IS NULL")
+    List<TaskDueState> findOpenDueStatesBetween(@Param("from") LocalDate from, @Param("until") LocalDate until);
+
+    /**
+     * Reads the due state of the given tasks, whether or not they are open.
+     *
+     * @param ids The IDs of the tasks.
+     * @return The due states of the tasks that exist.
+     */
+    @Query("SELECT t.id AS id, t.project.id AS projectId, t.taskDueDate AS taskDueDate, " +
+            "t.completedAt AS completedAt, t.deletedAt AS deletedAt FROM Task t WHERE t.id IN :ids")
+    List<TaskDueState> findDueStatesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the project of a task.
+     *
+     * @param id The ID of the task.
+     * @return An Optional containing the project ID, or 0 if the task belongs to no project; empty if the task does not exist.
+     */
+    @Query("SELECT COALESCE(t.project.id, 0) FROM Task t WHERE t.id = :id")
+    Optional<Long> findProjectKeyById(@Param("id") Long id);
+
+    /**
+     * Finds the projects of the given tasks.
+     *
+     * @param ids The IDs of the tasks.
+     * @return The project of each task that exists, 0 for tasks without a project.
+     */
+    @Query("SELECT t.id AS id, COALESCE(t.project.id, 0) AS projectKey FROM Task t WHERE t.id IN :ids")
+    List<TaskProjectKey> findProjectKeysByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the IDs of all tasks of a project, including soft-deleted ones.
+     *
+     * @param projectId The ID of the project.
+     * @return The IDs of the tasks of the project.
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.project.id = :projectId")
+    List<Long> findIdsByProjectId(@Param("projectId") Long projectId);
+
+    /**
+     * Finds the IDs of all tasks that belong to no project, including soft-deleted ones.
+     *
+     * @return The IDs of the tasks without a project.
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.project IS NULL")
+    List<Long> findIdsWithoutProject();
+
+    /**
+     * Finds the scheduling columns of the tasks of a project that are not soft-deleted.
+     *
+     * @param projectId The ID of the project.
+     * @return One row per task, without loading any entity.
+     */
+    @Query("SELECT t.id AS id, t.taskDueDate AS taskDueDate, t.estimatedDurationDays AS estimatedDurationDays, " +
+            "t.completedAt AS completedAt FROM Task t WHERE t.project.id = :projectId AND t.deletedAt IS NULL")
+    List<TaskScheduleState> findScheduleStatesByProjectId(@Param("projectId") Long projectId);
+
+    /**
+     * Finds the scheduling columns of the given tasks that are not soft-deleted.
+     *
+     * @param ids The IDs of the tasks.
+     * @return One row per live task, without loading any entity.
+     */
+    @Query("SELECT t.id AS id, t.taskDueDate AS taskDueDate, t.estimatedDurationDays AS estimatedDurationDays, " +
+            "t.completedAt AS completedAt FROM Task t WHERE t.id IN :ids AND t.deletedAt IS NULL")
+    List<TaskScheduleState> findScheduleStatesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Recomputes the number of open predecessors of the given tasks from their dependencies.
+     * Pending changes are flushed first so that the count sees them. Only tasks whose count changes are written,
+     * and they get a new version and update time like any other change, so their ETags and the change feed
+     * follow readiness. Managed instances of those tasks are left stale.
+     *
+     * @param ids The IDs of the tasks to recount.
+     * @return The number of tasks whose count changed.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Task t SET t.openPredecessorCount = (SELECT COUNT(td) FROM TaskDependency td " +
+            "WHERE td.task = t AND td.dependsOnTask.completedAt IS NULL AND td.dependsOnTask.deletedAt IS NULL), " +
+            "t.version = t.version + 1, t.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE t.id IN :ids AND t.openPredecessorCount <> (SELECT COUNT(td) FROM TaskDependency td " +
+            "WHERE td.task = t AND td.dependsOnTask.completedAt IS NULL AND td.dependsOnTask.deletedAt IS NULL)")
+    int recountOpenPredecessors(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Recomputes the number of open predecessors of every task that depends on one of the given tasks, after their
+     * completion or deletion changed. Pending changes are flushed first so that the count sees them. The dependents
+     * are found through the dependency rows, so this does not work after a deletion that removed those rows.
+     * As with {@link #recountOpenPredecessors}, only tasks whose count changes are written, with a new version.
+     *
+     * @param ids The IDs of the tasks whose dependents to recount.
+     * @return The number of tasks whose count changed.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Task t SET t.openPredecessorCount = (SELECT COUNT(td) FROM TaskDependency td " +
+            "WHERE td.task = t AND td.dependsOnTask.completedAt IS NULL AND td.dependsOnTask.deletedAt IS NULL), " +
+            "t.version = t.version + 1, t.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE t.id IN (SELECT d.id.taskId FROM TaskDependency d WHERE d.id.dependsOnTaskId IN :ids) " +
+            "AND t.openPredecessorCount <> (SELECT COUNT(td) FROM TaskDependency td " +
+            "WHERE td.task = t AND td.dependsOnTask.completedAt IS NULL AND td.dependsOnTask.deletedAt IS NULL)")
+    int recountOpenPredecessorsOfDependents(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,18 @@
+package com.daaeboul.taskmanagementsystem.repository.task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a task that critical-path scheduling reads.
+ */
+public interface TaskScheduleState {
+
+    Long getId();
+
+    LocalDate getTaskDueDate();
+
+    Integer getEstimatedDurationDays();
+
+    LocalDateTime getCompletedAt();
+}
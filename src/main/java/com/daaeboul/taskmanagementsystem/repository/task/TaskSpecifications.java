@@ -0,0 +1,119 @@
+package com.daaeboul.taskmanagementsystem.repository.task;
+
+import com.daaeboul.taskmanagementsystem.dto.task.TaskCursor;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSearchCriteria;
+import com.daaeboul.taskmanagementsystem.model.task.Task;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Building blocks for dynamic task queries. Each factory returns null when its argument is null,
+ * which {@link Specification#where} and {@link Specification#and} treat as "no restriction".
+ */
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    /**
+     * Combines every filter set on the criteria into one specification. Soft-deleted tasks are always excluded.
+     *
+     * @param criteria The search filters.
+     * @return A specification matching tasks that satisfy all set filters.
+     */
+    public static Specification<Task> matching(TaskSearchCriteria criteria) {
+        return Specification.where(notDeleted())
+                .and(hasProject(criteria.getProjectId()))
+                .and(hasAssignee(criteria.getAssigneeId()))
+                .and(hasStatus(criteria.getStatusId()))
+                .and(hasPriority(criteria.getPriorityId()))
+                .and(hasCategory(criteria.getCategoryId()))
+                .and(hasTaskType(criteria.getTaskTypeId()))
+                .and(dueOnOrAfter(criteria.getDueFrom()))
+                .and(dueOnOrBefore(criteria.getDueTo()))
+                .and(completed(criteria.getCompleted()));
+    }
+
+    public static Specification<Task> notDeleted() {
+        return (root, query, cb) -> cb.isNull(root.get("deletedAt"));
+    }
+
+    public static Specification<Task> hasProject(Long projectId) {
+        return projectId == null ? null : (root, query, cb) -> cb.equal(root.get("project").get("id"), projectId);
+    }
+
+    public static Specification<Task> hasAssignee(Long assigneeId) {
+        return assigneeId == null ? null : (root, query, cb) -> cb.equal(root.get("assignee").get("id"), assigneeId);
+    }
+
+    public static Specification<Task> hasStatus(Long statusId) {
+        return statusId == null ? null : (root, query, cb) -> cb.equal(root.get("status").get("id"), statusId);
+    }
+
+    public static Specification<Task> hasPriority(Long priorityId) {
+        return priorityId == null ? null : (root, query, cb) -> cb.equal(root.get("priority").get("id"), priorityId);
+    }
+
+    public static Specification<Task> hasCategory(Long categoryId) {
+        return categoryId == null ? null : (root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId);
+    }
+
+    public static Specification<Task> hasTaskType(Long taskTypeId) {
+        return taskTypeId == null ? null : (root, query, cb) -> cb.equal(root.get("taskType").get("id"), taskTypeId);
+    }
+
+    public static Specification<Task> dueOnOrAfter(LocalDate date) {
+        return date == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("taskDueDate"), date);
+    }
+
+    public static Specification<Task> dueOnOrBefore(LocalDate date) {
+        return date == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("taskDueDate"), date);
+    }
+
+    public static Specification<Task> completed(Boolean completed) {
+        if (completed == null) {
+            return null;
+        }
+        return completed
+                ? (root, query, cb) -> cb.isNotNull(root.get("completedAt"))
+                : (root, query, cb) -> cb.isNull(root.get("completedAt"));
+    }
+
+    /**
+     * Open tasks whose predecessors are all completed or deleted, so work on them can start.
+     */
+    public static Specification<Task> ready() {
+        return (root, query, cb) -> cb.and(
+                cb.equal(root.get("openPredecessorCount"), 0),
+                cb.isNull(root.get("completedAt")));
+    }
+
+    /**
+     * Open tasks that still wait for at least one open predecessor.
+     */
+    public static Specification<Task> blocked() {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThan(root.get("openPredecessorCount"), 0),
+                cb.isNull(root.get("completedAt")));
+    }
+
+    /**
+     * Seek predicate for keyset pagination: rows strictly after the cursor position in the given sort order.
+     *
+     * @param sort   The sort order of the listing.
+     * @param cursor The position of the last row of the previous page, or null for the first page.
+     * @return The seek predicate, or null if no cursor was given and nothing needs to be skipped.
+     */
+    public static Specification<Task> after(TaskSearchCriteria.SortKey sort, TaskCursor cursor) {
+        if (sort == TaskSearchCriteria.SortKey.DUE_DATE) {
+            LocalDate afterDueDate = cursor == null ? TaskCursor.FIRST_DATE : cursor.sortValueAsDate();
+            long afterId = cursor == null ? 0L : cursor.getId();
+            return (root, query, cb) -> cb.and(
+                    cb.greaterThanOrEqualTo(root.get("taskDueDate"), afterDueDate),
+                    cb.or(cb.greaterThan(root.get("taskDueDate"), afterDueDate),
+                            cb.greaterThan(root.get("id"), afterId)));
+        }
+        return cursor == null ? null : (root, query, cb) -> cb.greaterThan(root.get("id"), cursor.getId());
+    }
+}
@@ -0,0 +1,13 @@
+package com.daaeboul.taskmanagementsystem.repository.task;
+
+/**
+ * Completion totals of a set of tasks. The sums are null when the set is empty.
+ */
+public interface TaskTotals {
+
+    Long getTotal();
+
+    Long getCompleted();
+
+    Long getOverdue();
+}
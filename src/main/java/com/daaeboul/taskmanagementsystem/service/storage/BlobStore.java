@@ -0,0 +1,54 @@
+package com.daaeboul.taskmanagementsystem.service.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Storage for file contents kept outside the database. Contents are written once and addressed by the key the
+ * store assigns; rows referencing them keep only the key.
+ */
+public interface BlobStore {
+
+    /**
+     * Streams content into the store, computing its size and SHA-256 checksum on the way, without holding more
+     * than a buffer of it in memory. Nothing is left behind if writing fails.
+     *
+     * @param content The content to store; read to its end but not closed.
+     * @return The key, size and checksum of the stored blob.
+     * @throws BlobTooLargeException If the content is larger than the store accepts; it is read no further.
+     * @throws IOException           If reading the content or writing the blob fails.
+     */
+    StoredBlob store(InputStream content) throws IOException;
+
+    /**
+     * Opens a stored blob for reading.
+     *
+     * @param key The key of the blob.
+     * @return A stream over the content, to be closed by the caller.
+     * @throws java.nio.file.NoSuchFileException If there is no blob with the key.
+     * @throws IOException                       If the blob cannot be opened.
+     */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Returns a stored blob as a resource, so that it can be served, in whole or in ranges, straight from the
+     * store. The resource opens the content only when it is read.
+     *
+     * @param key The key of the blob.
+     * @return The blob as a resource with a known content length.
+     * @throws java.nio.file.NoSuchFileException If there is no blob with the key.
+     * @throws IOException                       If the blob cannot be accessed.
+     */
+    Resource resource(String key) throws IOException;
+
+    /**
+     * Deletes a stored blob.
+     *
+     * @param key The key of the blob.
+     * @return True if the blob existed.
+     * @throws IOException If the blob cannot be deleted.
+     */
+    boolean delete(String key) throws IOException;
+}
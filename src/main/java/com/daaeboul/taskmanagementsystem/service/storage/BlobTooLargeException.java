@@ -0,0 +1,19 @@
+package com.daaeboul.taskmanagementsystem.service.storage;
+
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * Thrown by a {@link BlobStore} when content exceeds the largest size it accepts. Nothing of the content is kept.
+ */
+@Getter
+public class BlobTooLargeException extends IOException {
+
+    private final long maxSize;
+
+    public BlobTooLargeException(long maxSize) {
+        super("Content exceeds the maximum size of " + maxSize + " bytes");
+        this.maxSize = maxSize;
+    }
+}
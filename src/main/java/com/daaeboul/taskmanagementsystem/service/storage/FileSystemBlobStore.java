@@ -0,0 +1,114 @@
+package com.daaeboul.taskmanagementsystem.service.storage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * {@link BlobStore} on the local filesystem, the default. A blob lives at {@code <root>/<first two characters of
+ * its key>/<key>}, which keeps directories small. Content is first written to a temporary file under
+ * {@code <root>/tmp} and moved into place once complete, so a blob is never visible half written. Content larger
+ * than the configured maximum is abandoned as soon as it grows past it, whatever the request declared.
+ */
+@Component
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{32,64}");
+
+    private final Path root;
+    private final long maxSize;
+
+    @Autowired
+    public FileSystemBlobStore(@Value("${attachments.storage.root:data/attachments}") String root,
+                               @Value("${attachments.storage.max-size:2GB}") DataSize maxSize) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.maxSize = maxSize.toBytes();
+    }
+
+    @Override
+    public StoredBlob store(InputStream content) throws IOException {
+        Path tmp = Files.createDirectories(root.resolve("tmp"));
+        Path file = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (OutputStream out = Files.newOutputStream(file)) {
+                for (int read; (read = content.read(buffer)) >= 0; ) {
+                    size += read;
+                    if (size > maxSize) {
+                        throw new BlobTooLargeException(maxSize);
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            String key = UUID.randomUUID().toString().replace("-", "");
+            Path target = pathOf(key);
+            Files.createDirectories(target.getParent());
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            return new StoredBlob(key, size, HexFormat.of().formatHex(digest.digest()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(pathOf(key));
+    }
+
+    /**
+     * Returns the blob as a {@link FileSystemResource}, which reads it through a {@link java.nio.channels.FileChannel}
+     * and skips to a range by moving the channel's position rather than reading up to it.
+     */
+    @Override
+    public Resource resource(String key) throws IOException {
+        Path file = pathOf(key);
+        if (!Files.isRegularFile(file)) {
+            throw new NoSuchFileException(file.toString());
+        }
+        return new FileSystemResource(file);
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(pathOf(key));
+    }
+
+    /**
+     * Resolves a key to its file, rejecting anything that is not a key this store could have assigned.
+     */
+    Path pathOf(String key) {
+        if (key == null || !KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
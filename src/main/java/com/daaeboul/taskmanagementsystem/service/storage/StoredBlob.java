@@ -0,0 +1,20 @@
+package com.daaeboul.taskmanagementsystem.service.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A blob written to a {@link BlobStore}.
+ */
+@Getter
+@AllArgsConstructor
+public class StoredBlob {
+
+    private final String key;
+    private final long size;
+
+    /**
+     * Lower-case hex SHA-256 of the content.
+     */
+    private final String checksum;
+}
@@ -0,0 +1,263 @@
+package com.daaeboul.taskmanagementsystem.service.storage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Chunks of resumable uploads, kept on the local filesystem until the upload is committed. The chunks of an
+ * upload session live at {@code <root>/sessions/<session ID>/<chunk index>}. A chunk is written to a temporary
+ * file next to its final name and moved into place once complete, so chunks can be written in parallel, and a
+ * chunk that is sent again simply replaces the earlier copy. Every chunk written also touches the session's
+ * directory, whose modification time is therefore the time the session was last active.
+ * <p>
+ * A session's directory is created with the session, and chunks are only written into an existing directory.
+ * Committing a session first seals it, renaming its directory to {@code <root>/sealed/<session ID>} in one atomic
+ * step; from then on no write can change or add a chunk, and nothing can recreate the directory once the session
+ * has ended.
+ */
+@Component
+public class UploadChunkStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern NUMBER = Pattern.compile("[0-9]{1,18}");
+
+    private final Path sessions;
+    private final Path sealed;
+
+    @Autowired
+    public UploadChunkStore(@Value("${attachments.storage.root:data/attachments}") String root) {
+        Path base = Paths.get(root).toAbsolutePath().normalize();
+        this.sessions = base.resolve("sessions");
+        this.sealed = base.resolve("sealed");
+    }
+
+    /**
+     * Creates the directory of a new session, into which its chunks can then be written.
+     *
+     * @param sessionId The ID of the upload session.
+     * @throws IOException If the directory cannot be created.
+     */
+    public void create(long sessionId) throws IOException {
+        Files.createDirectories(directoryOf(sessionId));
+    }
+
+    /**
+     * Writes one chunk of a session, replacing any earlier copy, if it has the expected size. Reads no more than
+     * one byte past the expected size, so an oversized chunk cannot fill the disk.
+     *
+     * @param sessionId    The ID of the upload session.
+     * @param index        The index of the chunk.
+     * @param content      The content of the chunk; read to its end, or one byte past the expected size, but not
+     *                     closed.
+     * @param expectedSize The size the chunk must have.
+     * @return True if the chunk was stored, false if it had a different size and nothing was stored.
+     * @throws NoSuchFileException If the session has no directory, or was sealed or deleted before the chunk was
+     *                             moved into place; nothing was stored then.
+     * @throws IOException         If reading the content or writing the chunk fails.
+     */
+    public boolean write(long sessionId, int index, InputStream content, long expectedSize) throws IOException {
+        Path directory = directoryOf(sessionId);
+        Path file = Files.createTempFile(directory, index + ".", ".part");
+        try {
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (OutputStream out = Files.newOutputStream(file)) {
+                for (int read; size <= expectedSize
+                        && (read = content.read(buffer, 0, (int) Math.min(buffer.length, expectedSize + 1 - size))) >= 0; ) {
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+            if (size != expectedSize) {
+                return false;
+            }
+            Files.move(file, directory.resolve(Integer.toString(index)),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Seals a session for its commit: moves its directory aside in one atomic rename, so that a chunk write in
+     * progress fails when it moves its chunk into place and later writes find no directory to write into. The
+     * sealed directory is touched, so the session counts as active from the start of its commit.
+     *
+     * @param sessionId The ID of the upload session.
+     * @return True if the session was sealed, false if it has no directory to seal.
+     * @throws IOException If the directory cannot be moved.
+     */
+    public boolean seal(long sessionId) throws IOException {
+        Path target = sealedDirectoryOf(sessionId);
+        Files.createDirectories(sealed);
+        try {
+            Files.move(directoryOf(sessionId), target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+        return true;
+    }
+
+    /**
+     * Reopens a sealed session for writing, after a commit that failed. Does nothing if the session is not sealed.
+     *
+     * @param sessionId The ID of the upload session.
+     * @throws IOException If the directory cannot be moved back.
+     */
+    public void unseal(long sessionId) throws IOException {
+        try {
+            Files.move(sealedDirectoryOf(sessionId), directoryOf(sessionId), StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            // Not sealed.
+        }
+    }
+
+    /**
+     * Lists the complete chunks of a session, sealed or not.
+     *
+     * @param sessionId  The ID of the upload session.
+     * @param chunkCount The number of chunks of the session; chunks at or beyond it are ignored.
+     * @return The indexes of the chunks that have been written.
+     * @throws IOException If the session's directory cannot be listed.
+     */
+    public BitSet received(long sessionId, int chunkCount) throws IOException {
+        BitSet received = new BitSet(chunkCount);
+        for (Path directory : new Path[]{directoryOf(sessionId), sealedDirectoryOf(sessionId)}) {
+            try (DirectoryStream<Path> chunks = Files.newDirectoryStream(directory)) {
+                for (Path chunk : chunks) {
+                    String name = chunk.getFileName().toString();
+                    if (NUMBER.matcher(name).matches() && Long.parseLong(name) < chunkCount) {
+                        received.set(Integer.parseInt(name));
+                    }
+                }
+                break;
+            } catch (NoSuchFileException e) {
+                // Not in this state.
+            }
+        }
+        return received;
+    }
+
+    /**
+     * Opens the chunks of a sealed session as one stream, in order. Each chunk is opened only when the one before
+     * it has been read, and read straight from its file; since the session is sealed, none of them can change
+     * in the meantime.
+     *
+     * @param sessionId  The ID of the upload session.
+     * @param chunkCount The number of chunks, all of which must have been written.
+     * @return The content of the whole upload, to be closed by the caller.
+     */
+    public InputStream open(long sessionId, int chunkCount) {
+        Path directory = sealedDirectoryOf(sessionId);
+        return new SequenceInputStream(new Enumeration<>() {
+            private int next;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < chunkCount;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                try {
+                    return Files.newInputStream(directory.resolve(Integer.toString(next++)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns when a session last received a chunk, or was sealed.
+     *
+     * @param sessionId The ID of the upload session.
+     * @return The time, or null if the session has no directory.
+     * @throws IOException If the session's directory cannot be read.
+     */
+    public Instant lastModified(long sessionId) throws IOException {
+        for (Path directory : new Path[]{directoryOf(sessionId), sealedDirectoryOf(sessionId)}) {
+            try {
+                return Files.getLastModifiedTime(directory).toInstant();
+            } catch (NoSuchFileException e) {
+                // Not in this state.
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lists the sessions, sealed or not, that have a directory but have received no chunk and not been sealed
+     * since a point in time.
+     *
+     * @param cutoff The point in time.
+     * @return The IDs of the sessions.
+     * @throws IOException If the sessions cannot be listed.
+     */
+    public List<Long> idleSince(Instant cutoff) throws IOException {
+        List<Long> idle = new ArrayList<>();
+        for (Path parent : new Path[]{sessions, sealed}) {
+            try (DirectoryStream<Path> directories = Files.newDirectoryStream(parent)) {
+                for (Path directory : directories) {
+                    String name = directory.getFileName().toString();
+                    if (NUMBER.matcher(name).matches()
+                            && Files.getLastModifiedTime(directory).toInstant().isBefore(cutoff)) {
+                        idle.add(Long.parseLong(name));
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // No session has been written or sealed yet.
+            }
+        }
+        return idle;
+    }
+
+    /**
+     * Deletes every chunk of a session, sealed or not, including chunks still being written.
+     *
+     * @param sessionId The ID of the upload session.
+     * @throws IOException If a chunk cannot be deleted.
+     */
+    public void delete(long sessionId) throws IOException {
+        for (Path directory : new Path[]{directoryOf(sessionId), sealedDirectoryOf(sessionId)}) {
+            try (DirectoryStream<Path> chunks = Files.newDirectoryStream(directory)) {
+                for (Path chunk : chunks) {
+                    Files.deleteIfExists(chunk);
+                }
+            } catch (NoSuchFileException e) {
+                continue;
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    Path directoryOf(long sessionId) {
+        return sessions.resolve(Long.toString(sessionId));
+    }
+
+    Path sealedDirectoryOf(long sessionId) {
+        return sealed.resolve(Long.toString(sessionId));
+    }
+}
@@ -0,0 +1,15 @@
+package com.daaeboul.taskmanagementsystem.service.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by {@link TaskAttachmentService} when the last attachment referencing a blob is deleted. The blob is
+ * removed from the store once the transaction has committed, so a rollback never leaves a row without content.
+ */
+@Getter
+@AllArgsConstructor
+public class AttachmentBlobReleasedEvent {
+
+    private final String storageKey;
+}
@@ -0,0 +1,318 @@
+package com.daaeboul.taskmanagementsystem.service.task;
+
+import com.daaeboul.taskmanagementsystem.dto.task.UploadSessionRequest;
+import com.daaeboul.taskmanagementsystem.dto.task.UploadSessionStatus;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskValidationException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.TaskAttachmentStorageException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.TaskAttachmentTooLargeException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.UploadSessionConflictException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.UploadSessionNotFoundException;
+import com.daaeboul.taskmanagementsystem.model.task.AttachmentUploadSession;
+import com.daaeboul.taskmanagementsystem.model.task.TaskAttachment;
+import com.daaeboul.taskmanagementsystem.repository.task.AttachmentUploadSessionRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import com.daaeboul.taskmanagementsystem.service.storage.UploadChunkStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Resumable uploads of task attachments. A session is created with the size of the file and of its chunks; the
+ * chunks are then written in any order, in parallel or again after a failure, and kept by the
+ * {@link UploadChunkStore} until the session is committed. Committing streams the chunks, in order and straight
+ * from their files, through {@link TaskAttachmentService#uploadTaskAttachment}, so the assembled file gets the
+ * same checksum verification and deduplication as a single-request upload. The commit seals the session's chunks
+ * before it reads them, so a chunk written concurrently either fails or is complete before the commit starts.
+ * <p>
+ * Sessions that receive no chunk for the idle timeout are deleted with their chunks by an hourly sweep.
+ */
+@Service
+public class AttachmentUploadService {
+
+    /**
+     * The largest number of chunks a session may have.
+     */
+    public static final int MAX_CHUNK_COUNT = 10_000;
+
+    private static final Pattern CHECKSUM = Pattern.compile("[0-9a-fA-F]{64}");
+
+    private final AttachmentUploadSessionRepository uploadSessionRepository;
+    private final TaskRepository taskRepository;
+    private final TaskAttachmentService taskAttachmentService;
+    private final UploadChunkStore chunkStore;
+    private final long maxSize;
+    private final Duration idleTimeout;
+    private final Clock clock;
+
+    @Autowired
+    public AttachmentUploadService(AttachmentUploadSessionRepository uploadSessionRepository,
+                                   TaskRepository taskRepository, TaskAttachmentService taskAttachmentService,
+                                   UploadChunkStore chunkStore,
+                                   @Value("${attachments.storage.max-size:2GB}") DataSize maxSize,
+                                   @Value("${attachments.upload-session.idle-timeout:PT24H}") Duration idleTimeout) {
+        this(uploadSessionRepository, taskRepository, taskAttachmentService, chunkStore, maxSize, idleTimeout,
+                Clock.systemDefaultZone());
+    }
+
+    AttachmentUploadService(AttachmentUploadSessionRepository uploadSessionRepository, TaskRepository taskRepository,
+                            TaskAttachmentService taskAttachmentService, UploadChunkStore chunkStore,
+                            DataSize maxSize, Duration idleTimeout, Clock clock) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.taskRepository = taskRepository;
+        this.taskAttachmentService = taskAttachmentService;
+        this.chunkStore = chunkStore;
+        this.maxSize = maxSize.toBytes();
+        this.idleTimeout = idleTimeout;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts a resumable upload of an attachment to a task.
+     *
+     * @param taskId  The ID of the task to which the attachment will belong.
+     * @param request The name, type, size and checksum of the file, and the size of its chunks.
+     * @return The status of the new session, with every chunk missing.
+     * @throws TaskNotFoundException   If the task is not found.
+     * @throws TaskValidationException If the file name is blank, the sizes are not positive, the file would
+     *                                 have more than {@link #MAX_CHUNK_COUNT} chunks or the checksum is malformed.
+     * @throws TaskAttachmentTooLargeException If the file is larger than the blob store accepts.
+     * @throws TaskAttachmentStorageException  If the session's chunk directory cannot be created.
+     */
+    @Transactional
+    public UploadSessionStatus createUploadSession(Long taskId, UploadSessionRequest request) {
+        if (request.getFileName() == null || request.getFileName().isBlank()) {
+            throw new TaskValidationException("File name must not be blank");
+        }
+        if (request.getFileSize() == null || request.getFileSize() <= 0
+                || request.getChunkSize() == null || request.getChunkSize() <= 0) {
+            throw new TaskValidationException("File size and chunk size must be positive");
+        }
+        if (request.getFileSize() > maxSize) {
+            throw new TaskAttachmentTooLargeException("An attachment cannot be larger than " + maxSize + " bytes");
+        }
+        if ((request.getFileSize() - 1) / request.getChunkSize() >= MAX_CHUNK_COUNT) {
+            throw new TaskValidationException("An upload cannot have more than " + MAX_CHUNK_COUNT + " chunks");
+        }
+        if (request.getChecksum() != null && !CHECKSUM.matcher(request.getChecksum()).matches()) {
+            throw new TaskValidationException("Checksum must be a hex SHA-256 digest");
+        }
+        if (!taskRepository.existsById(taskId)) {
+            throw new TaskNotFoundException("Task not found with ID: " + taskId);
+        }
+        AttachmentUploadSession session = new AttachmentUploadSession();
+        session.setTask(taskRepository.getReferenceById(taskId));
+        session.setFileName(request.getFileName());
+        session.setFileType(request.getFileType());
+        session.setFileSize(request.getFileSize());
+        session.setChunkSize(request.getChunkSize());
+        session.setChecksum(request.getChecksum() == null ? null : request.getChecksum().toLowerCase(Locale.ROOT));
+        AttachmentUploadSession saved = uploadSessionRepository.save(session);
+        try {
+            chunkStore.create(saved.getId());
+        } catch (IOException e) {
+            throw new TaskAttachmentStorageException("Failed to create upload session for task " + taskId, e);
+        }
+        return statusOf(saved, new BitSet());
+    }
+
+    /**
+     * Reports which parts of a file have arrived.
+     *
+     * @param sessionId The ID of the upload session.
+     * @return The status of the session.
+     * @throws UploadSessionNotFoundException If the upload session is not found.
+     */
+    public UploadSessionStatus findUploadSessionStatus(Long sessionId) {
+        AttachmentUploadSession session = findUploadSession(sessionId);
+        return statusOf(session, received(session));
+    }
+
+    /**
+     * Writes one chunk of a file, replacing the chunk if it was written before. Chunks of a session may be written
+     * concurrently, but not once the session is being committed, since the commit may already be reading them.
+     * The committing flag turns most such writes away early; the seal of the chunks is what guarantees it, and
+     * also keeps a write from recreating the chunks of a session that has ended.
+     *
+     * @param sessionId The ID of the upload session.
+     * @param index     The index of the chunk, from 0.
+     * @param content   The content of the chunk; not closed.
+     * @throws UploadSessionNotFoundException If the upload session is not found.
+     * @throws UploadSessionConflictException If the session is being committed or has ended.
+     * @throws TaskValidationException        If the index is out of range or the chunk does not have its size.
+     * @throws TaskAttachmentStorageException If the chunk cannot be stored.
+     */
+    public void writeChunk(Long sessionId, int index, InputStream content) {
+        AttachmentUploadSession session = findUploadSession(sessionId);
+        if (session.isCommitting()) {
+            throw new UploadSessionConflictException("Upload session " + sessionId + " is being committed");
+        }
+        if (index < 0 || index >= session.getChunkCount()) {
+            throw new TaskValidationException("Chunk index must be between 0 and " + (session.getChunkCount() - 1));
+        }
+        long expectedSize = session.chunkSizeOf(index);
+        boolean stored;
+        try {
+            stored = chunkStore.write(sessionId, index, content, expectedSize);
+        } catch (NoSuchFileException e) {
+            throw new UploadSessionConflictException("Upload session " + sessionId + " is being committed or has ended");
+        } catch (IOException e) {
+            throw new TaskAttachmentStorageException("Failed to store chunk " + index + " of upload session " + sessionId, e);
+        }
+        if (!stored) {
+            throw new TaskValidationException("Chunk " + index + " must be " + expectedSize + " bytes long");
+        }
+    }
+
+    /**
+     * Assembles the chunks of a file into a task attachment and ends the session. Only one commit of a session
+     * runs at a time, and it seals the chunks before reading them; if it fails, the session and its chunks are
+     * kept, unsealed, and the commit can be retried.
+     *
+     * @param sessionId The ID of the upload session.
+     * @return The created task attachment.
+     * @throws UploadSessionNotFoundException If the upload session is not found.
+     * @throws UploadSessionConflictException If chunks are missing or the session is already being committed.
+     * @throws TaskNotFoundException          If the task has been deleted since the session was created.
+     * @throws TaskValidationException        If the file does not match the checksum given for it.
+     * @throws TaskAttachmentStorageException If the chunks cannot be read or the file cannot be stored.
+     */
+    public TaskAttachment commitUploadSession(Long sessionId) {
+        AttachmentUploadSession session = findUploadSession(sessionId);
+        if (uploadSessionRepository.updateCommitting(sessionId, true) == 0) {
+            throw new UploadSessionConflictException("Upload session " + sessionId + " is already being committed");
+        }
+        TaskAttachment attachment;
+        try {
+            attachment = assemble(session);
+        } catch (RuntimeException e) {
+            try {
+                chunkStore.unseal(sessionId);
+            } catch (IOException unsealFailure) {
+                // Chunks can no longer be replaced, but a retried commit still finds them sealed.
+                e.addSuppressed(unsealFailure);
+            }
+            uploadSessionRepository.updateCommitting(sessionId, false);
+            throw e;
+        }
+        uploadSessionRepository.deleteById(sessionId);
+        deleteChunks(sessionId);
+        return attachment;
+    }
+
+    private TaskAttachment assemble(AttachmentUploadSession session) {
+        try {
+            chunkStore.seal(session.getId());
+        } catch (IOException e) {
+            throw new TaskAttachmentStorageException("Failed to seal upload session " + session.getId(), e);
+        }
+        int missing = session.getChunkCount() - received(session).cardinality();
+        if (missing > 0) {
+            throw new UploadSessionConflictException("Upload session " + session.getId() + " is missing " + missing + " chunks");
+        }
+        try (InputStream content = chunkStore.open(session.getId(), session.getChunkCount())) {
+            return taskAttachmentService.uploadTaskAttachment(session.getTask().getId(), session.getFileName(),
+                    session.getFileType(), session.getChecksum(), content);
+        } catch (IOException | UncheckedIOException e) {
+            throw new TaskAttachmentStorageException("Failed to read chunks of upload session " + session.getId(), e);
+        }
+    }
+
+    /**
+     * Abandons an upload, deleting the session and its chunks.
+     *
+     * @param sessionId The ID of the upload session.
+     * @throws UploadSessionNotFoundException If the upload session is not found.
+     */
+    public void deleteUploadSession(Long sessionId) {
+        if (!uploadSessionRepository.existsById(sessionId)) {
+            throw new UploadSessionNotFoundException("Upload session not found with ID: " + sessionId);
+        }
+        uploadSessionRepository.deleteById(sessionId);
+        deleteChunks(sessionId);
+    }
+
+    /**
+     * Deletes the sessions that have received no chunk for the idle timeout, and the chunks of sessions that no
+     * longer exist, such as chunks written while their session was being deleted.
+     */
+    @Scheduled(cron = "0 30 * * * *", zone = "UTC")
+    public void deleteAbandonedUploadSessions() {
+        Instant cutoff = clock.instant().minus(idleTimeout);
+        try {
+            for (Long id : uploadSessionRepository.findIdsCreatedBefore(LocalDateTime.now(clock).minus(idleTimeout))) {
+                Instant lastChunk = chunkStore.lastModified(id);
+                if (lastChunk == null || lastChunk.isBefore(cutoff)) {
+                    uploadSessionRepository.deleteById(id);
+                    chunkStore.delete(id);
+                }
+            }
+            for (Long id : chunkStore.idleSince(cutoff)) {
+                if (!uploadSessionRepository.existsById(id)) {
+                    chunkStore.delete(id);
+                }
+            }
+        } catch (IOException e) {
+            throw new TaskAttachmentStorageException("Failed to delete abandoned upload sessions", e);
+        }
+    }
+
+    private AttachmentUploadSession findUploadSession(Long sessionId) {
+        return uploadSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new UploadSessionNotFoundException("Upload session not found with ID: " + sessionId));
+    }
+
+    private BitSet received(AttachmentUploadSession session) {
+        try {
+            return chunkStore.received(session.getId(), session.getChunkCount());
+        } catch (IOException e) {
+            throw new TaskAttachmentStorageException("Failed to list chunks of upload session " + session.getId(), e);
+        }
+    }
+
+    /**
+     * Deletes the chunks of a session that has ended. A failure only leaves files behind for the sweep to
+     * delete, so it is dropped.
+     */
+    private void deleteChunks(Long sessionId) {
+        try {
+            chunkStore.delete(sessionId);
+        } catch (IOException e) {
+            // Deleted by the next sweep.
+        }
+    }
+
+    private static UploadSessionStatus statusOf(AttachmentUploadSession session, BitSet received) {
+        int chunkCount = session.getChunkCount();
+        List<UploadSessionStatus.ByteRange> ranges = new ArrayList<>();
+        for (int first = received.nextSetBit(0); first >= 0; ) {
+            int end = received.nextClearBit(first);
+            ranges.add(new UploadSessionStatus.ByteRange(first * session.getChunkSize(),
+                    end < chunkCount ? end * session.getChunkSize() - 1 : session.getFileSize() - 1));
+            first = received.nextSetBit(end);
+        }
+        List<Integer> missing = new ArrayList<>(chunkCount - received.cardinality());
+        for (int i = received.nextClearBit(0); i < chunkCount; i = received.nextClearBit(i + 1)) {
+            missing.add(i);
+        }
+        return new UploadSessionStatus(session.getId(), session.getTask().getId(), session.getFileName(),
+                session.getFileSize(), session.getChunkSize(), chunkCount, ranges, missing);
+    }
+}
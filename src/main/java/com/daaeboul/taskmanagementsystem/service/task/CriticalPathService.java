@@ -0,0 +1,316 @@
+package com.daaeboul.taskmanagementsystem.service.task;
+
+import com.daaeboul.taskmanagementsystem.dto.task.DueDateChange;
+import com.daaeboul.taskmanagementsystem.dto.task.DueDateImpact;
+import com.daaeboul.taskmanagementsystem.dto.task.ProjectCriticalPath;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSchedule;
+import com.daaeboul.taskmanagementsystem.exceptions.project.project.ProjectNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskValidationException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskDependendy.TaskDependencyCycleException;
+import com.daaeboul.taskmanagementsystem.repository.project.ProjectRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskDependencyRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskEdge;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskScheduleState;
+import com.daaeboul.taskmanagementsystem.service.task.graph.CriticalPathAnalyzer;
+import com.daaeboul.taskmanagementsystem.service.task.graph.DependencyGraph;
+import com.daaeboul.taskmanagementsystem.service.task.graph.DueDatePropagation;
+import com.daaeboul.taskmanagementsystem.service.task.graph.LongLongHashMap;
+import com.daaeboul.taskmanagementsystem.service.task.graph.TopologicalLevels;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Analyses of the dependency DAG: critical path and topological order of a project, and what-if simulation
+ * of due-date changes.
+ */
+@Service
+public class CriticalPathService {
+
+    /**
+     * Duration of an open task without an estimate.
+     */
+    static final int DEFAULT_DURATION_DAYS = 1;
+
+    private final TaskRepository taskRepository;
+    private final TaskDependencyRepository taskDependencyRepository;
+    private final ProjectRepository projectRepository;
+    private final TaskDependencyIndex taskDependencyIndex;
+
+    @Autowired
+    public CriticalPathService(TaskRepository taskRepository, TaskDependencyRepository taskDependencyRepository,
+                               ProjectRepository projectRepository, TaskDependencyIndex taskDependencyIndex) {
+        this.taskRepository = taskRepository;
+        this.taskDependencyRepository = taskDependencyRepository;
+        this.projectRepository = projectRepository;
+        this.taskDependencyIndex = taskDependencyIndex;
+    }
+
+    /**
+     * Schedules the tasks of a project as early as their dependencies allow, starting on a given day, and finds
+     * the chain of dependent tasks that determines when the project can be finished.
+     * <p>
+     * An open task takes its estimated duration, or {@value #DEFAULT_DURATION_DAYS} day without an estimate;
+     * completed tasks take no time. A task's due date caps its latest finish. Soft-deleted tasks and
+     * dependencies on tasks of other projects are left out.
+     *
+     * @param projectId The ID of the project.
+     * @param start     The day the schedule starts.
+     * @return The schedule of every task and the critical chain.
+     * @throws ProjectNotFoundException     If the project is not found.
+     * @throws TaskDependencyCycleException If the dependencies of the project contain a cycle.
+     */
+    @Transactional(readOnly = true)
+    public ProjectCriticalPath findCriticalPath(Long projectId, LocalDate start) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new ProjectNotFoundException("Project not found with id " + projectId);
+        }
+        List<TaskScheduleState> tasks = taskRepository.findScheduleStatesByProjectId(projectId);
+        int nodeCount = tasks.size();
+        LongLongHashMap nodeOf = new LongLongHashMap(nodeCount);
+        long[] taskIds = new long[nodeCount];
+        int[] durations = new int[nodeCount];
+        int[] deadlines = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            TaskScheduleState task = tasks.get(node);
+            taskIds[node] = task.getId();
+            nodeOf.put(task.getId(), node);
+            durations[node] = task.getCompletedAt() != null ? 0
+                    : task.getEstimatedDurationDays() != null ? task.getEstimatedDurationDays() : DEFAULT_DURATION_DAYS;
+            deadlines[node] = task.getTaskDueDate() == null ? CriticalPathAnalyzer.NO_DEADLINE
+                    : daysFrom(start, task.getTaskDueDate());
+        }
+
+        int[][] edges = findEdges(projectId, nodeOf);
+        CriticalPathAnalyzer.Schedule schedule = CriticalPathAnalyzer.analyze(nodeCount, durations, deadlines,
+                edges[0], edges[1]);
+        if (!schedule.isAcyclic()) {
+            throw cycleIn(projectId, toTaskIds(schedule.cycle(), taskIds));
+        }
+
+        int[] chain = schedule.criticalChain();
+        boolean[] critical = new boolean[nodeCount];
+        for (int node : chain) {
+            critical[node] = true;
+        }
+        List<TaskSchedule> scheduled = new ArrayList<>(nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            scheduled.add(new TaskSchedule(taskIds[node],
+                    start.plusDays(schedule.earliestStart(node)),
+                    start.plusDays(schedule.earliestFinish(node)),
+                    start.plusDays(schedule.latestFinish(node)),
+                    schedule.slack(node),
+                    critical[node]));
+        }
+        return new ProjectCriticalPath(projectId, start, start.plusDays(schedule.finish()), toTaskIds(chain, taskIds), scheduled);
+    }
+
+    /**
+     * Orders the tasks of a project so that every task comes after the tasks it depends on, grouped into levels
+     * that can be worked on in parallel, with the tasks of a level ordered by ID. Only task IDs and edges are
+     * read, so the order of a large project is cheap to hold; the tasks themselves are streamed afterwards.
+     * Soft-deleted tasks and dependencies on tasks of other projects are left out.
+     *
+     * @param projectId The ID of the project.
+     * @return The topological order of the project's tasks.
+     * @throws ProjectNotFoundException     If the project is not found.
+     * @throws TaskDependencyCycleException If the dependencies of the project contain a cycle.
+     */
+    @Transactional(readOnly = true)
+    public TopologicalLevels findTopologicalOrder(Long projectId) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new ProjectNotFoundException("Project not found with id " + projectId);
+        }
+        List<TaskScheduleState> tasks = taskRepository.findScheduleStatesByProjectId(projectId);
+        long[] taskIds = new long[tasks.size()];
+        for (int i = 0; i < taskIds.length; i++) {
+            taskIds[i] = tasks.get(i).getId();
+        }
+        Arrays.sort(taskIds);
+        LongLongHashMap nodeOf = new LongLongHashMap(taskIds.length);
+        for (int node = 0; node < taskIds.length; node++) {
+            nodeOf.put(taskIds[node], node);
+        }
+
+        int[][] edges = findEdges(projectId, nodeOf);
+        TopologicalLevels order = TopologicalLevels.sort(taskIds, edges[0], edges[1]);
+        if (!order.isAcyclic()) {
+            List<Long> cycle = new ArrayList<>(order.cycle().length);
+            for (long taskId : order.cycle()) {
+                cycle.add(taskId);
+            }
+            throw cycleIn(projectId, cycle);
+        }
+        return order;
+    }
+
+    /**
+     * Simulates moving the due dates of some tasks without saving anything, and finds the tasks whose due dates
+     * could then no longer be met. The proposed dates are pushed forward through everything that transitively
+     * depends on the changed tasks: an open task cannot be due before the tasks it depends on plus its estimated
+     * duration, or {@value #DEFAULT_DURATION_DAYS} day without an estimate. Completed and soft-deleted tasks pass
+     * nothing on.
+     * <p>
+     * The affected part of the graph is copied from {@link TaskDependencyIndex} and walked in memory; the only
+     * query reads the scheduling columns of the tasks reached, {@value TaskService#BULK_CHUNK_SIZE} IDs at a time.
+     *
+     * @param changes The proposed due dates, at most one per task.
+     * @return The tasks whose due date, current or proposed, falls before the earliest date their dependencies
+     * allow, ordered by task ID.
+     * @throws TaskValidationException      If a change lacks a task or date, or a task is changed twice.
+     * @throws TaskNotFoundException        If a changed task is not found.
+     * @throws TaskDependencyCycleException If the affected dependencies contain a cycle.
+     */
+    @Transactional(readOnly = true)
+    public List<DueDateImpact> simulateDueDates(List<DueDateChange> changes) {
+        if (changes.size() > TaskService.MAX_BULK_SIZE) {
+            throw new TaskValidationException("A bulk request accepts at most " + TaskService.MAX_BULK_SIZE + " items");
+        }
+        LongLongHashMap proposed = new LongLongHashMap(changes.size());
+        for (DueDateChange change : changes) {
+            if (change == null || change.getTaskId() == null || change.getDueDate() == null) {
+                throw new TaskValidationException("Every due-date change needs a task ID and a due date");
+            }
+            if (proposed.containsKey(change.getTaskId())) {
+                throw new TaskValidationException("Task " + change.getTaskId() + " is changed more than once");
+            }
+            proposed.put(change.getTaskId(), change.getDueDate().toEpochDay());
+        }
+        long[] changed = new long[changes.size()];
+        for (int i = 0; i < changed.length; i++) {
+            changed[i] = changes.get(i).getTaskId();
+        }
+
+        DependencyGraph downstream = taskDependencyIndex.copyDownstream(changed);
+        List<Long> reached = new ArrayList<>(downstream.nodeCount() + changed.length);
+        for (long taskId : changed) {
+            reached.add(taskId);
+        }
+        for (long taskId : downstream.taskIds()) {
+            if (!proposed.containsKey(taskId)) {
+                reached.add(taskId);
+            }
+        }
+        LongLongHashMap dueDates = new LongLongHashMap(reached.size());
+        LongLongHashMap durations = new LongLongHashMap(reached.size());
+        LongLongHashMap found = new LongLongHashMap(changed.length);
+        for (int from = 0; from < reached.size(); from += TaskService.BULK_CHUNK_SIZE) {
+            List<Long> chunk = reached.subList(from, Math.min(from + TaskService.BULK_CHUNK_SIZE, reached.size()));
+            for (TaskScheduleState task : taskRepository.findScheduleStatesByIdIn(chunk)) {
+                if (proposed.containsKey(task.getId())) {
+                    found.put(task.getId(), 0);
+                }
+                if (task.getTaskDueDate() != null) {
+                    dueDates.put(task.getId(), task.getTaskDueDate().toEpochDay());
+                }
+                if (task.getCompletedAt() == null) {
+                    durations.put(task.getId(), task.getEstimatedDurationDays() != null
+                            ? task.getEstimatedDurationDays() : DEFAULT_DURATION_DAYS);
+                }
+            }
+        }
+        if (found.size() < changed.length) {
+            List<Long> missing = new ArrayList<>();
+            for (long taskId : changed) {
+                if (!found.containsKey(taskId)) {
+                    missing.add(taskId);
+                }
+            }
+            throw new TaskNotFoundException(missing.size() == 1 ? "Task not found with ID: " + missing.get(0)
+                    : "Tasks not found with IDs: " + missing);
+        }
+
+        LongLongHashMap earliest = DueDatePropagation.propagate(downstream, proposed, dueDates, durations);
+        if (earliest == null) {
+            throw cycleIn(downstream);
+        }
+        List<DueDateImpact> impacts = new ArrayList<>();
+        for (long taskId : reached) {
+            long dueDate = proposed.containsKey(taskId) ? proposed.get(taskId, 0) : dueDates.get(taskId, Long.MAX_VALUE);
+            long earliestDueDate = earliest.get(taskId, Long.MIN_VALUE);
+            if (earliestDueDate > dueDate) {
+                impacts.add(new DueDateImpact(taskId, LocalDate.ofEpochDay(dueDate), LocalDate.ofEpochDay(earliestDueDate),
+                        earliestDueDate - dueDate));
+            }
+        }
+        impacts.sort(Comparator.comparing(DueDateImpact::getTaskId));
+        return impacts;
+    }
+
+    /**
+     * Reads the dependencies between tasks of a project as two parallel arrays of dependent and depended-on nodes.
+     */
+    private int[][] findEdges(Long projectId, LongLongHashMap nodeOf) {
+        List<TaskEdge> edges = taskDependencyRepository.findEdgesFromProject(projectId);
+        int[] dependentNodes = new int[edges.size()];
+        int[] dependedOn = new int[edges.size()];
+        int edgeCount = 0;
+        for (TaskEdge edge : edges) {
+            long from = nodeOf.get(edge.getTaskId(), -1);
+            long to = nodeOf.get(edge.getDependsOnTaskId(), -1);
+            if (from >= 0 && to >= 0) {
+                dependentNodes[edgeCount] = (int) from;
+                dependedOn[edgeCount] = (int) to;
+                edgeCount++;
+            }
+        }
+        return new int[][]{Arrays.copyOf(dependentNodes, edgeCount), Arrays.copyOf(dependedOn, edgeCount)};
+    }
+
+    private static TaskDependencyCycleException cycleIn(Long projectId, List<Long> cycle) {
+        return new TaskDependencyCycleException("Task dependencies of project " + projectId + " contain a cycle: "
+                + cycle.stream().map(String::valueOf).collect(Collectors.joining(" -> ")), cycle);
+    }
+
+    /**
+     * Names one cycle of a graph that has one: a task on a cycle, then the chain leading back to it from one of its
+     * dependencies on the same cycle.
+     */
+    private static TaskDependencyCycleException cycleIn(DependencyGraph graph) {
+        LongLongHashMap components = graph.cyclicComponents();
+        for (long taskId : graph.taskIds()) {
+            long component = components.get(taskId, -1);
+            if (component < 0) {
+                continue;
+            }
+            for (long dependency : graph.dependenciesOf(taskId)) {
+                if (components.get(dependency, -1) == component) {
+                    List<Long> cycle = new ArrayList<>();
+                    cycle.add(taskId);
+                    for (long next : graph.findPath(dependency, taskId)) {
+                        cycle.add(next);
+                    }
+                    return new TaskDependencyCycleException("Task dependencies contain a cycle: "
+                            + cycle.stream().map(String::valueOf).collect(Collectors.joining(" -> ")), cycle);
+                }
+            }
+        }
+        throw new IllegalStateException("Dependency graph has no cycle");
+    }
+
+    /**
+     * Days from the start to a due date, kept clear of the no-deadline marker and of overflow in the analysis.
+     */
+    private static int daysFrom(LocalDate start, LocalDate date) {
+        long days = ChronoUnit.DAYS.between(start, date);
+        return (int) Math.max(Integer.MIN_VALUE / 2, Math.min(Integer.MAX_VALUE / 2, days));
+    }
+
+    private static List<Long> toTaskIds(int[] nodes, long[] taskIds) {
+        List<Long> ids = new ArrayList<>(nodes.length);
+        for (int node : nodes) {
+            ids.add(taskIds[node]);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,234 @@
+package com.daaeboul.taskmanagementsystem.service.task;
+
+import com.daaeboul.taskmanagementsystem.dto.task.TaskCursor;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskDueState;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of the overdue tasks of every project, bucketed by due date.
+ * A task is overdue when it is neither completed nor soft-deleted and its due date is before the current UTC day.
+ * <p>
+ * The index is loaded once the application is ready, refreshed after every committed {@link TaskChangedEvent}
+ * and rolled forward at midnight UTC by adding the tasks that fell due the day before. Until it is loaded,
+ * and for any reference date other than the current day, callers fall back to the database.
+ */
+@Component
+public class OverdueTaskIndex {
+
+    private final TaskRepository taskRepository;
+    private final Clock clock;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Overdue task IDs per project, per due date.
+     */
+    private final Map<Long, NavigableMap<LocalDate, NavigableSet<Long>>> overdueByProject = new HashMap<>();
+
+    /**
+     * Project and due date of every indexed task, for removing it again.
+     */
+    private final Map<Long, Position> indexed = new HashMap<>();
+
+    /**
+     * The day the index is current for, null until it has been loaded.
+     */
+    private LocalDate today;
+
+    @Autowired
+    public OverdueTaskIndex(TaskRepository taskRepository) {
+        this(taskRepository, Clock.systemUTC());
+    }
+
+    OverdueTaskIndex(TaskRepository taskRepository, Clock clock) {
+        this.taskRepository = taskRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * Loads every overdue task from the database, replacing the current content of the index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            LocalDate now = LocalDate.now(clock);
+            List<TaskDueState> overdue = taskRepository.findOpenDueStatesBetween(TaskCursor.FIRST_DATE, now);
+            overdueByProject.clear();
+            indexed.clear();
+            for (TaskDueState state : overdue) {
+                add(state);
+            }
+            today = now;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the index to the current day by adding the open tasks due on the days that have passed since it was
+     * last current, usually just yesterday.
+     */
+    @Scheduled(cron = "0 0 0 * * *", zone = "UTC")
+    public void rollForward() {
+        lock.writeLock().lock();
+        try {
+            LocalDate now = LocalDate.now(clock);
+            if (today == null) {
+                return;
+            }
+            if (now.isAfter(today)) {
+                for (TaskDueState state : taskRepository.findOpenDueStatesBetween(today, now)) {
+                    remove(state.getId());
+                    add(state);
+                }
+                today = now;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-reads the given tasks once the transaction that changed them has committed, and updates the index.
+     *
+     * @param event The IDs of the changed tasks.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        refresh(event.getTaskIds());
+    }
+
+    void refresh(Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (today == null) {
+                return;
+            }
+            List<TaskDueState> states = taskRepository.findDueStatesByIdIn(taskIds);
+            for (Long id : taskIds) {
+                remove(id);
+            }
+            for (TaskDueState state : states) {
+                if (isOverdue(state)) {
+                    add(state);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tells whether the index can answer an overdue query for the given reference date.
+     *
+     * @param date The reference date of the query.
+     * @return True if the index is loaded and current for that day.
+     */
+    public boolean covers(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            return today != null && today.equals(date);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lists the overdue tasks of a project after a keyset position, ordered by due date and ID.
+     *
+     * @param projectId    The ID of the project.
+     * @param afterDueDate The due date of the last task already returned, {@code TaskCursor.FIRST_DATE} to start.
+     * @param afterId      The ID of the last task already returned, 0 to start.
+     * @param limit        The maximum number of IDs to return.
+     * @return The IDs of the next overdue tasks.
+     */
+    public List<Long> findOverdueTaskIds(Long projectId, LocalDate afterDueDate, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            NavigableMap<LocalDate, NavigableSet<Long>> byDate = overdueByProject.get(projectId);
+            if (byDate == null) {
+                return ids;
+            }
+            for (Map.Entry<LocalDate, NavigableSet<Long>> bucket : byDate.tailMap(afterDueDate, true).entrySet()) {
+                Collection<Long> bucketIds = bucket.getKey().equals(afterDueDate)
+                        ? bucket.getValue().tailSet(afterId, false)
+                        : bucket.getValue();
+                for (Long id : bucketIds) {
+                    if (ids.size() == limit) {
+                        return ids;
+                    }
+                    ids.add(id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean isOverdue(TaskDueState state) {
+        return state.getProjectId() != null && state.getTaskDueDate() != null && state.getTaskDueDate().isBefore(today)
+                && state.getCompletedAt() == null && state.getDeletedAt() == null;
+    }
+
+    private void add(TaskDueState state) {
+        if (state.getProjectId() == null || state.getTaskDueDate() == null) {
+            return;
+        }
+        overdueByProject.computeIfAbsent(state.getProjectId(), project -> new TreeMap<>())
+                .computeIfAbsent(state.getTaskDueDate(), date -> new TreeSet<>())
+                .add(state.getId());
+        indexed.put(state.getId(), new Position(state.getProjectId(), state.getTaskDueDate()));
+    }
+
+    private void remove(Long taskId) {
+        Position position = indexed.remove(taskId);
+        if (position == null) {
+            return;
+        }
+        NavigableMap<LocalDate, NavigableSet<Long>> byDate = overdueByProject.get(position.projectId);
+        NavigableSet<Long> bucket = byDate.get(position.dueDate);
+        bucket.remove(taskId);
+        if (bucket.isEmpty()) {
+            byDate.remove(position.dueDate);
+        }
+        if (byDate.isEmpty()) {
+            overdueByProject.remove(position.projectId);
+        }
+    }
+
+    private static final class Position {
+
+        private final Long projectId;
+        private final LocalDate dueDate;
+
+        private Position(Long projectId, LocalDate dueDate) {
+            this.projectId = projectId;
+            this.dueDate = dueDate;
+        }
+    }
+}
@@ -1,25 +1,64 @@
 package com.daaeboul.taskmanagementsystem.service.task;
 
+import com.daaeboul.taskmanagementsystem.dto.task.TaskAttachmentDownload;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskAttachmentMetadata;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskValidationException;
 import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.TaskAttachmentNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.TaskAttachmentStorageException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.TaskAttachmentTooLargeException;
+import com.daaeboul.taskmanagementsystem.model.task.AttachmentBlob;
 import com.daaeboul.taskmanagementsystem.model.task.Task;
 import com.daaeboul.taskmanagementsystem.model.task.TaskAttachment;
+import com.daaeboul.taskmanagementsystem.repository.task.AttachmentBlobRepository;
 import com.daaeboul.taskmanagementsystem.repository.task.TaskAttachmentRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import com.daaeboul.taskmanagementsystem.service.storage.BlobStore;
+import com.daaeboul.taskmanagementsystem.service.storage.BlobTooLargeException;
+import com.daaeboul.taskmanagementsystem.service.storage.StoredBlob;
 import lombok.NonNull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 @Service
 public class TaskAttachmentService {
 
+    private static final Pattern CHECKSUM = Pattern.compile("[0-9a-f]{64}");
+
     private final TaskAttachmentRepository taskAttachmentRepository;
+    private final AttachmentBlobRepository attachmentBlobRepository;
+    private final TaskRepository taskRepository;
+    private final BlobStore blobStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public TaskAttachmentService(TaskAttachmentRepository taskAttachmentRepository) {
+    public TaskAttachmentService(TaskAttachmentRepository taskAttachmentRepository,
+                                 AttachmentBlobRepository attachmentBlobRepository, TaskRepository taskRepository,
+                                 BlobStore blobStore, PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher) {
         this.taskAttachmentRepository = taskAttachmentRepository;
+        this.attachmentBlobRepository = attachmentBlobRepository;
+        this.taskRepository = taskRepository;
+        this.blobStore = blobStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -35,6 +74,137 @@ public class TaskAttachmentService {
         return taskAttachmentRepository.save(attachment);
     }
 
+    /**
+     * Creates a task attachment from streamed content. Storage is content-addressed: every distinct content is
+     * stored once, as an {@link AttachmentBlob} counting the attachments that reference it.
+     * <p>
+     * If the caller names the SHA-256 checksum of the content and the task already has an attachment with that
+     * content, the new attachment is linked to it without reading the content at all. The shortcut is limited to
+     * the task's own attachments so that it cannot be used to probe for, or obtain a copy of, content stored for
+     * other tasks by knowing only its checksum. Otherwise the content goes to the blob store as it
+     * arrives, with its size and checksum computed on the way, and is dropped again if it turns out to be stored
+     * already. No transaction is held while the content is transferred, and nothing is left in the store if the
+     * attachment cannot be saved.
+     *
+     * @param taskId   The ID of the task to which the attachment belongs.
+     * @param fileName The name of the file.
+     * @param fileType The media type of the file, or null if unknown.
+     * @param checksum The hex SHA-256 checksum the content is expected to have, or null.
+     * @param content  The content of the file; read to its end but not closed, and not read at all if the task
+     *                 already has the content named by the checksum.
+     * @return The created task attachment.
+     * @throws TaskNotFoundException           If the task is not found.
+     * @throws TaskValidationException         If the checksum is malformed or does not match the content.
+     * @throws TaskAttachmentTooLargeException If the content is larger than the blob store accepts.
+     * @throws TaskAttachmentStorageException  If the content cannot be stored.
+     */
+    public TaskAttachment uploadTaskAttachment(Long taskId, String fileName, String fileType, String checksum,
+                                               InputStream content) {
+        if (!taskRepository.existsById(taskId)) {
+            throw new TaskNotFoundException("Task not found with ID: " + taskId);
+        }
+        String expected = checksum == null ? null : checksum.toLowerCase(Locale.ROOT);
+        if (expected != null) {
+            if (!CHECKSUM.matcher(expected).matches()) {
+                throw new TaskValidationException("Checksum must be a hex SHA-256 digest");
+            }
+            TaskAttachment linked = transactionTemplate.execute(status -> {
+                if (!taskAttachmentRepository.existsByTaskIdAndChecksum(taskId, expected)) {
+                    return null;
+                }
+                return attachmentBlobRepository.findByChecksumForUpdate(expected)
+                        .map(blob -> attach(taskId, fileName, fileType, reference(blob)))
+                        .orElse(null);
+            });
+            if (linked != null) {
+                return linked;
+            }
+        }
+
+        StoredBlob stored;
+        try {
+            stored = blobStore.store(content);
+        } catch (BlobTooLargeException e) {
+            throw new TaskAttachmentTooLargeException("Attachment for task " + taskId + " exceeds the maximum size of "
+                    + e.getMaxSize() + " bytes");
+        } catch (IOException e) {
+            throw new TaskAttachmentStorageException("Failed to store attachment content for task " + taskId, e);
+        }
+        TaskAttachment attachment;
+        try {
+            if (expected != null && !expected.equals(stored.getChecksum())) {
+                throw new TaskValidationException("Content does not match checksum " + expected);
+            }
+            attachment = attachStored(taskId, fileName, fileType, stored);
+        } catch (RuntimeException e) {
+            deleteBlob(stored.getKey(), e);
+            throw e;
+        }
+        if (!stored.getKey().equals(attachment.getStorageKey())) {
+            deleteBlob(stored.getKey(), null);
+        }
+        return attachment;
+    }
+
+    /**
+     * References the blob of freshly stored content, creating it if the content is new. Two uploads of the same
+     * new content may race to create its blob; the loser retries once and references the winner's.
+     */
+    private TaskAttachment attachStored(Long taskId, String fileName, String fileType, StoredBlob stored) {
+        try {
+            return transactionTemplate.execute(status -> attach(taskId, fileName, fileType, referenceOrCreate(stored)));
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+            return transactionTemplate.execute(status -> attach(taskId, fileName, fileType, referenceOrCreate(stored)));
+        }
+    }
+
+    private AttachmentBlob referenceOrCreate(StoredBlob stored) {
+        return attachmentBlobRepository.findByChecksumForUpdate(stored.getChecksum())
+                .map(this::reference)
+                .orElseGet(() -> attachmentBlobRepository.saveAndFlush(
+                        new AttachmentBlob(stored.getChecksum(), stored.getKey(), stored.getSize())));
+    }
+
+    private AttachmentBlob reference(AttachmentBlob blob) {
+        blob.setReferenceCount(blob.getReferenceCount() + 1);
+        return blob;
+    }
+
+    private TaskAttachment attach(Long taskId, String fileName, String fileType, AttachmentBlob blob) {
+        TaskAttachment attachment = new TaskAttachment();
+        attachment.setTask(taskRepository.getReferenceById(taskId));
+        attachment.setFileName(fileName);
+        attachment.setFileType(fileType);
+        attachment.setFileSize(blob.getSize());
+        attachment.setStorageKey(blob.getStorageKey());
+        attachment.setChecksum(blob.getChecksum());
+        return taskAttachmentRepository.save(attachment);
+    }
+
+    /**
+     * Deletes the content of a blob whose last reference was released, once that release has committed.
+     *
+     * @param event The released blob.
+     */
+    @TransactionalEventListener
+    public void onBlobReleased(AttachmentBlobReleasedEvent event) {
+        deleteBlob(event.getStorageKey(), null);
+    }
+
+    /**
+     * Deletes stored content that no row references. A failure only leaves an orphaned file behind, so it is
+     * attached to the exception being handled, if any, and otherwise dropped.
+     */
+    private void deleteBlob(String storageKey, RuntimeException handling) {
+        try {
+            blobStore.delete(storageKey);
+        } catch (IOException e) {
+            if (handling != null) {
+                handling.addSuppressed(e);
+            }
+        }
+    }
+
     /**
      * Finds a task attachment by its ID.
      *
@@ -46,37 +216,83 @@ public class TaskAttachmentService {
     }
 
     /**
-     * Finds all task attachments associated with a specific task.
+     * Finds the metadata of a task attachment by its ID, without loading its content.
+     *
+     * @param id The ID of the task attachment.
+     * @return An Optional containing the metadata if the attachment is found, otherwise empty.
+     */
+    public Optional<TaskAttachmentMetadata> findTaskAttachmentMetadataById(Long id) {
+        return taskAttachmentRepository.findMetadataById(id);
+    }
+
+    /**
+     * Opens the content of a task attachment for download. Content in the blob store is returned as a resource
+     * over the stored file, so it can be served in whole or in ranges without being loaded.
+     *
+     * @param id The ID of the task attachment.
+     * @return The content of the attachment with its name, type and checksum.
+     * @throws TaskAttachmentNotFoundException If the task attachment is not found.
+     * @throws TaskAttachmentStorageException If the stored content cannot be accessed.
+     */
+    public TaskAttachmentDownload openTaskAttachment(Long id) {
+        TaskAttachment attachment = taskAttachmentRepository.findById(id)
+                .orElseThrow(() -> new TaskAttachmentNotFoundException("Task attachment not found with ID: " + id));
+        Resource content;
+        if (attachment.getStorageKey() == null) {
+            byte[] bytes = attachment.getFileContent();
+            content = new ByteArrayResource(bytes == null ? new byte[0] : bytes);
+        } else {
+            try {
+                content = blobStore.resource(attachment.getStorageKey());
+            } catch (IOException e) {
+                throw new TaskAttachmentStorageException("Failed to open content of task attachment " + id, e);
+            }
+        }
+        return new TaskAttachmentDownload(attachment.getFileName(), attachment.getFileType(), attachment.getChecksum(),
+                content);
+    }
+
+    /**
+     * Lists the metadata of all task attachments associated with a specific task, without loading their content.
      *
      * @param taskId The ID of the task.
-     * @return A list of task attachments associated with the given task ID.
+     * @return The metadata of the task attachments associated with the given task ID.
      */
-    public List<TaskAttachment> findTaskAttachmentsByTaskId(Long taskId) {
-        return taskAttachmentRepository.findByTaskId(taskId);
+    public List<TaskAttachmentMetadata> findTaskAttachmentsByTaskId(Long taskId) {
+        return taskAttachmentRepository.findMetadataByTaskId(taskId);
     }
 
     /**
-     * Updates a task attachment.
+     * Updates a task attachment. The name and type can always be changed. The content and size can only be
+     * changed for an attachment that keeps its content in the row; stored content is shared by checksum and
+     * replaced by uploading a new attachment, so for such an attachment the size given is ignored.
      *
+     * @param id                The ID of the task attachment.
      * @param updatedAttachment The task attachment with updated information.
      * @return The updated task attachment.
      * @throws TaskAttachmentNotFoundException If the task attachment is not found.
+     * @throws TaskValidationException         If content is given for an attachment whose content is stored.
      */
     @Transactional
-    public TaskAttachment updateTaskAttachment(TaskAttachment updatedAttachment) {
-        TaskAttachment existingAttachment = taskAttachmentRepository.findById(updatedAttachment.getId())
-                .orElseThrow(() -> new TaskAttachmentNotFoundException("Task attachment not found with ID: " + updatedAttachment.getId()));
+    public TaskAttachment updateTaskAttachment(Long id, TaskAttachment updatedAttachment) {
+        TaskAttachment existingAttachment = taskAttachmentRepository.findById(id)
+                .orElseThrow(() -> new TaskAttachmentNotFoundException("Task attachment not found with ID: " + id));
 
         existingAttachment.setFileName(updatedAttachment.getFileName());
-        existingAttachment.setFileSize(updatedAttachment.getFileSize());
         existingAttachment.setFileType(updatedAttachment.getFileType());
-        existingAttachment.setFileContent(updatedAttachment.getFileContent());
+        if (existingAttachment.getStorageKey() == null) {
+            existingAttachment.setFileSize(updatedAttachment.getFileSize());
+            existingAttachment.setFileContent(updatedAttachment.getFileContent());
+        } else if (updatedAttachment.getFileContent() != null) {
+            throw new TaskValidationException("Content of task attachment " + id
+                    + " is stored and cannot be replaced; upload a new attachment instead");
+        }
 
         return taskAttachmentRepository.save(existingAttachment);
     }
 
     /**
-     * Deletes a task attachment by its ID.
+     * Deletes a task attachment by its ID, releasing its reference to stored content.
      *
      * @param id The ID of the task attachment to delete.
      * @throws TaskAttachmentNotFoundException If the task attachment is not found.
@@ -86,26 +302,42 @@ public class TaskAttachmentService {
         if (!taskAttachmentRepository.existsById(id)) {
             throw new TaskAttachmentNotFoundException("Task attachment not found with ID: " + id);
         }
+        Optional<String> checksum = taskAttachmentRepository.findStoredChecksumById(id);
         taskAttachmentRepository.deleteById(id);
+        checksum.ifPresent(this::release);
+    }
+
+    /**
+     * Releases one reference to a blob, deleting the blob with its last reference.
+     */
+    private void release(String checksum) {
+        attachmentBlobRepository.findByChecksumForUpdate(checksum).ifPresent(blob -> {
+            if (blob.getReferenceCount() > 1) {
+                blob.setReferenceCount(blob.getReferenceCount() - 1);
+            } else {
+                attachmentBlobRepository.delete(blob);
+                eventPublisher.publishEvent(new AttachmentBlobReleasedEvent(blob.getStorageKey()));
+            }
+        });
     }
 
     /**
-     * Finds task attachments by file name (case-insensitive).
+     * Finds the metadata of task attachments by file name (case-insensitive), without loading their content.
      *
      * @param fileName The file name to search for.
-     * @return A list of TaskAttachment entities with the matching file name.
+     * @return The metadata of the task attachments with the matching file name.
      */
-    public List<TaskAttachment> findTaskAttachmentsByFileName(String fileName) {
-        return taskAttachmentRepository.findByFileNameIgnoreCase(fileName);
+    public List<TaskAttachmentMetadata> findTaskAttachmentsByFileName(String fileName) {
+        return taskAttachmentRepository.findMetadataByFileNameIgnoreCase(fileName);
     }
 
     /**
-     * Finds task attachments by file type (case-insensitive).
+     * Finds the metadata of task attachments by file type (case-insensitive), without loading their content.
      *
      * @param fileType The file type to search for.
-     * @return A list of TaskAttachment entities with the matching file type.
+     * @return The metadata of the task attachments with the matching file type.
      */
-    public List<TaskAttachment> findTaskAttachmentsByFileType(String fileType) {
-        return taskAttachmentRepository.findByFileTypeIgnoreCase(fileType);
+    public List<TaskAttachmentMetadata> findTaskAttachmentsByFileType(String fileType) {
+        return taskAttachmentRepository.findMetadataByFileTypeIgnoreCase(fileType);
     }
 }
\ No newline at end of file
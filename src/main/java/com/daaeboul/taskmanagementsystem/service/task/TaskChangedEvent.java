@@ -0,0 +1,17 @@
+package com.daaeboul.taskmanagementsystem.service.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+
+/**
+ * Published by {@link TaskService} whenever tasks are created, updated or deleted. Listeners that keep derived
+ * state should react after the transaction commits and re-read the tasks, since the event carries only their IDs.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskChangedEvent {
+
+    private final Collection<Long> taskIds;
+}
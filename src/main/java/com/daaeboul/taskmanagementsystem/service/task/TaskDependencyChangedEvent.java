@@ -0,0 +1,19 @@
+package com.daaeboul.taskmanagementsystem.service.task;
+
+import com.daaeboul.taskmanagementsystem.model.task.TaskDependency;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published by {@link TaskDependencyService} when dependency edges are added or removed.
+ * Removals are meant to be applied before additions.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskDependencyChangedEvent {
+
+    private final List<TaskDependency.TaskDependencyId> added;
+    private final List<TaskDependency.TaskDependencyId> removed;
+}
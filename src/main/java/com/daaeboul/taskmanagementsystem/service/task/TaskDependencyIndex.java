@@ -0,0 +1,554 @@
+package com.daaeboul.taskmanagementsystem.service.task;
+
+import com.daaeboul.taskmanagementsystem.model.task.TaskDependency;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskDependencyRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskEdge;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskProjectKey;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import com.daaeboul.taskmanagementsystem.service.task.graph.DependencyGraph;
+import com.daaeboul.taskmanagementsystem.service.task.graph.LongLongHashMap;
+import com.daaeboul.taskmanagementsystem.service.task.graph.TaskClosure;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory index of task dependencies, split into one {@link DependencyGraph} per project.
+ * <p>
+ * The graph of a project holds every edge that has a task of the project on either side, so the direct
+ * dependencies and dependents of any task of the project are answered from that graph alone. A project's graph
+ * is loaded from the database the first time one of its tasks is looked up; from then on reads are served from
+ * memory. The index is kept current by applying {@link TaskDependencyChangedEvent}s after their transaction
+ * commits, and drops a project's graph when a task moves between projects, so that it is reloaded on the next
+ * read. At most {@code tasks.dependency-index.max-projects} graphs are kept; loading one more drops the graph
+ * that was read least recently.
+ * <p>
+ * A graph is loaded in a transaction of its own that reads committed data, never in the caller's transaction:
+ * the caller's snapshot may predate a change whose event was already passed over because the graph was not
+ * loaded yet, and the graph would then miss that change for as long as it is kept. Loading under the write lock,
+ * which applying an event also takes, means every committed change is either in the loaded rows or applied
+ * afterwards.
+ * <p>
+ * Since changes reach the index only after commit, a cycle check against it is only sound if no other change is
+ * between its check and its commit. Transactions that add dependencies therefore take the change lock through
+ * {@link #lockForChange()} before checking, and hold it until their changes have been applied here.
+ */
+@Component
+public class TaskDependencyIndex {
+
+    /**
+     * Project key of the tasks that belong to no project; project IDs are always positive.
+     */
+    static final long NO_PROJECT = 0L;
+
+    private static final long UNKNOWN = -1L;
+
+    private final TaskRepository taskRepository;
+    private final TaskDependencyRepository taskDependencyRepository;
+    private final TransactionTemplate loadTransaction;
+    private final int maxProjects;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock changeLock = new ReentrantLock();
+
+    /**
+     * Counts reads, to stamp each graph with when it was last read.
+     */
+    private final AtomicLong reads = new AtomicLong();
+
+    /**
+     * Loaded graphs by project key.
+     */
+    private final Map<Long, ProjectGraph> graphs = new HashMap<>();
+
+    /**
+     * Project key of every task of a loaded project.
+     */
+    private final LongLongHashMap projectOfTask = new LongLongHashMap();
+
+    @Autowired
+    public TaskDependencyIndex(TaskRepository taskRepository, TaskDependencyRepository taskDependencyRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${tasks.dependency-index.max-projects:1000}") int maxProjects) {
+        if (maxProjects < 1) {
+            throw new IllegalArgumentException("The dependency index must keep at least one project");
+        }
+        this.taskRepository = taskRepository;
+        this.taskDependencyRepository = taskDependencyRepository;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.loadTransaction.setReadOnly(true);
+        this.maxProjects = maxProjects;
+    }
+
+    /**
+     * Returns the IDs of the tasks a task directly depends on.
+     *
+     * @param taskId The ID of the task.
+     * @return The IDs, empty if the task has no dependencies or does not exist.
+     */
+    public long[] findDependencyIds(long taskId) {
+        return read(taskId, graph -> graph.dependenciesOf(taskId), new long[0]);
+    }
+
+    /**
+     * Returns the IDs of the tasks that directly depend on a task.
+     *
+     * @param taskId The ID of the task.
+     * @return The IDs, empty if no task depends on it or it does not exist.
+     */
+    public long[] findDependentIds(long taskId) {
+        return read(taskId, graph -> graph.dependentsOf(taskId), new long[0]);
+    }
+
+    public int countDependencies(long taskId) {
+        return read(taskId, graph -> graph.dependencyCount(taskId), 0);
+    }
+
+    public int countDependents(long taskId) {
+        return read(taskId, graph -> graph.dependentCount(taskId), 0);
+    }
+
+    public boolean hasDependency(long taskId, long dependsOnTaskId) {
+        return read(taskId, graph -> graph.hasEdge(taskId, dependsOnTaskId), false);
+    }
+
+    /**
+     * Finds a chain of dependencies leading from one task to another, which is the cycle that adding the edge
+     * {@code toTaskId -> fromTaskId} would close.
+     * <p>
+     * The search runs from both ends at once, expanding the dependencies of {@code fromTaskId} and the dependents
+     * of {@code toTaskId} one level at a time, always on the side with the smaller frontier, so it only visits the
+     * part of the graph between the two tasks rather than the whole project. Graphs of other projects are loaded
+     * as the search crosses into them.
+     *
+     * @param fromTaskId The task to start from.
+     * @param toTaskId   The task to reach.
+     * @param ignored    An edge to treat as absent, such as one that is being replaced, or null.
+     * @return The task IDs of the chain from {@code fromTaskId} to {@code toTaskId} inclusive, or an empty array
+     * if {@code toTaskId} cannot be reached.
+     */
+    public long[] findDependencyPath(long fromTaskId, long toTaskId, TaskDependency.TaskDependencyId ignored) {
+        if (fromTaskId == toTaskId) {
+            return new long[]{fromTaskId};
+        }
+        if (countDependencies(fromTaskId) == 0 || countDependents(toTaskId) == 0) {
+            return new long[0];
+        }
+
+        // Each side maps a visited task to the neighbour it was reached from, towards its own starting task.
+        LongLongHashMap forwardParents = new LongLongHashMap();
+        LongLongHashMap backwardParents = new LongLongHashMap();
+        forwardParents.put(fromTaskId, fromTaskId);
+        backwardParents.put(toTaskId, toTaskId);
+        long[] forwardFrontier = {fromTaskId};
+        long[] backwardFrontier = {toTaskId};
+
+        while (forwardFrontier.length > 0 && backwardFrontier.length > 0) {
+            boolean forward = forwardFrontier.length <= backwardFrontier.length;
+            LongLongHashMap parents = forward ? forwardParents : backwardParents;
+            LongLongHashMap otherParents = forward ? backwardParents : forwardParents;
+            long[] next = new long[16];
+            int nextSize = 0;
+            for (long taskId : forward ? forwardFrontier : backwardFrontier) {
+                for (long neighbour : forward ? findDependencyIds(taskId) : findDependentIds(taskId)) {
+                    if (isIgnored(ignored, forward ? taskId : neighbour, forward ? neighbour : taskId)
+                            || parents.containsKey(neighbour)) {
+                        continue;
+                    }
+                    parents.put(neighbour, taskId);
+                    if (otherParents.containsKey(neighbour)) {
+                        return joinPath(neighbour, forwardParents, backwardParents);
+                    }
+                    if (nextSize == next.length) {
+                        next = Arrays.copyOf(next, nextSize << 1);
+                    }
+                    next[nextSize++] = neighbour;
+                }
+            }
+            if (forward) {
+                forwardFrontier = Arrays.copyOf(next, nextSize);
+            } else {
+                backwardFrontier = Arrays.copyOf(next, nextSize);
+            }
+        }
+        return new long[0];
+    }
+
+    /**
+     * Collects the tasks a task transitively depends on (upstream) or that transitively depend on it (downstream)
+     * in one breadth-first traversal, so every task is listed once, at its shortest distance.
+     * Graphs of other projects are loaded as the traversal crosses into them.
+     *
+     * @param taskId   The task to start from; it is not part of the result.
+     * @param upstream True to follow dependencies, false to follow dependents.
+     * @param maxDepth The maximum distance in edges to follow.
+     * @return The tasks reached, in breadth-first order.
+     */
+    public TaskClosure findClosure(long taskId, boolean upstream, int maxDepth) {
+        TaskClosure closure = new TaskClosure();
+        LongLongHashMap visited = new LongLongHashMap();
+        visited.put(taskId, 0);
+        int from = 0;
+        long[] level = {taskId};
+        for (int depth = 1; depth <= maxDepth && level.length > 0; depth++) {
+            for (long current : level) {
+                for (long neighbour : upstream ? findDependencyIds(current) : findDependentIds(current)) {
+                    if (!visited.containsKey(neighbour)) {
+                        visited.put(neighbour, depth);
+                        closure.add(neighbour, depth);
+                    }
+                }
+            }
+            level = new long[closure.size() - from];
+            for (int i = 0; i < level.length; i++) {
+                level[i] = closure.taskId(from + i);
+            }
+            from = closure.size();
+        }
+        return closure;
+    }
+
+    /**
+     * Copies every dependency the given tasks transitively depend on into a new graph, in one breadth-first
+     * traversal shared by all of them, so each task reached is expanded once. Graphs of other projects are
+     * loaded as the traversal crosses into them.
+     *
+     * @param taskIds The tasks to start from.
+     * @return A graph of the dependencies reached; it is not kept current by the index.
+     */
+    public DependencyGraph copyUpstream(long[] taskIds) {
+        return copyReachable(taskIds, true);
+    }
+
+    /**
+     * Copies every dependency through which tasks transitively depend on the given tasks into a new graph, in
+     * the same single traversal as {@link #copyUpstream}.
+     *
+     * @param taskIds The tasks to start from.
+     * @return A graph of the dependents reached and the edges leading to them; it is not kept current by the index.
+     */
+    public DependencyGraph copyDownstream(long[] taskIds) {
+        return copyReachable(taskIds, false);
+    }
+
+    private DependencyGraph copyReachable(long[] taskIds, boolean upstream) {
+        DependencyGraph copy = new DependencyGraph();
+        LongLongHashMap visited = new LongLongHashMap(taskIds.length);
+        long[] queue = new long[Math.max(16, taskIds.length)];
+        int tail = 0;
+        for (long taskId : taskIds) {
+            if (!visited.containsKey(taskId)) {
+                visited.put(taskId, 0);
+                queue[tail++] = taskId;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            long current = queue[head];
+            for (long neighbour : upstream ? findDependencyIds(current) : findDependentIds(current)) {
+                if (upstream) {
+                    copy.addEdge(current, neighbour);
+                } else {
+                    copy.addEdge(neighbour, current);
+                }
+                if (!visited.containsKey(neighbour)) {
+                    visited.put(neighbour, 0);
+                    if (tail == queue.length) {
+                        queue = Arrays.copyOf(queue, tail << 1);
+                    }
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Takes the change lock for the rest of the current transaction. It is released once the transaction has
+     * completed and its {@link TaskDependencyChangedEvent}s have been applied, so a transaction holding it sees
+     * every committed dependency in the index and none of its checks can be overtaken by another change. The lock
+     * is one for all projects, as dependencies may cross projects and so may the cycles they close.
+     *
+     * @throws IllegalStateException If no transaction is active.
+     */
+    public void lockForChange() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Dependency changes must run in a transaction");
+        }
+        if (changeLock.isHeldByCurrentThread()) {
+            return;
+        }
+        changeLock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                // After onDependencyChanged, which runs on completion too.
+                return Ordered.LOWEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                changeLock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Applies added and removed edges once the transaction that changed them has committed, before the change
+     * lock of the transaction is released.
+     *
+     * @param event The changed edges.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDependencyChanged(TaskDependencyChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (TaskDependency.TaskDependencyId edge : event.getRemoved()) {
+                for (ProjectGraph graph : graphsTouching(edge)) {
+                    graph.graph.removeEdge(edge.getTaskId(), edge.getDependsOnTaskId());
+                }
+            }
+            for (TaskDependency.TaskDependencyId edge : event.getAdded()) {
+                for (ProjectGraph graph : graphsTouching(edge)) {
+                    graph.graph.addEdge(edge.getTaskId(), edge.getDependsOnTaskId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Registers new tasks of loaded projects and drops the graphs affected by a task moving between projects.
+     *
+     * @param event The changed tasks.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.getTaskIds().isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (graphs.isEmpty()) {
+                return;
+            }
+            for (TaskProjectKey task : taskRepository.findProjectKeysByIdIn(event.getTaskIds())) {
+                long known = projectOfTask.get(task.getId(), UNKNOWN);
+                long current = task.getProjectKey();
+                if (known == UNKNOWN) {
+                    ProjectGraph graph = graphs.get(current);
+                    if (graph != null) {
+                        graph.addTask(task.getId());
+                        projectOfTask.put(task.getId(), current);
+                    }
+                } else if (known != current) {
+                    evict(known);
+                    evict(current);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops every loaded graph.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (Long project : Set.copyOf(graphs.keySet())) {
+                evict(project);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(long taskId, Function<DependencyGraph, T> reader, T missing) {
+        lock.readLock().lock();
+        try {
+            long project = projectOfTask.get(taskId, UNKNOWN);
+            if (project != UNKNOWN) {
+                return reader.apply(graphs.get(project).touch(reads.incrementAndGet()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            long project = projectOfTask.get(taskId, UNKNOWN);
+            if (project == UNKNOWN) {
+                Long loaded = loadTransaction.execute(status -> {
+                    Optional<Long> projectKey = taskRepository.findProjectKeyById(taskId);
+                    if (projectKey.isPresent() && !graphs.containsKey(projectKey.get())) {
+                        load(projectKey.get());
+                    }
+                    return projectKey.orElse(null);
+                });
+                if (loaded == null) {
+                    return missing;
+                }
+                project = loaded;
+                graphs.get(project).addTask(taskId);
+                projectOfTask.put(taskId, project);
+            }
+            return reader.apply(graphs.get(project).touch(reads.incrementAndGet()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load(long project) {
+        List<Long> taskIds = project == NO_PROJECT
+                ? taskRepository.findIdsWithoutProject()
+                : taskRepository.findIdsByProjectId(project);
+        List<TaskEdge> edges = new ArrayList<>();
+        if (project == NO_PROJECT) {
+            edges.addAll(taskDependencyRepository.findEdgesWithoutProject());
+        } else {
+            edges.addAll(taskDependencyRepository.findEdgesFromProject(project));
+            edges.addAll(taskDependencyRepository.findEdgesIntoProject(project));
+        }
+
+        ProjectGraph graph = new ProjectGraph(edges.size());
+        for (TaskEdge edge : edges) {
+            graph.graph.addEdge(edge.getTaskId(), edge.getDependsOnTaskId());
+        }
+        while (graphs.size() >= maxProjects) {
+            evictLeastRecentlyRead();
+        }
+        for (Long taskId : taskIds) {
+            graph.addTask(taskId);
+            projectOfTask.put(taskId, project);
+        }
+        graphs.put(project, graph);
+    }
+
+    private void evictLeastRecentlyRead() {
+        long oldest = 0L;
+        long oldestRead = Long.MAX_VALUE;
+        for (Map.Entry<Long, ProjectGraph> entry : graphs.entrySet()) {
+            if (entry.getValue().lastRead < oldestRead) {
+                oldest = entry.getKey();
+                oldestRead = entry.getValue().lastRead;
+            }
+        }
+        evict(oldest);
+    }
+
+    private void evict(long project) {
+        ProjectGraph graph = graphs.remove(project);
+        if (graph == null) {
+            return;
+        }
+        for (int i = 0; i < graph.taskCount; i++) {
+            projectOfTask.remove(graph.tasks[i]);
+        }
+    }
+
+    private static boolean isIgnored(TaskDependency.TaskDependencyId ignored, long taskId, long dependsOnTaskId) {
+        return ignored != null && ignored.getTaskId() == taskId && ignored.getDependsOnTaskId() == dependsOnTaskId;
+    }
+
+    /**
+     * Builds the path through the task where the two searches met, walking each side back to its starting task.
+     */
+    private static long[] joinPath(long meeting, LongLongHashMap forwardParents, LongLongHashMap backwardParents) {
+        long[] head = new long[16];
+        int headSize = 0;
+        for (long taskId = meeting; ; taskId = forwardParents.get(taskId, taskId)) {
+            if (headSize == head.length) {
+                head = Arrays.copyOf(head, headSize << 1);
+            }
+            head[headSize++] = taskId;
+            if (forwardParents.get(taskId, taskId) == taskId) {
+                break;
+            }
+        }
+        long[] path = new long[16];
+        int size = 0;
+        for (int i = headSize - 1; i >= 0; i--) {
+            if (size == path.length) {
+                path = Arrays.copyOf(path, size << 1);
+            }
+            path[size++] = head[i];
+        }
+        for (long taskId = meeting; backwardParents.get(taskId, taskId) != taskId; ) {
+            taskId = backwardParents.get(taskId, taskId);
+            if (size == path.length) {
+                path = Arrays.copyOf(path, size << 1);
+            }
+            path[size++] = taskId;
+        }
+        return Arrays.copyOf(path, size);
+    }
+
+    private Set<ProjectGraph> graphsTouching(TaskDependency.TaskDependencyId edge) {
+        Set<ProjectGraph> touching = new HashSet<>(2);
+        for (long taskId : new long[]{edge.getTaskId(), edge.getDependsOnTaskId()}) {
+            long project = projectOfTask.get(taskId, UNKNOWN);
+            if (project != UNKNOWN) {
+                touching.add(graphs.get(project));
+            }
+        }
+        return touching;
+    }
+
+    /**
+     * The graph of one project, the IDs of the project's own tasks and when it was last read.
+     */
+    private static final class ProjectGraph {
+
+        private final DependencyGraph graph;
+        private long[] tasks = new long[16];
+        private int taskCount;
+
+        /**
+         * Written by readers that share the read lock, hence volatile. Concurrent readers may leave a slightly
+         * older stamp behind, which only blurs the order of graphs read at the same moment.
+         */
+        private volatile long lastRead;
+
+        private ProjectGraph(int edgeCount) {
+            this.graph = new DependencyGraph(edgeCount);
+        }
+
+        private DependencyGraph touch(long read) {
+            lastRead = read;
+            return graph;
+        }
+
+        private void addTask(long taskId) {
+            if (taskCount == tasks.length) {
+                tasks = Arrays.copyOf(tasks, taskCount << 1);
+            }
+            tasks[taskCount++] = taskId;
+        }
+    }
+}
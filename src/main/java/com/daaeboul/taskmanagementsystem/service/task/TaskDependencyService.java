@@ -1,37 +1,250 @@
 package com.daaeboul.taskmanagementsystem.service.task;
 
+import com.daaeboul.taskmanagementsystem.dto.BulkItemResult;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDependencyDiff;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDependencyDiffResult;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDependencyImportResult;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSummary;
+import com.daaeboul.taskmanagementsystem.dto.task.TransitiveDependency;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskValidationException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskDependendy.TaskDependencyCycleException;
 import com.daaeboul.taskmanagementsystem.exceptions.task.taskDependendy.TaskDependencyNotFoundException;
 import com.daaeboul.taskmanagementsystem.model.task.Task;
 import com.daaeboul.taskmanagementsystem.model.task.TaskDependency;
 import com.daaeboul.taskmanagementsystem.repository.task.TaskDependencyRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import com.daaeboul.taskmanagementsystem.service.task.graph.DependencyGraph;
+import com.daaeboul.taskmanagementsystem.service.task.graph.LongLongHashMap;
+import com.daaeboul.taskmanagementsystem.service.task.graph.TaskClosure;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class TaskDependencyService {
 
     private final TaskDependencyRepository taskDependencyRepository;
+    private final TaskRepository taskRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskDependencyIndex taskDependencyIndex;
+    private final EntityManager entityManager;
 
     @Autowired
-    public TaskDependencyService(TaskDependencyRepository taskDependencyRepository) {
+    public TaskDependencyService(TaskDependencyRepository taskDependencyRepository,
+                                 TaskRepository taskRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 TaskDependencyIndex taskDependencyIndex,
+                                 EntityManager entityManager) {
         this.taskDependencyRepository = taskDependencyRepository;
+        this.taskRepository = taskRepository;
+        this.eventPublisher = eventPublisher;
+        this.taskDependencyIndex = taskDependencyIndex;
+        this.entityManager = entityManager;
     }
 
     /**
-     * Creates a new task dependency.
+     * Creates a new task dependency. Dependency changes that add edges take the change lock of the
+     * {@link TaskDependencyIndex} before their cycle check, so concurrent changes cannot each close half a cycle.
      *
      * @param taskDependency The task dependency to create.
      * @return The created task dependency.
+     * @throws TaskDependencyCycleException If the dependency would close a cycle.
      */
-    @Transactional
+    @Transactional(timeout = TaskService.WRITE_TIMEOUT_SECONDS)
     public TaskDependency createTaskDependency(TaskDependency taskDependency) {
-        return taskDependencyRepository.save(taskDependency);
+        taskDependencyIndex.lockForChange();
+        checkAcyclic(edgeOf(taskDependency), null);
+        TaskDependency savedTaskDependency = taskDependencyRepository.save(taskDependency);
+        taskRepository.recountOpenPredecessors(List.of(savedTaskDependency.getId().getTaskId()));
+        eventPublisher.publishEvent(new TaskDependencyChangedEvent(List.of(savedTaskDependency.getId()), List.of()));
+        return savedTaskDependency;
+    }
+
+    /**
+     * Imports many task dependencies in one transaction, validating the whole batch before anything is written.
+     * <p>
+     * Task existence is checked with one query per {@value TaskService#BULK_CHUNK_SIZE} distinct IDs. Edges that
+     * already exist, or repeat an earlier edge of the batch, are skipped. Acyclicity is checked in a single pass:
+     * the existing dependencies reachable from the batch are copied from the {@link TaskDependencyIndex} in one
+     * traversal, the new edges are added, and one strongly connected component pass finds every new edge that
+     * would lie on a cycle. All such edges are rejected, since there is no principled choice of which edge of a
+     * cycle to drop. The accepted edges are persisted and flushed as JDBC batches.
+     *
+     * @param edges The dependencies to create, each as the pair of task IDs.
+     * @return One result per input edge, in input order.
+     * @throws TaskValidationException If more than {@value TaskService#MAX_BULK_SIZE} edges are given.
+     */
+    @Transactional(timeout = TaskService.WRITE_TIMEOUT_SECONDS)
+    public List<TaskDependencyImportResult> importTaskDependencies(List<TaskDependency.TaskDependencyId> edges) {
+        if (edges.size() > TaskService.MAX_BULK_SIZE) {
+            throw new TaskValidationException("A bulk request accepts at most " + TaskService.MAX_BULK_SIZE + " items");
+        }
+        TaskDependencyImportResult[] results = new TaskDependencyImportResult[edges.size()];
+        Set<Long> taskIds = new HashSet<>();
+        for (int i = 0; i < edges.size(); i++) {
+            TaskDependency.TaskDependencyId edge = edges.get(i);
+            if (edge == null || edge.getTaskId() == null || edge.getDependsOnTaskId() == null) {
+                results[i] = TaskDependencyImportResult.failed(i, edge, "taskId and dependsOnTaskId are required");
+            } else if (edge.getTaskId().equals(edge.getDependsOnTaskId())) {
+                results[i] = TaskDependencyImportResult.failed(i, edge, "A task cannot depend on itself");
+            } else {
+                taskIds.add(edge.getTaskId());
+                taskIds.add(edge.getDependsOnTaskId());
+            }
+        }
+        Set<Long> liveIds = findLiveIds(taskIds);
+
+        taskDependencyIndex.lockForChange();
+        Set<TaskDependency.TaskDependencyId> seen = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < edges.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            TaskDependency.TaskDependencyId edge = edges.get(i);
+            Long missing = !liveIds.contains(edge.getTaskId()) ? edge.getTaskId()
+                    : !liveIds.contains(edge.getDependsOnTaskId()) ? edge.getDependsOnTaskId() : null;
+            if (missing != null) {
+                results[i] = TaskDependencyImportResult.notFound(i, edge, "Task not found with ID: " + missing);
+            } else if (!seen.add(edge) || taskDependencyIndex.hasDependency(edge.getTaskId(), edge.getDependsOnTaskId())) {
+                results[i] = TaskDependencyImportResult.of(i, edge, BulkItemResult.Outcome.SKIPPED);
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        List<TaskDependency.TaskDependencyId> candidateEdges = new ArrayList<>(candidates.size());
+        for (int i : candidates) {
+            candidateEdges.add(edges.get(i));
+        }
+        LongLongHashMap cyclic = withChanges(candidateEdges, List.of()).cyclicComponents();
+
+        List<TaskDependency.TaskDependencyId> added = new ArrayList<>(candidates.size());
+        Set<Long> dependentIds = new HashSet<>();
+        for (int i : candidates) {
+            TaskDependency.TaskDependencyId edge = edges.get(i);
+            if (closesCycle(cyclic, edge)) {
+                results[i] = TaskDependencyImportResult.failed(i, edge, "Task dependency would create a cycle");
+                continue;
+            }
+            added.add(persist(edge));
+            dependentIds.add(edge.getTaskId());
+            results[i] = TaskDependencyImportResult.of(i, edge, BulkItemResult.Outcome.CREATED);
+            if (added.size() % TaskService.BULK_CHUNK_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        if (!added.isEmpty()) {
+            entityManager.flush();
+            entityManager.clear();
+            List<Long> recount = new ArrayList<>(dependentIds);
+            for (int from = 0; from < recount.size(); from += TaskService.BULK_CHUNK_SIZE) {
+                taskRepository.recountOpenPredecessors(recount.subList(from, Math.min(from + TaskService.BULK_CHUNK_SIZE, recount.size())));
+            }
+            eventPublisher.publishEvent(new TaskDependencyChangedEvent(added, List.of()));
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Applies a diff to the dependencies of a task with targeted statements against task_dependency. The listed
+     * edges are looked up by key, missing additions are inserted and present removals deleted in one statement
+     * per side, and neither dependency collection of the task is loaded, so the cost follows the size of the
+     * diff rather than how connected the task is. The additions are checked for cycles together, as they will
+     * be after the removals, in one pass over the dependencies reachable from them.
+     *
+     * @param taskId The ID of the task.
+     * @param diff   The edges to add and remove.
+     * @return The edges actually added and removed.
+     * @throws TaskNotFoundException        If the task or a task to link is not found.
+     * @throws TaskValidationException      If the task would depend on itself.
+     * @throws TaskDependencyCycleException If the additions would close a cycle.
+     */
+    @Transactional(timeout = TaskService.WRITE_TIMEOUT_SECONDS)
+    public TaskDependencyDiffResult applyDependencyDiff(Long taskId, TaskDependencyDiff diff) {
+        Set<Long> addDependencies = idsOf(diff.getAddDependencies());
+        Set<Long> removeDependencies = idsOf(diff.getRemoveDependencies());
+        Set<Long> addDependents = idsOf(diff.getAddDependents());
+        Set<Long> removeDependents = idsOf(diff.getRemoveDependents());
+        if (addDependencies.contains(taskId) || addDependents.contains(taskId)) {
+            throw new TaskValidationException("A task cannot depend on itself");
+        }
+        Set<Long> linked = new HashSet<>(addDependencies);
+        linked.addAll(addDependents);
+        linked.add(taskId);
+        linked.removeAll(findLiveIds(linked));
+        if (linked.contains(taskId)) {
+            throw new TaskNotFoundException("Task not found with ID: " + taskId);
+        }
+        if (!linked.isEmpty()) {
+            throw new TaskNotFoundException("Tasks not found with IDs: " + linked);
+        }
+
+        taskDependencyIndex.lockForChange();
+        List<TaskDependency.TaskDependencyId> removed = new ArrayList<>();
+        if (!removeDependencies.isEmpty()) {
+            List<Long> present = taskDependencyRepository.findDependsOnTaskIdsIn(taskId, removeDependencies);
+            if (!present.isEmpty()) {
+                taskDependencyRepository.deleteDependencies(taskId, present);
+                present.forEach(id -> removed.add(new TaskDependency.TaskDependencyId(taskId, id)));
+            }
+        }
+        if (!removeDependents.isEmpty()) {
+            List<Long> present = taskDependencyRepository.findDependentTaskIdsIn(taskId, removeDependents);
+            if (!present.isEmpty()) {
+                taskDependencyRepository.deleteDependents(taskId, present);
+                present.forEach(id -> removed.add(new TaskDependency.TaskDependencyId(id, taskId)));
+            }
+        }
+
+        List<TaskDependency.TaskDependencyId> added = new ArrayList<>();
+        if (!addDependencies.isEmpty()) {
+            Set<Long> present = new HashSet<>(taskDependencyRepository.findDependsOnTaskIdsIn(taskId, addDependencies));
+            for (Long id : addDependencies) {
+                if (!present.contains(id)) {
+                    added.add(new TaskDependency.TaskDependencyId(taskId, id));
+                }
+            }
+        }
+        if (!addDependents.isEmpty()) {
+            Set<Long> present = new HashSet<>(taskDependencyRepository.findDependentTaskIdsIn(taskId, addDependents));
+            for (Long id : addDependents) {
+                if (!present.contains(id)) {
+                    added.add(new TaskDependency.TaskDependencyId(id, taskId));
+                }
+            }
+        }
+        checkAcyclic(added, removed);
+
+        if (added.isEmpty() && removed.isEmpty()) {
+            return new TaskDependencyDiffResult(added, removed);
+        }
+        Set<Long> dependentIds = new LinkedHashSet<>();
+        for (TaskDependency.TaskDependencyId edge : added) {
+            persist(edge);
+            dependentIds.add(edge.getTaskId());
+        }
+        removed.forEach(edge -> dependentIds.add(edge.getTaskId()));
+        taskRepository.recountOpenPredecessors(dependentIds);
+        eventPublisher.publishEvent(new TaskDependencyChangedEvent(added, removed));
+        return new TaskDependencyDiffResult(added, removed);
     }
 
     /**
@@ -87,22 +300,48 @@ public class TaskDependencyService {
     }
 
     /**
-     * Updates a task dependency.
+     * Updates a task dependency. The edge it becomes is taken from the task and prerequisite of the given details,
+     * or from their ID when they name no tasks. Since the tasks are the key of a dependency, moving it to another
+     * edge deletes the existing row and inserts the new one, once the new edge has been checked for a cycle as it
+     * will be without the one it replaces.
      *
+     * @param id                    The composite ID of the task dependency to update.
      * @param updatedTaskDependency The task dependency with updated information.
      * @return The updated task dependency.
      * @throws TaskDependencyNotFoundException If the task dependency is not found.
+     * @throws TaskNotFoundException           If a task of the new edge is not found.
+     * @throws TaskValidationException         If the task would depend on itself, or the new edge already exists.
+     * @throws TaskDependencyCycleException    If the updated dependency would close a cycle.
      */
-    @Transactional
-    public TaskDependency updateTaskDependency(TaskDependency updatedTaskDependency) {
-        TaskDependency existingTaskDependency = taskDependencyRepository.findById(updatedTaskDependency.getId())
-                .orElseThrow(() -> new TaskDependencyNotFoundException("Task dependency not found with ID: " + updatedTaskDependency.getId()));
+    @Transactional(timeout = TaskService.WRITE_TIMEOUT_SECONDS)
+    public TaskDependency updateTaskDependency(TaskDependency.TaskDependencyId id, TaskDependency updatedTaskDependency) {
+        TaskDependency existingTaskDependency = taskDependencyRepository.findById(id)
+                .orElseThrow(() -> new TaskDependencyNotFoundException("Task dependency not found with ID: " + id));
 
-        existingTaskDependency.setId(updatedTaskDependency.getId());
-        existingTaskDependency.setTask(updatedTaskDependency.getTask());
-        existingTaskDependency.setDependsOnTask(updatedTaskDependency.getDependsOnTask());
+        TaskDependency.TaskDependencyId edge = targetOf(updatedTaskDependency, id);
+        if (edge.equals(id)) {
+            return existingTaskDependency;
+        }
+        if (edge.getTaskId().equals(edge.getDependsOnTaskId())) {
+            throw new TaskValidationException("A task cannot depend on itself");
+        }
+        Set<Long> missing = new LinkedHashSet<>(List.of(edge.getTaskId(), edge.getDependsOnTaskId()));
+        missing.removeAll(findLiveIds(missing));
+        if (!missing.isEmpty()) {
+            throw new TaskNotFoundException("Task not found with ID: " + missing.iterator().next());
+        }
+        taskDependencyIndex.lockForChange();
+        if (taskDependencyRepository.existsById(edge)) {
+            throw new TaskValidationException("Task dependency already exists with ID: " + edge);
+        }
+        checkAcyclic(edge, id);
 
-        return taskDependencyRepository.save(existingTaskDependency);
+        taskDependencyRepository.delete(existingTaskDependency);
+        entityManager.flush();
+        TaskDependency savedTaskDependency = insert(edge);
+        taskRepository.recountOpenPredecessors(new LinkedHashSet<>(List.of(id.getTaskId(), edge.getTaskId())));
+        eventPublisher.publishEvent(new TaskDependencyChangedEvent(List.of(edge), List.of(id)));
+        return savedTaskDependency;
     }
 
     /**
@@ -111,62 +350,263 @@ public class TaskDependencyService {
      * @param id The composite ID of the task dependency to delete.
      * @throws TaskDependencyNotFoundException If the task dependency is not found.
      */
-    @Transactional
+    @Transactional(timeout = TaskService.WRITE_TIMEOUT_SECONDS)
     public void deleteTaskDependency(TaskDependency.TaskDependencyId id) {
         if (!taskDependencyRepository.existsById(id)) {
             throw new TaskDependencyNotFoundException("Task dependency not found with ID: " + id);
         }
         taskDependencyRepository.deleteById(id);
+        taskRepository.recountOpenPredecessors(List.of(id.getTaskId()));
+        eventPublisher.publishEvent(new TaskDependencyChangedEvent(List.of(), List.of(id)));
     }
 
     /**
-     * Checks if a dependency exists between two tasks.
+     * Checks if a dependency exists between two tasks, answered from the {@link TaskDependencyIndex}.
      *
      * @param taskId The ID of the task that might have the dependency.
      * @param dependsOnTaskId The ID of the task that the first task might depend on.
      * @return True if the dependency exists, false otherwise.
      */
     public boolean existsTaskDependency(Long taskId, Long dependsOnTaskId) {
-        return taskDependencyRepository.existsByIdTaskIdAndIdDependsOnTaskId(taskId, dependsOnTaskId);
+        return taskDependencyIndex.hasDependency(taskId, dependsOnTaskId);
     }
 
     /**
-     * Counts the number of dependencies for a given task.
+     * Counts the number of dependencies for a given task, answered from the {@link TaskDependencyIndex}.
      *
      * @param taskId The ID of the task.
      * @return The count of dependencies for the task.
      */
     public long countDependenciesForTask(Long taskId) {
-        return taskDependencyRepository.countByIdTaskId(taskId);
+        return taskDependencyIndex.countDependencies(taskId);
     }
 
     /**
-     * Counts the number of tasks that depend on a given task.
+     * Counts the number of tasks that depend on a given task, answered from the {@link TaskDependencyIndex}.
      *
      * @param dependsOnTaskId The ID of the task that other tasks might depend on.
      * @return The count of tasks that depend on the given task.
      */
     public long countDependentsForTask(Long dependsOnTaskId) {
-        return taskDependencyRepository.countByIdDependsOnTaskId(dependsOnTaskId);
+        return taskDependencyIndex.countDependents(dependsOnTaskId);
     }
 
     /**
-     * Finds tasks that a given task directly depends on.
+     * Finds tasks that a given task directly depends on. The IDs come from the {@link TaskDependencyIndex},
+     * so only the tasks themselves are read from the database.
      *
      * @param taskId The ID of the task that has dependencies.
      * @return A list of tasks that the given task depends on.
      */
     public List<Task> findDirectDependenciesForTask(Long taskId) {
-        return taskDependencyRepository.findDirectDependenciesForTask(taskId);
+        return findTasks(taskDependencyIndex.findDependencyIds(taskId));
     }
 
     /**
-     * Finds tasks that directly depend on a given task.
+     * Finds tasks that directly depend on a given task. The IDs come from the {@link TaskDependencyIndex},
+     * so only the tasks themselves are read from the database.
      *
      * @param taskId The ID of the task that other tasks depend on.
      * @return A list of tasks that depend on the given task.
      */
     public List<Task> findDirectDependentsForTask(Long taskId) {
-        return taskDependencyRepository.findDirectDependentsForTask(taskId);
+        return findTasks(taskDependencyIndex.findDependentIds(taskId));
+    }
+
+    /**
+     * Finds every task a given task transitively depends on, nearest first, in one traversal of the
+     * {@link TaskDependencyIndex} and one query for the tasks themselves.
+     *
+     * @param taskId   The ID of the task.
+     * @param maxDepth The maximum number of dependency hops to follow, or null for no limit.
+     * @param statusId If not null, only tasks in this status are returned; the traversal still passes through the others.
+     * @return The upstream tasks with their distance from the given task.
+     * @throws TaskNotFoundException If the task is not found.
+     */
+    @Transactional(readOnly = true)
+    public List<TransitiveDependency> findUpstreamTasks(Long taskId, Integer maxDepth, Long statusId) {
+        return findTransitive(taskId, true, maxDepth, statusId);
+    }
+
+    /**
+     * Finds every task that transitively depends on a given task, nearest first, in one traversal of the
+     * {@link TaskDependencyIndex} and one query for the tasks themselves.
+     *
+     * @param taskId   The ID of the task.
+     * @param maxDepth The maximum number of dependency hops to follow, or null for no limit.
+     * @param statusId If not null, only tasks in this status are returned; the traversal still passes through the others.
+     * @return The downstream tasks with their distance from the given task.
+     * @throws TaskNotFoundException If the task is not found.
+     */
+    @Transactional(readOnly = true)
+    public List<TransitiveDependency> findDownstreamTasks(Long taskId, Integer maxDepth, Long statusId) {
+        return findTransitive(taskId, false, maxDepth, statusId);
+    }
+
+    private List<TransitiveDependency> findTransitive(Long taskId, boolean upstream, Integer maxDepth, Long statusId) {
+        if (!taskRepository.existsById(taskId)) {
+            throw new TaskNotFoundException("Task not found with ID: " + taskId);
+        }
+        TaskClosure closure = taskDependencyIndex.findClosure(taskId, upstream, maxDepth == null ? Integer.MAX_VALUE : maxDepth);
+        if (closure.size() == 0) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(closure.size());
+        for (int i = 0; i < closure.size(); i++) {
+            ids.add(closure.taskId(i));
+        }
+        Map<Long, Task> tasks = new HashMap<>();
+        for (Task task : taskRepository.findWithReferencesByIdIn(ids)) {
+            tasks.put(task.getId(), task);
+        }
+
+        List<TransitiveDependency> result = new ArrayList<>();
+        for (int i = 0; i < closure.size(); i++) {
+            Task task = tasks.get(closure.taskId(i));
+            if (task != null && (statusId == null || (task.getStatus() != null && statusId.equals(task.getStatus().getId())))) {
+                result.add(new TransitiveDependency(closure.depth(i), TaskSummary.from(task)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rejects an edge {@code task -> dependsOnTask} if the prerequisite already depends, directly or transitively,
+     * on the dependent task, reporting the cycle the edge would close.
+     *
+     * @param edge     The edge to add.
+     * @param replaced An edge that is removed in the same change, or null.
+     * @throws TaskDependencyCycleException If the edge would close a cycle.
+     */
+    private void checkAcyclic(TaskDependency.TaskDependencyId edge, TaskDependency.TaskDependencyId replaced) {
+        long[] path = taskDependencyIndex.findDependencyPath(edge.getDependsOnTaskId(), edge.getTaskId(), replaced);
+        if (path.length == 0) {
+            return;
+        }
+        throw cycleException(edge, path);
+    }
+
+    /**
+     * Rejects a set of edges added together if any of them would close a cycle once the removed edges are gone,
+     * reporting the cycle closed by the first such edge.
+     *
+     * @throws TaskDependencyCycleException If an added edge would close a cycle.
+     */
+    private void checkAcyclic(List<TaskDependency.TaskDependencyId> added, List<TaskDependency.TaskDependencyId> removed) {
+        if (added.isEmpty()) {
+            return;
+        }
+        DependencyGraph graph = withChanges(added, removed);
+        LongLongHashMap cyclic = graph.cyclicComponents();
+        for (TaskDependency.TaskDependencyId edge : added) {
+            if (closesCycle(cyclic, edge)) {
+                throw cycleException(edge, graph.findPath(edge.getDependsOnTaskId(), edge.getTaskId()));
+            }
+        }
+    }
+
+    /**
+     * Copies the existing dependencies reachable from the prerequisites of the added edges out of the
+     * {@link TaskDependencyIndex}, then applies the removed and added edges to the copy. Every cycle the added
+     * edges could close lies within the copy.
+     */
+    private DependencyGraph withChanges(List<TaskDependency.TaskDependencyId> added, List<TaskDependency.TaskDependencyId> removed) {
+        long[] roots = added.stream().mapToLong(TaskDependency.TaskDependencyId::getDependsOnTaskId).distinct().toArray();
+        DependencyGraph graph = taskDependencyIndex.copyUpstream(roots);
+        for (TaskDependency.TaskDependencyId edge : removed) {
+            graph.removeEdge(edge.getTaskId(), edge.getDependsOnTaskId());
+        }
+        for (TaskDependency.TaskDependencyId edge : added) {
+            graph.addEdge(edge.getTaskId(), edge.getDependsOnTaskId());
+        }
+        return graph;
+    }
+
+    private static boolean closesCycle(LongLongHashMap cyclicComponents, TaskDependency.TaskDependencyId edge) {
+        long component = cyclicComponents.get(edge.getTaskId(), -1);
+        return component >= 0 && component == cyclicComponents.get(edge.getDependsOnTaskId(), -1);
+    }
+
+    private static TaskDependencyCycleException cycleException(TaskDependency.TaskDependencyId edge, long[] path) {
+        List<Long> cycle = new ArrayList<>(path.length + 1);
+        cycle.add(edge.getTaskId());
+        for (long taskId : path) {
+            cycle.add(taskId);
+        }
+        return new TaskDependencyCycleException("Task dependency would create a cycle: " + cycle.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(" -> ")), cycle);
+    }
+
+    /**
+     * Inserts a dependency by key, binding both tasks as references without loading them.
+     */
+    private TaskDependency.TaskDependencyId persist(TaskDependency.TaskDependencyId edge) {
+        return insert(edge).getId();
+    }
+
+    private TaskDependency insert(TaskDependency.TaskDependencyId edge) {
+        TaskDependency taskDependency = new TaskDependency();
+        taskDependency.setId(new TaskDependency.TaskDependencyId(edge.getTaskId(), edge.getDependsOnTaskId()));
+        taskDependency.setTask(entityManager.getReference(Task.class, edge.getTaskId()));
+        taskDependency.setDependsOnTask(entityManager.getReference(Task.class, edge.getDependsOnTaskId()));
+        entityManager.persist(taskDependency);
+        return taskDependency;
+    }
+
+    private static Set<Long> idsOf(List<Long> ids) {
+        if (ids == null) {
+            return Set.of();
+        }
+        if (ids.contains(null)) {
+            throw new TaskValidationException("Task IDs must not be null");
+        }
+        return new LinkedHashSet<>(ids);
+    }
+
+    /**
+     * Returns the ID of a dependency, taking it from the referenced tasks when the request carries none.
+     */
+    private static TaskDependency.TaskDependencyId edgeOf(TaskDependency taskDependency) {
+        if (taskDependency.getId() != null) {
+            return taskDependency.getId();
+        }
+        return new TaskDependency.TaskDependencyId(taskDependency.getTask().getId(), taskDependency.getDependsOnTask().getId());
+    }
+
+    /**
+     * Returns the edge a dependency update asks for: the referenced tasks, else the ID it carries, else the
+     * current one.
+     */
+    private static TaskDependency.TaskDependencyId targetOf(TaskDependency taskDependency, TaskDependency.TaskDependencyId current) {
+        if (taskDependency.getTask() != null && taskDependency.getDependsOnTask() != null
+                && taskDependency.getTask().getId() != null && taskDependency.getDependsOnTask().getId() != null) {
+            return new TaskDependency.TaskDependencyId(taskDependency.getTask().getId(), taskDependency.getDependsOnTask().getId());
+        }
+        TaskDependency.TaskDependencyId id = taskDependency.getId();
+        if (id != null && id.getTaskId() != null && id.getDependsOnTaskId() != null) {
+            return id;
+        }
+        return current;
+    }
+
+    private Set<Long> findLiveIds(Set<Long> taskIds) {
+        List<Long> ids = new ArrayList<>(taskIds);
+        Set<Long> live = new HashSet<>(ids.size());
+        for (int from = 0; from < ids.size(); from += TaskService.BULK_CHUNK_SIZE) {
+            live.addAll(taskRepository.findLiveIds(ids.subList(from, Math.min(from + TaskService.BULK_CHUNK_SIZE, ids.size()))));
+        }
+        return live;
+    }
+
+    private List<Task> findTasks(long[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        List<Long> boxed = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            boxed.add(id);
+        }
+        return taskRepository.findAllById(boxed);
     }
 }
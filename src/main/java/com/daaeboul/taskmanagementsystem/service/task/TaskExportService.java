@@ -0,0 +1,239 @@
+package com.daaeboul.taskmanagementsystem.service.task;
+
+import com.daaeboul.taskmanagementsystem.dto.task.TaskExportFormat;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskLevel;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSearchCriteria;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSummary;
+import com.daaeboul.taskmanagementsystem.model.task.Task;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskSpecifications;
+import com.daaeboul.taskmanagementsystem.service.task.graph.TopologicalLevels;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Streams task exports straight from a database cursor to the response.
+ * Rows are read as {@link TaskSummary} projections rather than entities, so nothing accumulates in the
+ * persistence context and memory use does not depend on the number of exported rows.
+ */
+@Service
+public class TaskExportService {
+
+    /**
+     * Rows the JDBC driver fetches per round trip; a positive fetch size makes the MariaDB driver stream the result.
+     */
+    static final int EXPORT_FETCH_SIZE = 1000;
+
+    private static final String[] CSV_HEADER = {
+            "id", "taskTitle", "taskDueDate", "completedAt", "assigneeId", "assigneeUsername", "projectId", "projectName",
+            "statusId", "statusName", "priorityId", "priorityName", "categoryId", "categoryName", "taskTypeId",
+            "taskTypeName", "createdAt", "updatedAt"
+    };
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TaskExportService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every task matching the criteria to the output stream, ordered by ID, as rows arrive from the database.
+     * Unlike the paged search, the criteria do not have to be narrowed by an indexed column.
+     * The sort option of the criteria is ignored.
+     *
+     * @param criteria The filters, as accepted by the task search.
+     * @param format   The output format.
+     * @param out      The stream to write to; it is flushed but not closed.
+     * @throws UncheckedIOException If writing to the stream fails, e.g. because the client disconnected.
+     */
+    public void exportTasks(TaskSearchCriteria criteria, TaskExportFormat format, OutputStream out) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<TaskSummary> rows = streamSummaries(criteria)) {
+                write(rows.iterator(), format, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Writes the tasks of a project as NDJSON {@link TaskLevel} lines in a precomputed topological order.
+     * Tasks are read {@value #EXPORT_FETCH_SIZE} at a time, each batch in its own short read-only transaction,
+     * and written before the next batch is read, so only one batch is held in memory. Tasks deleted since the
+     * order was computed are left out.
+     *
+     * @param order The order, as computed by {@link CriticalPathService#findTopologicalOrder}.
+     * @param out   The stream to write to; it is flushed but not closed.
+     * @throws UncheckedIOException If writing to the stream fails, e.g. because the client disconnected.
+     */
+    public void exportTopologicalOrder(TopologicalLevels order, OutputStream out) {
+        try {
+            writeNdjson(levels(order, ids -> transactionTemplate.execute(status -> findSummaries(ids))).iterator(), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Lazily pairs the positions of an order with their task summaries, loading one batch of tasks at a time.
+     */
+    Stream<TaskLevel> levels(TopologicalLevels order, Function<List<Long>, List<TaskSummary>> loader) {
+        int batches = (order.size() + EXPORT_FETCH_SIZE - 1) / EXPORT_FETCH_SIZE;
+        return IntStream.range(0, batches).boxed().flatMap(batch -> {
+            int from = batch * EXPORT_FETCH_SIZE;
+            int to = Math.min(from + EXPORT_FETCH_SIZE, order.size());
+            List<Long> ids = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                ids.add(order.taskId(i));
+            }
+            Map<Long, TaskSummary> summaries = new HashMap<>();
+            for (TaskSummary summary : loader.apply(ids)) {
+                summaries.put(summary.getId(), summary);
+            }
+            List<TaskLevel> rows = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                TaskSummary summary = summaries.get(order.taskId(i));
+                if (summary != null) {
+                    rows.add(new TaskLevel(order.level(i), summary));
+                }
+            }
+            return rows.stream();
+        });
+    }
+
+    private Stream<TaskSummary> streamSummaries(TaskSearchCriteria criteria) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskSummary> query = cb.createQuery(TaskSummary.class);
+        Root<Task> task = selectSummary(cb, query);
+        Predicate filters = TaskSpecifications.matching(criteria).toPredicate(task, query, cb);
+        if (filters != null) {
+            query.where(filters);
+        }
+        query.orderBy(cb.asc(task.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private List<TaskSummary> findSummaries(List<Long> ids) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskSummary> query = cb.createQuery(TaskSummary.class);
+        Root<Task> task = selectSummary(cb, query);
+        query.where(task.get("id").in(ids), cb.isNull(task.get("deletedAt")));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+    }
+
+    private static Root<Task> selectSummary(CriteriaBuilder cb, CriteriaQuery<TaskSummary> query) {
+        Root<Task> task = query.from(Task.class);
+        Join<?, ?> assignee = task.join("assignee", JoinType.LEFT);
+        Join<?, ?> project = task.join("project", JoinType.LEFT);
+        Join<?, ?> status = task.join("status", JoinType.LEFT);
+        Join<?, ?> priority = task.join("priority", JoinType.LEFT);
+        Join<?, ?> category = task.join("category", JoinType.LEFT);
+        Join<?, ?> taskType = task.join("taskType", JoinType.LEFT);
+
+        query.select(cb.construct(TaskSummary.class,
+                task.get("id"), task.get("taskTitle"), task.get("taskDueDate"), task.get("completedAt"),
+                assignee.get("id"), assignee.get("username"),
+                project.get("id"), project.get("projectName"),
+                status.get("id"), status.get("statusName"),
+                priority.get("id"), priority.get("priorityName"),
+                category.get("id"), category.get("categoryName"),
+                taskType.get("id"), taskType.get("taskTypeName"),
+                task.get("createdAt"), task.get("updatedAt")));
+        return task;
+    }
+
+    void write(Iterator<TaskSummary> rows, TaskExportFormat format, OutputStream out) throws IOException {
+        if (format == TaskExportFormat.CSV) {
+            writeCsv(rows, out);
+        } else {
+            writeNdjson(rows, out);
+        }
+    }
+
+    private void writeNdjson(Iterator<?> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        while (rows.hasNext()) {
+            writer.writeValue(generator, rows.next());
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+
+    private static void writeCsv(Iterator<TaskSummary> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsvRow(writer, (Object[]) CSV_HEADER);
+        while (rows.hasNext()) {
+            TaskSummary row = rows.next();
+            writeCsvRow(writer, row.getId(), row.getTaskTitle(), row.getTaskDueDate(), row.getCompletedAt(),
+                    row.getAssigneeId(), row.getAssigneeUsername(), row.getProjectId(), row.getProjectName(),
+                    row.getStatusId(), row.getStatusName(), row.getPriorityId(), row.getPriorityName(),
+                    row.getCategoryId(), row.getCategoryName(), row.getTaskTypeId(), row.getTaskTypeName(),
+                    row.getCreatedAt(), row.getUpdatedAt());
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csvField(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,41 +1,137 @@
 package com.daaeboul.taskmanagementsystem.service.task;
 
+import com.daaeboul.taskmanagementsystem.dto.BulkItemResult;
+import com.daaeboul.taskmanagementsystem.dto.CursorPage;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskBulkUpdate;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskChange;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskCursor;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDetail;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskProjectStats;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSearchCriteria;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSummary;
 import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskValidationException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskVersionConflictException;
+import com.daaeboul.taskmanagementsystem.model.BaseEntity;
 import com.daaeboul.taskmanagementsystem.model.transition.Status;
 import com.daaeboul.taskmanagementsystem.model.project.Project;
 import com.daaeboul.taskmanagementsystem.model.task.Category;
 import com.daaeboul.taskmanagementsystem.model.task.Task;
+import com.daaeboul.taskmanagementsystem.model.task.TaskDependency;
 import com.daaeboul.taskmanagementsystem.model.task.TaskPriority;
+import com.daaeboul.taskmanagementsystem.model.task.TaskType;
 import com.daaeboul.taskmanagementsystem.model.user.User;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskChangeKey;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskDependencyRepository;
 import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskSpecifications;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskTotals;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 public class TaskService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * To-one references fetched together with tasks whose summaries are returned.
+     */
+    private static final List<String> REFERENCE_PROPERTIES = List.of("assignee", "project", "status", "priority", "category", "taskType");
+
+    /**
+     * Largest number of items accepted by one bulk request.
+     */
+    public static final int MAX_BULK_SIZE = 50_000;
+
+    /**
+     * Items written per transaction by the bulk operations; matches {@code hibernate.jdbc.batch_size}.
+     */
+    static final int BULK_CHUNK_SIZE = 500;
+
+    /**
+     * Timeout, in seconds, of every transaction that writes tasks, here and in {@link TaskDependencyService}.
+     * Hibernate refuses to run a statement of a transaction past its timeout, so such a transaction commits at
+     * most this long after it began, and so at most this long after any updated_at it stamped.
+     */
+    public static final int WRITE_TIMEOUT_SECONDS = 60;
+
+    /**
+     * How far behind the current time the change feed stops. A transaction stamps updated_at before it commits,
+     * so a change can become visible after a cursor past its stamp was already handed out. Holding the feed back
+     * by the write timeout, plus a margin for the commit itself and for clock differences between the
+     * application and database servers, guarantees every change is committed before the feed passes it.
+     * Writes to the tasks table that do not go through these services, or clocks that drift further apart than
+     * the margin, fall outside this guarantee.
+     */
+    static final Duration CHANGE_FEED_LAG = Duration.ofSeconds(WRITE_TIMEOUT_SECONDS + 5);
+
     private final TaskRepository taskRepository;
+    private final TaskDependencyRepository taskDependencyRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OverdueTaskIndex overdueTaskIndex;
 
     @Autowired
-    public TaskService(TaskRepository taskRepository) {
+    public TaskService(TaskRepository taskRepository, TaskDependencyRepository taskDependencyRepository,
+                       EntityManager entityManager, PlatformTransactionManager transactionManager,
+                       ApplicationEventPublisher eventPublisher, OverdueTaskIndex overdueTaskIndex) {
         this.taskRepository = taskRepository;
+        this.taskDependencyRepository = taskDependencyRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout(WRITE_TIMEOUT_SECONDS);
+        this.eventPublisher = eventPublisher;
+        this.overdueTaskIndex = overdueTaskIndex;
     }
 
 
     /**
-     * Creates a new task.
+     * Creates a new task. If it is created with open dependencies, it is reread after counting them, so that it
+     * is returned with the count and the version that count gave it.
      *
      * @param task The task to create.
      * @return The created task.
      */
-    @Transactional
+    @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
     public Task createTask(Task task) {
-        return taskRepository.save(task);
+        Task createdTask = taskRepository.save(task);
+        if (taskRepository.recountOpenPredecessors(List.of(createdTask.getId())) > 0) {
+            entityManager.refresh(createdTask);
+        }
+        recountOpenPredecessors(List.of(createdTask.getId()));
+        publishChanged(List.of(createdTask.getId()));
+        return createdTask;
     }
 
     /**
@@ -48,6 +144,30 @@ public class TaskService {
         return taskRepository.findById(id);
     }
 
+    /**
+     * Finds the current version of a task without loading it, for answering conditional requests.
+     *
+     * @param id The ID of the task.
+     * @return An Optional containing the version if the task exists, otherwise empty.
+     */
+    public Optional<Long> findTaskVersion(Long id) {
+        return taskRepository.findVersionById(id);
+    }
+
+    /**
+     * Finds the read model of a task: its fields, the names of its references and the IDs of the tasks on
+     * either side of its dependencies. Costs three queries regardless of how connected the task is.
+     *
+     * @param id The ID of the task to find.
+     * @return An Optional containing the task detail if found, otherwise empty.
+     */
+    public Optional<TaskDetail> findTaskDetailById(Long id) {
+        return taskRepository.findWithReferencesById(id)
+                .map(task -> new TaskDetail(task,
+                        taskDependencyRepository.findDependsOnTaskIds(id),
+                        taskDependencyRepository.findDependentTaskIds(id)));
+    }
+
     /**
      * Finds all tasks.
      *
@@ -58,19 +178,21 @@ public class TaskService {
     }
 
     /**
-     * Updates a task.
+     * Updates a task. Its dependencies are left as they are, so neither dependency collection is loaded;
+     * they are changed through {@link TaskDependencyService#applyDependencyDiff}.
      *
      * @param updatedTask The task with updated information.
      * @return The updated task.
      * @throws TaskNotFoundException If the task is not found.
      */
-    @Transactional
+    @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
     public Task updateTask(Task updatedTask) {
         Task existingTask = taskRepository.findById(updatedTask.getId())
                 .orElseThrow(() -> new TaskNotFoundException("Task not found with ID: " + updatedTask.getId()));
 
         existingTask.setPriority(updatedTask.getPriority());
         existingTask.setTaskDueDate(updatedTask.getTaskDueDate());
+        existingTask.setEstimatedDurationDays(updatedTask.getEstimatedDurationDays());
         existingTask.setTaskDescription(updatedTask.getTaskDescription());
         existingTask.setTaskTitle(updatedTask.getTaskTitle());
         existingTask.setTaskType(updatedTask.getTaskType());
@@ -78,26 +200,446 @@ public class TaskService {
         existingTask.setProject(updatedTask.getProject());
         existingTask.setStatus(updatedTask.getStatus());
         existingTask.setCategory(updatedTask.getCategory());
-        existingTask.setDependencies(updatedTask.getDependencies());
-        existingTask.setPrecedencies(updatedTask.getPrecedencies());
         existingTask.setCompletedAt(updatedTask.getCompletedAt());
         existingTask.setDeletedAt(updatedTask.getDeletedAt());
 
-        return taskRepository.save(existingTask);
+        Task savedTask = taskRepository.save(existingTask);
+        recountOpenPredecessors(List.of(savedTask.getId()));
+        publishChanged(List.of(savedTask.getId()));
+        return savedTask;
+    }
+
+    /**
+     * Applies a JSON Merge Patch (RFC 7396) to a task. Only the fields present in the patch are changed;
+     * a null value clears the field. References are given by ID ({@code assigneeId}, {@code categoryId},
+     * {@code priorityId}, {@code projectId}, {@code statusId}, {@code taskTypeId}) and are bound as proxies
+     * without being loaded, leaving their existence to the foreign key constraints. Together with
+     * {@code @DynamicUpdate} on Task this costs one SELECT of the task and one UPDATE of the changed columns.
+     *
+     * @param id      The ID of the task to patch.
+     * @param changes The merge patch document.
+     * @return The patched task.
+     * @throws TaskNotFoundException   If the task is not found.
+     * @throws TaskValidationException If the patch contains an unknown field, a value of the wrong type,
+     *                                 a blank title or a reference to a row that does not exist.
+     */
+    @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
+    public Task patchTask(Long id, Map<String, Object> changes) {
+        return patchTask(id, changes, null);
+    }
+
+    /**
+     * Applies a JSON Merge Patch to a task only if the task is still at the version the client last saw.
+     *
+     * @param id              The ID of the task to patch.
+     * @param changes         The merge patch document.
+     * @param expectedVersion The version the patch was based on, or null to patch unconditionally.
+     * @return The patched task, carrying its new version.
+     * @throws TaskNotFoundException        If the task is not found.
+     * @throws TaskValidationException      If the patch is invalid, see {@link #patchTask(Long, Map)}.
+     * @throws TaskVersionConflictException If the task was modified since the expected version.
+     */
+    @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
+    public Task patchTask(Long id, Map<String, Object> changes, Long expectedVersion) {
+        Task task = taskRepository.findById(id)
+                .orElseThrow(() -> new TaskNotFoundException("Task not found with ID: " + id));
+        checkVersion(task, expectedVersion);
+        parseChanges(changes).forEach(change -> change.accept(task));
+
+        try {
+            taskRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new TaskValidationException("Patch references a row that does not exist: " + changes.keySet());
+        } catch (OptimisticLockingFailureException e) {
+            throw new TaskVersionConflictException("Task was modified concurrently: " + id);
+        }
+        if (changes.containsKey("completedAt")) {
+            recountOpenPredecessors(List.of(id));
+        }
+        publishChanged(List.of(id));
+        return task;
+    }
+
+    /**
+     * Checks that a task is at the version a conditional request was based on.
+     *
+     * @param task            The current task.
+     * @param expectedVersion The version the client last saw, or null if the request is unconditional.
+     * @throws TaskVersionConflictException If the versions differ.
+     */
+    public void checkVersion(Task task, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(task.getVersion())) {
+            throw new TaskVersionConflictException("Task " + task.getId() + " is at version " + task.getVersion()
+                    + ", not " + expectedVersion);
+        }
+    }
+
+    /**
+     * Validates a whole merge patch before any of it is applied, so an invalid field never leaves a task half
+     * patched.
+     */
+    private List<Consumer<Task>> parseChanges(Map<String, Object> changes) {
+        List<Consumer<Task>> parsed = new ArrayList<>(changes.size());
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            parsed.add(parseChange(change.getKey(), change.getValue()));
+        }
+        return parsed;
+    }
+
+    private Consumer<Task> parseChange(String field, Object value) {
+        return switch (field) {
+            case "taskTitle" -> {
+                String title = patchString(field, value);
+                if (title == null || title.isBlank()) {
+                    throw new TaskValidationException("taskTitle must not be blank");
+                }
+                yield task -> task.setTaskTitle(title);
+            }
+            case "taskDescription" -> {
+                String description = patchString(field, value);
+                yield task -> task.setTaskDescription(description);
+            }
+            case "taskDueDate" -> {
+                LocalDate dueDate = patchDate(field, value);
+                yield task -> task.setTaskDueDate(dueDate);
+            }
+            case "estimatedDurationDays" -> {
+                Integer days = patchDuration(field, value);
+                yield task -> task.setEstimatedDurationDays(days);
+            }
+            case "completedAt" -> {
+                LocalDateTime completedAt = patchDateTime(field, value);
+                yield task -> task.setCompletedAt(completedAt);
+            }
+            case "assigneeId" -> {
+                User assignee = patchReference(User.class, field, value);
+                yield task -> task.setAssignee(assignee);
+            }
+            case "categoryId" -> {
+                Category category = patchReference(Category.class, field, value);
+                yield task -> task.setCategory(category);
+            }
+            case "priorityId" -> {
+                TaskPriority priority = patchReference(TaskPriority.class, field, value);
+                yield task -> task.setPriority(priority);
+            }
+            case "projectId" -> {
+                Project project = patchReference(Project.class, field, value);
+                yield task -> task.setProject(project);
+            }
+            case "statusId" -> {
+                Status status = patchReference(Status.class, field, value);
+                yield task -> task.setStatus(status);
+            }
+            case "taskTypeId" -> {
+                TaskType taskType = patchReference(TaskType.class, field, value);
+                yield task -> task.setTaskType(taskType);
+            }
+            default -> throw new TaskValidationException("Field cannot be patched: " + field);
+        };
+    }
+
+    private static String patchString(String field, Object value) {
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        throw new TaskValidationException(field + " must be a string");
+    }
+
+    private static LocalDate patchDate(String field, Object value) {
+        String text = patchString(field, value);
+        try {
+            return text == null ? null : LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new TaskValidationException(field + " must be an ISO date");
+        }
+    }
+
+    private static Integer patchDuration(String field, Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Integer days) || days < 0) {
+            throw new TaskValidationException(field + " must be a non-negative whole number");
+        }
+        return days;
+    }
+
+    private static LocalDateTime patchDateTime(String field, Object value) {
+        String text = patchString(field, value);
+        try {
+            return text == null ? null : LocalDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new TaskValidationException(field + " must be an ISO date-time");
+        }
+    }
+
+    private <T> T patchReference(Class<T> type, String field, Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Number number)) {
+            throw new TaskValidationException(field + " must be a number");
+        }
+        return entityManager.getReference(type, number.longValue());
+    }
+
+    /**
+     * Creates many tasks at once. Tasks are persisted in chunks of {@value #BULK_CHUNK_SIZE}, one transaction per
+     * chunk, and each chunk is flushed as multi-row JDBC batches. Items that fail validation are reported and
+     * skipped; if the database rejects a chunk, every item of that chunk is reported as failed and the other
+     * chunks are unaffected. Dependencies in the payload are ignored.
+     *
+     * @param tasks The tasks to create; references are given as objects carrying only an ID.
+     * @return One result per input item, in input order.
+     * @throws TaskValidationException If more than {@value #MAX_BULK_SIZE} items are given.
+     */
+    public List<BulkItemResult> createTasks(List<Task> tasks) {
+        checkBulkSize(tasks.size());
+        List<BulkItemResult> results = new ArrayList<>(Collections.nCopies(tasks.size(), null));
+        for (int from = 0; from < tasks.size(); from += BULK_CHUNK_SIZE) {
+            createChunk(tasks, from, Math.min(from + BULK_CHUNK_SIZE, tasks.size()), results);
+        }
+        return results;
+    }
+
+    private void createChunk(List<Task> tasks, int from, int to, List<BulkItemResult> results) {
+        List<Integer> accepted = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            String error = validateForCreate(tasks.get(i));
+            if (error == null) {
+                accepted.add(i);
+            } else {
+                results.set(i, BulkItemResult.failed(i, null, error));
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i : accepted) {
+                    Task task = tasks.get(i);
+                    bindReferences(task);
+                    task.setDependencies(new HashSet<>());
+                    task.setPrecedencies(new HashSet<>());
+                    entityManager.persist(task);
+                }
+                entityManager.flush();
+                entityManager.clear();
+                List<Long> createdIds = new ArrayList<>(accepted.size());
+                for (int i : accepted) {
+                    createdIds.add(tasks.get(i).getId());
+                }
+                publishChanged(createdIds);
+            });
+            for (int i : accepted) {
+                results.set(i, BulkItemResult.of(i, tasks.get(i).getId(), BulkItemResult.Outcome.CREATED));
+            }
+        } catch (RuntimeException e) {
+            String error = chunkError(e);
+            for (int i : accepted) {
+                results.set(i, BulkItemResult.failed(i, null, error));
+            }
+        }
+    }
+
+    private static String validateForCreate(Task task) {
+        if (task == null) {
+            return "Task must not be null";
+        }
+        if (task.getId() != null) {
+            return "New tasks must not have an ID";
+        }
+        if (task.getTaskTitle() == null || task.getTaskTitle().isBlank()) {
+            return "taskTitle must not be blank";
+        }
+        if (missingId(task.getAssignee()) || missingId(task.getCategory()) || missingId(task.getPriority())
+                || missingId(task.getProject()) || missingId(task.getStatus()) || missingId(task.getTaskType())) {
+            return "References must carry an ID";
+        }
+        return null;
+    }
+
+    private static boolean missingId(BaseEntity reference) {
+        return reference != null && reference.getId() == null;
+    }
+
+    private void bindReferences(Task task) {
+        task.setAssignee(reference(User.class, task.getAssignee()));
+        task.setCategory(reference(Category.class, task.getCategory()));
+        task.setPriority(reference(TaskPriority.class, task.getPriority()));
+        task.setProject(reference(Project.class, task.getProject()));
+        task.setStatus(reference(Status.class, task.getStatus()));
+        task.setTaskType(reference(TaskType.class, task.getTaskType()));
+    }
+
+    private <T extends BaseEntity> T reference(Class<T> type, T value) {
+        return value == null ? null : entityManager.getReference(type, value.getId());
+    }
+
+    /**
+     * Applies merge patches to many tasks at once. Each chunk of {@value #BULK_CHUNK_SIZE} items loads its tasks
+     * in one query, applies the patches and flushes the changed columns as JDBC batches in one transaction.
+     * Every patch is validated in full before any of it is applied, so an item whose patch is invalid is reported
+     * and leaves its task untouched, while earlier items for the same task stay applied. An item that carries a
+     * {@code version} is checked against the version its task was loaded at for the chunk and fails with a
+     * conflict if they differ; several items naming the same task are applied in order and are all checked
+     * against that loaded version. Items without a version are applied last-writer-wins.
+     *
+     * @param updates The task IDs, their expected versions and their merge patch documents.
+     * @return One result per input item, in input order.
+     * @throws TaskValidationException If more than {@value #MAX_BULK_SIZE} items are given.
+     */
+    public List<BulkItemResult> updateTasks(List<TaskBulkUpdate> updates) {
+        checkBulkSize(updates.size());
+        List<BulkItemResult> results = new ArrayList<>(Collections.nCopies(updates.size(), null));
+        for (int from = 0; from < updates.size(); from += BULK_CHUNK_SIZE) {
+            updateChunk(updates, from, Math.min(from + BULK_CHUNK_SIZE, updates.size()), results);
+        }
+        return results;
+    }
+
+    private void updateChunk(List<TaskBulkUpdate> updates, int from, int to, List<BulkItemResult> results) {
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            TaskBulkUpdate update = updates.get(i);
+            if (update == null || update.getId() == null) {
+                results.set(i, BulkItemResult.failed(i, null, "id must not be null"));
+            } else {
+                ids.add(update.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Integer> applied = new ArrayList<>(ids.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Task> tasks = new HashMap<>();
+                for (Task task : taskRepository.findAllById(ids)) {
+                    tasks.put(task.getId(), task);
+                }
+                for (int i = from; i < to; i++) {
+                    if (results.get(i) != null) {
+                        continue;
+                    }
+                    TaskBulkUpdate update = updates.get(i);
+                    Task task = tasks.get(update.getId());
+                    if (task == null) {
+                        results.set(i, BulkItemResult.of(i, update.getId(), BulkItemResult.Outcome.NOT_FOUND));
+                        continue;
+                    }
+                    try {
+                        checkVersion(task, update.getVersion());
+                        Map<String, Object> changes = update.getChanges() == null ? Map.of() : update.getChanges();
+                        parseChanges(changes).forEach(change -> change.accept(task));
+                        applied.add(i);
+                    } catch (TaskValidationException | TaskVersionConflictException e) {
+                        results.set(i, BulkItemResult.failed(i, update.getId(), e.getMessage()));
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+                List<Long> updatedIds = new ArrayList<>(applied.size());
+                List<Long> completionChangedIds = new ArrayList<>();
+                for (int i : applied) {
+                    updatedIds.add(updates.get(i).getId());
+                    Map<String, Object> changes = updates.get(i).getChanges();
+                    if (changes != null && changes.containsKey("completedAt")) {
+                        completionChangedIds.add(updates.get(i).getId());
+                    }
+                }
+                recountOpenPredecessors(completionChangedIds);
+                publishChanged(updatedIds);
+            });
+            for (int i : applied) {
+                results.set(i, BulkItemResult.of(i, updates.get(i).getId(), BulkItemResult.Outcome.UPDATED));
+            }
+        } catch (RuntimeException e) {
+            String error = chunkError(e);
+            for (int i : applied) {
+                results.set(i, BulkItemResult.failed(i, updates.get(i).getId(), error));
+            }
+            for (int i = from; i < to; i++) {
+                if (results.get(i) == null) {
+                    results.set(i, BulkItemResult.failed(i, updates.get(i).getId(), error));
+                }
+            }
+        }
+    }
+
+    /**
+     * Soft-deletes many tasks at once with one existence query and one UPDATE per chunk of {@value #BULK_CHUNK_SIZE} IDs.
+     *
+     * @param ids The IDs of the tasks to delete.
+     * @return One result per input ID, in input order; IDs of missing or already deleted tasks are reported as NOT_FOUND.
+     * @throws TaskValidationException If more than {@value #MAX_BULK_SIZE} items are given.
+     */
+    public List<BulkItemResult> deleteTasks(List<Long> ids) {
+        checkBulkSize(ids.size());
+        List<BulkItemResult> results = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+            Set<Long> live = transactionTemplate.execute(status -> {
+                Set<Long> found = new HashSet<>(taskRepository.findLiveIds(chunk));
+                if (!found.isEmpty()) {
+                    taskRepository.softDeleteAllById(found, LocalDateTime.now());
+                    recountOpenPredecessors(found);
+                    publishChanged(found);
+                }
+                return found;
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                Long id = chunk.get(i);
+                BulkItemResult.Outcome outcome = live != null && live.contains(id)
+                        ? BulkItemResult.Outcome.DELETED
+                        : BulkItemResult.Outcome.NOT_FOUND;
+                results.add(BulkItemResult.of(from + i, id, outcome));
+            }
+        }
+        return results;
+    }
+
+    private static void checkBulkSize(int size) {
+        if (size > MAX_BULK_SIZE) {
+            throw new TaskValidationException("A bulk request accepts at most " + MAX_BULK_SIZE + " items");
+        }
+    }
+
+    private static String chunkError(RuntimeException e) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        return "Batch rejected by the database: " + cause.getMessage();
     }
 
     /**
-     * Deletes a task by its ID.
+     * Deletes a task by its ID. The task itself is soft-deleted, but its dependency rows are removed with it, so
+     * they are read beforehand to recount the open predecessors of its dependents and to report them as removed.
      *
      * @param id The ID of the task to delete.
      * @throws TaskNotFoundException If the task is not found.
      */
-    @Transactional
+    @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
     public void deleteTask(Long id) {
         if (!taskRepository.existsById(id)) {
             throw new TaskNotFoundException("Task not found with ID: " + id);
         }
+        List<Long> dependentIds = taskDependencyRepository.findDependentTaskIds(id);
+        List<TaskDependency.TaskDependencyId> removed = new ArrayList<>();
+        for (Long dependsOnId : taskDependencyRepository.findDependsOnTaskIds(id)) {
+            removed.add(new TaskDependency.TaskDependencyId(id, dependsOnId));
+        }
+        for (Long dependentId : dependentIds) {
+            removed.add(new TaskDependency.TaskDependencyId(dependentId, id));
+        }
         taskRepository.deleteById(id);
+        for (int from = 0; from < dependentIds.size(); from += BULK_CHUNK_SIZE) {
+            taskRepository.recountOpenPredecessors(dependentIds.subList(from, Math.min(from + BULK_CHUNK_SIZE, dependentIds.size())));
+        }
+        if (!removed.isEmpty()) {
+            eventPublisher.publishEvent(new TaskDependencyChangedEvent(List.of(), removed));
+        }
+        publishChanged(List.of(id));
     }
 
     /**
@@ -211,13 +753,19 @@ public class TaskService {
     }
 
     /**
-     * Finds overdue tasks for a specific project.
+     * Finds overdue tasks for a specific project: tasks that are neither completed nor deleted and are due before
+     * the reference date. When the reference date is the current UTC day the IDs come from the
+     * {@link OverdueTaskIndex} and only those tasks are loaded; otherwise the task table is queried.
      *
      * @param project The project for which to find overdue tasks.
      * @param date    The reference date to determine if a task is overdue.
-     * @return A list of overdue tasks for the given project.
+     * @return A list of overdue tasks for the given project, ordered by due date and ID.
      */
     public List<Task> findOverdueTasksByProject(Project project, LocalDate date) {
+        if (overdueTaskIndex.covers(date)) {
+            List<Long> ids = overdueTaskIndex.findOverdueTaskIds(project.getId(), TaskCursor.FIRST_DATE, 0L, Integer.MAX_VALUE);
+            return inOrderOf(ids, taskRepository.findWithReferencesByIdIn(ids));
+        }
         return taskRepository.findOverdueTasksByProject(project, date);
     }
 
@@ -229,4 +777,436 @@ public class TaskService {
     public List<Task> findAllDeletedTasks() {
         return taskRepository.findAllDeleted();
     }
+
+    /**
+     * Finds a page of all tasks, ordered by ID.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit  The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of tasks.
+     */
+    public CursorPage<TaskSummary> findTasksPage(String cursor, int limit) {
+        int size = pageSize(limit);
+        return idPage(taskRepository.findByIdGreaterThanOrderByIdAsc(afterId(cursor), probe(size)), size);
+    }
+
+    /**
+     * Finds a page of tasks assigned to a specific user, ordered by ID.
+     *
+     * @param assigneeId The ID of the user to whom the tasks are assigned.
+     * @param cursor     The cursor returned with the previous page, or null for the first page.
+     * @param limit      The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of tasks assigned to the specified user.
+     */
+    public CursorPage<TaskSummary> findTasksByAssigneePage(Long assigneeId, String cursor, int limit) {
+        int size = pageSize(limit);
+        return idPage(taskRepository.findByAssigneeIdAndIdGreaterThanOrderByIdAsc(assigneeId, afterId(cursor), probe(size)), size);
+    }
+
+    /**
+     * Finds a page of tasks belonging to a specific category, ordered by ID.
+     *
+     * @param categoryId The ID of the category.
+     * @param cursor     The cursor returned with the previous page, or null for the first page.
+     * @param limit      The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of tasks belonging to the specified category.
+     */
+    public CursorPage<TaskSummary> findTasksByCategoryPage(Long categoryId, String cursor, int limit) {
+        int size = pageSize(limit);
+        return idPage(taskRepository.findByCategoryIdAndIdGreaterThanOrderByIdAsc(categoryId, afterId(cursor), probe(size)), size);
+    }
+
+    /**
+     * Finds a page of tasks with a specific priority, ordered by ID.
+     *
+     * @param priorityId The ID of the priority.
+     * @param cursor     The cursor returned with the previous page, or null for the first page.
+     * @param limit      The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of tasks with the specified priority.
+     */
+    public CursorPage<TaskSummary> findTasksByPriorityPage(Long priorityId, String cursor, int limit) {
+        int size = pageSize(limit);
+        return idPage(taskRepository.findByPriorityIdAndIdGreaterThanOrderByIdAsc(priorityId, afterId(cursor), probe(size)), size);
+    }
+
+    /**
+     * Finds a page of tasks associated with a specific project, ordered by ID.
+     *
+     * @param projectId The ID of the project.
+     * @param cursor    The cursor returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of tasks associated with the specified project.
+     */
+    public CursorPage<TaskSummary> findTasksByProjectPage(Long projectId, String cursor, int limit) {
+        int size = pageSize(limit);
+        return idPage(taskRepository.findByProjectIdAndIdGreaterThanOrderByIdAsc(projectId, afterId(cursor), probe(size)), size);
+    }
+
+    /**
+     * Finds a page of tasks with a specific status, ordered by ID.
+     *
+     * @param statusId The ID of the status.
+     * @param cursor   The cursor returned with the previous page, or null for the first page.
+     * @param limit    The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of tasks with the specified status.
+     */
+    public CursorPage<TaskSummary> findTasksByStatusPage(Long statusId, String cursor, int limit) {
+        int size = pageSize(limit);
+        return idPage(taskRepository.findByStatusIdAndIdGreaterThanOrderByIdAsc(statusId, afterId(cursor), probe(size)), size);
+    }
+
+    /**
+     * Finds a page of tasks assigned to a specific user and having a particular status, ordered by ID.
+     *
+     * @param assigneeId The ID of the assignee.
+     * @param statusId   The ID of the status.
+     * @param cursor     The cursor returned with the previous page, or null for the first page.
+     * @param limit      The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of tasks matching the given assignee and status.
+     */
+    public CursorPage<TaskSummary> findTasksByAssigneeAndStatusPage(Long assigneeId, Long statusId, String cursor, int limit) {
+        int size = pageSize(limit);
+        return idPage(taskRepository.findByAssigneeIdAndStatusIdAndIdGreaterThanOrderByIdAsc(assigneeId, statusId, afterId(cursor), probe(size)), size);
+    }
+
+    /**
+     * Finds a page of incomplete tasks, ordered by ID.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit  The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of incomplete tasks.
+     */
+    public CursorPage<TaskSummary> findIncompleteTasksPage(String cursor, int limit) {
+        int size = pageSize(limit);
+        return idPage(taskRepository.findByCompletedAtIsNullAndIdGreaterThanOrderByIdAsc(afterId(cursor), probe(size)), size);
+    }
+
+    /**
+     * Finds a page of completed tasks, ordered by ID.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit  The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of completed tasks.
+     */
+    public CursorPage<TaskSummary> findCompletedTasksPage(String cursor, int limit) {
+        int size = pageSize(limit);
+        return idPage(taskRepository.findByCompletedAtIsNotNullAndIdGreaterThanOrderByIdAsc(afterId(cursor), probe(size)), size);
+    }
+
+    /**
+     * Finds a page of soft-deleted tasks, ordered by ID.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit  The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of soft-deleted tasks.
+     */
+    public CursorPage<TaskSummary> findAllDeletedTasksPage(String cursor, int limit) {
+        int size = pageSize(limit);
+        return idPage(taskRepository.findByDeletedAtIsNotNullAndIdGreaterThanOrderByIdAsc(afterId(cursor), probe(size)), size);
+    }
+
+    /**
+     * Finds a page of tasks due before a specific date, ordered by due date and ID.
+     *
+     * @param date   The date to compare with task due dates.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit  The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of tasks due before the specified date.
+     */
+    public CursorPage<TaskSummary> findTasksDueBeforePage(LocalDate date, String cursor, int limit) {
+        TaskCursor after = TaskCursor.decode(cursor);
+        int size = pageSize(limit);
+        return dueDatePage(taskRepository.findDueBeforeAfterCursor(date, afterDueDate(after), afterId(after), probe(size)), size);
+    }
+
+    /**
+     * Finds a page of tasks due after a specific date, ordered by due date and ID.
+     *
+     * @param date   The date to compare with task due dates.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit  The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of tasks due after the specified date.
+     */
+    public CursorPage<TaskSummary> findTasksDueAfterPage(LocalDate date, String cursor, int limit) {
+        TaskCursor after = TaskCursor.decode(cursor);
+        int size = pageSize(limit);
+        return dueDatePage(taskRepository.findDueAfterAfterCursor(date, afterDueDate(after), afterId(after), probe(size)), size);
+    }
+
+    /**
+     * Finds a page of tasks due between two dates, ordered by due date and ID.
+     *
+     * @param startDate The start date of the range.
+     * @param endDate   The end date of the range.
+     * @param cursor    The cursor returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of tasks due within the specified range.
+     */
+    public CursorPage<TaskSummary> findTasksDueBetweenPage(LocalDate startDate, LocalDate endDate, String cursor, int limit) {
+        TaskCursor after = TaskCursor.decode(cursor);
+        int size = pageSize(limit);
+        return dueDatePage(taskRepository.findDueBetweenAfterCursor(startDate, endDate, afterDueDate(after), afterId(after), probe(size)), size);
+    }
+
+    /**
+     * Finds a page of overdue tasks for a specific project, ordered by due date and ID.
+     * Served from the {@link OverdueTaskIndex} when the reference date is the current UTC day.
+     *
+     * @param projectId The ID of the project.
+     * @param date      The reference date to determine if a task is overdue.
+     * @param cursor    The cursor returned with the previous page, or null for the first page.
+     * @param limit     The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of overdue tasks for the given project.
+     */
+    public CursorPage<TaskSummary> findOverdueTasksByProjectPage(Long projectId, LocalDate date, String cursor, int limit) {
+        TaskCursor after = TaskCursor.decode(cursor);
+        int size = pageSize(limit);
+        if (overdueTaskIndex.covers(date)) {
+            List<Long> ids = overdueTaskIndex.findOverdueTaskIds(projectId, afterDueDate(after), afterId(after), size + 1);
+            return dueDatePage(inOrderOf(ids, taskRepository.findWithReferencesByIdIn(ids)), size);
+        }
+        return dueDatePage(taskRepository.findOverdueByProjectAfterCursor(projectId, date, afterDueDate(after), afterId(after), probe(size)), size);
+    }
+
+    /**
+     * Searches tasks by any combination of project, assignee, status, priority, category, type, due date range
+     * and completion state in a single query, returning one keyset page.
+     * The search must be narrowed by project or assignee, or by a due date bound when sorting by due date, so that
+     * it is served by an index rather than a full table scan or a sort of a whole date range. Sorting by due date
+     * only returns tasks that have a due date.
+     *
+     * @param criteria The search filters and sort order.
+     * @param cursor   The cursor returned with the previous page, or null for the first page.
+     * @param limit    The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of matching tasks.
+     * @throws TaskValidationException If the search is not narrowed by an indexed column or the cursor is invalid.
+     */
+    public CursorPage<TaskSummary> searchTasks(TaskSearchCriteria criteria, String cursor, int limit) {
+        if (!criteria.isIndexAnchored()) {
+            throw new TaskValidationException(
+                    "Search must be narrowed by projectId or assigneeId, or by dueFrom or dueTo with sort=DUE_DATE");
+        }
+        TaskSearchCriteria.SortKey sortKey = criteria.getSort() == null ? TaskSearchCriteria.SortKey.ID : criteria.getSort();
+        int size = pageSize(limit);
+
+        Specification<Task> spec = TaskSpecifications.matching(criteria)
+                .and(TaskSpecifications.after(sortKey, TaskCursor.decode(cursor)));
+        Sort sort = sortKey == TaskSearchCriteria.SortKey.DUE_DATE
+                ? Sort.by("taskDueDate", "id")
+                : Sort.by("id");
+
+        List<Task> rows = taskRepository.findBy(spec, query -> query
+                .project(REFERENCE_PROPERTIES)
+                .sortBy(sort)
+                .limit(size + 1)
+                .all());
+        return sortKey == TaskSearchCriteria.SortKey.DUE_DATE ? dueDatePage(rows, size) : idPage(rows, size);
+    }
+
+    /**
+     * Finds a page of open tasks whose predecessors are all completed, ordered by ID. Readiness is read from the
+     * maintained open predecessor count, so the listing is an index range scan rather than a dependency walk.
+     *
+     * @param projectId  The ID of the project, or null for all projects.
+     * @param assigneeId The ID of the assignee, or null for all assignees.
+     * @param cursor     The cursor returned with the previous page, or null for the first page.
+     * @param limit      The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of tasks that can be started.
+     * @throws TaskValidationException If neither a project nor an assignee is given, or the cursor is invalid.
+     */
+    public CursorPage<TaskSummary> findReadyTasks(Long projectId, Long assigneeId, String cursor, int limit) {
+        return findByReadiness(TaskSpecifications.ready(), projectId, assigneeId, cursor, limit);
+    }
+
+    /**
+     * Finds a page of open tasks that still wait for at least one open predecessor, ordered by ID.
+     *
+     * @param projectId  The ID of the project, or null for all projects.
+     * @param assigneeId The ID of the assignee, or null for all assignees.
+     * @param cursor     The cursor returned with the previous page, or null for the first page.
+     * @param limit      The maximum number of tasks to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of blocked tasks.
+     * @throws TaskValidationException If neither a project nor an assignee is given, or the cursor is invalid.
+     */
+    public CursorPage<TaskSummary> findBlockedTasks(Long projectId, Long assigneeId, String cursor, int limit) {
+        return findByReadiness(TaskSpecifications.blocked(), projectId, assigneeId, cursor, limit);
+    }
+
+    private CursorPage<TaskSummary> findByReadiness(Specification<Task> readiness, Long projectId, Long assigneeId,
+                                                    String cursor, int limit) {
+        if (projectId == null && assigneeId == null) {
+            throw new TaskValidationException("Listing must be narrowed by projectId or assigneeId");
+        }
+        int size = pageSize(limit);
+        Specification<Task> spec = Specification.where(TaskSpecifications.notDeleted())
+                .and(TaskSpecifications.hasProject(projectId))
+                .and(TaskSpecifications.hasAssignee(assigneeId))
+                .and(readiness)
+                .and(TaskSpecifications.after(TaskSearchCriteria.SortKey.ID, TaskCursor.decode(cursor)));
+        List<Task> rows = taskRepository.findBy(spec, query -> query
+                .project(REFERENCE_PROPERTIES)
+                .sortBy(Sort.by("id"))
+                .limit(size + 1)
+                .all());
+        return idPage(rows, size);
+    }
+
+    /**
+     * Returns the tasks created, updated or soft-deleted since a cursor, ordered by update time then ID.
+     * Deleted tasks are returned as tombstones. The keys are read from an index covering the feed order and
+     * only the live tasks of the page are then loaded, so a sync costs in proportion to what changed.
+     * Unlike the other listings, the next cursor is returned even when there are no more changes: clients keep
+     * it and pass it as {@code since} on their next sync. When a sync finds nothing, the cursor moves up to the
+     * high-water mark, {@link #CHANGE_FEED_LAG} behind the current time, so an empty first sync still yields one.
+     *
+     * @param since The cursor returned by the previous sync, or null to read the feed from the beginning.
+     * @param limit The maximum number of changes to return, capped at {@link #MAX_PAGE_SIZE}.
+     * @return A page of changes.
+     * @throws TaskValidationException If the cursor is not a change feed cursor.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TaskChange> findTaskChanges(String since, int limit) {
+        TaskCursor after = TaskCursor.decode(since);
+        int size = pageSize(limit);
+        LocalDateTime afterUpdatedAt = after == null ? TaskCursor.FIRST_DATE.atStartOfDay() : after.sortValueAsDateTime();
+        LocalDateTime until = LocalDateTime.now().minus(CHANGE_FEED_LAG);
+        List<TaskChangeKey> keys = taskRepository.findChangesAfterCursor(afterUpdatedAt, afterId(after), until,
+                probe(size));
+
+        boolean hasMore = keys.size() > size;
+        List<TaskChangeKey> pageKeys = hasMore ? keys.subList(0, size) : keys;
+        List<Long> liveIds = new ArrayList<>(pageKeys.size());
+        for (TaskChangeKey key : pageKeys) {
+            if (key.getDeletedAt() == null) {
+                liveIds.add(key.getId());
+            }
+        }
+        Map<Long, Task> live = new HashMap<>();
+        if (!liveIds.isEmpty()) {
+            for (Task task : taskRepository.findWithReferencesByIdIn(liveIds)) {
+                live.put(task.getId(), task);
+            }
+        }
+
+        List<TaskChange> items = new ArrayList<>(pageKeys.size());
+        for (TaskChangeKey key : pageKeys) {
+            Task task = live.get(key.getId());
+            items.add(task == null || task.getDeletedAt() != null
+                    ? TaskChange.tombstone(key.getId(), key.getUpdatedAt())
+                    : TaskChange.upsert(task));
+        }
+        if (pageKeys.isEmpty()) {
+            // Everything before the high-water mark has been seen, so the next sync can start from it.
+            String nextCursor = until.isAfter(afterUpdatedAt) ? new TaskCursor(until.toString(), 0L).encode() : since;
+            return new CursorPage<>(items, nextCursor, false);
+        }
+        TaskChangeKey last = pageKeys.get(pageKeys.size() - 1);
+        String nextCursor = new TaskCursor(last.getUpdatedAt().toString(), last.getId()).encode();
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Computes the dashboard counts of a project: totals, completed, open and overdue tasks, and the number
+     * of tasks per status, priority, category and assignee. Each count is a GROUP BY query narrowed by the
+     * project indexes, so the cost does not depend on the size of the tasks themselves.
+     *
+     * @param projectId The ID of the project.
+     * @param today     The date before which an open task is overdue.
+     * @return The counts of the live tasks of the project.
+     */
+    @Transactional(readOnly = true)
+    public TaskProjectStats findProjectStats(Long projectId, LocalDate today) {
+        TaskTotals totals = taskRepository.countTotalsByProject(projectId, today);
+        long total = totals.getTotal() == null ? 0 : totals.getTotal();
+        long completed = totals.getCompleted() == null ? 0 : totals.getCompleted();
+        long overdue = totals.getOverdue() == null ? 0 : totals.getOverdue();
+        return new TaskProjectStats(projectId, total, completed, total - completed, overdue,
+                taskRepository.countByStatus(projectId),
+                taskRepository.countByPriority(projectId),
+                taskRepository.countByCategory(projectId),
+                taskRepository.countByAssignee(projectId));
+    }
+
+    /**
+     * Keeps the open predecessor counts of the dependents current after tasks were completed, reopened or deleted.
+     *
+     * @param taskIds The changed tasks.
+     */
+    private void recountOpenPredecessors(Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        taskRepository.recountOpenPredecessorsOfDependents(taskIds);
+    }
+
+    private void publishChanged(Collection<Long> taskIds) {
+        eventPublisher.publishEvent(new TaskChangedEvent(List.copyOf(taskIds)));
+    }
+
+    /**
+     * Orders tasks loaded by ID like the given IDs, dropping the IDs of tasks that no longer exist.
+     */
+    private static List<Task> inOrderOf(List<Long> ids, List<Task> tasks) {
+        Map<Long, Task> byId = new HashMap<>();
+        for (Task task : tasks) {
+            byId.put(task.getId(), task);
+        }
+        List<Task> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Task task = byId.get(id);
+            if (task != null) {
+                ordered.add(task);
+            }
+        }
+        return ordered;
+    }
+
+    private static int pageSize(int limit) {
+        if (limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Asks for one row more than the page size so the presence of a next page is known without a count query.
+     */
+    private static Pageable probe(int size) {
+        return PageRequest.of(0, size + 1);
+    }
+
+    private static long afterId(String cursor) {
+        return afterId(TaskCursor.decode(cursor));
+    }
+
+    private static long afterId(TaskCursor cursor) {
+        return cursor == null ? 0L : cursor.getId();
+    }
+
+    private static LocalDate afterDueDate(TaskCursor cursor) {
+        return cursor == null ? TaskCursor.FIRST_DATE : cursor.sortValueAsDate();
+    }
+
+    private static CursorPage<TaskSummary> idPage(List<Task> rows, int size) {
+        return toPage(rows, size, task -> null);
+    }
+
+    private static CursorPage<TaskSummary> dueDatePage(List<Task> rows, int size) {
+        return toPage(rows, size, task -> task.getTaskDueDate().toString());
+    }
+
+    private static CursorPage<TaskSummary> toPage(List<Task> rows, int size, Function<Task, String> sortValue) {
+        boolean hasMore = rows.size() > size;
+        List<Task> pageRows = hasMore ? rows.subList(0, size) : rows;
+        List<TaskSummary> items = new ArrayList<>(pageRows.size());
+        for (Task task : pageRows) {
+            items.add(TaskSummary.from(task));
+        }
+        if (!hasMore) {
+            return new CursorPage<>(items, null, false);
+        }
+        Task last = pageRows.get(size - 1);
+        String nextCursor = new TaskCursor(sortValue.apply(last), last.getId()).encode();
+        return new CursorPage<>(items, nextCursor, true);
+    }
 }
@@ -0,0 +1,245 @@
+package com.daaeboul.taskmanagementsystem.service.task.graph;
+
+import java.util.Arrays;
+
+/**
+ * Critical path method over a dependency DAG whose nodes are numbered {@code 0..nodeCount-1}.
+ * <p>
+ * A forward pass in topological order gives every node its earliest start and finish, a backward pass its
+ * latest finish: the earliest latest start of its dependents, capped by its own deadline, or by the finish of
+ * the whole schedule if it has neither. Slack is latest finish minus earliest finish, so it is negative for a
+ * node that cannot meet its deadline. Both passes run over adjacency arrays built once, in time linear in the
+ * number of nodes and edges. Times are whole days from the start of the schedule.
+ */
+public final class CriticalPathAnalyzer {
+
+    /**
+     * Deadline of a node that has none.
+     */
+    public static final int NO_DEADLINE = Integer.MAX_VALUE;
+
+    private CriticalPathAnalyzer() {
+    }
+
+    /**
+     * Schedules a DAG.
+     *
+     * @param nodeCount      The number of nodes.
+     * @param durations      The duration of every node.
+     * @param deadlines      The latest finish of every node, or {@link #NO_DEADLINE}.
+     * @param dependentNodes For every edge, the node that depends on the other one.
+     * @param dependedOn     For every edge, the node that is depended on.
+     * @return The schedule, or a schedule holding a cycle if the graph is not acyclic.
+     */
+    public static Schedule analyze(int nodeCount, int[] durations, int[] deadlines, int[] dependentNodes, int[] dependedOn) {
+        int edgeCount = dependentNodes.length;
+        int[] dependencyStart = new int[nodeCount + 1];
+        int[] dependentStart = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            dependencyStart[dependentNodes[e] + 1]++;
+            dependentStart[dependedOn[e] + 1]++;
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            dependencyStart[v + 1] += dependencyStart[v];
+            dependentStart[v + 1] += dependentStart[v];
+        }
+        int[] dependencies = new int[edgeCount];
+        int[] dependents = new int[edgeCount];
+        int[] dependencyFill = Arrays.copyOf(dependencyStart, nodeCount);
+        int[] dependentFill = Arrays.copyOf(dependentStart, nodeCount);
+        for (int e = 0; e < edgeCount; e++) {
+            dependencies[dependencyFill[dependentNodes[e]]++] = dependedOn[e];
+            dependents[dependentFill[dependedOn[e]]++] = dependentNodes[e];
+        }
+
+        // Forward pass (Kahn): a node is scheduled once all of its dependencies are.
+        int[] order = new int[nodeCount];
+        int[] pending = new int[nodeCount];
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            pending[v] = dependencyStart[v + 1] - dependencyStart[v];
+            if (pending[v] == 0) {
+                order[tail++] = v;
+            }
+        }
+        int[] earliestStart = new int[nodeCount];
+        int[] earliestFinish = new int[nodeCount];
+        int finish = 0;
+        while (head < tail) {
+            int v = order[head++];
+            earliestFinish[v] = earliestStart[v] + durations[v];
+            finish = Math.max(finish, earliestFinish[v]);
+            for (int i = dependentStart[v]; i < dependentStart[v + 1]; i++) {
+                int w = dependents[i];
+                earliestStart[w] = Math.max(earliestStart[w], earliestFinish[v]);
+                if (--pending[w] == 0) {
+                    order[tail++] = w;
+                }
+            }
+        }
+        if (tail < nodeCount) {
+            return new Schedule(findCycle(nodeCount, pending, dependencyStart, dependencies));
+        }
+
+        // Backward pass in reverse topological order.
+        int[] latestFinish = new int[nodeCount];
+        int[] slack = new int[nodeCount];
+        for (int k = nodeCount - 1; k >= 0; k--) {
+            int v = order[k];
+            long latest = deadlines[v] != NO_DEADLINE ? deadlines[v]
+                    : dependentStart[v] == dependentStart[v + 1] ? finish : Long.MAX_VALUE;
+            for (int i = dependentStart[v]; i < dependentStart[v + 1]; i++) {
+                int w = dependents[i];
+                latest = Math.min(latest, (long) latestFinish[w] - durations[w]);
+            }
+            latestFinish[v] = (int) latest;
+            slack[v] = latestFinish[v] - earliestFinish[v];
+        }
+
+        return new Schedule(earliestStart, earliestFinish, latestFinish, slack, finish,
+                criticalChain(nodeCount, earliestStart, earliestFinish, slack, dependencyStart, dependencies));
+    }
+
+    /**
+     * Walks back from the node that finishes last through the dependencies that set each node's earliest start,
+     * preferring the one with the least slack.
+     */
+    private static int[] criticalChain(int nodeCount, int[] earliestStart, int[] earliestFinish, int[] slack,
+                                       int[] dependencyStart, int[] dependencies) {
+        if (nodeCount == 0) {
+            return new int[0];
+        }
+        int last = 0;
+        for (int v = 1; v < nodeCount; v++) {
+            if (earliestFinish[v] > earliestFinish[last]
+                    || (earliestFinish[v] == earliestFinish[last] && slack[v] < slack[last])) {
+                last = v;
+            }
+        }
+        int[] chain = new int[16];
+        int size = 0;
+        for (int v = last; v >= 0; ) {
+            if (size == chain.length) {
+                chain = Arrays.copyOf(chain, size << 1);
+            }
+            chain[size++] = v;
+            int driver = -1;
+            for (int i = dependencyStart[v]; i < dependencyStart[v + 1]; i++) {
+                int u = dependencies[i];
+                if (earliestFinish[u] == earliestStart[v] && (driver < 0 || slack[u] < slack[driver])) {
+                    driver = u;
+                }
+            }
+            v = driver;
+        }
+        int[] ordered = new int[size];
+        for (int i = 0; i < size; i++) {
+            ordered[i] = chain[size - 1 - i];
+        }
+        return ordered;
+    }
+
+    /**
+     * Every node left unscheduled by the forward pass has an unscheduled dependency, so following those from any
+     * of them must revisit a node; the nodes from its first visit on form a cycle.
+     */
+    static int[] findCycle(int nodeCount, int[] pending, int[] dependencyStart, int[] dependencies) {
+        int start = 0;
+        while (pending[start] == 0) {
+            start++;
+        }
+        int[] visitedAt = new int[nodeCount];
+        Arrays.fill(visitedAt, -1);
+        int[] walk = new int[nodeCount];
+        int size = 0;
+        int v = start;
+        while (visitedAt[v] < 0) {
+            visitedAt[v] = size;
+            walk[size++] = v;
+            int next = -1;
+            for (int i = dependencyStart[v]; i < dependencyStart[v + 1] && next < 0; i++) {
+                if (pending[dependencies[i]] > 0) {
+                    next = dependencies[i];
+                }
+            }
+            v = next;
+        }
+        int[] cycle = Arrays.copyOfRange(walk, visitedAt[v], size + 1);
+        cycle[cycle.length - 1] = v;
+        return cycle;
+    }
+
+    /**
+     * The result of {@link #analyze}: either the per-node schedule and critical chain, or a cycle.
+     */
+    public static final class Schedule {
+
+        private final int[] earliestStart;
+        private final int[] earliestFinish;
+        private final int[] latestFinish;
+        private final int[] slack;
+        private final int finish;
+        private final int[] criticalChain;
+        private final int[] cycle;
+
+        private Schedule(int[] earliestStart, int[] earliestFinish, int[] latestFinish, int[] slack, int finish,
+                         int[] criticalChain) {
+            this.earliestStart = earliestStart;
+            this.earliestFinish = earliestFinish;
+            this.latestFinish = latestFinish;
+            this.slack = slack;
+            this.finish = finish;
+            this.criticalChain = criticalChain;
+            this.cycle = null;
+        }
+
+        private Schedule(int[] cycle) {
+            this.earliestStart = null;
+            this.earliestFinish = null;
+            this.latestFinish = null;
+            this.slack = null;
+            this.finish = 0;
+            this.criticalChain = null;
+            this.cycle = cycle;
+        }
+
+        public boolean isAcyclic() {
+            return cycle == null;
+        }
+
+        /**
+         * Returns the nodes of a cycle, each depending on the next, with the first node repeated at the end.
+         */
+        public int[] cycle() {
+            return cycle;
+        }
+
+        public int earliestStart(int node) {
+            return earliestStart[node];
+        }
+
+        public int earliestFinish(int node) {
+            return earliestFinish[node];
+        }
+
+        public int latestFinish(int node) {
+            return latestFinish[node];
+        }
+
+        public int slack(int node) {
+            return slack[node];
+        }
+
+        public int finish() {
+            return finish;
+        }
+
+        /**
+         * Returns the nodes of the critical chain, from the one that starts first to the one that finishes last.
+         */
+        public int[] criticalChain() {
+            return criticalChain;
+        }
+    }
+}
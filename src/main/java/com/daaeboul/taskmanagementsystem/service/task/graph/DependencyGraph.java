@@ -0,0 +1,297 @@
+package com.daaeboul.taskmanagementsystem.service.task.graph;
+
+import java.util.Arrays;
+
+/**
+ * Directed graph of task dependencies with forward and reverse adjacency. An edge {@code task -> dependsOn}
+ * means that {@code task} depends on {@code dependsOn}. Task IDs are mapped to dense node numbers and adjacency
+ * lists are {@code int} arrays of node numbers, so the graph holds no boxed values. A hash set of the edges
+ * answers whether an edge is present in constant time, so adding the edges of a task with many dependencies
+ * does not rescan its adjacency list for every one of them. Not thread-safe.
+ */
+public final class DependencyGraph {
+
+    private static final long MISSING = -1L;
+    private static final int[] NO_EDGES = new int[0];
+    private static final long[] NO_IDS = new long[0];
+
+    private final LongLongHashMap nodeOf = new LongLongHashMap();
+    private final LongLongHashMap edges;
+    private long[] taskIds = new long[16];
+    private int[][] forward = new int[16][];
+    private int[] forwardSize = new int[16];
+    private int[][] reverse = new int[16][];
+    private int[] reverseSize = new int[16];
+    private int nodeCount;
+    private int edgeCount;
+
+    public DependencyGraph() {
+        this(16);
+    }
+
+    /**
+     * Creates a graph sized for a number of edges, such as one about to be loaded in bulk.
+     */
+    public DependencyGraph(int expectedEdgeCount) {
+        this.edges = new LongLongHashMap(expectedEdgeCount);
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the IDs of all tasks in the graph, in the order they were added.
+     */
+    public long[] taskIds() {
+        return Arrays.copyOf(taskIds, nodeCount);
+    }
+
+    public boolean containsTask(long taskId) {
+        return nodeOf.containsKey(taskId);
+    }
+
+    /**
+     * Adds the edge {@code taskId -> dependsOnTaskId}, adding the tasks as nodes if needed.
+     *
+     * @return True if the edge was not already present.
+     */
+    public boolean addEdge(long taskId, long dependsOnTaskId) {
+        int from = nodeFor(taskId);
+        int to = nodeFor(dependsOnTaskId);
+        long edge = edgeKey(from, to);
+        if (edges.containsKey(edge)) {
+            return false;
+        }
+        edges.put(edge, 0L);
+        forward[from] = append(forward[from], forwardSize[from]++, to);
+        reverse[to] = append(reverse[to], reverseSize[to]++, from);
+        edgeCount++;
+        return true;
+    }
+
+    /**
+     * Removes the edge {@code taskId -> dependsOnTaskId}. The tasks stay in the graph as nodes.
+     *
+     * @return True if the edge was present.
+     */
+    public boolean removeEdge(long taskId, long dependsOnTaskId) {
+        int from = node(taskId);
+        int to = node(dependsOnTaskId);
+        if (from < 0 || to < 0 || !edges.remove(edgeKey(from, to))) {
+            return false;
+        }
+        removeFrom(forward, forwardSize, from, to);
+        removeFrom(reverse, reverseSize, to, from);
+        edgeCount--;
+        return true;
+    }
+
+    public boolean hasEdge(long taskId, long dependsOnTaskId) {
+        int from = node(taskId);
+        int to = node(dependsOnTaskId);
+        return from >= 0 && to >= 0 && edges.containsKey(edgeKey(from, to));
+    }
+
+    /**
+     * Returns the IDs of the tasks a task directly depends on.
+     */
+    public long[] dependenciesOf(long taskId) {
+        int node = node(taskId);
+        return node < 0 ? NO_IDS : idsOf(forward[node], forwardSize[node]);
+    }
+
+    /**
+     * Returns the IDs of the tasks that directly depend on a task.
+     */
+    public long[] dependentsOf(long taskId) {
+        int node = node(taskId);
+        return node < 0 ? NO_IDS : idsOf(reverse[node], reverseSize[node]);
+    }
+
+    public int dependencyCount(long taskId) {
+        int node = node(taskId);
+        return node < 0 ? 0 : forwardSize[node];
+    }
+
+    public int dependentCount(long taskId) {
+        int node = node(taskId);
+        return node < 0 ? 0 : reverseSize[node];
+    }
+
+    /**
+     * Finds a shortest chain of dependencies leading from one task to another with a breadth-first search.
+     *
+     * @return The task IDs of the chain from {@code fromTaskId} to {@code toTaskId} inclusive, or an empty array
+     * if {@code toTaskId} cannot be reached.
+     */
+    public long[] findPath(long fromTaskId, long toTaskId) {
+        int from = node(fromTaskId);
+        int to = node(toTaskId);
+        if (from < 0 || to < 0) {
+            return NO_IDS;
+        }
+        int[] parent = new int[nodeCount];
+        Arrays.fill(parent, -1);
+        parent[from] = from;
+        int[] queue = new int[nodeCount];
+        int tail = 0;
+        queue[tail++] = from;
+        for (int head = 0; head < tail && parent[to] < 0; head++) {
+            int v = queue[head];
+            for (int i = 0; i < forwardSize[v]; i++) {
+                int w = forward[v][i];
+                if (parent[w] < 0) {
+                    parent[w] = v;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        if (parent[to] < 0) {
+            return NO_IDS;
+        }
+        int length = 1;
+        for (int v = to; v != from; v = parent[v]) {
+            length++;
+        }
+        long[] path = new long[length];
+        for (int v = to, i = length - 1; i >= 0; v = parent[v], i--) {
+            path[i] = taskIds[v];
+        }
+        return path;
+    }
+
+    /**
+     * Finds the tasks that lie on a cycle, labelled by strongly connected component: two tasks share a label if
+     * and only if each depends, directly or transitively, on the other. Runs Tarjan's algorithm with an explicit
+     * stack, in time linear in the size of the graph.
+     *
+     * @return The component label of every task on a cycle, by task ID; tasks on no cycle are absent.
+     */
+    public LongLongHashMap cyclicComponents() {
+        LongLongHashMap labels = new LongLongHashMap();
+        int[] index = new int[nodeCount];
+        int[] low = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        int[] stack = new int[nodeCount];
+        int[] callNode = new int[nodeCount];
+        int[] callEdge = new int[nodeCount];
+        Arrays.fill(index, -1);
+        int stackSize = 0;
+        int counter = 0;
+        int component = 0;
+        for (int root = 0; root < nodeCount; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            index[root] = low[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            callNode[0] = root;
+            callEdge[0] = 0;
+            int depth = 1;
+            while (depth > 0) {
+                int v = callNode[depth - 1];
+                if (callEdge[depth - 1] < forwardSize[v]) {
+                    int w = forward[v][callEdge[depth - 1]++];
+                    if (index[w] < 0) {
+                        index[w] = low[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        callNode[depth] = w;
+                        callEdge[depth] = 0;
+                        depth++;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = callNode[depth - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] == index[v]) {
+                    int top = stackSize;
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        onStack[w] = false;
+                    } while (w != v);
+                    if (top - stackSize > 1 || edges.containsKey(edgeKey(v, v))) {
+                        for (int i = stackSize; i < top; i++) {
+                            labels.put(taskIds[stack[i]], component);
+                        }
+                    }
+                    component++;
+                }
+            }
+        }
+        return labels;
+    }
+
+    private int node(long taskId) {
+        return (int) nodeOf.get(taskId, MISSING);
+    }
+
+    private int nodeFor(long taskId) {
+        int node = node(taskId);
+        if (node >= 0) {
+            return node;
+        }
+        if (nodeCount == taskIds.length) {
+            int capacity = nodeCount << 1;
+            taskIds = Arrays.copyOf(taskIds, capacity);
+            forward = Arrays.copyOf(forward, capacity);
+            forwardSize = Arrays.copyOf(forwardSize, capacity);
+            reverse = Arrays.copyOf(reverse, capacity);
+            reverseSize = Arrays.copyOf(reverseSize, capacity);
+        }
+        node = nodeCount++;
+        taskIds[node] = taskId;
+        forward[node] = NO_EDGES;
+        reverse[node] = NO_EDGES;
+        nodeOf.put(taskId, node);
+        return node;
+    }
+
+    private long[] idsOf(int[] nodes, int size) {
+        long[] ids = new long[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = taskIds[nodes[i]];
+        }
+        return ids;
+    }
+
+    private static int[] append(int[] edges, int size, int node) {
+        if (size == edges.length) {
+            edges = Arrays.copyOf(edges, Math.max(4, size << 1));
+        }
+        edges[size] = node;
+        return edges;
+    }
+
+    /**
+     * Packs an edge between two node numbers into one key; node numbers are never negative, so no key is the
+     * reserved {@link Long#MIN_VALUE}.
+     */
+    private static long edgeKey(int from, int to) {
+        return (long) from << 32 | to;
+    }
+
+    /**
+     * Removes a node from an adjacency list known to contain it, moving the last entry into its place.
+     */
+    private static void removeFrom(int[][] lists, int[] sizes, int owner, int node) {
+        int[] list = lists[owner];
+        int index = 0;
+        while (list[index] != node) {
+            index++;
+        }
+        list[index] = list[--sizes[owner]];
+    }
+}
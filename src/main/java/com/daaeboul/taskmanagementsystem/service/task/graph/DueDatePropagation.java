@@ -0,0 +1,68 @@
+package com.daaeboul.taskmanagementsystem.service.task.graph;
+
+/**
+ * Pushes changed due dates forward along the dependents of a {@link DependencyGraph}.
+ * <p>
+ * A task cannot be due before the latest date of the tasks it depends on plus its own duration. The date a task
+ * passes on to its dependents is its proposed due date if it is one of the changed tasks, otherwise its current
+ * due date, moved later if its dependencies push it past that. Tasks are visited in topological order (Kahn), so
+ * every task is settled once, in time linear in the size of the graph. Tasks without a duration are done and
+ * pass nothing on. Dates are epoch days.
+ */
+public final class DueDatePropagation {
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private DueDatePropagation() {
+    }
+
+    /**
+     * Propagates proposed due dates.
+     *
+     * @param downstream The changed tasks, everything that transitively depends on them and the edges between
+     *                   those; dependencies on other tasks are left out, as their dates do not change.
+     * @param proposed   The proposed due date of every changed task.
+     * @param dueDates   The current due date of every task that has one.
+     * @param durations  The duration in days of every open task.
+     * @return The earliest due date that the proposed dates force on every task they reach, or null if the graph
+     * contains a cycle.
+     */
+    public static LongLongHashMap propagate(DependencyGraph downstream, LongLongHashMap proposed,
+                                            LongLongHashMap dueDates, LongLongHashMap durations) {
+        long[] taskIds = downstream.taskIds();
+        LongLongHashMap pending = new LongLongHashMap(taskIds.length);
+        long[] order = new long[taskIds.length];
+        int head = 0;
+        int tail = 0;
+        for (long taskId : taskIds) {
+            int count = downstream.dependencyCount(taskId);
+            pending.put(taskId, count);
+            if (count == 0) {
+                order[tail++] = taskId;
+            }
+        }
+
+        LongLongHashMap earliest = new LongLongHashMap();
+        while (head < tail) {
+            long taskId = order[head++];
+            long date = NONE;
+            if (proposed.containsKey(taskId)) {
+                date = Math.max(proposed.get(taskId, NONE), earliest.get(taskId, NONE));
+            } else if (durations.containsKey(taskId)) {
+                date = Math.max(dueDates.get(taskId, NONE), earliest.get(taskId, NONE));
+            }
+            for (long dependent : downstream.dependentsOf(taskId)) {
+                long duration = durations.get(dependent, NONE);
+                if (date != NONE && duration != NONE && date + duration > earliest.get(dependent, NONE)) {
+                    earliest.put(dependent, date + duration);
+                }
+                long left = pending.get(dependent, 0) - 1;
+                pending.put(dependent, left);
+                if (left == 0) {
+                    order[tail++] = dependent;
+                }
+            }
+        }
+        return tail < taskIds.length ? null : earliest;
+    }
+}
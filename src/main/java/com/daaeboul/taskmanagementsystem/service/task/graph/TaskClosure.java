@@ -0,0 +1,36 @@
+package com.daaeboul.taskmanagementsystem.service.task.graph;
+
+import java.util.Arrays;
+
+/**
+ * The tasks reached by a traversal of the dependency graph, in the order they were reached, each with its
+ * distance in edges from the starting task.
+ */
+public final class TaskClosure {
+
+    private long[] taskIds = new long[16];
+    private int[] depths = new int[16];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public long taskId(int index) {
+        return taskIds[index];
+    }
+
+    public int depth(int index) {
+        return depths[index];
+    }
+
+    public void add(long taskId, int depth) {
+        if (size == taskIds.length) {
+            taskIds = Arrays.copyOf(taskIds, size << 1);
+            depths = Arrays.copyOf(depths, size << 1);
+        }
+        taskIds[size] = taskId;
+        depths[size] = depth;
+        size++;
+    }
+}
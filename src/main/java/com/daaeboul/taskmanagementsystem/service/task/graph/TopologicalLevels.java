@@ -0,0 +1,132 @@
+package com.daaeboul.taskmanagementsystem.service.task.graph;
+
+import java.util.Arrays;
+
+/**
+ * Stable topological order of a dependency DAG, split into levels: level 0 holds the tasks without dependencies,
+ * and every other task sits one level after the last of its dependencies, so the tasks of a level can run in
+ * parallel once the previous levels are done. Within a level tasks are ordered by node number, so the same graph
+ * always gives the same order. Computed level by level with Kahn's algorithm over adjacency arrays built once.
+ */
+public final class TopologicalLevels {
+
+    private final long[] taskIds;
+    private final int[] levels;
+    private final int levelCount;
+    private final long[] cycle;
+
+    private TopologicalLevels(long[] taskIds, int[] levels, int levelCount) {
+        this.taskIds = taskIds;
+        this.levels = levels;
+        this.levelCount = levelCount;
+        this.cycle = null;
+    }
+
+    private TopologicalLevels(long[] cycle) {
+        this.taskIds = null;
+        this.levels = null;
+        this.levelCount = 0;
+        this.cycle = cycle;
+    }
+
+    /**
+     * Sorts a DAG whose nodes are numbered {@code 0..taskIds.length-1}.
+     *
+     * @param taskIds        The task ID of every node; number the nodes by ascending task ID to order each level by ID.
+     * @param dependentNodes For every edge, the node that depends on the other one.
+     * @param dependedOn     For every edge, the node that is depended on.
+     * @return The order, or an order holding a cycle if the graph is not acyclic.
+     */
+    public static TopologicalLevels sort(long[] taskIds, int[] dependentNodes, int[] dependedOn) {
+        int nodeCount = taskIds.length;
+        int edgeCount = dependentNodes.length;
+        int[] dependencyStart = new int[nodeCount + 1];
+        int[] dependentStart = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            dependencyStart[dependentNodes[e] + 1]++;
+            dependentStart[dependedOn[e] + 1]++;
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            dependencyStart[v + 1] += dependencyStart[v];
+            dependentStart[v + 1] += dependentStart[v];
+        }
+        int[] dependencies = new int[edgeCount];
+        int[] dependents = new int[edgeCount];
+        int[] dependencyFill = Arrays.copyOf(dependencyStart, nodeCount);
+        int[] dependentFill = Arrays.copyOf(dependentStart, nodeCount);
+        for (int e = 0; e < edgeCount; e++) {
+            dependencies[dependencyFill[dependentNodes[e]]++] = dependedOn[e];
+            dependents[dependentFill[dependedOn[e]]++] = dependentNodes[e];
+        }
+
+        int[] order = new int[nodeCount];
+        int[] pending = new int[nodeCount];
+        int tail = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            pending[v] = dependencyStart[v + 1] - dependencyStart[v];
+            if (pending[v] == 0) {
+                order[tail++] = v;
+            }
+        }
+        int[] levels = new int[nodeCount];
+        int level = 0;
+        for (int head = 0; head < tail; level++) {
+            int levelEnd = tail;
+            for (; head < levelEnd; head++) {
+                int v = order[head];
+                levels[head] = level;
+                for (int i = dependentStart[v]; i < dependentStart[v + 1]; i++) {
+                    int w = dependents[i];
+                    if (--pending[w] == 0) {
+                        order[tail++] = w;
+                    }
+                }
+            }
+            Arrays.sort(order, levelEnd, tail);
+        }
+        if (tail < nodeCount) {
+            int[] cycle = CriticalPathAnalyzer.findCycle(nodeCount, pending, dependencyStart, dependencies);
+            long[] cycleIds = new long[cycle.length];
+            for (int i = 0; i < cycle.length; i++) {
+                cycleIds[i] = taskIds[cycle[i]];
+            }
+            return new TopologicalLevels(cycleIds);
+        }
+
+        long[] sorted = new long[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            sorted[i] = taskIds[order[i]];
+        }
+        return new TopologicalLevels(sorted, levels, level);
+    }
+
+    public boolean isAcyclic() {
+        return cycle == null;
+    }
+
+    /**
+     * Returns the task IDs of a cycle, each depending on the next, with the first task repeated at the end.
+     */
+    public long[] cycle() {
+        return cycle;
+    }
+
+    /**
+     * Returns the number of tasks in the order.
+     */
+    public int size() {
+        return taskIds.length;
+    }
+
+    public long taskId(int position) {
+        return taskIds[position];
+    }
+
+    public int level(int position) {
+        return levels[position];
+    }
+
+    public int levelCount() {
+        return levelCount;
+    }
+}
@@ -0,0 +1,85 @@
+-- Schema changes to apply to an existing database, in order.
+-- Hibernate runs with ddl-auto=none, so each change has to be applied manually before deploying the code that needs it.
+
+-- Keyset pagination and task search indexes (mirrors the @Index declarations on Task).
+CREATE INDEX idx_task_due_date ON task (task_due_date, id);
+CREATE INDEX idx_task_completed_at ON task (completed_at, id);
+CREATE INDEX idx_task_deleted_at ON task (deleted_at, id);
+CREATE INDEX idx_task_project_status ON task (project_id, status_id, id);
+CREATE INDEX idx_task_project_due_date ON task (project_id, task_due_date, id);
+CREATE INDEX idx_task_assignee_status ON task (assignee_id, status_id, id);
+CREATE INDEX idx_task_assignee_due_date ON task (assignee_id, task_due_date, id);
+
+-- Pooled id sequence shared by every BaseEntity table; the increment must match allocationSize on BaseEntity.
+-- Start it above the highest id in use in any table that extends BaseEntity.
+CREATE SEQUENCE entity_id_seq START WITH 1000000 INCREMENT BY 50;
+
+-- Task change feed: every column read by the feed key query is in the index.
+-- Rows without updated_at would never show up in the feed.
+UPDATE task SET updated_at = COALESCE(created_at, NOW()) WHERE updated_at IS NULL;
+CREATE INDEX idx_task_updated_at ON task (updated_at, id, deleted_at);
+
+-- Optimistic lock version on every table of an entity extending BaseEntity.
+ALTER TABLE user ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE user_details ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE user_auth ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE task ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE task_type ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE task_attachment ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE task_comment ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE category ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE task_priority ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE workflow ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE status ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE `group` ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE role ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE permission ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE project ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE project_role ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Duration estimate used by the critical-path analysis; tasks without one count as one day.
+ALTER TABLE task ADD COLUMN estimated_duration_days INT NULL;
+
+-- Ready/blocked listings: open predecessors per task, kept current by the application after every change
+-- to a dependency or to the completion or deletion of a task.
+ALTER TABLE task ADD COLUMN open_predecessor_count INT NOT NULL DEFAULT 0;
+UPDATE task t SET open_predecessor_count = (
+    SELECT COUNT(*) FROM task_dependency td JOIN task d ON d.id = td.depends_on_task_id
+    WHERE td.task_id = t.id AND d.completed_at IS NULL AND d.deleted_at IS NULL);
+CREATE INDEX idx_task_project_open_predecessors ON task (project_id, open_predecessor_count, id);
+CREATE INDEX idx_task_assignee_open_predecessors ON task (assignee_id, open_predecessor_count, id);
+
+-- Streamed attachment uploads keep their content in the blob store; the row holds only its key and checksum.
+ALTER TABLE task_attachment ADD COLUMN storage_key VARCHAR(64) NULL;
+ALTER TABLE task_attachment ADD COLUMN checksum CHAR(64) NULL;
+
+-- Content-addressed attachment storage: one blob per distinct checksum, counted by the attachments using it.
+CREATE TABLE attachment_blob (
+    checksum CHAR(64) NOT NULL PRIMARY KEY,
+    storage_key VARCHAR(64) NOT NULL,
+    size BIGINT NOT NULL,
+    reference_count INT NOT NULL,
+    created_at DATETIME(6) NOT NULL
+);
+INSERT INTO attachment_blob (checksum, storage_key, size, reference_count, created_at)
+    SELECT checksum, MIN(storage_key), MAX(file_size), COUNT(*), NOW()
+    FROM task_attachment WHERE storage_key IS NOT NULL GROUP BY checksum;
+-- Duplicates uploaded before this change now point at one copy; the others are left for manual cleanup.
+UPDATE task_attachment a JOIN attachment_blob b ON b.checksum = a.checksum SET a.storage_key = b.storage_key;
+
+-- Resumable attachment uploads; the chunks are kept on disk next to the blob store until the session is committed.
+CREATE TABLE attachment_upload_session (
+    id BIGINT NOT NULL PRIMARY KEY,
+    task_id BIGINT NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    file_type VARCHAR(255) NULL,
+    file_size BIGINT NOT NULL,
+    chunk_size BIGINT NOT NULL,
+    checksum CHAR(64) NULL,
+    committing BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at DATETIME(6) NULL,
+    updated_at DATETIME(6) NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT fk_attachment_upload_session_task FOREIGN KEY (task_id) REFERENCES task (id) ON DELETE CASCADE
+);
+CREATE INDEX idx_attachment_upload_session_created_at ON attachment_upload_session (created_at);
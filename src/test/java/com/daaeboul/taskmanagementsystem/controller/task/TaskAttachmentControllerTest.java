@@ -1,7 +1,17 @@
 package com.daaeboul.taskmanagementsystem.controller.task;
 
+import com.daaeboul.taskmanagementsystem.dto.task.TaskAttachmentDownload;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskAttachmentMetadata;
+import com.daaeboul.taskmanagementsystem.dto.task.UploadSessionRequest;
+import com.daaeboul.taskmanagementsystem.dto.task.UploadSessionStatus;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskValidationException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.TaskAttachmentNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.UploadSessionConflictException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.UploadSessionNotFoundException;
 import com.daaeboul.taskmanagementsystem.model.task.Task;
 import com.daaeboul.taskmanagementsystem.model.task.TaskAttachment;
+import com.daaeboul.taskmanagementsystem.service.task.AttachmentUploadService;
 import com.daaeboul.taskmanagementsystem.service.task.TaskAttachmentService;
 import com.daaeboul.taskmanagementsystem.service.task.TaskService;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,18 +20,27 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +54,9 @@ public class TaskAttachmentControllerTest {
     @MockBean
     private TaskAttachmentService taskAttachmentService;
 
+    @MockBean
+    private AttachmentUploadService attachmentUploadService;
+
     @MockBean
     private TaskService taskService;
 
@@ -75,44 +97,226 @@ public class TaskAttachmentControllerTest {
                 .andExpect(jsonPath("$.fileSize").value(1024));
     }
 
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testUploadTaskAttachmentMultipart() throws Exception {
+        taskAttachment.setFileContent(null);
+        taskAttachment.setStorageKey("ab12");
+        taskAttachment.setChecksum("2cf24d");
+        Mockito.when(taskAttachmentService.uploadTaskAttachment(eq(1L), eq("hello.txt"), eq("text/plain"), isNull(), any(InputStream.class)))
+                .thenReturn(taskAttachment);
+
+        mockMvc.perform(multipart("/api/v1/task-attachments/1/upload")
+                        .file(new MockMultipartFile("file", "hello.txt", "text/plain", "hello".getBytes()))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.checksum").value("2cf24d"))
+                .andExpect(jsonPath("$.fileContent").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testUploadTaskAttachmentOctetStream() throws Exception {
+        Mockito.when(taskAttachmentService.uploadTaskAttachment(eq(1L), eq("hello.txt"), isNull(), isNull(), any(InputStream.class)))
+                .thenReturn(taskAttachment);
+
+        mockMvc.perform(post("/api/v1/task-attachments/1/upload")
+                        .param("fileName", "hello.txt")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("hello".getBytes()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fileName").value("Test File"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testUploadTaskAttachmentTaskNotFound() throws Exception {
+        Mockito.when(taskAttachmentService.uploadTaskAttachment(eq(1L), eq("hello.txt"), isNull(), isNull(), any(InputStream.class)))
+                .thenThrow(new TaskNotFoundException("Task not found with ID: 1"));
+
+        mockMvc.perform(post("/api/v1/task-attachments/1/upload")
+                        .param("fileName", "hello.txt")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("hello".getBytes()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testCreateUploadSession() throws Exception {
+        Mockito.when(attachmentUploadService.createUploadSession(eq(1L), any(UploadSessionRequest.class)))
+                .thenReturn(new UploadSessionStatus(7L, 1L, "video.mp4", 25L, 10L, 3, List.of(), List.of(0, 1, 2)));
+
+        mockMvc.perform(post("/api/v1/task-attachments/1/upload-sessions")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fileName\": \"video.mp4\", \"fileSize\": 25, \"chunkSize\": 10}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.chunkCount").value(3))
+                .andExpect(jsonPath("$.missingChunks", hasSize(3)));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testWriteUploadChunk() throws Exception {
+        mockMvc.perform(put("/api/v1/task-attachments/upload-sessions/7/chunks/2")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("hello".getBytes()))
+                .andExpect(status().isNoContent());
+
+        Mockito.verify(attachmentUploadService).writeChunk(eq(7L), eq(2), any(InputStream.class));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindUploadSessionStatusNotFound() throws Exception {
+        Mockito.when(attachmentUploadService.findUploadSessionStatus(7L))
+                .thenThrow(new UploadSessionNotFoundException("Upload session not found with ID: 7"));
+
+        mockMvc.perform(get("/api/v1/task-attachments/upload-sessions/7"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testCommitUploadSession() throws Exception {
+        Mockito.when(attachmentUploadService.commitUploadSession(7L)).thenReturn(taskAttachment);
+
+        mockMvc.perform(post("/api/v1/task-attachments/upload-sessions/7/commit").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.fileContent").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testCommitIncompleteUploadSession() throws Exception {
+        Mockito.when(attachmentUploadService.commitUploadSession(7L))
+                .thenThrow(new UploadSessionConflictException("Upload session 7 is missing 2 chunks"));
+
+        mockMvc.perform(post("/api/v1/task-attachments/upload-sessions/7/commit").with(csrf()))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testDownloadTaskAttachment() throws Exception {
+        Mockito.when(taskAttachmentService.openTaskAttachment(1L)).thenReturn(download());
+
+        mockMvc.perform(get("/api/v1/task-attachments/1/content"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/plain"))
+                .andExpect(header().string("Content-Length", "11"))
+                .andExpect(header().string("ETag", "\"2cf24d\""))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("Content-Disposition", allOf(startsWith("attachment"), containsString("hello.txt"))))
+                .andExpect(content().bytes("hello world".getBytes()));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testDownloadTaskAttachmentRange() throws Exception {
+        Mockito.when(taskAttachmentService.openTaskAttachment(1L)).thenReturn(download());
+
+        mockMvc.perform(get("/api/v1/task-attachments/1/content").header("Range", "bytes=6-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 6-10/11"))
+                .andExpect(header().string("Content-Length", "5"))
+                .andExpect(content().bytes("world".getBytes()));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testDownloadTaskAttachmentNotModified() throws Exception {
+        Mockito.when(taskAttachmentService.openTaskAttachment(1L)).thenReturn(download());
+
+        mockMvc.perform(get("/api/v1/task-attachments/1/content").header("If-None-Match", "\"2cf24d\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testDownloadTaskAttachmentNotFound() throws Exception {
+        Mockito.when(taskAttachmentService.openTaskAttachment(1L))
+                .thenThrow(new TaskAttachmentNotFoundException("Task attachment not found with ID: 1"));
+
+        mockMvc.perform(get("/api/v1/task-attachments/1/content"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @WithMockUser(username = "user", roles = {"USER"})
     public void testFindTaskAttachmentById() throws Exception {
-        Mockito.when(taskAttachmentService.findTaskAttachmentById(anyLong())).thenReturn(Optional.of(taskAttachment));
+        Mockito.when(taskAttachmentService.findTaskAttachmentMetadataById(1L))
+                .thenReturn(Optional.of(TaskAttachmentMetadata.from(taskAttachment)));
 
         mockMvc.perform(get("/api/v1/task-attachments/1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.fileName").value("Test File"));
+                .andExpect(jsonPath("$.fileName").value("Test File"))
+                .andExpect(jsonPath("$.fileSize").value(1024))
+                .andExpect(jsonPath("$.fileContent").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindTaskAttachmentByIdNotFound() throws Exception {
+        Mockito.when(taskAttachmentService.findTaskAttachmentMetadataById(1L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/task-attachments/1"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
     @WithMockUser(username = "user", roles = {"USER"})
     public void testFindTaskAttachmentsByTaskId() throws Exception {
-        Mockito.when(taskAttachmentService.findTaskAttachmentsByTaskId(anyLong())).thenReturn(Collections.singletonList(taskAttachment));
+        Mockito.when(taskAttachmentService.findTaskAttachmentsByTaskId(anyLong()))
+                .thenReturn(Collections.singletonList(TaskAttachmentMetadata.from(taskAttachment)));
 
         mockMvc.perform(get("/api/v1/task-attachments/task/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].fileName").value("Test File"));
+                .andExpect(jsonPath("$[0].fileName").value("Test File"))
+                .andExpect(jsonPath("$[0].fileSize").value(1024))
+                .andExpect(jsonPath("$[0].fileContent").doesNotExist());
     }
 
     @Test
     @WithMockUser(username = "user", roles = {"USER"})
     public void testFindTaskAttachmentsByFileName() throws Exception {
-        Mockito.when(taskAttachmentService.findTaskAttachmentsByFileName(any())).thenReturn(Collections.singletonList(taskAttachment));
+        Mockito.when(taskAttachmentService.findTaskAttachmentsByFileName(any()))
+                .thenReturn(Collections.singletonList(TaskAttachmentMetadata.from(taskAttachment)));
 
         mockMvc.perform(get("/api/v1/task-attachments/search/file-name/Test File"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].fileName").value("Test File"));
+                .andExpect(jsonPath("$[0].fileName").value("Test File"))
+                .andExpect(jsonPath("$[0].fileContent").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindTaskAttachmentsByFileType() throws Exception {
+        Mockito.when(taskAttachmentService.findTaskAttachmentsByFileType("text/plain"))
+                .thenReturn(Collections.singletonList(TaskAttachmentMetadata.from(taskAttachment)));
+
+        mockMvc.perform(get("/api/v1/task-attachments/search/file-type").param("fileType", "text/plain"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].fileType").value("text/plain"));
     }
 
 
     @Test
     @WithMockUser(username = "user", roles = {"USER"})
     public void testUpdateTaskAttachment() throws Exception {
-        Mockito.when(taskAttachmentService.findTaskAttachmentById(anyLong())).thenReturn(Optional.of(taskAttachment));
-        Mockito.when(taskAttachmentService.updateTaskAttachment(any(TaskAttachment.class))).thenReturn(taskAttachment);
+        taskAttachment.setFileName("Updated File");
+        Mockito.when(taskAttachmentService.updateTaskAttachment(eq(1L), any(TaskAttachment.class))).thenReturn(taskAttachment);
 
         String base64Content = Base64.getEncoder().encodeToString("Updated Content".getBytes());
 
@@ -121,7 +325,21 @@ public class TaskAttachmentControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"fileName\": \"Updated File\", \"fileType\": \"text/plain\", \"fileSize\": 2048, \"fileContent\": \"" + base64Content + "\"}"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.fileName").value("Updated File"));
+                .andExpect(jsonPath("$.fileName").value("Updated File"))
+                .andExpect(jsonPath("$.fileContent").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testUpdateTaskAttachmentContentOfStoredAttachment() throws Exception {
+        Mockito.when(taskAttachmentService.updateTaskAttachment(eq(1L), any(TaskAttachment.class)))
+                .thenThrow(new TaskValidationException("Content of task attachment 1 is stored and cannot be replaced"));
+
+        mockMvc.perform(put("/api/v1/task-attachments/1")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fileName\": \"Updated File\", \"fileContent\": \"aGVsbG8=\"}"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -132,4 +350,9 @@ public class TaskAttachmentControllerTest {
         mockMvc.perform(delete("/api/v1/task-attachments/1").with(csrf()))
                 .andExpect(status().isNoContent());
     }
+
+    private static TaskAttachmentDownload download() {
+        return new TaskAttachmentDownload("hello.txt", "text/plain", "2cf24d",
+                new ByteArrayResource("hello world".getBytes()));
+    }
 }
@@ -1,6 +1,17 @@
 package com.daaeboul.taskmanagementsystem.controller.task;
 
+import com.daaeboul.taskmanagementsystem.dto.BulkItemResult;
+import com.daaeboul.taskmanagementsystem.dto.CursorPage;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskChange;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskCount;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDetail;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskExportFormat;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskProjectStats;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSearchCriteria;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSummary;
 import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskValidationException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskVersionConflictException;
 import com.daaeboul.taskmanagementsystem.model.project.Project;
 import com.daaeboul.taskmanagementsystem.model.task.Category;
 import com.daaeboul.taskmanagementsystem.model.task.Task;
@@ -9,6 +20,7 @@ import com.daaeboul.taskmanagementsystem.model.transition.Status;
 import com.daaeboul.taskmanagementsystem.model.user.User;
 import com.daaeboul.taskmanagementsystem.service.project.ProjectService;
 import com.daaeboul.taskmanagementsystem.service.task.CategoryService;
+import com.daaeboul.taskmanagementsystem.service.task.TaskExportService;
 import com.daaeboul.taskmanagementsystem.service.task.TaskPriorityService;
 import com.daaeboul.taskmanagementsystem.service.task.TaskService;
 import com.daaeboul.taskmanagementsystem.service.transition.StatusService;
@@ -23,8 +35,12 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -43,6 +59,9 @@ public class TaskControllerTest {
     @MockBean
     private TaskService taskService;
 
+    @MockBean
+    private TaskExportService taskExportService;
+
     @MockBean
     private UserService userService;
 
@@ -120,28 +139,78 @@ public class TaskControllerTest {
     public void testFindTaskById() throws Exception {
         Task task = new Task();
         task.setTaskTitle("Task A");
+        task.setAssignee(mockUser);
+        ReflectionTestUtils.setField(task, "version", 3L);
 
-        Mockito.when(taskService.findTaskById(anyLong())).thenReturn(Optional.of(task));
+        Mockito.when(taskService.findTaskVersion(1L)).thenReturn(Optional.of(3L));
+        Mockito.when(taskService.findTaskDetailById(1L))
+                .thenReturn(Optional.of(new TaskDetail(task, List.of(2L), List.of())));
 
         mockMvc.perform(get("/api/v1/tasks/1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.taskTitle").value("Task A"));
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.taskTitle").value("Task A"))
+                .andExpect(jsonPath("$.assigneeUsername").value("testuser"))
+                .andExpect(jsonPath("$.assignee").doesNotExist())
+                .andExpect(jsonPath("$.dependsOnTaskIds[0]").value(2));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindTaskById_NotModified() throws Exception {
+        Mockito.when(taskService.findTaskVersion(1L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/v1/tasks/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        Mockito.verify(taskService, Mockito.never()).findTaskDetailById(anyLong());
     }
 
     @Test
     @WithMockUser(username = "user", roles = {"USER"})
     public void testFindTaskById_NotFound() throws Exception {
-        Mockito.when(taskService.findTaskById(anyLong())).thenReturn(Optional.empty());
+        Mockito.when(taskService.findTaskVersion(anyLong())).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/v1/tasks/1"))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindTaskDetailById() throws Exception {
+        mockTask.setAssignee(mockUser);
+        mockTask.setProject(mockProject);
+        mockTask.setStatus(mockStatus);
+
+        Mockito.when(taskService.findTaskDetailById(1L))
+                .thenReturn(Optional.of(new TaskDetail(mockTask, List.of(2L), List.of(3L, 4L))));
+
+        mockMvc.perform(get("/api/v1/tasks/1/detail"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.taskTitle").value("Test Task"))
+                .andExpect(jsonPath("$.assigneeUsername").value("testuser"))
+                .andExpect(jsonPath("$.projectName").value("Test Project"))
+                .andExpect(jsonPath("$.statusName").value("Test Status"))
+                .andExpect(jsonPath("$.dependsOnTaskIds[0]").value(2))
+                .andExpect(jsonPath("$.dependentTaskIds.length()").value(2));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindTaskDetailById_NotFound() throws Exception {
+        Mockito.when(taskService.findTaskDetailById(anyLong())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/tasks/1/detail"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @WithMockUser(username = "user", roles = {"USER"})
     public void testFindAllTasks() throws Exception {
         Task task1 = new Task();
         task1.setTaskTitle("Task A");
+        task1.setAssignee(mockUser);
 
         Task task2 = new Task();
         task2.setTaskTitle("Task B");
@@ -153,6 +222,8 @@ public class TaskControllerTest {
         mockMvc.perform(get("/api/v1/tasks"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].taskTitle").value("Task A"))
+                .andExpect(jsonPath("$[0].assigneeUsername").value("testuser"))
+                .andExpect(jsonPath("$[0].assignee").doesNotExist())
                 .andExpect(jsonPath("$[1].taskTitle").value("Task B"));
     }
 
@@ -176,6 +247,45 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$.taskTitle").value("Updated Task"));
     }
 
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testUpdateTask_SetsEstimatedDuration() throws Exception {
+        Task existingTask = new Task();
+        existingTask.setEstimatedDurationDays(2);
+
+        Mockito.when(taskService.findTaskById(anyLong())).thenReturn(Optional.of(existingTask));
+        Mockito.when(taskService.updateTask(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        mockMvc.perform(put("/api/v1/tasks/1")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"taskTitle\": \"Updated Task\", \"estimatedDurationDays\": 5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estimatedDurationDays").value(5));
+
+        Mockito.verify(taskService).updateTask(argThat(task -> Integer.valueOf(5).equals(task.getEstimatedDurationDays())));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testUpdateTask_VersionMismatch() throws Exception {
+        Task existingTask = new Task();
+        ReflectionTestUtils.setField(existingTask, "version", 4L);
+
+        Mockito.when(taskService.findTaskById(anyLong())).thenReturn(Optional.of(existingTask));
+        Mockito.doThrow(new TaskVersionConflictException("Task 1 is at version 4, not 3"))
+                .when(taskService).checkVersion(existingTask, 3L);
+
+        mockMvc.perform(put("/api/v1/tasks/1")
+                        .with(csrf())
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"taskTitle\": \"Updated Task\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        Mockito.verify(taskService, Mockito.never()).updateTask(any(Task.class));
+    }
+
     @Test
     @WithMockUser(username = "user", roles = {"USER"})
     public void testUpdateTask_NotFound() throws Exception {
@@ -437,4 +547,242 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$[0].taskTitle").value("Task A"))
                 .andExpect(jsonPath("$[1].taskTitle").value("Task B"));
     }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindTasksByProjectPaged() throws Exception {
+        Task task1 = new Task();
+        task1.setTaskTitle("Task A");
+
+        CursorPage<TaskSummary> page = new CursorPage<>(List.of(TaskSummary.from(task1)), "MXwx", true);
+
+        Mockito.when(taskService.findTasksByProjectPage(eq(1L), eq("abc"), eq(1))).thenReturn(page);
+
+        mockMvc.perform(get("/api/v1/tasks/project/1/paged")
+                        .param("cursor", "abc")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].taskTitle").value("Task A"))
+                .andExpect(jsonPath("$.nextCursor").value("MXwx"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindAllTasksPaged_InvalidCursor() throws Exception {
+        Mockito.when(taskService.findTasksPage(eq("bad"), anyInt())).thenThrow(new TaskValidationException("Invalid cursor: bad"));
+
+        mockMvc.perform(get("/api/v1/tasks/paged").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testSearchTasks() throws Exception {
+        Task task1 = new Task();
+        task1.setTaskTitle("Task A");
+
+        Mockito.when(taskService.searchTasks(any(TaskSearchCriteria.class), isNull(), eq(50)))
+                .thenReturn(new CursorPage<>(List.of(TaskSummary.from(task1)), null, false));
+
+        mockMvc.perform(get("/api/v1/tasks/search")
+                        .param("projectId", "1")
+                        .param("statusId", "2")
+                        .param("dueFrom", "2023-01-01")
+                        .param("completed", "false")
+                        .param("sort", "DUE_DATE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].taskTitle").value("Task A"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        Mockito.verify(taskService).searchTasks(argThat(criteria ->
+                criteria.getProjectId() == 1L
+                        && criteria.getStatusId() == 2L
+                        && LocalDate.of(2023, 1, 1).equals(criteria.getDueFrom())
+                        && Boolean.FALSE.equals(criteria.getCompleted())
+                        && criteria.getSort() == TaskSearchCriteria.SortKey.DUE_DATE), isNull(), eq(50));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindReadyTasks() throws Exception {
+        Task task1 = new Task();
+        ReflectionTestUtils.setField(task1, "id", 1L);
+        task1.setTaskTitle("Task A");
+        Mockito.when(taskService.findReadyTasks(eq(1L), isNull(), isNull(), eq(50)))
+                .thenReturn(new CursorPage<>(List.of(TaskSummary.from(task1)), null, false));
+
+        mockMvc.perform(get("/api/v1/tasks/ready")
+                        .param("projectId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].taskTitle").value("Task A"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindBlockedTasks() throws Exception {
+        Mockito.when(taskService.findBlockedTasks(isNull(), eq(3L), eq("abc"), eq(10)))
+                .thenReturn(new CursorPage<>(List.of(), null, false));
+
+        mockMvc.perform(get("/api/v1/tasks/blocked")
+                        .param("assigneeId", "3")
+                        .param("cursor", "abc")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testPatchTask() throws Exception {
+        ReflectionTestUtils.setField(mockTask, "version", 5L);
+        Mockito.when(taskService.patchTask(eq(1L), anyMap(), isNull())).thenReturn(mockTask);
+
+        mockMvc.perform(patch("/api/v1/tasks/1")
+                        .with(csrf())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"statusId\": 2, \"assigneeId\": null}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("ETag", "\"5\""));
+
+        Mockito.verify(taskService).patchTask(eq(1L), argThat(patch ->
+                patch.containsKey("assigneeId") && patch.get("assigneeId") == null
+                        && Integer.valueOf(2).equals(patch.get("statusId"))), isNull());
+        Mockito.verify(statusService, Mockito.never()).findStatusById(anyLong());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testPatchTask_NotFound() throws Exception {
+        Mockito.when(taskService.patchTask(eq(1L), anyMap(), isNull())).thenThrow(new TaskNotFoundException("Task not found"));
+
+        mockMvc.perform(patch("/api/v1/tasks/1")
+                        .with(csrf())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"statusId\": 2}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testPatchTask_VersionMismatch() throws Exception {
+        Mockito.when(taskService.patchTask(eq(1L), anyMap(), eq(3L)))
+                .thenThrow(new TaskVersionConflictException("Task 1 is at version 4, not 3"));
+
+        mockMvc.perform(patch("/api/v1/tasks/1")
+                        .with(csrf())
+                        .header("If-Match", "\"3\"")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"statusId\": 2}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testPatchTask_WeakIfMatchNeverMatches() throws Exception {
+        mockMvc.perform(patch("/api/v1/tasks/1")
+                        .with(csrf())
+                        .header("If-Match", "W/\"3\"")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"statusId\": 2}"))
+                .andExpect(status().isPreconditionFailed());
+
+        Mockito.verify(taskService, Mockito.never()).patchTask(anyLong(), anyMap(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testCreateTasksInBulk() throws Exception {
+        Mockito.when(taskService.createTasks(anyList())).thenReturn(List.of(
+                BulkItemResult.of(0, 10L, BulkItemResult.Outcome.CREATED),
+                BulkItemResult.failed(1, null, "taskTitle must not be blank")));
+
+        mockMvc.perform(post("/api/v1/tasks/bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"taskTitle\": \"Task A\", \"project\": {\"id\": 1}}, {}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].outcome").value("CREATED"))
+                .andExpect(jsonPath("$[0].id").value(10))
+                .andExpect(jsonPath("$[1].outcome").value("FAILED"))
+                .andExpect(jsonPath("$[1].error").value("taskTitle must not be blank"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testDeleteTasksInBulk() throws Exception {
+        Mockito.when(taskService.deleteTasks(List.of(1L, 2L))).thenReturn(List.of(
+                BulkItemResult.of(0, 1L, BulkItemResult.Outcome.DELETED),
+                BulkItemResult.of(1, 2L, BulkItemResult.Outcome.NOT_FOUND)));
+
+        mockMvc.perform(post("/api/v1/tasks/bulk/delete")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].outcome").value("NOT_FOUND"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindTaskChanges() throws Exception {
+        TaskChange tombstone = TaskChange.tombstone(3L, LocalDateTime.of(2024, 5, 1, 12, 0));
+        Mockito.when(taskService.findTaskChanges("abc", 50)).thenReturn(new CursorPage<>(List.of(tombstone), "def", false));
+
+        mockMvc.perform(get("/api/v1/tasks/changes").param("since", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(3))
+                .andExpect(jsonPath("$.items[0].deleted").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("def"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testExportTasksAsCsv() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("id,taskTitle\r\n1,Task A\r\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(taskExportService).exportTasks(any(TaskSearchCriteria.class), eq(TaskExportFormat.CSV), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/tasks/export")
+                        .param("format", "CSV")
+                        .param("projectId", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"tasks.csv\""))
+                .andExpect(content().string("id,taskTitle\r\n1,Task A\r\n"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindProjectStats() throws Exception {
+        Mockito.when(projectService.findProjectById(1L)).thenReturn(Optional.of(mockProject));
+        Mockito.when(taskService.findProjectStats(eq(1L), any(LocalDate.class))).thenReturn(new TaskProjectStats(
+                1L, 3, 1, 2, 1,
+                List.of(new TaskCount(5L, "Open", 2L), new TaskCount(6L, "Done", 1L)),
+                List.of(), List.of(), List.of(new TaskCount(null, null, 3L))));
+
+        mockMvc.perform(get("/api/v1/tasks/project/1/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.overdue").value(1))
+                .andExpect(jsonPath("$.byStatus[0].name").value("Open"))
+                .andExpect(jsonPath("$.byStatus[0].count").value(2))
+                .andExpect(jsonPath("$.byAssignee[0].count").value(3));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindProjectStats_ProjectNotFound() throws Exception {
+        Mockito.when(projectService.findProjectById(1L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/tasks/project/1/stats"))
+                .andExpect(status().isNotFound());
+    }
 }
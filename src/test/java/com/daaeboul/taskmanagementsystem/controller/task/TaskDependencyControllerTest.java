@@ -1,10 +1,26 @@
 package com.daaeboul.taskmanagementsystem.controller.task;
 
+import com.daaeboul.taskmanagementsystem.dto.BulkItemResult;
+import com.daaeboul.taskmanagementsystem.dto.task.DueDateChange;
+import com.daaeboul.taskmanagementsystem.dto.task.DueDateImpact;
+import com.daaeboul.taskmanagementsystem.dto.task.ProjectCriticalPath;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDependencyDiff;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDependencyDiffResult;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDependencyImportResult;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSchedule;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSummary;
+import com.daaeboul.taskmanagementsystem.dto.task.TransitiveDependency;
+import com.daaeboul.taskmanagementsystem.exceptions.project.project.ProjectNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskDependendy.TaskDependencyCycleException;
 import com.daaeboul.taskmanagementsystem.exceptions.task.taskDependendy.TaskDependencyNotFoundException;
 import com.daaeboul.taskmanagementsystem.model.task.Task;
 import com.daaeboul.taskmanagementsystem.model.task.TaskDependency;
+import com.daaeboul.taskmanagementsystem.service.task.CriticalPathService;
 import com.daaeboul.taskmanagementsystem.service.task.TaskDependencyService;
+import com.daaeboul.taskmanagementsystem.service.task.TaskExportService;
 import com.daaeboul.taskmanagementsystem.service.task.TaskService;
+import com.daaeboul.taskmanagementsystem.service.task.graph.TopologicalLevels;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -18,7 +34,11 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -40,6 +60,12 @@ public class TaskDependencyControllerTest {
     @MockBean
     private TaskService taskService;
 
+    @MockBean
+    private CriticalPathService criticalPathService;
+
+    @MockBean
+    private TaskExportService taskExportService;
+
     private Task mockTask;
     private TaskDependency mockTaskDependency;
 
@@ -75,6 +101,103 @@ public class TaskDependencyControllerTest {
                 .andExpect(jsonPath("$.id.dependsOnTaskId").value(2));
     }
 
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testImportTaskDependencies() throws Exception {
+        TaskDependency.TaskDependencyId created = new TaskDependency.TaskDependencyId(1L, 2L);
+        TaskDependency.TaskDependencyId cyclic = new TaskDependency.TaskDependencyId(2L, 1L);
+        Mockito.when(taskDependencyService.importTaskDependencies(List.of(created, cyclic))).thenReturn(List.of(
+                TaskDependencyImportResult.of(0, created, BulkItemResult.Outcome.CREATED),
+                TaskDependencyImportResult.failed(1, cyclic, "Task dependency would create a cycle")));
+
+        mockMvc.perform(post("/api/v1/task-dependencies/import")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"taskId\": 1, \"dependsOnTaskId\": 2}, {\"taskId\": 2, \"dependsOnTaskId\": 1}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].outcome").value("CREATED"))
+                .andExpect(jsonPath("$[1].id.taskId").value(2))
+                .andExpect(jsonPath("$[1].outcome").value("FAILED"))
+                .andExpect(jsonPath("$[1].error").value("Task dependency would create a cycle"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testSimulateDueDates() throws Exception {
+        LocalDate dueDate = LocalDate.of(2024, 5, 10);
+        Mockito.when(criticalPathService.simulateDueDates(List.of(new DueDateChange(1L, dueDate)))).thenReturn(
+                List.of(new DueDateImpact(2L, LocalDate.of(2024, 5, 11), LocalDate.of(2024, 5, 13), 2)));
+
+        mockMvc.perform(post("/api/v1/task-dependencies/due-date-simulation")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"taskId\": 1, \"dueDate\": \"2024-05-10\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].taskId").value(2))
+                .andExpect(jsonPath("$[0].earliestDueDate").value("2024-05-13"))
+                .andExpect(jsonPath("$[0].slipDays").value(2));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testSimulateDueDatesTaskNotFound() throws Exception {
+        Mockito.when(criticalPathService.simulateDueDates(any())).thenThrow(new TaskNotFoundException("Task not found"));
+
+        mockMvc.perform(post("/api/v1/task-dependencies/due-date-simulation")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"taskId\": 1, \"dueDate\": \"2024-05-10\"}]"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testApplyDependencyDiff() throws Exception {
+        Mockito.when(taskDependencyService.applyDependencyDiff(eq(1L), any(TaskDependencyDiff.class))).thenReturn(
+                new TaskDependencyDiffResult(List.of(new TaskDependency.TaskDependencyId(1L, 2L)), List.of()));
+
+        mockMvc.perform(patch("/api/v1/task-dependencies/task/1")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"addDependencies\": [2], \"removeDependents\": [3]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.added[0].dependsOnTaskId").value(2))
+                .andExpect(jsonPath("$.removed").isEmpty());
+
+        Mockito.verify(taskDependencyService).applyDependencyDiff(eq(1L), argThat(diff ->
+                diff.getAddDependencies().equals(List.of(2L)) && diff.getRemoveDependents().equals(List.of(3L))
+                        && diff.getRemoveDependencies().isEmpty()));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testApplyDependencyDiffTaskNotFound() throws Exception {
+        Mockito.when(taskDependencyService.applyDependencyDiff(eq(99L), any(TaskDependencyDiff.class)))
+                .thenThrow(new TaskNotFoundException("Task not found with ID: 99"));
+
+        mockMvc.perform(patch("/api/v1/task-dependencies/task/99")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"addDependencies\": [2]}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testCreateTaskDependencyClosingCycleReturnsConflictWithCycle() throws Exception {
+        Mockito.when(taskDependencyService.createTaskDependency(any(TaskDependency.class)))
+                .thenThrow(new TaskDependencyCycleException("Task dependency would create a cycle: 1 -> 2 -> 1", List.of(1L, 2L, 1L)));
+
+        mockMvc.perform(post("/api/v1/task-dependencies")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\": {\"taskId\": 1, \"dependsOnTaskId\": 2}}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Task dependency would create a cycle: 1 -> 2 -> 1"))
+                .andExpect(jsonPath("$.cycle.length()").value(3))
+                .andExpect(jsonPath("$.cycle[1]").value(2));
+    }
+
     @Test
     @WithMockUser(username = "user", roles = {"USER"})
     public void testFindTaskDependencyById() throws Exception {
@@ -147,7 +270,7 @@ public class TaskDependencyControllerTest {
         updatedTaskDependency.setTask(mockTask);
         updatedTaskDependency.setDependsOnTask(mockTask);
 
-        Mockito.when(taskDependencyService.updateTaskDependency(any(TaskDependency.class)))
+        Mockito.when(taskDependencyService.updateTaskDependency(eq(new TaskDependency.TaskDependencyId(1L, 2L)), any(TaskDependency.class)))
                 .thenReturn(updatedTaskDependency);
 
         mockMvc.perform(put("/api/v1/task-dependencies/1/2")
@@ -162,7 +285,7 @@ public class TaskDependencyControllerTest {
     @Test
     @WithMockUser(username = "user", roles = {"USER"})
     public void testUpdateTaskDependency_NotFound() throws Exception {
-        Mockito.when(taskDependencyService.updateTaskDependency(any(TaskDependency.class)))
+        Mockito.when(taskDependencyService.updateTaskDependency(eq(new TaskDependency.TaskDependencyId(1L, 2L)), any(TaskDependency.class)))
                 .thenThrow(new TaskDependencyNotFoundException("Task dependency not found"));
 
         mockMvc.perform(put("/api/v1/task-dependencies/1/2")
@@ -253,4 +376,103 @@ public class TaskDependencyControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].taskTitle").value("Test Task"));
     }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindUpstreamTasks() throws Exception {
+        Mockito.when(taskDependencyService.findUpstreamTasks(1L, 5, 3L))
+                .thenReturn(List.of(new TransitiveDependency(2, TaskSummary.from(mockTask))));
+
+        mockMvc.perform(get("/api/v1/task-dependencies/upstream/1")
+                        .param("maxDepth", "5")
+                        .param("statusId", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].depth").value(2))
+                .andExpect(jsonPath("$[0].task.id").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindDownstreamTasksNotFound() throws Exception {
+        Mockito.when(taskDependencyService.findDownstreamTasks(99L, null, null))
+                .thenThrow(new TaskNotFoundException("Task not found with ID: 99"));
+
+        mockMvc.perform(get("/api/v1/task-dependencies/downstream/99"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindDownstreamTasksRejectsNonPositiveDepth() throws Exception {
+        mockMvc.perform(get("/api/v1/task-dependencies/downstream/1").param("maxDepth", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindCriticalPath() throws Exception {
+        LocalDate start = LocalDate.of(2024, 5, 1);
+        Mockito.when(criticalPathService.findCriticalPath(7L, start)).thenReturn(new ProjectCriticalPath(7L, start,
+                start.plusDays(3), List.of(1L, 2L),
+                List.of(new TaskSchedule(1L, start, start.plusDays(1), start.plusDays(1), 0, true))));
+
+        mockMvc.perform(get("/api/v1/task-dependencies/project/7/critical-path").param("start", "2024-05-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.finish").value("2024-05-04"))
+                .andExpect(jsonPath("$.criticalPath[1]").value(2))
+                .andExpect(jsonPath("$.tasks[0].critical").value(true));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testFindCriticalPathProjectNotFound() throws Exception {
+        Mockito.when(criticalPathService.findCriticalPath(eq(99L), any(LocalDate.class)))
+                .thenThrow(new ProjectNotFoundException("Project not found with id 99"));
+
+        mockMvc.perform(get("/api/v1/task-dependencies/project/99/critical-path"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testExportTopologicalOrder() throws Exception {
+        TopologicalLevels order = TopologicalLevels.sort(new long[]{1L, 2L}, new int[]{1}, new int[]{0});
+        Mockito.when(criticalPathService.findTopologicalOrder(7L)).thenReturn(order);
+        Mockito.doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"level\":0}\n{\"level\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(taskExportService).exportTopologicalOrder(eq(order), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/task-dependencies/project/7/topological-order"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().string("X-Level-Count", "2"))
+                .andExpect(content().string("{\"level\":0}\n{\"level\":1}\n"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testExportTopologicalOrderWithCycleReturnsConflict() throws Exception {
+        Mockito.when(criticalPathService.findTopologicalOrder(7L)).thenThrow(new TaskDependencyCycleException(
+                "Task dependencies of project 7 contain a cycle: 1 -> 2 -> 1", List.of(1L, 2L, 1L)));
+
+        mockMvc.perform(get("/api/v1/task-dependencies/project/7/topological-order"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.cycle.length()").value(3));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void testExportTopologicalOrderProjectNotFound() throws Exception {
+        Mockito.when(criticalPathService.findTopologicalOrder(99L))
+                .thenThrow(new ProjectNotFoundException("Project not found with id 99"));
+
+        mockMvc.perform(get("/api/v1/task-dependencies/project/99/topological-order"))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -1,5 +1,6 @@
 package com.daaeboul.taskmanagementsystem.repository.task;
 
+import com.daaeboul.taskmanagementsystem.dto.task.TaskAttachmentMetadata;
 import com.daaeboul.taskmanagementsystem.model.project.Project;
 import com.daaeboul.taskmanagementsystem.model.project.ProjectTaskType;
 import com.daaeboul.taskmanagementsystem.model.task.Task;
@@ -107,6 +108,40 @@ class TaskAttachmentRepositoryTest {
         assertThat(attachments).containsExactlyInAnyOrder(attachment1, attachment2);
     }
 
+    @Test
+    void findMetadataByTaskId_shouldReturnMetadataOfTheTasksAttachmentsInOrder() {
+        List<TaskAttachmentMetadata> metadata = taskAttachmentRepository.findMetadataByTaskId(task.getId());
+
+        assertThat(metadata).extracting(TaskAttachmentMetadata::getId)
+                .containsExactly(attachment1.getId(), attachment2.getId());
+        assertThat(metadata.get(1).getFileName()).isEqualTo("attachment2.pdf");
+        assertThat(metadata.get(1).getFileType()).isEqualTo("application/pdf");
+        assertThat(metadata.get(1).getFileSize()).isEqualTo(2048L);
+    }
+
+    @Test
+    void findMetadataById_shouldReturnMetadataOfTheAttachment() {
+        assertThat(taskAttachmentRepository.findMetadataById(attachment2.getId())).hasValueSatisfying(metadata -> {
+            assertThat(metadata.getFileName()).isEqualTo("attachment2.pdf");
+            assertThat(metadata.getFileSize()).isEqualTo(2048L);
+        });
+        assertThat(taskAttachmentRepository.findMetadataById(-1L)).isEmpty();
+    }
+
+    @Test
+    void findMetadataByFileNameIgnoreCase_shouldMatchRegardlessOfCase() {
+        List<TaskAttachmentMetadata> metadata = taskAttachmentRepository.findMetadataByFileNameIgnoreCase("ATTACHMENT1.TXT");
+
+        assertThat(metadata).extracting(TaskAttachmentMetadata::getId).containsExactly(attachment1.getId());
+    }
+
+    @Test
+    void findMetadataByFileTypeIgnoreCase_shouldMatchRegardlessOfCase() {
+        List<TaskAttachmentMetadata> metadata = taskAttachmentRepository.findMetadataByFileTypeIgnoreCase("Application/PDF");
+
+        assertThat(metadata).extracting(TaskAttachmentMetadata::getId).containsExactly(attachment2.getId());
+    }
+
     @Test
     void findById_shouldReturnAttachmentIfFound() {
         Optional<TaskAttachment> foundAttachment = taskAttachmentRepository.findById(attachment1.getId());
@@ -155,4 +190,15 @@ class TaskAttachmentRepositoryTest {
         boolean exists = taskAttachmentRepository.existsById(-1L);
         assertThat(exists).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    void existsByTaskIdAndChecksum_shouldOnlyMatchAttachmentsOfTheGivenTask() {
+        String checksum = "a".repeat(64);
+        attachment1.setChecksum(checksum);
+        entityManager.flush();
+
+        assertThat(taskAttachmentRepository.existsByTaskIdAndChecksum(task.getId(), checksum)).isTrue();
+        assertThat(taskAttachmentRepository.existsByTaskIdAndChecksum(task.getId(), "b".repeat(64))).isFalse();
+        assertThat(taskAttachmentRepository.existsByTaskIdAndChecksum(-1L, checksum)).isFalse();
+    }
+}
@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -194,4 +195,55 @@ class TaskDependencyRepositoryTest {
         List<Task> dependents = taskDependencyRepository.findDirectDependentsForTask(task2.getId());
         assertThat(dependents).containsExactly(task1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void findDependsOnTaskIds_shouldReturnIdsOfDirectDependencies() {
+        assertThat(taskDependencyRepository.findDependsOnTaskIds(task2.getId())).containsExactly(task3.getId());
+    }
+
+    @Test
+    void findDependentTaskIds_shouldReturnIdsOfDirectDependents() {
+        assertThat(taskDependencyRepository.findDependentTaskIds(task2.getId())).containsExactly(task1.getId());
+    }
+
+    @Test
+    void findDependsOnTaskIdsIn_shouldReturnOnlyListedDependencies() {
+        assertThat(taskDependencyRepository.findDependsOnTaskIdsIn(task1.getId(), List.of(task2.getId(), task3.getId())))
+                .containsExactly(task2.getId());
+        assertThat(taskDependencyRepository.findDependentTaskIdsIn(task3.getId(), List.of(task1.getId(), task2.getId())))
+                .containsExactly(task2.getId());
+    }
+
+    @Test
+    void deleteDependencies_shouldDeleteOnlyListedEdgesOfTheTask() {
+        assertThat(taskDependencyRepository.deleteDependencies(task1.getId(), List.of(task2.getId(), task3.getId()))).isEqualTo(1);
+        assertThat(taskDependencyRepository.deleteDependents(task3.getId(), List.of(task1.getId()))).isZero();
+
+        assertThat(taskDependencyRepository.findDependsOnTaskIds(task1.getId())).isEmpty();
+        assertThat(taskDependencyRepository.findDependsOnTaskIds(task2.getId())).containsExactly(task3.getId());
+    }
+
+    @Test
+    void findEdges_shouldReturnEdgesTouchingProjectOnEitherSide() {
+        Task loose = new Task();
+        loose.setTaskTitle("Loose Task");
+        loose = entityManager.persistFlushFind(loose);
+        TaskDependency dependency3Loose = new TaskDependency();
+        dependency3Loose.setId(new TaskDependency.TaskDependencyId(task3.getId(), loose.getId()));
+        dependency3Loose.setTask(task3);
+        dependency3Loose.setDependsOnTask(loose);
+        entityManager.persistFlushFind(dependency3Loose);
+        Long projectId = task1.getProject().getId();
+
+        assertThat(taskDependencyRepository.findEdgesFromProject(projectId))
+                .extracting(TaskEdge::getTaskId, TaskEdge::getDependsOnTaskId)
+                .containsExactlyInAnyOrder(tuple(task1.getId(), task2.getId()), tuple(task2.getId(), task3.getId()),
+                        tuple(task3.getId(), loose.getId()));
+        assertThat(taskDependencyRepository.findEdgesIntoProject(projectId))
+                .extracting(TaskEdge::getTaskId, TaskEdge::getDependsOnTaskId)
+                .containsExactlyInAnyOrder(tuple(task1.getId(), task2.getId()), tuple(task2.getId(), task3.getId()));
+        assertThat(taskDependencyRepository.findEdgesWithoutProject())
+                .extracting(TaskEdge::getTaskId, TaskEdge::getDependsOnTaskId)
+                .containsExactly(tuple(task3.getId(), loose.getId()));
+    }
+}
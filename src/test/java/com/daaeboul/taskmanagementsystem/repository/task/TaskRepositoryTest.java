@@ -1,23 +1,30 @@
 package com.daaeboul.taskmanagementsystem.repository.task;
 
+import com.daaeboul.taskmanagementsystem.dto.task.TaskCount;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskCursor;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSearchCriteria;
 import com.daaeboul.taskmanagementsystem.model.transition.Status;
 import com.daaeboul.taskmanagementsystem.model.project.Project;
 import com.daaeboul.taskmanagementsystem.model.task.Category;
 import com.daaeboul.taskmanagementsystem.model.task.Task;
+import com.daaeboul.taskmanagementsystem.model.task.TaskDependency;
 import com.daaeboul.taskmanagementsystem.model.task.TaskPriority;
 import com.daaeboul.taskmanagementsystem.model.user.User;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -29,6 +36,9 @@ public class TaskRepositoryTest {
     @Autowired
     private TaskRepository taskRepository;
 
+    @Autowired
+    private TaskDependencyRepository taskDependencyRepository;
+
     private User user;
     private Project project;
     private Category category;
@@ -150,6 +160,152 @@ public class TaskRepositoryTest {
         assertThat(tasks).containsExactly(task);
     }
 
+    @Test
+    void findOverdueTasksByProject_shouldExcludeCompletedAndDeletedTasks() {
+        task.setTaskDueDate(LocalDate.now().minusDays(1));
+        task.setCompletedAt(LocalDateTime.now());
+
+        Task deleted = new Task();
+        deleted.setTaskTitle("Deleted Task");
+        deleted.setProject(project);
+        deleted.setTaskDueDate(LocalDate.now().minusDays(1));
+        deleted.setDeletedAt(LocalDateTime.now());
+        entityManager.persist(deleted);
+        entityManager.flush();
+
+        assertThat(taskRepository.findOverdueTasksByProject(project, LocalDate.now())).isEmpty();
+    }
+
+    @Test
+    void findDueStates_shouldReadTheColumnsThatDecideOverdue() {
+        task.setTaskDueDate(LocalDate.now().minusDays(1));
+        entityManager.flush();
+
+        assertThat(taskRepository.findOpenDueStatesBetween(LocalDate.now().minusDays(1), LocalDate.now()))
+                .extracting(TaskDueState::getId, TaskDueState::getProjectId)
+                .contains(tuple(task.getId(), project.getId()));
+
+        task.setCompletedAt(LocalDateTime.now());
+        entityManager.flush();
+
+        assertThat(taskRepository.findOpenDueStatesBetween(LocalDate.now().minusDays(1), LocalDate.now()))
+                .extracting(TaskDueState::getId)
+                .doesNotContain(task.getId());
+        assertThat(taskRepository.findDueStatesByIdIn(List.of(task.getId())))
+                .singleElement()
+                .satisfies(state -> assertThat(state.getCompletedAt()).isNotNull());
+    }
+
+    @Test
+    void findProjectKeys_shouldReturnZeroForTasksWithoutProject() {
+        Task loose = new Task();
+        loose.setTaskTitle("Loose Task");
+        entityManager.persist(loose);
+        entityManager.flush();
+
+        assertThat(taskRepository.findProjectKeyById(task.getId())).contains(project.getId());
+        assertThat(taskRepository.findProjectKeyById(loose.getId())).contains(0L);
+        assertThat(taskRepository.findProjectKeyById(-1L)).isEmpty();
+        assertThat(taskRepository.findProjectKeysByIdIn(List.of(task.getId(), loose.getId())))
+                .extracting(TaskProjectKey::getId, TaskProjectKey::getProjectKey)
+                .containsExactlyInAnyOrder(tuple(task.getId(), project.getId()), tuple(loose.getId(), 0L));
+        assertThat(taskRepository.findIdsByProjectId(project.getId())).containsExactly(task.getId());
+        assertThat(taskRepository.findIdsWithoutProject()).contains(loose.getId()).doesNotContain(task.getId());
+    }
+
+    @Test
+    void findScheduleStatesByProjectId_shouldReturnEstimateOfTasksNotDeleted() {
+        task.setEstimatedDurationDays(4);
+        entityManager.persistAndFlush(task);
+        Task deleted = new Task();
+        deleted.setTaskTitle("Deleted Task");
+        deleted.setProject(project);
+        deleted.setDeletedAt(LocalDateTime.now());
+        entityManager.persist(deleted);
+        entityManager.flush();
+
+        assertThat(taskRepository.findScheduleStatesByProjectId(project.getId()))
+                .extracting(TaskScheduleState::getId, TaskScheduleState::getEstimatedDurationDays)
+                .containsExactly(tuple(task.getId(), 4));
+    }
+
+    @Test
+    void recountOpenPredecessors_shouldTrackCompletionOfPredecessors() {
+        Task predecessor = new Task();
+        predecessor.setTaskTitle("Predecessor Task");
+        predecessor.setProject(project);
+        entityManager.persist(predecessor);
+        TaskDependency dependency = new TaskDependency();
+        dependency.setId(new TaskDependency.TaskDependencyId(task.getId(), predecessor.getId()));
+        dependency.setTask(task);
+        dependency.setDependsOnTask(predecessor);
+        entityManager.persist(dependency);
+
+        taskRepository.recountOpenPredecessors(List.of(task.getId()));
+        entityManager.clear();
+        assertThat(entityManager.find(Task.class, task.getId()).getOpenPredecessorCount()).isEqualTo(1);
+        assertThat(taskRepository.findAll(TaskSpecifications.blocked())).extracting(Task::getId).containsExactly(task.getId());
+
+        Task completed = entityManager.find(Task.class, predecessor.getId());
+        completed.setCompletedAt(LocalDateTime.now());
+        taskRepository.recountOpenPredecessorsOfDependents(List.of(predecessor.getId()));
+        entityManager.clear();
+        assertThat(entityManager.find(Task.class, task.getId()).getOpenPredecessorCount()).isZero();
+        assertThat(taskRepository.findAll(TaskSpecifications.ready())).extracting(Task::getId).contains(task.getId());
+    }
+
+    @Test
+    void recountOpenPredecessors_shouldReleaseDependentsOfDeletedPredecessor() {
+        Task predecessor = new Task();
+        predecessor.setTaskTitle("Predecessor Task");
+        predecessor.setProject(project);
+        entityManager.persist(predecessor);
+        TaskDependency dependency = new TaskDependency();
+        dependency.setId(new TaskDependency.TaskDependencyId(task.getId(), predecessor.getId()));
+        dependency.setTask(task);
+        dependency.setDependsOnTask(predecessor);
+        entityManager.persist(dependency);
+        taskRepository.recountOpenPredecessors(List.of(task.getId()));
+        entityManager.clear();
+        assertThat(taskRepository.findAll(TaskSpecifications.blocked())).extracting(Task::getId).contains(task.getId());
+
+        // The order TaskService.deleteTask uses: the deletion cascades to the dependency rows.
+        List<Long> dependentIds = taskDependencyRepository.findDependentTaskIds(predecessor.getId());
+        taskRepository.deleteById(predecessor.getId());
+        taskRepository.recountOpenPredecessors(dependentIds);
+        entityManager.clear();
+
+        assertThat(taskDependencyRepository.findDependentTaskIds(predecessor.getId())).isEmpty();
+        assertThat(entityManager.find(Task.class, task.getId()).getOpenPredecessorCount()).isZero();
+        assertThat(taskRepository.findAll(TaskSpecifications.ready())).extracting(Task::getId).contains(task.getId());
+    }
+
+    @Test
+    void recountOpenPredecessors_shouldBumpVersionOnlyWhenTheCountChanges() {
+        Task predecessor = new Task();
+        predecessor.setTaskTitle("Predecessor Task");
+        predecessor.setProject(project);
+        entityManager.persist(predecessor);
+        TaskDependency dependency = new TaskDependency();
+        dependency.setId(new TaskDependency.TaskDependencyId(task.getId(), predecessor.getId()));
+        dependency.setTask(task);
+        dependency.setDependsOnTask(predecessor);
+        entityManager.persist(dependency);
+        entityManager.flush();
+        Long version = task.getVersion();
+
+        assertThat(taskRepository.recountOpenPredecessors(List.of(task.getId()))).isEqualTo(1);
+        entityManager.clear();
+        Task recounted = entityManager.find(Task.class, task.getId());
+        assertThat(recounted.getVersion()).isEqualTo(version + 1);
+        assertThat(recounted.getUpdatedAt()).isNotNull();
+
+        assertThat(taskRepository.recountOpenPredecessors(List.of(task.getId()))).isZero();
+        assertThat(taskRepository.recountOpenPredecessorsOfDependents(List.of(predecessor.getId()))).isZero();
+        entityManager.clear();
+        assertThat(entityManager.find(Task.class, task.getId()).getVersion()).isEqualTo(version + 1);
+    }
+
     @Test
     void findAllDeleted_shouldReturnSoftDeletedTasks() {
         taskRepository.deleteById(task.getId());
@@ -159,4 +315,118 @@ public class TaskRepositoryTest {
         assertTrue(tasks.stream().anyMatch(deletedTask -> deletedTask.getId().equals(task.getId())),
                 "Expected to find the deleted task by ID");
     }
-}
\ No newline at end of file
+
+    @Test
+    void findDueBetweenAfterCursor_shouldSeekPastTheGivenPosition() {
+        Task sameDay = new Task();
+        sameDay.setTaskTitle("Same Day Task");
+        sameDay.setTaskDueDate(task.getTaskDueDate());
+        entityManager.persist(sameDay);
+        entityManager.flush();
+
+        LocalDate start = LocalDate.now();
+        LocalDate end = LocalDate.now().plusDays(10);
+
+        List<Task> firstPage = taskRepository.findDueBetweenAfterCursor(start, end, TaskCursor.FIRST_DATE, 0L, PageRequest.of(0, 1));
+        assertThat(firstPage).containsExactly(task);
+
+        List<Task> secondPage = taskRepository.findDueBetweenAfterCursor(start, end, task.getTaskDueDate(), task.getId(), PageRequest.of(0, 1));
+        assertThat(secondPage).containsExactly(sameDay);
+    }
+
+    @Test
+    void findByProjectIdAndIdGreaterThanOrderByIdAsc_shouldReturnOnlyRowsAfterTheCursor() {
+        assertThat(taskRepository.findByProjectIdAndIdGreaterThanOrderByIdAsc(project.getId(), 0L, PageRequest.of(0, 10)))
+                .containsExactly(task);
+        assertThat(taskRepository.findByProjectIdAndIdGreaterThanOrderByIdAsc(project.getId(), task.getId(), PageRequest.of(0, 10)))
+                .isEmpty();
+    }
+
+    @Test
+    void findAll_withSpecification_shouldCombineFilters() {
+        TaskSearchCriteria criteria = new TaskSearchCriteria();
+        criteria.setProjectId(project.getId());
+        criteria.setStatusId(status.getId());
+        criteria.setCompleted(false);
+
+        assertThat(taskRepository.findAll(TaskSpecifications.matching(criteria))).containsExactly(task);
+
+        criteria.setCompleted(true);
+        assertThat(taskRepository.findAll(TaskSpecifications.matching(criteria))).isEmpty();
+    }
+
+    @Test
+    void findWithReferencesById_shouldInitializeReferences() {
+        entityManager.clear();
+
+        Task found = taskRepository.findWithReferencesById(task.getId()).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(found.getAssignee())).isTrue();
+        assertThat(Hibernate.isInitialized(found.getProject())).isTrue();
+        assertThat(Hibernate.isInitialized(found.getStatus())).isTrue();
+        assertThat(found.getProject().getProjectName()).isEqualTo("Test Project");
+    }
+
+    @Test
+    void findChangesAfterCursor_shouldReturnKeysAfterThePositionIncludingDeletions() {
+        LocalDateTime until = LocalDateTime.now().plusMinutes(1);
+
+        List<TaskChangeKey> changes = taskRepository.findChangesAfterCursor(TaskCursor.FIRST_DATE.atStartOfDay(), 0L, until, PageRequest.of(0, 1000));
+        assertThat(changes).extracting(TaskChangeKey::getId).contains(task.getId());
+
+        assertThat(taskRepository.findChangesAfterCursor(task.getUpdatedAt(), task.getId(), until, PageRequest.of(0, 1000)))
+                .extracting(TaskChangeKey::getId)
+                .doesNotContain(task.getId());
+
+        taskRepository.softDeleteAllById(List.of(task.getId()), LocalDateTime.now());
+        entityManager.clear();
+
+        assertThat(taskRepository.findChangesAfterCursor(task.getUpdatedAt(), task.getId(), until, PageRequest.of(0, 1000)))
+                .filteredOn(key -> key.getId().equals(task.getId()))
+                .singleElement()
+                .satisfies(key -> assertThat(key.getDeletedAt()).isNotNull());
+    }
+
+    @Test
+    void countTotalsByProject_shouldCountCompletedAndOverdueLiveTasks() {
+        Task overdue = new Task();
+        overdue.setTaskTitle("Overdue Task");
+        overdue.setProject(project);
+        overdue.setTaskDueDate(LocalDate.now().minusDays(1));
+        entityManager.persist(overdue);
+
+        Task completed = new Task();
+        completed.setTaskTitle("Completed Task");
+        completed.setProject(project);
+        completed.setTaskDueDate(LocalDate.now().minusDays(1));
+        completed.setCompletedAt(LocalDateTime.now());
+        entityManager.persist(completed);
+
+        Task deleted = new Task();
+        deleted.setTaskTitle("Deleted Task");
+        deleted.setProject(project);
+        deleted.setDeletedAt(LocalDateTime.now());
+        entityManager.persist(deleted);
+        entityManager.flush();
+
+        TaskTotals totals = taskRepository.countTotalsByProject(project.getId(), LocalDate.now());
+
+        assertThat(totals.getTotal()).isEqualTo(3L);
+        assertThat(totals.getCompleted()).isEqualTo(1L);
+        assertThat(totals.getOverdue()).isEqualTo(1L);
+    }
+
+    @Test
+    void countByStatus_shouldGroupLiveTasksOfTheProject() {
+        Task unassigned = new Task();
+        unassigned.setTaskTitle("No Status Task");
+        unassigned.setProject(project);
+        entityManager.persist(unassigned);
+        entityManager.flush();
+
+        List<TaskCount> counts = taskRepository.countByStatus(project.getId());
+
+        assertThat(counts).extracting(TaskCount::getId, TaskCount::getName, TaskCount::getCount)
+                .containsExactlyInAnyOrder(tuple(status.getId(), "In Progress", 1L), tuple(null, null, 1L));
+    }
+}
@@ -0,0 +1,100 @@
+package com.daaeboul.taskmanagementsystem.service.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileSystemBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    private FileSystemBlobStore blobStore;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new FileSystemBlobStore(root.toString(), DataSize.ofMegabytes(1));
+    }
+
+    @Test
+    void store_shouldWriteContentAndReportSizeAndChecksum() throws IOException {
+        StoredBlob blob = blobStore.store(new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(blob.getSize()).isEqualTo(5);
+        assertThat(blob.getChecksum()).isEqualTo("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824");
+        assertThat(blobStore.pathOf(blob.getKey())).startsWith(root.resolve(blob.getKey().substring(0, 2)));
+        try (InputStream in = blobStore.open(blob.getKey())) {
+            assertThat(in.readAllBytes()).isEqualTo("hello".getBytes(StandardCharsets.UTF_8));
+        }
+        try (var tmp = Files.list(root.resolve("tmp"))) {
+            assertThat(tmp).isEmpty();
+        }
+    }
+
+    @Test
+    void store_shouldLeaveNothingBehindWhenReadingFails() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+
+        assertThatThrownBy(() -> blobStore.store(failing)).isInstanceOf(IOException.class);
+        try (var tmp = Files.list(root.resolve("tmp"))) {
+            assertThat(tmp).isEmpty();
+        }
+    }
+
+    @Test
+    void store_shouldStopReadingContentLargerThanTheMaximumSize() throws IOException {
+        FileSystemBlobStore small = new FileSystemBlobStore(root.toString(), DataSize.ofBytes(4));
+
+        assertThatThrownBy(() -> small.store(new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(BlobTooLargeException.class);
+        assertThat(small.store(new ByteArrayInputStream("hell".getBytes(StandardCharsets.UTF_8))).getSize())
+                .isEqualTo(4);
+        try (var tmp = Files.list(root.resolve("tmp"))) {
+            assertThat(tmp).isEmpty();
+        }
+    }
+
+    @Test
+    void delete_shouldRemoveBlob() throws IOException {
+        StoredBlob blob = blobStore.store(new ByteArrayInputStream(new byte[100_000]));
+
+        assertThat(blobStore.delete(blob.getKey())).isTrue();
+        assertThat(blobStore.delete(blob.getKey())).isFalse();
+        assertThatThrownBy(() -> blobStore.open(blob.getKey())).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void resource_shouldExposeBlobWithItsLength() throws IOException {
+        StoredBlob blob = blobStore.store(new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8)));
+
+        Resource resource = blobStore.resource(blob.getKey());
+
+        assertThat(resource.contentLength()).isEqualTo(5);
+        assertThat(resource.getContentAsByteArray()).isEqualTo("hello".getBytes(StandardCharsets.UTF_8));
+        blobStore.delete(blob.getKey());
+        assertThatThrownBy(() -> blobStore.resource(blob.getKey())).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void open_shouldRejectKeysOutsideTheStore() {
+        assertThatThrownBy(() -> blobStore.open("../../etc/passwd")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
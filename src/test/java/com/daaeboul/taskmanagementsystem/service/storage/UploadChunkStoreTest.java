@@ -0,0 +1,127 @@
+package com.daaeboul.taskmanagementsystem.service.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UploadChunkStoreTest {
+
+    @TempDir
+    Path root;
+
+    private UploadChunkStore chunkStore;
+
+    @BeforeEach
+    void setUp() {
+        chunkStore = new UploadChunkStore(root.toString());
+    }
+
+    @Test
+    void write_shouldStoreChunksInAnyOrderAndAssembleThemInOrder() throws IOException {
+        chunkStore.create(7L);
+        assertThat(chunkStore.write(7L, 2, stream("ld"), 2)).isTrue();
+        assertThat(chunkStore.write(7L, 0, stream("hello"), 5)).isTrue();
+        assertThat(chunkStore.received(7L, 3)).hasToString("{0, 2}");
+
+        assertThat(chunkStore.write(7L, 1, stream(" wor"), 4)).isTrue();
+        assertThat(chunkStore.received(7L, 3).cardinality()).isEqualTo(3);
+        assertThat(chunkStore.seal(7L)).isTrue();
+        try (InputStream in = chunkStore.open(7L, 3)) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("hello world");
+        }
+    }
+
+    @Test
+    void write_shouldRejectChunkOfTheWrongSizeAndKeepTheEarlierCopy() throws IOException {
+        chunkStore.create(7L);
+        assertThat(chunkStore.write(7L, 0, stream("hello"), 5)).isTrue();
+
+        assertThat(chunkStore.write(7L, 0, stream("hello!"), 5)).isFalse();
+        assertThat(chunkStore.write(7L, 0, stream("hell"), 5)).isFalse();
+
+        try (var files = Files.list(chunkStore.directoryOf(7L))) {
+            assertThat(files).hasSize(1);
+        }
+        chunkStore.seal(7L);
+        try (InputStream in = chunkStore.open(7L, 1)) {
+            assertThat(in.readAllBytes()).isEqualTo("hello".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void seal_shouldRefuseLaterWritesUntilUnsealed() throws IOException {
+        chunkStore.create(7L);
+        chunkStore.write(7L, 0, stream("hello"), 5);
+
+        assertThat(chunkStore.seal(7L)).isTrue();
+
+        assertThatThrownBy(() -> chunkStore.write(7L, 0, stream("HELLO"), 5)).isInstanceOf(NoSuchFileException.class);
+        assertThat(chunkStore.received(7L, 1)).hasToString("{0}");
+        try (InputStream in = chunkStore.open(7L, 1)) {
+            assertThat(in.readAllBytes()).isEqualTo("hello".getBytes(StandardCharsets.UTF_8));
+        }
+
+        chunkStore.unseal(7L);
+        assertThat(chunkStore.write(7L, 0, stream("HELLO"), 5)).isTrue();
+        assertThat(chunkStore.seal(8L)).isFalse();
+    }
+
+    @Test
+    void write_shouldNotRecreateSessionThatHasEnded() throws IOException {
+        chunkStore.create(7L);
+        chunkStore.seal(7L);
+        chunkStore.delete(7L);
+
+        assertThatThrownBy(() -> chunkStore.write(7L, 0, stream("a"), 1)).isInstanceOf(NoSuchFileException.class);
+        assertThat(Files.exists(chunkStore.directoryOf(7L))).isFalse();
+        assertThat(Files.exists(chunkStore.sealedDirectoryOf(7L))).isFalse();
+    }
+
+    @Test
+    void received_shouldBeEmptyForSessionWithoutChunks() throws IOException {
+        assertThat(chunkStore.received(8L, 4)).isEmpty();
+        assertThat(chunkStore.lastModified(8L)).isNull();
+        assertThat(chunkStore.idleSince(Instant.now())).isEmpty();
+    }
+
+    @Test
+    void idleSince_shouldListSessionsWithoutRecentChunks() throws IOException {
+        chunkStore.create(7L);
+        chunkStore.create(8L);
+        chunkStore.write(7L, 0, stream("a"), 1);
+        chunkStore.write(8L, 0, stream("b"), 1);
+        Files.setLastModifiedTime(chunkStore.directoryOf(7L), FileTime.from(Instant.now().minusSeconds(3600)));
+
+        assertThat(chunkStore.idleSince(Instant.now().minusSeconds(60))).containsExactly(7L);
+    }
+
+    @Test
+    void delete_shouldRemoveSessionWithItsChunks() throws IOException {
+        chunkStore.create(7L);
+        chunkStore.write(7L, 0, stream("a"), 1);
+        chunkStore.write(7L, 1, stream("b"), 1);
+
+        chunkStore.delete(7L);
+        chunkStore.delete(7L);
+
+        assertThat(Files.exists(chunkStore.directoryOf(7L))).isFalse();
+        assertThat(chunkStore.received(7L, 2)).isEmpty();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
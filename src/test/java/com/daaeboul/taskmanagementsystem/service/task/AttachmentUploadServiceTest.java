@@ -0,0 +1,303 @@
+package com.daaeboul.taskmanagementsystem.service.task;
+
+import com.daaeboul.taskmanagementsystem.dto.task.UploadSessionRequest;
+import com.daaeboul.taskmanagementsystem.dto.task.UploadSessionStatus;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskValidationException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.TaskAttachmentTooLargeException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.UploadSessionConflictException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.UploadSessionNotFoundException;
+import com.daaeboul.taskmanagementsystem.model.task.AttachmentUploadSession;
+import com.daaeboul.taskmanagementsystem.model.task.Task;
+import com.daaeboul.taskmanagementsystem.model.task.TaskAttachment;
+import com.daaeboul.taskmanagementsystem.repository.task.AttachmentUploadSessionRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import com.daaeboul.taskmanagementsystem.service.storage.UploadChunkStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentUploadServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    @Mock
+    private AttachmentUploadSessionRepository uploadSessionRepository;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskAttachmentService taskAttachmentService;
+
+    @Mock
+    private UploadChunkStore chunkStore;
+
+    private AttachmentUploadService attachmentUploadService;
+
+    private Task task;
+    private AttachmentUploadSession session;
+
+    @BeforeEach
+    void setUp() {
+        attachmentUploadService = new AttachmentUploadService(uploadSessionRepository, taskRepository,
+                taskAttachmentService, chunkStore, DataSize.ofMegabytes(1), Duration.ofHours(24),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+
+        task = new Task();
+        ReflectionTestUtils.setField(task, "id", 1L);
+        session = new AttachmentUploadSession();
+        ReflectionTestUtils.setField(session, "id", 7L);
+        session.setTask(task);
+        session.setFileName("video.mp4");
+        session.setFileType("video/mp4");
+        session.setFileSize(25);
+        session.setChunkSize(10);
+    }
+
+    @Test
+    void createUploadSession_shouldSaveSessionWithEveryChunkMissing() {
+        given(taskRepository.existsById(1L)).willReturn(true);
+        given(taskRepository.getReferenceById(1L)).willReturn(task);
+        given(uploadSessionRepository.save(any(AttachmentUploadSession.class))).willAnswer(invocation -> {
+            ReflectionTestUtils.setField(invocation.getArgument(0), "id", 7L);
+            return invocation.getArgument(0);
+        });
+
+        UploadSessionStatus status = attachmentUploadService.createUploadSession(1L,
+                new UploadSessionRequest("video.mp4", "video/mp4", 25L, 10L, null));
+
+        assertThat(status.getChunkCount()).isEqualTo(3);
+        assertThat(status.getMissingChunks()).containsExactly(0, 1, 2);
+        assertThat(status.getReceivedRanges()).isEmpty();
+        verify(chunkStore).create(7L);
+    }
+
+    @Test
+    void createUploadSession_shouldRejectTooManyChunks() {
+        UploadSessionRequest request = new UploadSessionRequest("video.mp4", null,
+                AttachmentUploadService.MAX_CHUNK_COUNT + 1L, 1L, null);
+
+        assertThatThrownBy(() -> attachmentUploadService.createUploadSession(1L, request))
+                .isInstanceOf(TaskValidationException.class);
+        verifyNoInteractions(uploadSessionRepository);
+    }
+
+    @Test
+    void createUploadSession_shouldCountOneChunkForChunkSizeNearLongMaxValue() {
+        given(taskRepository.existsById(1L)).willReturn(true);
+        given(taskRepository.getReferenceById(1L)).willReturn(task);
+        given(uploadSessionRepository.save(any(AttachmentUploadSession.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        UploadSessionStatus status = attachmentUploadService.createUploadSession(1L,
+                new UploadSessionRequest("video.mp4", null, 25L, Long.MAX_VALUE - 1, null));
+
+        assertThat(status.getChunkCount()).isEqualTo(1);
+        assertThat(status.getMissingChunks()).containsExactly(0);
+    }
+
+    @Test
+    void createUploadSession_shouldRejectFileLargerThanTheStoreAccepts() {
+        UploadSessionRequest request = new UploadSessionRequest("video.mp4", null,
+                DataSize.ofMegabytes(1).toBytes() + 1, DataSize.ofKilobytes(512).toBytes(), null);
+
+        assertThatThrownBy(() -> attachmentUploadService.createUploadSession(1L, request))
+                .isInstanceOf(TaskAttachmentTooLargeException.class);
+        verifyNoInteractions(uploadSessionRepository, taskRepository);
+    }
+
+    @Test
+    void createUploadSession_shouldThrowExceptionIfTaskNotFound() {
+        given(taskRepository.existsById(1L)).willReturn(false);
+
+        assertThatThrownBy(() -> attachmentUploadService.createUploadSession(1L,
+                new UploadSessionRequest("video.mp4", null, 25L, 10L, null)))
+                .isInstanceOf(TaskNotFoundException.class);
+    }
+
+    @Test
+    void findUploadSessionStatus_shouldMergeReceivedChunksIntoByteRanges() throws Exception {
+        session.setFileSize(45);
+        BitSet received = new BitSet();
+        received.set(0, 2);
+        received.set(4);
+        given(uploadSessionRepository.findById(7L)).willReturn(Optional.of(session));
+        given(chunkStore.received(7L, 5)).willReturn(received);
+
+        UploadSessionStatus status = attachmentUploadService.findUploadSessionStatus(7L);
+
+        assertThat(status.getReceivedRanges()).extracting(UploadSessionStatus.ByteRange::getFirst).containsExactly(0L, 40L);
+        assertThat(status.getReceivedRanges()).extracting(UploadSessionStatus.ByteRange::getLast).containsExactly(19L, 44L);
+        assertThat(status.getMissingChunks()).containsExactly(2, 3);
+    }
+
+    @Test
+    void writeChunk_shouldExpectTheRestOfTheFileInTheLastChunk() throws Exception {
+        InputStream content = InputStream.nullInputStream();
+        given(uploadSessionRepository.findById(7L)).willReturn(Optional.of(session));
+        given(chunkStore.write(7L, 2, content, 5)).willReturn(true);
+
+        attachmentUploadService.writeChunk(7L, 2, content);
+
+        verify(chunkStore).write(7L, 2, content, 5);
+    }
+
+    @Test
+    void writeChunk_shouldRefuseChunksWhileTheSessionIsBeingCommitted() {
+        session.setCommitting(true);
+        given(uploadSessionRepository.findById(7L)).willReturn(Optional.of(session));
+
+        assertThatThrownBy(() -> attachmentUploadService.writeChunk(7L, 0, InputStream.nullInputStream()))
+                .isInstanceOf(UploadSessionConflictException.class);
+        verifyNoInteractions(chunkStore);
+    }
+
+    @Test
+    void writeChunk_shouldRefuseChunksOnceTheSessionIsSealed() throws Exception {
+        InputStream content = InputStream.nullInputStream();
+        given(uploadSessionRepository.findById(7L)).willReturn(Optional.of(session));
+        given(chunkStore.write(7L, 0, content, 10)).willThrow(new NoSuchFileException("7"));
+
+        assertThatThrownBy(() -> attachmentUploadService.writeChunk(7L, 0, content))
+                .isInstanceOf(UploadSessionConflictException.class);
+    }
+
+    @Test
+    void findUploadSessionStatus_shouldEndLastRangeAtTheEndOfTheFile() throws Exception {
+        session.setFileSize(Long.MAX_VALUE);
+        session.setChunkSize(Long.MAX_VALUE / 2 + 1);
+        BitSet received = new BitSet();
+        received.set(0, 2);
+        given(uploadSessionRepository.findById(7L)).willReturn(Optional.of(session));
+        given(chunkStore.received(7L, 2)).willReturn(received);
+
+        UploadSessionStatus status = attachmentUploadService.findUploadSessionStatus(7L);
+
+        assertThat(status.getReceivedRanges()).singleElement()
+                .satisfies(range -> assertThat(range.getLast()).isEqualTo(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    void writeChunk_shouldRejectChunkOfTheWrongSize() throws Exception {
+        InputStream content = InputStream.nullInputStream();
+        given(uploadSessionRepository.findById(7L)).willReturn(Optional.of(session));
+        given(chunkStore.write(7L, 0, content, 10)).willReturn(false);
+
+        assertThatThrownBy(() -> attachmentUploadService.writeChunk(7L, 0, content))
+                .isInstanceOf(TaskValidationException.class);
+    }
+
+    @Test
+    void writeChunk_shouldRejectIndexOutOfRange() {
+        given(uploadSessionRepository.findById(7L)).willReturn(Optional.of(session));
+
+        assertThatThrownBy(() -> attachmentUploadService.writeChunk(7L, 3, InputStream.nullInputStream()))
+                .isInstanceOf(TaskValidationException.class);
+        verifyNoInteractions(chunkStore);
+    }
+
+    @Test
+    void writeChunk_shouldThrowExceptionIfSessionNotFound() {
+        given(uploadSessionRepository.findById(7L)).willReturn(Optional.empty());
+
+        assertThatThrownBy(() -> attachmentUploadService.writeChunk(7L, 0, InputStream.nullInputStream()))
+                .isInstanceOf(UploadSessionNotFoundException.class);
+    }
+
+    @Test
+    void commitUploadSession_shouldUploadAssembledChunksAndEndTheSession() throws Exception {
+        InputStream assembled = InputStream.nullInputStream();
+        BitSet received = new BitSet();
+        received.set(0, 3);
+        TaskAttachment attachment = new TaskAttachment();
+        given(uploadSessionRepository.findById(7L)).willReturn(Optional.of(session));
+        given(uploadSessionRepository.updateCommitting(7L, true)).willReturn(1);
+        given(chunkStore.received(7L, 3)).willReturn(received);
+        given(chunkStore.open(7L, 3)).willReturn(assembled);
+        given(taskAttachmentService.uploadTaskAttachment(1L, "video.mp4", "video/mp4", null, assembled)).willReturn(attachment);
+
+        assertThat(attachmentUploadService.commitUploadSession(7L)).isSameAs(attachment);
+
+        InOrder inOrder = inOrder(chunkStore);
+        inOrder.verify(chunkStore).seal(7L);
+        inOrder.verify(chunkStore).open(7L, 3);
+        inOrder.verify(chunkStore).delete(7L);
+        verify(uploadSessionRepository).deleteById(7L);
+        verify(chunkStore, never()).unseal(anyLong());
+    }
+
+    @Test
+    void commitUploadSession_shouldKeepSessionWithMissingChunks() throws Exception {
+        BitSet received = new BitSet();
+        received.set(0);
+        given(uploadSessionRepository.findById(7L)).willReturn(Optional.of(session));
+        given(uploadSessionRepository.updateCommitting(7L, true)).willReturn(1);
+        given(chunkStore.received(7L, 3)).willReturn(received);
+
+        assertThatThrownBy(() -> attachmentUploadService.commitUploadSession(7L))
+                .isInstanceOf(UploadSessionConflictException.class)
+                .hasMessageContaining("missing 2 chunks");
+
+        verify(chunkStore).unseal(7L);
+        verify(uploadSessionRepository).updateCommitting(7L, false);
+        verify(uploadSessionRepository, never()).deleteById(anyLong());
+        verifyNoInteractions(taskAttachmentService);
+    }
+
+    @Test
+    void commitUploadSession_shouldRejectConcurrentCommit() {
+        given(uploadSessionRepository.findById(7L)).willReturn(Optional.of(session));
+        given(uploadSessionRepository.updateCommitting(7L, true)).willReturn(0);
+
+        assertThatThrownBy(() -> attachmentUploadService.commitUploadSession(7L))
+                .isInstanceOf(UploadSessionConflictException.class);
+        verifyNoInteractions(chunkStore, taskAttachmentService);
+    }
+
+    @Test
+    void deleteAbandonedUploadSessions_shouldDeleteIdleSessionsAndOrphanedChunks() throws Exception {
+        Instant cutoff = NOW.minus(Duration.ofHours(24));
+        given(uploadSessionRepository.findIdsCreatedBefore(LocalDateTime.ofInstant(cutoff, ZoneOffset.UTC)))
+                .willReturn(List.of(7L, 8L, 9L));
+        given(chunkStore.lastModified(7L)).willReturn(null);
+        given(chunkStore.lastModified(8L)).willReturn(cutoff.minusSeconds(1));
+        given(chunkStore.lastModified(9L)).willReturn(cutoff.plusSeconds(1));
+        given(chunkStore.idleSince(cutoff)).willReturn(List.of(8L, 10L));
+        given(uploadSessionRepository.existsById(10L)).willReturn(false);
+
+        attachmentUploadService.deleteAbandonedUploadSessions();
+
+        verify(uploadSessionRepository).deleteById(7L);
+        verify(uploadSessionRepository).deleteById(8L);
+        verify(uploadSessionRepository, never()).deleteById(9L);
+        verify(chunkStore).delete(10L);
+        verify(chunkStore, never()).delete(9L);
+    }
+}
@@ -0,0 +1,208 @@
+package com.daaeboul.taskmanagementsystem.service.task;
+
+import com.daaeboul.taskmanagementsystem.dto.task.DueDateChange;
+import com.daaeboul.taskmanagementsystem.dto.task.DueDateImpact;
+import com.daaeboul.taskmanagementsystem.dto.task.ProjectCriticalPath;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSchedule;
+import com.daaeboul.taskmanagementsystem.exceptions.project.project.ProjectNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskValidationException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskDependendy.TaskDependencyCycleException;
+import com.daaeboul.taskmanagementsystem.repository.project.ProjectRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskDependencyRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskEdge;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskScheduleState;
+import com.daaeboul.taskmanagementsystem.service.task.graph.DependencyGraph;
+import com.daaeboul.taskmanagementsystem.service.task.graph.TopologicalLevels;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class CriticalPathServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 5, 1);
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskDependencyRepository taskDependencyRepository;
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    @Mock
+    private TaskDependencyIndex taskDependencyIndex;
+
+    @InjectMocks
+    private CriticalPathService criticalPathService;
+
+    @Test
+    void findCriticalPath_shouldScheduleTasksFromStartDate() {
+        given(projectRepository.existsById(7L)).willReturn(true);
+        given(taskRepository.findScheduleStatesByProjectId(7L)).willReturn(List.of(
+                state(10L, null, 3, null),
+                state(11L, null, null, LocalDateTime.now()),
+                state(12L, START.plusDays(2), 2, null)));
+        // 12 depends on 10 and 11; 13 belongs to another project or is deleted.
+        given(taskDependencyRepository.findEdgesFromProject(7L)).willReturn(List.of(
+                edge(12L, 10L), edge(12L, 11L), edge(12L, 13L)));
+
+        ProjectCriticalPath result = criticalPathService.findCriticalPath(7L, START);
+
+        assertThat(result.getFinish()).isEqualTo(START.plusDays(5));
+        assertThat(result.getCriticalPath()).containsExactly(10L, 12L);
+        assertThat(result.getTasks())
+                .extracting(TaskSchedule::getTaskId, TaskSchedule::getEarliestStart, TaskSchedule::getSlackDays, TaskSchedule::isCritical)
+                .containsExactly(
+                        tuple(10L, START, -3, true),
+                        tuple(11L, START, 0, false),
+                        tuple(12L, START.plusDays(3), -3, true));
+    }
+
+    @Test
+    void findCriticalPath_shouldRejectCyclicDependencies() {
+        given(projectRepository.existsById(7L)).willReturn(true);
+        given(taskRepository.findScheduleStatesByProjectId(7L)).willReturn(List.of(
+                state(10L, null, 1, null), state(11L, null, 1, null)));
+        given(taskDependencyRepository.findEdgesFromProject(7L)).willReturn(List.of(edge(10L, 11L), edge(11L, 10L)));
+
+        assertThatThrownBy(() -> criticalPathService.findCriticalPath(7L, START))
+                .isInstanceOf(TaskDependencyCycleException.class)
+                .satisfies(e -> assertThat(((TaskDependencyCycleException) e).getCycle()).containsExactly(10L, 11L, 10L));
+    }
+
+    @Test
+    void findCriticalPath_shouldThrowIfProjectNotFound() {
+        given(projectRepository.existsById(99L)).willReturn(false);
+
+        assertThatThrownBy(() -> criticalPathService.findCriticalPath(99L, START))
+                .isInstanceOf(ProjectNotFoundException.class);
+        verifyNoInteractions(taskRepository, taskDependencyRepository);
+    }
+
+    @Test
+    void findTopologicalOrder_shouldOrderTasksByLevelThenId() {
+        given(projectRepository.existsById(7L)).willReturn(true);
+        given(taskRepository.findScheduleStatesByProjectId(7L)).willReturn(List.of(
+                state(14L, null, null, null), state(12L, null, null, null),
+                state(10L, null, null, null), state(11L, null, null, null)));
+        given(taskDependencyRepository.findEdgesFromProject(7L)).willReturn(List.of(
+                edge(12L, 10L), edge(11L, 10L), edge(14L, 12L), edge(14L, 13L)));
+
+        TopologicalLevels order = criticalPathService.findTopologicalOrder(7L);
+
+        assertThat(order.size()).isEqualTo(4);
+        assertThat(order.levelCount()).isEqualTo(3);
+        assertThat(new long[]{order.taskId(0), order.taskId(1), order.taskId(2), order.taskId(3)})
+                .containsExactly(10L, 11L, 12L, 14L);
+        assertThat(new int[]{order.level(0), order.level(1), order.level(2), order.level(3)})
+                .containsExactly(0, 1, 1, 2);
+    }
+
+    @Test
+    void findTopologicalOrder_shouldRejectCyclicDependencies() {
+        given(projectRepository.existsById(7L)).willReturn(true);
+        given(taskRepository.findScheduleStatesByProjectId(7L)).willReturn(List.of(
+                state(10L, null, null, null), state(11L, null, null, null)));
+        given(taskDependencyRepository.findEdgesFromProject(7L)).willReturn(List.of(edge(10L, 11L), edge(11L, 10L)));
+
+        assertThatThrownBy(() -> criticalPathService.findTopologicalOrder(7L))
+                .isInstanceOf(TaskDependencyCycleException.class)
+                .hasMessageContaining("project 7");
+    }
+
+    @Test
+    void simulateDueDates_shouldReportDependentsWhoseDueDatesCanNoLongerBeMet() {
+        // 11 and 12 depend on 10, 13 depends on 11.
+        DependencyGraph downstream = new DependencyGraph();
+        downstream.addEdge(11L, 10L);
+        downstream.addEdge(12L, 10L);
+        downstream.addEdge(13L, 11L);
+        given(taskDependencyIndex.copyDownstream(new long[]{10L})).willReturn(downstream);
+        given(taskRepository.findScheduleStatesByIdIn(List.of(10L, 11L, 12L, 13L))).willReturn(List.of(
+                state(10L, START, 2, null),
+                state(11L, START.plusDays(3), 2, null),
+                state(12L, START.plusDays(20), null, null),
+                state(13L, START.plusDays(5), 1, null)));
+
+        List<DueDateImpact> impacts = criticalPathService.simulateDueDates(
+                List.of(new DueDateChange(10L, START.plusDays(4))));
+
+        assertThat(impacts)
+                .extracting(DueDateImpact::getTaskId, DueDateImpact::getDueDate, DueDateImpact::getEarliestDueDate, DueDateImpact::getSlipDays)
+                .containsExactly(
+                        tuple(11L, START.plusDays(3), START.plusDays(6), 3L),
+                        tuple(13L, START.plusDays(5), START.plusDays(7), 2L));
+    }
+
+    @Test
+    void simulateDueDates_shouldThrowIfChangedTaskNotFound() {
+        given(taskDependencyIndex.copyDownstream(new long[]{10L})).willReturn(new DependencyGraph());
+        given(taskRepository.findScheduleStatesByIdIn(List.of(10L))).willReturn(List.of());
+
+        assertThatThrownBy(() -> criticalPathService.simulateDueDates(List.of(new DueDateChange(10L, START))))
+                .isInstanceOf(TaskNotFoundException.class)
+                .hasMessage("Task not found with ID: 10");
+    }
+
+    @Test
+    void simulateDueDates_shouldRejectTaskChangedTwice() {
+        assertThatThrownBy(() -> criticalPathService.simulateDueDates(
+                List.of(new DueDateChange(10L, START), new DueDateChange(10L, START.plusDays(1)))))
+                .isInstanceOf(TaskValidationException.class);
+        verifyNoInteractions(taskDependencyIndex, taskRepository);
+    }
+
+    private static TaskScheduleState state(Long id, LocalDate dueDate, Integer duration, LocalDateTime completedAt) {
+        return new TaskScheduleState() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDate getTaskDueDate() {
+                return dueDate;
+            }
+
+            @Override
+            public Integer getEstimatedDurationDays() {
+                return duration;
+            }
+
+            @Override
+            public LocalDateTime getCompletedAt() {
+                return completedAt;
+            }
+        };
+    }
+
+    private static TaskEdge edge(Long taskId, Long dependsOnTaskId) {
+        return new TaskEdge() {
+            @Override
+            public Long getTaskId() {
+                return taskId;
+            }
+
+            @Override
+            public Long getDependsOnTaskId() {
+                return dependsOnTaskId;
+            }
+        };
+    }
+}
@@ -0,0 +1,164 @@
+package com.daaeboul.taskmanagementsystem.service.task;
+
+import com.daaeboul.taskmanagementsystem.dto.task.TaskCursor;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskDueState;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueTaskIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 5, 10);
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC));
+
+    private OverdueTaskIndex overdueTaskIndex;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+        };
+        overdueTaskIndex = new OverdueTaskIndex(taskRepository, clock);
+    }
+
+    @Test
+    void covers_shouldBeFalseUntilLoaded() {
+        assertThat(overdueTaskIndex.covers(TODAY)).isFalse();
+    }
+
+    @Test
+    void rebuild_shouldIndexOverdueTasksPerProjectInDueDateOrder() {
+        given(taskRepository.findOpenDueStatesBetween(TaskCursor.FIRST_DATE, TODAY)).willReturn(List.of(
+                state(3L, 1L, TODAY.minusDays(1), null),
+                state(1L, 1L, TODAY.minusDays(5), null),
+                state(2L, 1L, TODAY.minusDays(1), null),
+                state(4L, 2L, TODAY.minusDays(2), null)));
+
+        overdueTaskIndex.rebuild();
+
+        assertThat(overdueTaskIndex.covers(TODAY)).isTrue();
+        assertThat(overdueTaskIndex.covers(TODAY.plusDays(1))).isFalse();
+        assertThat(overdueTaskIndex.findOverdueTaskIds(1L, TaskCursor.FIRST_DATE, 0L, 10)).containsExactly(1L, 2L, 3L);
+        assertThat(overdueTaskIndex.findOverdueTaskIds(1L, TODAY.minusDays(1), 2L, 10)).containsExactly(3L);
+        assertThat(overdueTaskIndex.findOverdueTaskIds(1L, TaskCursor.FIRST_DATE, 0L, 2)).containsExactly(1L, 2L);
+        assertThat(overdueTaskIndex.findOverdueTaskIds(2L, TaskCursor.FIRST_DATE, 0L, 10)).containsExactly(4L);
+        assertThat(overdueTaskIndex.findOverdueTaskIds(9L, TaskCursor.FIRST_DATE, 0L, 10)).isEmpty();
+    }
+
+    @Test
+    void refresh_shouldAddRemoveAndMoveTasks() {
+        given(taskRepository.findOpenDueStatesBetween(TaskCursor.FIRST_DATE, TODAY)).willReturn(List.of(
+                state(1L, 1L, TODAY.minusDays(5), null),
+                state(2L, 1L, TODAY.minusDays(1), null)));
+        overdueTaskIndex.rebuild();
+
+        given(taskRepository.findDueStatesByIdIn(List.of(1L, 2L, 3L))).willReturn(List.of(
+                state(1L, 1L, TODAY.minusDays(5), LocalDateTime.now()),
+                state(2L, 2L, TODAY.minusDays(1), null),
+                state(3L, 1L, TODAY.minusDays(3), null)));
+
+        overdueTaskIndex.refresh(List.of(1L, 2L, 3L));
+
+        assertThat(overdueTaskIndex.findOverdueTaskIds(1L, TaskCursor.FIRST_DATE, 0L, 10)).containsExactly(3L);
+        assertThat(overdueTaskIndex.findOverdueTaskIds(2L, TaskCursor.FIRST_DATE, 0L, 10)).containsExactly(2L);
+    }
+
+    @Test
+    void refresh_shouldDropTasksThatAreNoLongerOverdueOrNoLongerExist() {
+        given(taskRepository.findOpenDueStatesBetween(TaskCursor.FIRST_DATE, TODAY)).willReturn(List.of(
+                state(1L, 1L, TODAY.minusDays(5), null),
+                state(2L, 1L, TODAY.minusDays(1), null)));
+        overdueTaskIndex.rebuild();
+        given(taskRepository.findDueStatesByIdIn(List.of(1L, 2L))).willReturn(List.of(state(1L, 1L, TODAY, null)));
+
+        overdueTaskIndex.refresh(List.of(1L, 2L));
+
+        assertThat(overdueTaskIndex.findOverdueTaskIds(1L, TaskCursor.FIRST_DATE, 0L, 10)).isEmpty();
+    }
+
+    @Test
+    void refresh_shouldIgnoreEventsBeforeTheIndexIsLoaded() {
+        overdueTaskIndex.onTaskChanged(new TaskChangedEvent(List.of(1L)));
+
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void rollForward_shouldAddTasksThatFellDueOnThePassedDays() {
+        given(taskRepository.findOpenDueStatesBetween(TaskCursor.FIRST_DATE, TODAY)).willReturn(List.of(
+                state(1L, 1L, TODAY.minusDays(5), null)));
+        overdueTaskIndex.rebuild();
+
+        LocalDate tomorrow = TODAY.plusDays(1);
+        now.set(tomorrow.atStartOfDay().toInstant(ZoneOffset.UTC));
+        given(taskRepository.findOpenDueStatesBetween(TODAY, tomorrow)).willReturn(List.of(state(2L, 1L, TODAY, null)));
+
+        overdueTaskIndex.rollForward();
+
+        assertThat(overdueTaskIndex.covers(tomorrow)).isTrue();
+        assertThat(overdueTaskIndex.findOverdueTaskIds(1L, TaskCursor.FIRST_DATE, 0L, 10)).containsExactly(1L, 2L);
+    }
+
+    private static TaskDueState state(Long id, Long projectId, LocalDate dueDate, LocalDateTime completedAt) {
+        return new TaskDueState() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getProjectId() {
+                return projectId;
+            }
+
+            @Override
+            public LocalDate getTaskDueDate() {
+                return dueDate;
+            }
+
+            @Override
+            public LocalDateTime getCompletedAt() {
+                return completedAt;
+            }
+
+            @Override
+            public LocalDateTime getDeletedAt() {
+                return null;
+            }
+        };
+    }
+}
@@ -1,17 +1,36 @@
 package com.daaeboul.taskmanagementsystem.service.task;
 
+import com.daaeboul.taskmanagementsystem.dto.task.TaskAttachmentDownload;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskAttachmentMetadata;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskValidationException;
 import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.TaskAttachmentNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.TaskAttachmentStorageException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskAttachment.TaskAttachmentTooLargeException;
+import com.daaeboul.taskmanagementsystem.model.task.AttachmentBlob;
 import com.daaeboul.taskmanagementsystem.model.task.Task;
 import com.daaeboul.taskmanagementsystem.model.task.TaskAttachment;
+import com.daaeboul.taskmanagementsystem.repository.task.AttachmentBlobRepository;
 import com.daaeboul.taskmanagementsystem.repository.task.TaskAttachmentRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import com.daaeboul.taskmanagementsystem.service.storage.BlobStore;
+import com.daaeboul.taskmanagementsystem.service.storage.BlobTooLargeException;
+import com.daaeboul.taskmanagementsystem.service.storage.StoredBlob;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,9 +43,26 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class TaskAttachmentServiceTest {
 
+    private static final String HELLO = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
     @Mock
     private TaskAttachmentRepository taskAttachmentRepository;
 
+    @Mock
+    private AttachmentBlobRepository attachmentBlobRepository;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TaskAttachmentService taskAttachmentService;
 
@@ -58,6 +94,209 @@ class TaskAttachmentServiceTest {
         verify(taskAttachmentRepository).save(attachment1);
     }
 
+    @Test
+    void uploadTaskAttachment_shouldStoreNewContentAndSaveOnlyMetadata() throws Exception {
+        InputStream content = new ByteArrayInputStream("hello".getBytes());
+        given(taskRepository.existsById(1L)).willReturn(true);
+        given(taskRepository.getReferenceById(1L)).willReturn(task);
+        given(blobStore.store(content)).willReturn(new StoredBlob("ab12", 5, HELLO));
+        given(attachmentBlobRepository.findByChecksumForUpdate(HELLO)).willReturn(Optional.empty());
+        given(attachmentBlobRepository.saveAndFlush(any(AttachmentBlob.class))).willAnswer(invocation -> invocation.getArgument(0));
+        given(taskAttachmentRepository.save(any(TaskAttachment.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        TaskAttachment attachment = taskAttachmentService.uploadTaskAttachment(1L, "hello.txt", "text/plain", null, content);
+
+        assertThat(attachment.getTask()).isEqualTo(task);
+        assertThat(attachment.getFileSize()).isEqualTo(5L);
+        assertThat(attachment.getStorageKey()).isEqualTo("ab12");
+        assertThat(attachment.getChecksum()).isEqualTo(HELLO);
+        assertThat(attachment.getFileContent()).isNull();
+        verify(blobStore, never()).delete(any());
+    }
+
+    @Test
+    void uploadTaskAttachment_shouldReferenceKnownContentAndDropTheNewCopy() throws Exception {
+        InputStream content = new ByteArrayInputStream("hello".getBytes());
+        AttachmentBlob known = new AttachmentBlob(HELLO, "cafe", 5);
+        given(taskRepository.existsById(1L)).willReturn(true);
+        given(blobStore.store(content)).willReturn(new StoredBlob("ab12", 5, HELLO));
+        given(attachmentBlobRepository.findByChecksumForUpdate(HELLO)).willReturn(Optional.of(known));
+        given(taskAttachmentRepository.save(any(TaskAttachment.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        TaskAttachment attachment = taskAttachmentService.uploadTaskAttachment(1L, "copy.txt", null, null, content);
+
+        assertThat(attachment.getStorageKey()).isEqualTo("cafe");
+        assertThat(known.getReferenceCount()).isEqualTo(2);
+        verify(blobStore).delete("ab12");
+        verify(attachmentBlobRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void uploadTaskAttachment_shouldLinkChecksumKnownToTheTaskWithoutReadingContent() throws Exception {
+        InputStream content = mock(InputStream.class);
+        given(taskRepository.existsById(1L)).willReturn(true);
+        given(taskAttachmentRepository.existsByTaskIdAndChecksum(1L, HELLO)).willReturn(true);
+        given(attachmentBlobRepository.findByChecksumForUpdate(HELLO)).willReturn(Optional.of(new AttachmentBlob(HELLO, "cafe", 5)));
+        given(taskAttachmentRepository.save(any(TaskAttachment.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        TaskAttachment attachment = taskAttachmentService.uploadTaskAttachment(1L, "copy.txt", null, HELLO.toUpperCase(), content);
+
+        assertThat(attachment.getStorageKey()).isEqualTo("cafe");
+        verifyNoInteractions(content, blobStore);
+    }
+
+    @Test
+    void uploadTaskAttachment_shouldReadContentOfChecksumKnownOnlyToOtherTasks() throws Exception {
+        InputStream content = new ByteArrayInputStream("hello".getBytes());
+        AttachmentBlob known = new AttachmentBlob(HELLO, "cafe", 5);
+        given(taskRepository.existsById(1L)).willReturn(true);
+        given(taskAttachmentRepository.existsByTaskIdAndChecksum(1L, HELLO)).willReturn(false);
+        given(blobStore.store(content)).willReturn(new StoredBlob("ab12", 5, HELLO));
+        given(attachmentBlobRepository.findByChecksumForUpdate(HELLO)).willReturn(Optional.of(known));
+        given(taskAttachmentRepository.save(any(TaskAttachment.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        TaskAttachment attachment = taskAttachmentService.uploadTaskAttachment(1L, "copy.txt", null, HELLO, content);
+
+        assertThat(attachment.getStorageKey()).isEqualTo("cafe");
+        verify(blobStore).store(content);
+        verify(attachmentBlobRepository, times(1)).findByChecksumForUpdate(HELLO);
+        verify(blobStore).delete("ab12");
+    }
+
+    @Test
+    void uploadTaskAttachment_shouldNotLinkChecksumOfOtherTasksWhenContentDiffers() throws Exception {
+        InputStream content = new ByteArrayInputStream("other".getBytes());
+        given(taskRepository.existsById(1L)).willReturn(true);
+        given(taskAttachmentRepository.existsByTaskIdAndChecksum(1L, HELLO)).willReturn(false);
+        given(blobStore.store(content)).willReturn(new StoredBlob("ab12", 5, "0".repeat(64)));
+
+        assertThatThrownBy(() -> taskAttachmentService.uploadTaskAttachment(1L, "guess.txt", null, HELLO, content))
+                .isInstanceOf(TaskValidationException.class);
+        verify(attachmentBlobRepository, never()).findByChecksumForUpdate(any());
+        verify(taskAttachmentRepository, never()).save(any());
+        verify(blobStore).delete("ab12");
+    }
+
+    @Test
+    void uploadTaskAttachment_shouldRejectContentNotMatchingChecksum() throws Exception {
+        String other = "0".repeat(64);
+        InputStream content = new ByteArrayInputStream("hello".getBytes());
+        given(taskRepository.existsById(1L)).willReturn(true);
+        given(blobStore.store(content)).willReturn(new StoredBlob("ab12", 5, HELLO));
+
+        assertThatThrownBy(() -> taskAttachmentService.uploadTaskAttachment(1L, "hello.txt", null, other, content))
+                .isInstanceOf(TaskValidationException.class);
+        verify(blobStore).delete("ab12");
+        verify(taskAttachmentRepository, never()).save(any());
+    }
+
+    @Test
+    void uploadTaskAttachment_shouldRejectContentLargerThanTheStoreAccepts() throws Exception {
+        InputStream content = new ByteArrayInputStream("hello".getBytes());
+        given(taskRepository.existsById(1L)).willReturn(true);
+        given(blobStore.store(content)).willThrow(new BlobTooLargeException(4));
+
+        assertThatThrownBy(() -> taskAttachmentService.uploadTaskAttachment(1L, "hello.txt", null, null, content))
+                .isInstanceOf(TaskAttachmentTooLargeException.class);
+        verify(taskAttachmentRepository, never()).save(any());
+    }
+
+    @Test
+    void uploadTaskAttachment_shouldNotReadContentForMissingTask() {
+        given(taskRepository.existsById(1L)).willReturn(false);
+
+        assertThatThrownBy(() -> taskAttachmentService.uploadTaskAttachment(1L, "hello.txt", null, null, InputStream.nullInputStream()))
+                .isInstanceOf(TaskNotFoundException.class);
+        verifyNoInteractions(blobStore, taskAttachmentRepository);
+    }
+
+    @Test
+    void uploadTaskAttachment_shouldDeleteBlobIfRowCannotBeSaved() throws Exception {
+        InputStream content = InputStream.nullInputStream();
+        given(taskRepository.existsById(1L)).willReturn(true);
+        given(blobStore.store(content)).willReturn(new StoredBlob("ab12", 0, HELLO));
+        given(attachmentBlobRepository.findByChecksumForUpdate(HELLO)).willReturn(Optional.empty());
+        given(attachmentBlobRepository.saveAndFlush(any(AttachmentBlob.class))).willAnswer(invocation -> invocation.getArgument(0));
+        given(taskAttachmentRepository.save(any(TaskAttachment.class))).willThrow(new IllegalStateException("constraint"));
+
+        assertThatThrownBy(() -> taskAttachmentService.uploadTaskAttachment(1L, "empty.txt", null, null, content))
+                .isInstanceOf(IllegalStateException.class);
+        verify(blobStore).delete("ab12");
+    }
+
+    @Test
+    void deleteTaskAttachment_shouldDeleteBlobWithItsLastReference() {
+        AttachmentBlob blob = new AttachmentBlob(HELLO, "cafe", 5);
+        given(taskAttachmentRepository.existsById(1L)).willReturn(true);
+        given(taskAttachmentRepository.findStoredChecksumById(1L)).willReturn(Optional.of(HELLO));
+        given(attachmentBlobRepository.findByChecksumForUpdate(HELLO)).willReturn(Optional.of(blob));
+
+        taskAttachmentService.deleteTaskAttachment(1L);
+
+        verify(taskAttachmentRepository).deleteById(1L);
+        verify(attachmentBlobRepository).delete(blob);
+        verify(eventPublisher).publishEvent(any(AttachmentBlobReleasedEvent.class));
+    }
+
+    @Test
+    void deleteTaskAttachment_shouldKeepSharedBlob() {
+        AttachmentBlob blob = new AttachmentBlob(HELLO, "cafe", 5);
+        blob.setReferenceCount(3);
+        given(taskAttachmentRepository.existsById(1L)).willReturn(true);
+        given(taskAttachmentRepository.findStoredChecksumById(1L)).willReturn(Optional.of(HELLO));
+        given(attachmentBlobRepository.findByChecksumForUpdate(HELLO)).willReturn(Optional.of(blob));
+
+        taskAttachmentService.deleteTaskAttachment(1L);
+
+        assertThat(blob.getReferenceCount()).isEqualTo(2);
+        verify(attachmentBlobRepository, never()).delete(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void openTaskAttachment_shouldServeStoredContentFromTheBlobStore() throws Exception {
+        Resource stored = new ByteArrayResource("hello".getBytes());
+        attachment1.setStorageKey("ab12");
+        attachment1.setChecksum(HELLO);
+        given(taskAttachmentRepository.findById(1L)).willReturn(Optional.of(attachment1));
+        given(blobStore.resource("ab12")).willReturn(stored);
+
+        TaskAttachmentDownload download = taskAttachmentService.openTaskAttachment(1L);
+
+        assertThat(download.getContent()).isSameAs(stored);
+        assertThat(download.getFileName()).isEqualTo("attachment1.txt");
+        assertThat(download.getChecksum()).isEqualTo(HELLO);
+    }
+
+    @Test
+    void openTaskAttachment_shouldServeContentKeptInTheRow() throws Exception {
+        attachment1.setFileContent("hello".getBytes());
+        given(taskAttachmentRepository.findById(1L)).willReturn(Optional.of(attachment1));
+
+        TaskAttachmentDownload download = taskAttachmentService.openTaskAttachment(1L);
+
+        assertThat(download.getContent().getContentAsByteArray()).isEqualTo("hello".getBytes());
+        verifyNoInteractions(blobStore);
+    }
+
+    @Test
+    void openTaskAttachment_shouldReportMissingContentAsStorageFailure() throws Exception {
+        attachment1.setStorageKey("ab12");
+        given(taskAttachmentRepository.findById(1L)).willReturn(Optional.of(attachment1));
+        given(blobStore.resource("ab12")).willThrow(new NoSuchFileException("ab12"));
+
+        assertThatThrownBy(() -> taskAttachmentService.openTaskAttachment(1L))
+                .isInstanceOf(TaskAttachmentStorageException.class);
+    }
+
+    @Test
+    void openTaskAttachment_shouldThrowExceptionIfAttachmentNotFound() {
+        given(taskAttachmentRepository.findById(100L)).willReturn(Optional.empty());
+
+        assertThatThrownBy(() -> taskAttachmentService.openTaskAttachment(100L))
+                .isInstanceOf(TaskAttachmentNotFoundException.class);
+    }
+
     @Test
     void findTaskAttachmentById_shouldReturnAttachmentIfFound() {
         given(taskAttachmentRepository.findById(attachment1.getId())).willReturn(Optional.of(attachment1));
@@ -76,38 +315,86 @@ class TaskAttachmentServiceTest {
         assertThat(foundAttachment).isEmpty();
     }
 
+    @Test
+    void findTaskAttachmentMetadataById_shouldReturnMetadataWithoutLoadingTheAttachment() {
+        TaskAttachmentMetadata metadata = TaskAttachmentMetadata.from(attachment1);
+        given(taskAttachmentRepository.findMetadataById(1L)).willReturn(Optional.of(metadata));
+
+        assertThat(taskAttachmentService.findTaskAttachmentMetadataById(1L)).contains(metadata);
+        verify(taskAttachmentRepository, never()).findById(anyLong());
+    }
+
     @Test
     void findTaskAttachmentsByTaskId_shouldReturnAttachmentsForTheGivenTask() {
-        given(taskAttachmentRepository.findByTaskId(task.getId())).willReturn(List.of(attachment1, attachment2));
+        List<TaskAttachmentMetadata> metadata = List.of(TaskAttachmentMetadata.from(attachment1),
+                TaskAttachmentMetadata.from(attachment2));
+        given(taskAttachmentRepository.findMetadataByTaskId(task.getId())).willReturn(metadata);
 
-        List<TaskAttachment> attachments = taskAttachmentService.findTaskAttachmentsByTaskId(task.getId());
+        List<TaskAttachmentMetadata> attachments = taskAttachmentService.findTaskAttachmentsByTaskId(task.getId());
 
-        assertThat(attachments).containsExactly(attachment1, attachment2);
+        assertThat(attachments).isEqualTo(metadata);
+        verify(taskAttachmentRepository, never()).findByTaskId(any());
     }
 
     @Test
     void updateTaskAttachment_shouldUpdateAttachmentSuccessfully() {
         TaskAttachment updatedAttachment = new TaskAttachment();
-        ReflectionTestUtils.setField(updatedAttachment, "id", attachment1.getId());
         updatedAttachment.setFileName("updated_attachment.txt");
+        updatedAttachment.setFileSize(7L);
+        updatedAttachment.setFileContent("updated".getBytes());
+
+        given(taskAttachmentRepository.findById(attachment1.getId())).willReturn(Optional.of(attachment1));
+        given(taskAttachmentRepository.save(any(TaskAttachment.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        TaskAttachment result = taskAttachmentService.updateTaskAttachment(attachment1.getId(), updatedAttachment);
+
+        assertThat(result).isSameAs(attachment1);
+        assertThat(result.getFileName()).isEqualTo("updated_attachment.txt");
+        assertThat(result.getFileSize()).isEqualTo(7L);
+        assertThat(result.getFileContent()).isEqualTo("updated".getBytes());
+    }
+
+    @Test
+    void updateTaskAttachment_shouldOnlyRenameAttachmentWithStoredContent() {
+        attachment1.setStorageKey("ab12");
+        attachment1.setFileSize(5L);
+        TaskAttachment updatedAttachment = new TaskAttachment();
+        updatedAttachment.setFileName("renamed.txt");
+        updatedAttachment.setFileType("text/plain");
+        updatedAttachment.setFileSize(2048L);
 
         given(taskAttachmentRepository.findById(attachment1.getId())).willReturn(Optional.of(attachment1));
-        given(taskAttachmentRepository.save(any(TaskAttachment.class))).willReturn(updatedAttachment);
+        given(taskAttachmentRepository.save(any(TaskAttachment.class))).willAnswer(invocation -> invocation.getArgument(0));
 
-        TaskAttachment result = taskAttachmentService.updateTaskAttachment(updatedAttachment);
+        TaskAttachment result = taskAttachmentService.updateTaskAttachment(attachment1.getId(), updatedAttachment);
 
-        assertThat(result).isEqualTo(updatedAttachment);
-        verify(taskAttachmentRepository).save(any(TaskAttachment.class));
+        assertThat(result.getFileName()).isEqualTo("renamed.txt");
+        assertThat(result.getFileType()).isEqualTo("text/plain");
+        assertThat(result.getFileSize()).isEqualTo(5L);
+        assertThat(result.getFileContent()).isNull();
+    }
+
+    @Test
+    void updateTaskAttachment_shouldRejectNewContentForAttachmentWithStoredContent() {
+        attachment1.setStorageKey("ab12");
+        TaskAttachment updatedAttachment = new TaskAttachment();
+        updatedAttachment.setFileName("hello.txt");
+        updatedAttachment.setFileContent("replaced".getBytes());
+
+        given(taskAttachmentRepository.findById(attachment1.getId())).willReturn(Optional.of(attachment1));
+
+        assertThatThrownBy(() -> taskAttachmentService.updateTaskAttachment(attachment1.getId(), updatedAttachment))
+                .isInstanceOf(TaskValidationException.class);
+        verify(taskAttachmentRepository, never()).save(any());
     }
 
     @Test
     void updateTaskAttachment_shouldThrowExceptionIfAttachmentNotFound() {
         TaskAttachment updatedAttachment = new TaskAttachment();
-        ReflectionTestUtils.setField(updatedAttachment, "id", 100L);
 
         given(taskAttachmentRepository.findById(100L)).willReturn(Optional.empty());
 
-        assertThatThrownBy(() -> taskAttachmentService.updateTaskAttachment(updatedAttachment))
+        assertThatThrownBy(() -> taskAttachmentService.updateTaskAttachment(100L, updatedAttachment))
                 .isInstanceOf(TaskAttachmentNotFoundException.class)
                 .hasMessageContaining("Task attachment not found");
         verify(taskAttachmentRepository, never()).save(any());
@@ -134,22 +421,22 @@ class TaskAttachmentServiceTest {
 
     @Test
     void findTaskAttachmentsByFileName_shouldReturnAttachmentsWithMatchingFileName() {
-        given(taskAttachmentRepository.findByFileNameIgnoreCase(attachment1.getFileName()))
-                .willReturn(List.of(attachment1));
+        List<TaskAttachmentMetadata> metadata = List.of(TaskAttachmentMetadata.from(attachment1));
+        given(taskAttachmentRepository.findMetadataByFileNameIgnoreCase(attachment1.getFileName())).willReturn(metadata);
 
-        List<TaskAttachment> foundAttachments = taskAttachmentService.findTaskAttachmentsByFileName(attachment1.getFileName());
+        List<TaskAttachmentMetadata> foundAttachments = taskAttachmentService.findTaskAttachmentsByFileName(attachment1.getFileName());
 
-        assertThat(foundAttachments).containsExactly(attachment1);
+        assertThat(foundAttachments).isEqualTo(metadata);
     }
 
     @Test
     void findTaskAttachmentsByFileType_shouldReturnAttachmentsWithMatchingFileType() {
-        given(taskAttachmentRepository.findByFileTypeIgnoreCase("application/pdf"))
-                .willReturn(List.of(attachment2));
+        List<TaskAttachmentMetadata> metadata = List.of(TaskAttachmentMetadata.from(attachment2));
+        given(taskAttachmentRepository.findMetadataByFileTypeIgnoreCase("application/pdf")).willReturn(metadata);
 
-        List<TaskAttachment> foundAttachments = taskAttachmentService.findTaskAttachmentsByFileType("application/pdf");
+        List<TaskAttachmentMetadata> foundAttachments = taskAttachmentService.findTaskAttachmentsByFileType("application/pdf");
 
-        assertThat(foundAttachments).containsExactly(attachment2);
+        assertThat(foundAttachments).isEqualTo(metadata);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,341 @@
+package com.daaeboul.taskmanagementsystem.service.task;
+
+import com.daaeboul.taskmanagementsystem.model.task.TaskDependency;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskDependencyRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskEdge;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskProjectKey;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import com.daaeboul.taskmanagementsystem.service.task.graph.DependencyGraph;
+import com.daaeboul.taskmanagementsystem.service.task.graph.TaskClosure;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class TaskDependencyIndexTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskDependencyRepository taskDependencyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TaskDependencyIndex taskDependencyIndex;
+
+    @BeforeEach
+    void setUp() {
+        taskDependencyIndex = new TaskDependencyIndex(taskRepository, taskDependencyRepository, transactionManager, 1000);
+    }
+
+    @Test
+    void findDependencyIds_shouldLoadProjectOnceAndAnswerFromMemory() {
+        givenProject(1L, List.of(1L, 2L, 3L), List.of(edge(1L, 2L), edge(1L, 3L)), List.of(edge(9L, 3L)));
+
+        assertThat(taskDependencyIndex.findDependencyIds(1L)).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(taskDependencyIndex.findDependentIds(3L)).containsExactlyInAnyOrder(1L, 9L);
+        assertThat(taskDependencyIndex.countDependencies(2L)).isZero();
+        assertThat(taskDependencyIndex.countDependents(2L)).isEqualTo(1);
+        assertThat(taskDependencyIndex.hasDependency(1L, 2L)).isTrue();
+        assertThat(taskDependencyIndex.hasDependency(2L, 1L)).isFalse();
+
+        verify(taskRepository, times(1)).findProjectKeyById(1L);
+        verify(taskRepository, times(1)).findIdsByProjectId(1L);
+    }
+
+    @Test
+    void findDependencyIds_shouldReturnEmptyForMissingTask() {
+        given(taskRepository.findProjectKeyById(42L)).willReturn(Optional.empty());
+
+        assertThat(taskDependencyIndex.findDependencyIds(42L)).isEmpty();
+        assertThat(taskDependencyIndex.hasDependency(42L, 1L)).isFalse();
+        verifyNoInteractions(taskDependencyRepository);
+    }
+
+    @Test
+    void findDependencyIds_shouldLoadTasksWithoutProject() {
+        given(taskRepository.findProjectKeyById(5L)).willReturn(Optional.of(TaskDependencyIndex.NO_PROJECT));
+        given(taskRepository.findIdsWithoutProject()).willReturn(List.of(5L));
+        given(taskDependencyRepository.findEdgesWithoutProject()).willReturn(List.of(edge(5L, 6L)));
+
+        assertThat(taskDependencyIndex.findDependencyIds(5L)).containsExactly(6L);
+    }
+
+    @Test
+    void findDependencyIds_shouldLoadEdgesCommittedAfterTheCallersSnapshot() {
+        // The caller's transaction read before 1 -> 2 was committed; only a new read-committed transaction sees it.
+        AtomicBoolean fresh = new AtomicBoolean();
+        given(transactionManager.getTransaction(any())).willAnswer(invocation -> {
+            TransactionDefinition definition = invocation.getArgument(0);
+            fresh.set(definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                    && definition.getIsolationLevel() == TransactionDefinition.ISOLATION_READ_COMMITTED);
+            return new SimpleTransactionStatus();
+        });
+        given(taskRepository.findProjectKeyById(1L)).willReturn(Optional.of(1L));
+        given(taskRepository.findIdsByProjectId(1L)).willReturn(List.of(1L, 2L));
+        given(taskDependencyRepository.findEdgesFromProject(1L))
+                .willAnswer(invocation -> fresh.get() ? List.of(edge(1L, 2L)) : List.of());
+        given(taskDependencyRepository.findEdgesIntoProject(1L)).willReturn(List.of());
+
+        // The commit's event arrives while the project is not loaded, so the index passes over it.
+        taskDependencyIndex.onDependencyChanged(new TaskDependencyChangedEvent(
+                List.of(new TaskDependency.TaskDependencyId(1L, 2L)), List.of()));
+
+        assertThat(taskDependencyIndex.findDependencyIds(1L)).containsExactly(2L);
+        assertThat(taskDependencyIndex.findDependentIds(2L)).containsExactly(1L);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void findDependencyIds_shouldDropLeastRecentlyReadProjectBeyondTheLimit() {
+        TaskDependencyIndex index = new TaskDependencyIndex(taskRepository, taskDependencyRepository, transactionManager, 2);
+        givenProject(1L, List.of(1L), List.of(edge(1L, 2L)), List.of());
+        givenProject(2L, List.of(2L), List.of(), List.of(edge(1L, 2L)));
+        givenProject(3L, List.of(3L), List.of(), List.of());
+
+        index.findDependencyIds(1L);
+        index.findDependencyIds(2L);
+        index.findDependencyIds(1L);
+        index.findDependencyIds(3L);
+
+        assertThat(index.findDependencyIds(1L)).containsExactly(2L);
+        assertThat(index.findDependentIds(2L)).containsExactly(1L);
+        verify(taskRepository, times(1)).findIdsByProjectId(1L);
+        verify(taskRepository, times(2)).findIdsByProjectId(2L);
+        verify(taskRepository, times(1)).findIdsByProjectId(3L);
+    }
+
+    @Test
+    void constructor_shouldRequireRoomForOneProject() {
+        assertThatThrownBy(() -> new TaskDependencyIndex(taskRepository, taskDependencyRepository, transactionManager, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findDependencyPath_shouldReturnChainBetweenTasks() {
+        givenProject(1L, List.of(1L, 2L, 3L, 4L, 5L),
+                List.of(edge(1L, 2L), edge(2L, 3L), edge(3L, 4L), edge(2L, 5L), edge(5L, 4L)), List.of());
+
+        assertThat(taskDependencyIndex.findDependencyPath(1L, 4L, null)).hasSize(4).startsWith(1L, 2L).endsWith(4L);
+        assertThat(taskDependencyIndex.findDependencyPath(1L, 2L, null)).containsExactly(1L, 2L);
+        assertThat(taskDependencyIndex.findDependencyPath(4L, 1L, null)).isEmpty();
+        assertThat(taskDependencyIndex.findDependencyPath(3L, 3L, null)).containsExactly(3L);
+    }
+
+    @Test
+    void findDependencyPath_shouldSkipIgnoredEdge() {
+        givenProject(1L, List.of(1L, 2L, 3L), List.of(edge(1L, 2L), edge(2L, 3L)), List.of());
+
+        assertThat(taskDependencyIndex.findDependencyPath(1L, 3L, new TaskDependency.TaskDependencyId(2L, 3L))).isEmpty();
+    }
+
+    @Test
+    void findDependencyPath_shouldFollowEdgesIntoOtherProjects() {
+        givenProject(1L, List.of(1L), List.of(edge(1L, 10L)), List.of());
+        given(taskRepository.findProjectKeyById(11L)).willReturn(Optional.of(2L));
+        given(taskRepository.findIdsByProjectId(2L)).willReturn(List.of(10L, 11L));
+        given(taskDependencyRepository.findEdgesFromProject(2L)).willReturn(List.of(edge(10L, 11L)));
+        given(taskDependencyRepository.findEdgesIntoProject(2L)).willReturn(List.of(edge(1L, 10L)));
+
+        assertThat(taskDependencyIndex.findDependencyPath(1L, 11L, null)).containsExactly(1L, 10L, 11L);
+    }
+
+    @Test
+    void findClosure_shouldListEachTaskOnceAtItsShortestDepth() {
+        givenProject(1L, List.of(1L, 2L, 3L, 4L, 5L),
+                List.of(edge(1L, 2L), edge(2L, 3L), edge(3L, 4L), edge(1L, 3L), edge(5L, 1L)), List.of());
+
+        TaskClosure upstream = taskDependencyIndex.findClosure(1L, true, Integer.MAX_VALUE);
+        assertThat(upstream.size()).isEqualTo(3);
+        assertThat(depthOf(upstream, 2L)).isEqualTo(1);
+        assertThat(depthOf(upstream, 3L)).isEqualTo(1);
+        assertThat(depthOf(upstream, 4L)).isEqualTo(2);
+
+        assertThat(taskDependencyIndex.findClosure(1L, true, 1).size()).isEqualTo(2);
+        TaskClosure downstream = taskDependencyIndex.findClosure(4L, false, Integer.MAX_VALUE);
+        assertThat(depthOf(downstream, 5L)).isEqualTo(3);
+    }
+
+    @Test
+    void copyUpstream_shouldCopyOnlyDependenciesReachableFromTheGivenTasks() {
+        givenProject(1L, List.of(1L, 2L, 3L, 4L, 5L),
+                List.of(edge(1L, 2L), edge(2L, 3L), edge(1L, 3L), edge(4L, 3L), edge(5L, 1L)), List.of());
+
+        DependencyGraph copy = taskDependencyIndex.copyUpstream(new long[]{1L, 2L});
+
+        assertThat(copy.edgeCount()).isEqualTo(3);
+        assertThat(copy.dependenciesOf(1L)).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(copy.containsTask(4L)).isFalse();
+        assertThat(copy.containsTask(5L)).isFalse();
+    }
+
+    @Test
+    void copyDownstream_shouldCopyOnlyDependentsReachableFromTheGivenTasks() {
+        givenProject(1L, List.of(3L, 1L, 2L, 4L, 5L),
+                List.of(edge(1L, 2L), edge(2L, 3L), edge(1L, 3L), edge(1L, 4L), edge(5L, 1L)), List.of());
+
+        DependencyGraph copy = taskDependencyIndex.copyDownstream(new long[]{3L});
+
+        assertThat(copy.edgeCount()).isEqualTo(4);
+        assertThat(copy.dependentsOf(3L)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(copy.dependenciesOf(5L)).containsExactly(1L);
+        assertThat(copy.containsTask(4L)).isFalse();
+    }
+
+    @Test
+    void onDependencyChanged_shouldApplyRemovalsThenAdditionsToLoadedProjects() {
+        givenProject(1L, List.of(1L, 2L, 3L), List.of(edge(1L, 2L)), List.of());
+        taskDependencyIndex.findDependencyIds(1L);
+
+        taskDependencyIndex.onDependencyChanged(new TaskDependencyChangedEvent(
+                List.of(new TaskDependency.TaskDependencyId(1L, 3L)),
+                List.of(new TaskDependency.TaskDependencyId(1L, 2L))));
+
+        assertThat(taskDependencyIndex.findDependencyIds(1L)).containsExactly(3L);
+        assertThat(taskDependencyIndex.findDependentIds(2L)).isEmpty();
+    }
+
+    @Test
+    void onTaskChanged_shouldRegisterNewTaskOfLoadedProject() {
+        givenProject(1L, List.of(1L), List.of(), List.of());
+        taskDependencyIndex.findDependencyIds(1L);
+        given(taskRepository.findProjectKeysByIdIn(List.of(7L))).willReturn(List.of(projectKey(7L, 1L)));
+
+        taskDependencyIndex.onTaskChanged(new TaskChangedEvent(List.of(7L)));
+
+        assertThat(taskDependencyIndex.findDependencyIds(7L)).isEmpty();
+        verify(taskRepository, times(1)).findIdsByProjectId(1L);
+    }
+
+    @Test
+    void onTaskChanged_shouldReloadProjectsWhenTaskMoves() {
+        givenProject(1L, List.of(1L), List.of(), List.of());
+        taskDependencyIndex.findDependencyIds(1L);
+        given(taskRepository.findProjectKeysByIdIn(List.of(1L))).willReturn(List.of(projectKey(1L, 2L)));
+
+        taskDependencyIndex.onTaskChanged(new TaskChangedEvent(List.of(1L)));
+
+        givenProject(2L, List.of(1L), List.of(edge(1L, 4L)), List.of());
+        assertThat(taskDependencyIndex.findDependencyIds(1L)).containsExactly(4L);
+    }
+
+    @Test
+    void onTaskChanged_shouldKeepProjectWhenTaskStaysInIt() {
+        givenProject(1L, List.of(1L), List.of(), List.of());
+        taskDependencyIndex.findDependencyIds(1L);
+        given(taskRepository.findProjectKeysByIdIn(List.of(1L))).willReturn(List.of(projectKey(1L, 1L)));
+
+        taskDependencyIndex.onTaskChanged(new TaskChangedEvent(List.of(1L)));
+
+        taskDependencyIndex.findDependencyIds(1L);
+        verify(taskRepository, times(1)).findIdsByProjectId(1L);
+    }
+
+    @Test
+    void onTaskChanged_shouldIgnoreEventsWhileNothingIsLoaded() {
+        taskDependencyIndex.onTaskChanged(new TaskChangedEvent(List.of(1L)));
+
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void lockForChange_shouldHoldLockUntilTransactionCompletes() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            taskDependencyIndex.lockForChange();
+            taskDependencyIndex.lockForChange();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            assertThat(synchronizations).hasSize(1);
+
+            CompletableFuture<Void> other = CompletableFuture.runAsync(() -> {
+                TransactionSynchronizationManager.initSynchronization();
+                try {
+                    taskDependencyIndex.lockForChange();
+                    TransactionSynchronizationManager.getSynchronizations().get(0)
+                            .afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+                } finally {
+                    TransactionSynchronizationManager.clearSynchronization();
+                }
+            });
+            assertThatThrownBy(() -> other.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+            synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            other.get(5, TimeUnit.SECONDS);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lockForChange_shouldRequireTransaction() {
+        assertThatThrownBy(() -> taskDependencyIndex.lockForChange()).isInstanceOf(IllegalStateException.class);
+    }
+
+    private void givenProject(Long projectId, List<Long> taskIds, List<TaskEdge> outgoing, List<TaskEdge> incoming) {
+        given(taskRepository.findProjectKeyById(taskIds.get(0))).willReturn(Optional.of(projectId));
+        given(taskRepository.findIdsByProjectId(projectId)).willReturn(taskIds);
+        given(taskDependencyRepository.findEdgesFromProject(projectId)).willReturn(outgoing);
+        given(taskDependencyRepository.findEdgesIntoProject(projectId)).willReturn(incoming);
+    }
+
+    private static int depthOf(TaskClosure closure, long taskId) {
+        for (int i = 0; i < closure.size(); i++) {
+            if (closure.taskId(i) == taskId) {
+                return closure.depth(i);
+            }
+        }
+        return -1;
+    }
+
+    private static TaskEdge edge(Long taskId, Long dependsOnTaskId) {
+        return new TaskEdge() {
+            @Override
+            public Long getTaskId() {
+                return taskId;
+            }
+
+            @Override
+            public Long getDependsOnTaskId() {
+                return dependsOnTaskId;
+            }
+        };
+    }
+
+    private static TaskProjectKey projectKey(Long id, Long projectKey) {
+        return new TaskProjectKey() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getProjectKey() {
+                return projectKey;
+            }
+        };
+    }
+}
@@ -1,14 +1,29 @@
 package com.daaeboul.taskmanagementsystem.service.task;
+import com.daaeboul.taskmanagementsystem.dto.BulkItemResult;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDependencyDiff;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDependencyDiffResult;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDependencyImportResult;
+import com.daaeboul.taskmanagementsystem.dto.task.TransitiveDependency;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskValidationException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.taskDependendy.TaskDependencyCycleException;
 import com.daaeboul.taskmanagementsystem.exceptions.task.taskDependendy.TaskDependencyNotFoundException;
 import com.daaeboul.taskmanagementsystem.model.task.Task;
 import com.daaeboul.taskmanagementsystem.model.task.TaskDependency;
+import com.daaeboul.taskmanagementsystem.model.transition.Status;
 import com.daaeboul.taskmanagementsystem.repository.task.TaskDependencyRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import com.daaeboul.taskmanagementsystem.service.task.graph.DependencyGraph;
+import com.daaeboul.taskmanagementsystem.service.task.graph.TaskClosure;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -16,12 +31,19 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
@@ -31,6 +53,18 @@ class TaskDependencyServiceTest {
     @Mock
     private TaskDependencyRepository taskDependencyRepository;
 
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TaskDependencyIndex taskDependencyIndex;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private TaskDependencyService taskDependencyService;
 
@@ -53,12 +87,132 @@ class TaskDependencyServiceTest {
 
     @Test
     void createTaskDependency_shouldCreateDependencySuccessfully() {
+        given(taskDependencyIndex.findDependencyPath(2L, 1L, null)).willReturn(new long[0]);
         given(taskDependencyRepository.save(dependency12)).willReturn(dependency12);
 
         TaskDependency createdDependency = taskDependencyService.createTaskDependency(dependency12);
 
         assertThat(createdDependency).isEqualTo(dependency12);
+        InOrder inOrder = inOrder(taskDependencyIndex, taskDependencyRepository);
+        inOrder.verify(taskDependencyIndex).lockForChange();
+        inOrder.verify(taskDependencyIndex).findDependencyPath(2L, 1L, null);
+        inOrder.verify(taskDependencyRepository).save(dependency12);
         verify(taskDependencyRepository).save(dependency12);
+        verify(taskRepository).recountOpenPredecessors(List.of(1L));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof TaskDependencyChangedEvent changed
+                && changed.getAdded().equals(List.of(dependency12.getId())) && changed.getRemoved().isEmpty()));
+    }
+
+    @Test
+    void createTaskDependency_shouldRejectDependencyClosingCycle() {
+        given(taskDependencyIndex.findDependencyPath(2L, 1L, null)).willReturn(new long[]{2L, 3L, 1L});
+
+        assertThatThrownBy(() -> taskDependencyService.createTaskDependency(dependency12))
+                .isInstanceOf(TaskDependencyCycleException.class)
+                .hasMessageContaining("1 -> 2 -> 3 -> 1")
+                .satisfies(e -> assertThat(((TaskDependencyCycleException) e).getCycle()).containsExactly(1L, 2L, 3L, 1L));
+        verify(taskDependencyRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void importTaskDependencies_shouldValidateWholeBatchAndPersistAcceptedEdges() {
+        DependencyGraph existing = new DependencyGraph();
+        existing.addEdge(2L, 3L);
+        given(taskRepository.findLiveIds(anyList())).willReturn(List.of(1L, 2L, 3L, 4L));
+        given(taskDependencyIndex.hasDependency(anyLong(), anyLong()))
+                .willAnswer(invocation -> invocation.getArgument(0).equals(2L) && invocation.getArgument(1).equals(3L));
+        given(taskDependencyIndex.copyUpstream(any())).willReturn(existing);
+        given(entityManager.getReference(eq(Task.class), anyLong())).willReturn(task1);
+
+        List<TaskDependencyImportResult> results = taskDependencyService.importTaskDependencies(List.of(
+                new TaskDependency.TaskDependencyId(1L, 2L),
+                new TaskDependency.TaskDependencyId(1L, 2L),
+                new TaskDependency.TaskDependencyId(3L, 3L),
+                new TaskDependency.TaskDependencyId(1L, 9L),
+                new TaskDependency.TaskDependencyId(2L, 3L),
+                new TaskDependency.TaskDependencyId(3L, 1L),
+                new TaskDependency.TaskDependencyId(4L, 2L)));
+
+        assertThat(results).extracting(TaskDependencyImportResult::getOutcome).containsExactly(
+                BulkItemResult.Outcome.FAILED,
+                BulkItemResult.Outcome.SKIPPED,
+                BulkItemResult.Outcome.FAILED,
+                BulkItemResult.Outcome.NOT_FOUND,
+                BulkItemResult.Outcome.SKIPPED,
+                BulkItemResult.Outcome.FAILED,
+                BulkItemResult.Outcome.CREATED);
+        assertThat(results.get(0).getError()).contains("cycle");
+        assertThat(results.get(3).getError()).contains("9");
+        verify(entityManager, times(1)).persist(any(TaskDependency.class));
+        verify(taskRepository).recountOpenPredecessors(List.of(4L));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof TaskDependencyChangedEvent changed
+                && changed.getAdded().equals(List.of(new TaskDependency.TaskDependencyId(4L, 2L)))));
+    }
+
+    @Test
+    void importTaskDependencies_shouldRejectOversizedBatch() {
+        List<TaskDependency.TaskDependencyId> edges = Collections.nCopies(TaskService.MAX_BULK_SIZE + 1,
+                new TaskDependency.TaskDependencyId(1L, 2L));
+
+        assertThatThrownBy(() -> taskDependencyService.importTaskDependencies(edges))
+                .isInstanceOf(TaskValidationException.class);
+        verifyNoInteractions(taskRepository, entityManager);
+    }
+
+    @Test
+    void applyDependencyDiff_shouldInsertMissingAndDeletePresentEdgesOnly() {
+        given(taskRepository.findLiveIds(anyList())).willReturn(List.of(1L, 2L, 3L, 5L));
+        given(taskDependencyRepository.findDependsOnTaskIdsIn(1L, Set.of(4L))).willReturn(List.of(4L));
+        given(taskDependencyRepository.findDependentTaskIdsIn(1L, Set.of(6L))).willReturn(List.of());
+        given(taskDependencyRepository.findDependsOnTaskIdsIn(1L, Set.of(2L, 3L))).willReturn(List.of(3L));
+        given(taskDependencyRepository.findDependentTaskIdsIn(1L, Set.of(5L))).willReturn(List.of());
+        given(taskDependencyIndex.copyUpstream(any())).willReturn(new DependencyGraph());
+        given(entityManager.getReference(eq(Task.class), anyLong())).willReturn(task1);
+
+        TaskDependencyDiffResult result = taskDependencyService.applyDependencyDiff(1L,
+                new TaskDependencyDiff(List.of(2L, 3L), List.of(4L), List.of(5L), List.of(6L)));
+
+        assertThat(result.getAdded()).containsExactly(
+                new TaskDependency.TaskDependencyId(1L, 2L), new TaskDependency.TaskDependencyId(5L, 1L));
+        assertThat(result.getRemoved()).containsExactly(new TaskDependency.TaskDependencyId(1L, 4L));
+        verify(taskDependencyRepository).deleteDependencies(1L, List.of(4L));
+        verify(taskDependencyRepository, never()).deleteDependents(any(), any());
+        verify(entityManager, times(2)).persist(any(TaskDependency.class));
+        verify(taskRepository).recountOpenPredecessors(Set.of(1L, 5L));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof TaskDependencyChangedEvent changed
+                && changed.getAdded().size() == 2 && changed.getRemoved().size() == 1));
+    }
+
+    @Test
+    void applyDependencyDiff_shouldRejectAdditionsClosingCycle() {
+        DependencyGraph existing = new DependencyGraph();
+        existing.addEdge(2L, 3L);
+        existing.addEdge(3L, 1L);
+        given(taskRepository.findLiveIds(anyList())).willReturn(List.of(1L, 2L));
+        given(taskDependencyRepository.findDependsOnTaskIdsIn(1L, Set.of(2L))).willReturn(List.of());
+        given(taskDependencyIndex.copyUpstream(any())).willReturn(existing);
+
+        TaskDependencyDiff diff = new TaskDependencyDiff();
+        diff.setAddDependencies(List.of(2L));
+
+        assertThatThrownBy(() -> taskDependencyService.applyDependencyDiff(1L, diff))
+                .isInstanceOf(TaskDependencyCycleException.class)
+                .satisfies(e -> assertThat(((TaskDependencyCycleException) e).getCycle()).containsExactly(1L, 2L, 3L, 1L));
+        verifyNoInteractions(entityManager, eventPublisher);
+    }
+
+    @Test
+    void applyDependencyDiff_shouldRejectMissingTasks() {
+        given(taskRepository.findLiveIds(anyList())).willReturn(List.of(1L));
+
+        TaskDependencyDiff diff = new TaskDependencyDiff();
+        diff.setAddDependents(List.of(7L));
+
+        assertThatThrownBy(() -> taskDependencyService.applyDependencyDiff(1L, diff))
+                .isInstanceOf(TaskNotFoundException.class)
+                .hasMessageContaining("7");
+        verifyNoInteractions(taskDependencyRepository, eventPublisher);
     }
 
     @Test
@@ -128,31 +282,120 @@ class TaskDependencyServiceTest {
     }
 
     @Test
-    void updateTaskDependency_shouldUpdateDependencySuccessfully() {
+    void updateTaskDependency_shouldMoveDependencyToTheTasksOfTheBody() {
+        TaskDependency.TaskDependencyId previousId = dependency12.getId();
+        TaskDependency.TaskDependencyId newId = new TaskDependency.TaskDependencyId(1L, 3L);
+        Task task3 = new Task();
+        ReflectionTestUtils.setField(task3, "id", 3L);
+        TaskDependency updatedDependency = new TaskDependency();
+        updatedDependency.setTask(task1);
+        updatedDependency.setDependsOnTask(task3);
+        given(taskDependencyRepository.findById(previousId)).willReturn(Optional.of(dependency12));
+        given(taskRepository.findLiveIds(anyList())).willReturn(List.of(1L, 3L));
+        given(taskDependencyRepository.existsById(newId)).willReturn(false);
+        given(taskDependencyIndex.findDependencyPath(3L, 1L, previousId)).willReturn(new long[0]);
+
+        TaskDependency result = taskDependencyService.updateTaskDependency(previousId, updatedDependency);
+
+        assertThat(result.getId()).isEqualTo(newId);
+        InOrder inOrder = inOrder(taskDependencyIndex, taskDependencyRepository, entityManager);
+        inOrder.verify(taskDependencyIndex).lockForChange();
+        inOrder.verify(taskDependencyIndex).findDependencyPath(3L, 1L, previousId);
+        inOrder.verify(taskDependencyRepository).delete(dependency12);
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(entityManager).persist(argThat((Object entity) -> entity instanceof TaskDependency dependency
+                && dependency.getId().equals(newId)));
+        verify(taskRepository).recountOpenPredecessors(Set.of(1L));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof TaskDependencyChangedEvent changed
+                && changed.getAdded().equals(List.of(newId)) && changed.getRemoved().equals(List.of(previousId))));
+    }
+
+    @Test
+    void updateTaskDependency_shouldRejectUpdateClosingCycle() {
+        TaskDependency.TaskDependencyId previousId = dependency12.getId();
+        Task task3 = new Task();
+        ReflectionTestUtils.setField(task3, "id", 3L);
+        TaskDependency updatedDependency = new TaskDependency();
+        updatedDependency.setId(previousId);
+        updatedDependency.setTask(task1);
+        updatedDependency.setDependsOnTask(task3);
+        given(taskDependencyRepository.findById(previousId)).willReturn(Optional.of(dependency12));
+        given(taskRepository.findLiveIds(anyList())).willReturn(List.of(1L, 3L));
+        given(taskDependencyIndex.findDependencyPath(3L, 1L, previousId)).willReturn(new long[]{3L, 4L, 1L});
+
+        assertThatThrownBy(() -> taskDependencyService.updateTaskDependency(previousId, updatedDependency))
+                .isInstanceOf(TaskDependencyCycleException.class)
+                .satisfies(e -> assertThat(((TaskDependencyCycleException) e).getCycle()).containsExactly(1L, 3L, 4L, 1L));
+        verify(taskDependencyRepository, never()).delete(any());
+        verify(entityManager, never()).persist(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateTaskDependency_shouldUseIdOfTheBodyWhenItNamesNoTasks() {
+        TaskDependency.TaskDependencyId previousId = dependency12.getId();
+        TaskDependency.TaskDependencyId newId = new TaskDependency.TaskDependencyId(1L, 3L);
+        TaskDependency updatedDependency = new TaskDependency();
+        updatedDependency.setId(newId);
+        given(taskDependencyRepository.findById(previousId)).willReturn(Optional.of(dependency12));
+        given(taskRepository.findLiveIds(anyList())).willReturn(List.of(1L, 3L));
+        given(taskDependencyIndex.findDependencyPath(3L, 1L, previousId)).willReturn(new long[]{3L, 1L});
+
+        assertThatThrownBy(() -> taskDependencyService.updateTaskDependency(previousId, updatedDependency))
+                .isInstanceOf(TaskDependencyCycleException.class);
+        verify(taskDependencyRepository, never()).delete(any());
+    }
+
+    @Test
+    void updateTaskDependency_shouldLeaveUnchangedEdgeAlone() {
         TaskDependency updatedDependency = new TaskDependency();
         updatedDependency.setId(dependency12.getId());
-        // ... update other fields as needed
+        given(taskDependencyRepository.findById(dependency12.getId())).willReturn(Optional.of(dependency12));
+
+        TaskDependency result = taskDependencyService.updateTaskDependency(dependency12.getId(), updatedDependency);
 
+        assertThat(result).isSameAs(dependency12);
+        verifyNoInteractions(taskDependencyIndex, eventPublisher, entityManager);
+    }
+
+    @Test
+    void updateTaskDependency_shouldRejectEdgeThatAlreadyExists() {
+        TaskDependency.TaskDependencyId newId = new TaskDependency.TaskDependencyId(1L, 3L);
+        TaskDependency updatedDependency = new TaskDependency();
+        updatedDependency.setId(newId);
         given(taskDependencyRepository.findById(dependency12.getId())).willReturn(Optional.of(dependency12));
-        given(taskDependencyRepository.save(any(TaskDependency.class))).willReturn(updatedDependency);
+        given(taskRepository.findLiveIds(anyList())).willReturn(List.of(1L, 3L));
+        given(taskDependencyRepository.existsById(newId)).willReturn(true);
 
-        TaskDependency result = taskDependencyService.updateTaskDependency(updatedDependency);
+        assertThatThrownBy(() -> taskDependencyService.updateTaskDependency(dependency12.getId(), updatedDependency))
+                .isInstanceOf(TaskValidationException.class)
+                .hasMessageContaining("already exists");
+        verify(taskDependencyRepository, never()).delete(any());
+    }
+
+    @Test
+    void updateTaskDependency_shouldThrowExceptionIfTaskOfNewEdgeNotFound() {
+        TaskDependency updatedDependency = new TaskDependency();
+        updatedDependency.setId(new TaskDependency.TaskDependencyId(1L, 999L));
+        given(taskDependencyRepository.findById(dependency12.getId())).willReturn(Optional.of(dependency12));
+        given(taskRepository.findLiveIds(anyList())).willReturn(List.of(1L));
 
-        assertThat(result).isEqualTo(updatedDependency);
-        verify(taskDependencyRepository).save(any(TaskDependency.class));
+        assertThatThrownBy(() -> taskDependencyService.updateTaskDependency(dependency12.getId(), updatedDependency))
+                .isInstanceOf(TaskNotFoundException.class)
+                .hasMessageContaining("999");
     }
 
     @Test
     void updateTaskDependency_shouldThrowExceptionIfDependencyNotFound() {
+        TaskDependency.TaskDependencyId id = new TaskDependency.TaskDependencyId(999L, 999L);
         TaskDependency updatedDependency = new TaskDependency();
-        updatedDependency.setId(new TaskDependency.TaskDependencyId(999L, 999L));
 
-        given(taskDependencyRepository.findById(updatedDependency.getId())).willReturn(Optional.empty());
+        given(taskDependencyRepository.findById(id)).willReturn(Optional.empty());
 
-        assertThatThrownBy(() -> taskDependencyService.updateTaskDependency(updatedDependency))
+        assertThatThrownBy(() -> taskDependencyService.updateTaskDependency(id, updatedDependency))
                 .isInstanceOf(TaskDependencyNotFoundException.class)
                 .hasMessageContaining("Task dependency not found");
-        verify(taskDependencyRepository, never()).save(any());
+        verify(taskDependencyRepository, never()).delete(any());
     }
 
     @Test
@@ -162,6 +405,9 @@ class TaskDependencyServiceTest {
         taskDependencyService.deleteTaskDependency(dependency12.getId());
 
         verify(taskDependencyRepository).deleteById(dependency12.getId());
+        verify(taskRepository).recountOpenPredecessors(List.of(1L));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof TaskDependencyChangedEvent changed
+                && changed.getAdded().isEmpty() && changed.getRemoved().equals(List.of(dependency12.getId()))));
     }
 
     @Test
@@ -173,11 +419,12 @@ class TaskDependencyServiceTest {
                 .isInstanceOf(TaskDependencyNotFoundException.class)
                 .hasMessageContaining("Task dependency not found");
         verify(taskDependencyRepository, never()).deleteById(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void existsTaskDependency_shouldReturnTrueIfDependencyExists() {
-        given(taskDependencyRepository.existsByIdTaskIdAndIdDependsOnTaskId(task1.getId(), task2.getId())).willReturn(true);
+        given(taskDependencyIndex.hasDependency(task1.getId(), task2.getId())).willReturn(true);
 
         boolean exists = taskDependencyService.existsTaskDependency(task1.getId(), task2.getId());
 
@@ -186,7 +433,7 @@ class TaskDependencyServiceTest {
 
     @Test
     void countDependenciesForTask_shouldReturnCountOfDependencies() {
-        given(taskDependencyRepository.countByIdTaskId(task1.getId())).willReturn(2L);
+        given(taskDependencyIndex.countDependencies(task1.getId())).willReturn(2);
 
         long count = taskDependencyService.countDependenciesForTask(task1.getId());
 
@@ -195,7 +442,7 @@ class TaskDependencyServiceTest {
 
     @Test
     void countDependentsForTask_shouldReturnCountOfDependents() {
-        given(taskDependencyRepository.countByIdDependsOnTaskId(task2.getId())).willReturn(3L);
+        given(taskDependencyIndex.countDependents(task2.getId())).willReturn(3);
 
         long count = taskDependencyService.countDependentsForTask(task2.getId());
 
@@ -204,7 +451,8 @@ class TaskDependencyServiceTest {
 
     @Test
     void findDirectDependenciesForTask_shouldReturnDirectDependencies() {
-        given(taskDependencyRepository.findDirectDependenciesForTask(task1.getId())).willReturn(Arrays.asList(task2));
+        given(taskDependencyIndex.findDependencyIds(task1.getId())).willReturn(new long[]{2L});
+        given(taskRepository.findAllById(List.of(2L))).willReturn(Arrays.asList(task2));
 
         List<Task> dependencies = taskDependencyService.findDirectDependenciesForTask(task1.getId());
 
@@ -213,10 +461,64 @@ class TaskDependencyServiceTest {
 
     @Test
     void findDirectDependentsForTask_shouldReturnDirectDependents() {
-        given(taskDependencyRepository.findDirectDependentsForTask(task2.getId())).willReturn(Arrays.asList(task1));
+        given(taskDependencyIndex.findDependentIds(task2.getId())).willReturn(new long[]{1L});
+        given(taskRepository.findAllById(List.of(1L))).willReturn(Arrays.asList(task1));
 
         List<Task> dependents = taskDependencyService.findDirectDependentsForTask(task2.getId());
 
         assertThat(dependents).containsExactly(task1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void findDirectDependentsForTask_shouldNotQueryTasksWhenIndexHasNone() {
+        given(taskDependencyIndex.findDependentIds(task1.getId())).willReturn(new long[0]);
+
+        List<Task> dependents = taskDependencyService.findDirectDependentsForTask(task1.getId());
+
+        assertThat(dependents).isEmpty();
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void findUpstreamTasks_shouldReturnClosureInTraversalOrderFilteredByStatus() {
+        Status open = new Status();
+        ReflectionTestUtils.setField(open, "id", 10L);
+        Status done = new Status();
+        ReflectionTestUtils.setField(done, "id", 20L);
+        Task task3 = new Task();
+        ReflectionTestUtils.setField(task3, "id", 3L);
+        task2.setStatus(done);
+        task3.setStatus(open);
+        TaskClosure closure = new TaskClosure();
+        closure.add(2L, 1);
+        closure.add(3L, 2);
+        given(taskRepository.existsById(1L)).willReturn(true);
+        given(taskDependencyIndex.findClosure(1L, true, Integer.MAX_VALUE)).willReturn(closure);
+        given(taskRepository.findWithReferencesByIdIn(List.of(2L, 3L))).willReturn(List.of(task3, task2));
+
+        assertThat(taskDependencyService.findUpstreamTasks(1L, null, null))
+                .extracting(TransitiveDependency::getDepth, entry -> entry.getTask().getId())
+                .containsExactly(tuple(1, 2L), tuple(2, 3L));
+        assertThat(taskDependencyService.findUpstreamTasks(1L, null, 10L))
+                .extracting(entry -> entry.getTask().getId())
+                .containsExactly(3L);
+    }
+
+    @Test
+    void findDownstreamTasks_shouldPassDepthLimitAndSkipTaskQueryWhenEmpty() {
+        given(taskRepository.existsById(1L)).willReturn(true);
+        given(taskDependencyIndex.findClosure(1L, false, 2)).willReturn(new TaskClosure());
+
+        assertThat(taskDependencyService.findDownstreamTasks(1L, 2, null)).isEmpty();
+        verify(taskRepository, never()).findWithReferencesByIdIn(any());
+    }
+
+    @Test
+    void findDownstreamTasks_shouldThrowIfTaskNotFound() {
+        given(taskRepository.existsById(99L)).willReturn(false);
+
+        assertThatThrownBy(() -> taskDependencyService.findDownstreamTasks(99L, null, null))
+                .isInstanceOf(TaskNotFoundException.class);
+        verifyNoInteractions(taskDependencyIndex);
+    }
+}
@@ -0,0 +1,121 @@
+package com.daaeboul.taskmanagementsystem.service.task;
+
+import com.daaeboul.taskmanagementsystem.dto.task.TaskExportFormat;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskLevel;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSummary;
+import com.daaeboul.taskmanagementsystem.service.task.graph.TopologicalLevels;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class TaskExportServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private TaskExportService taskExportService;
+
+    private TaskSummary plain;
+    private TaskSummary quoted;
+
+    @BeforeEach
+    void setUp() {
+        taskExportService = new TaskExportService(entityManager, transactionManager, objectMapper);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        plain = new TaskSummary(1L, "Write report", LocalDate.of(2024, 6, 1), null, 2L, "alice", 3L, "Apollo",
+                4L, "Open", 5L, "High", 6L, "Docs", 7L, "Chore", createdAt, createdAt);
+        quoted = new TaskSummary(8L, "Fix \"login\", then deploy", null, null, null, null, 3L, "Apollo",
+                null, null, null, null, null, null, null, null, createdAt, createdAt);
+    }
+
+    @Test
+    void write_csv_shouldWriteHeaderAndQuoteFieldsThatNeedIt() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        taskExportService.write(List.of(plain, quoted).iterator(), TaskExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("id,taskTitle,taskDueDate,completedAt,assigneeId,assigneeUsername");
+        assertThat(lines[1]).isEqualTo("1,Write report,2024-06-01,,2,alice,3,Apollo,4,Open,5,High,6,Docs,7,Chore,2024-05-01T12:00,2024-05-01T12:00");
+        assertThat(lines[2]).startsWith("8,\"Fix \"\"login\"\", then deploy\",,,,,3,Apollo");
+    }
+
+    @Test
+    void write_ndjson_shouldWriteOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        taskExportService.write(List.of(plain, quoted).iterator(), TaskExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asLong()).isEqualTo(1L);
+        assertThat(first.get("taskDueDate").asText()).isEqualTo("2024-06-01");
+        assertThat(objectMapper.readTree(lines[1]).get("taskTitle").asText()).isEqualTo("Fix \"login\", then deploy");
+    }
+
+    @Test
+    void write_shouldProduceOnlyTheHeaderForAnEmptyExport() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        taskExportService.write(List.<TaskSummary>of().iterator(), TaskExportFormat.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).doesNotContain("\r\n1").endsWith("updatedAt\r\n");
+    }
+
+    @Test
+    void levels_shouldLoadTasksInBatchesAndKeepTheOrder() {
+        int count = TaskExportService.EXPORT_FETCH_SIZE + 1;
+        long[] taskIds = new long[count];
+        int[] dependents = new int[count - 1];
+        int[] dependedOn = new int[count - 1];
+        for (int i = 0; i < count; i++) {
+            taskIds[i] = i + 1;
+            if (i > 0) {
+                dependents[i - 1] = i - 1;
+                dependedOn[i - 1] = i;
+            }
+        }
+        TopologicalLevels order = TopologicalLevels.sort(taskIds, dependents, dependedOn);
+        List<Integer> batchSizes = new ArrayList<>();
+
+        List<TaskLevel> levels = taskExportService.levels(order, ids -> {
+            batchSizes.add(ids.size());
+            return ids.stream()
+                    .filter(id -> id != 5L)
+                    .map(id -> new TaskSummary(id, "Task " + id, null, null, null, null, null, null,
+                            null, null, null, null, null, null, null, null, null, null))
+                    .toList();
+        }).toList();
+
+        assertThat(batchSizes).containsExactly(TaskExportService.EXPORT_FETCH_SIZE, 1);
+        assertThat(levels).hasSize(count - 1);
+        assertThat(levels.get(0).getTask().getId()).isEqualTo(count);
+        assertThat(levels.get(0).getLevel()).isZero();
+        assertThat(levels.get(levels.size() - 1).getTask().getId()).isEqualTo(1L);
+        assertThat(levels.get(levels.size() - 1).getLevel()).isEqualTo(count - 1);
+    }
+}
@@ -1,25 +1,57 @@
 package com.daaeboul.taskmanagementsystem.service.task;
 
+import com.daaeboul.taskmanagementsystem.dto.BulkItemResult;
+import com.daaeboul.taskmanagementsystem.dto.CursorPage;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskBulkUpdate;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskChange;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskCount;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskCursor;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskDetail;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskProjectStats;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSearchCriteria;
+import com.daaeboul.taskmanagementsystem.dto.task.TaskSummary;
 import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskNotFoundException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskValidationException;
+import com.daaeboul.taskmanagementsystem.exceptions.task.task.TaskVersionConflictException;
 import com.daaeboul.taskmanagementsystem.model.transition.Status;
 import com.daaeboul.taskmanagementsystem.model.project.Project;
 import com.daaeboul.taskmanagementsystem.model.task.Category;
 import com.daaeboul.taskmanagementsystem.model.task.Task;
+import com.daaeboul.taskmanagementsystem.model.task.TaskDependency;
 import com.daaeboul.taskmanagementsystem.model.task.TaskPriority;
 import com.daaeboul.taskmanagementsystem.model.user.User;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskChangeKey;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskDependencyRepository;
 import com.daaeboul.taskmanagementsystem.repository.task.TaskRepository;
+import com.daaeboul.taskmanagementsystem.repository.task.TaskTotals;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -33,6 +65,21 @@ class TaskServiceTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private TaskDependencyRepository taskDependencyRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OverdueTaskIndex overdueTaskIndex;
+
     @InjectMocks
     private TaskService taskService;
 
@@ -80,6 +127,24 @@ class TaskServiceTest {
 
         assertThat(createdTask).isEqualTo(task);
         verify(taskRepository).save(task);
+        verify(taskRepository).recountOpenPredecessors(List.of(1L));
+        verify(taskRepository).recountOpenPredecessorsOfDependents(List.of(1L));
+        verify(entityManager, never()).refresh(any());
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof TaskChangedEvent changed && changed.getTaskIds().equals(List.of(1L))));
+    }
+
+    @Test
+    void createTask_shouldRereadTaskWhoseOpenPredecessorsWereCounted() {
+        given(taskRepository.save(task)).willReturn(task);
+        given(taskRepository.recountOpenPredecessors(List.of(1L))).willReturn(1);
+
+        Task createdTask = taskService.createTask(task);
+
+        assertThat(createdTask).isSameAs(task);
+        InOrder inOrder = inOrder(taskRepository, entityManager);
+        inOrder.verify(taskRepository).recountOpenPredecessors(List.of(1L));
+        inOrder.verify(entityManager).refresh(task);
     }
 
     @Test
@@ -100,6 +165,31 @@ class TaskServiceTest {
         assertThat(foundTask).isEmpty();
     }
 
+    @Test
+    void findTaskDetailById_shouldResolveReferencesAndDependencyIds() {
+        project.setProjectName("Test Project");
+        given(taskRepository.findWithReferencesById(task.getId())).willReturn(Optional.of(task));
+        given(taskDependencyRepository.findDependsOnTaskIds(task.getId())).willReturn(List.of(2L, 3L));
+        given(taskDependencyRepository.findDependentTaskIds(task.getId())).willReturn(List.of(4L));
+
+        Optional<TaskDetail> detail = taskService.findTaskDetailById(task.getId());
+
+        assertThat(detail).isPresent();
+        assertThat(detail.get().getTaskTitle()).isEqualTo("Test Task");
+        assertThat(detail.get().getProjectName()).isEqualTo("Test Project");
+        assertThat(detail.get().getAssigneeId()).isEqualTo(user.getId());
+        assertThat(detail.get().getDependsOnTaskIds()).containsExactly(2L, 3L);
+        assertThat(detail.get().getDependentTaskIds()).containsExactly(4L);
+    }
+
+    @Test
+    void findTaskDetailById_shouldReturnEmptyIfNotFound() {
+        given(taskRepository.findWithReferencesById(100L)).willReturn(Optional.empty());
+
+        assertThat(taskService.findTaskDetailById(100L)).isEmpty();
+        verifyNoInteractions(taskDependencyRepository);
+    }
+
     @Test
     void findAllTasks_shouldReturnAllTasks() {
         given(taskRepository.findAll()).willReturn(List.of(task));
@@ -114,6 +204,8 @@ class TaskServiceTest {
         Task updatedTask = new Task();
         ReflectionTestUtils.setField(updatedTask, "id", task.getId());
         updatedTask.setTaskTitle("Updated Task");
+        updatedTask.setDependencies(new HashSet<>());
+        Set<TaskDependency> dependencies = task.getDependencies();
 
         given(taskRepository.findById(task.getId())).willReturn(Optional.of(task));
         given(taskRepository.save(any(Task.class))).willReturn(updatedTask);
@@ -121,7 +213,11 @@ class TaskServiceTest {
         Task result = taskService.updateTask(updatedTask);
 
         assertThat(result).isEqualTo(updatedTask);
+        assertThat(task.getDependencies()).isSameAs(dependencies);
         verify(taskRepository).save(any(Task.class));
+        verify(taskRepository, never()).recountOpenPredecessors(any());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof TaskChangedEvent));
+        verify(eventPublisher, never()).publishEvent(any(TaskDependencyChangedEvent.class));
     }
 
     @Test
@@ -140,10 +236,22 @@ class TaskServiceTest {
     @Test
     void deleteTask_shouldDeleteTaskSuccessfully() {
         given(taskRepository.existsById(task.getId())).willReturn(true);
+        given(taskDependencyRepository.findDependentTaskIds(task.getId())).willReturn(List.of(5L, 6L));
+        given(taskDependencyRepository.findDependsOnTaskIds(task.getId())).willReturn(List.of(7L));
 
         taskService.deleteTask(task.getId());
 
-        verify(taskRepository).deleteById(task.getId());
+        InOrder inOrder = inOrder(taskDependencyRepository, taskRepository);
+        inOrder.verify(taskDependencyRepository).findDependentTaskIds(task.getId());
+        inOrder.verify(taskRepository).deleteById(task.getId());
+        inOrder.verify(taskRepository).recountOpenPredecessors(List.of(5L, 6L));
+        verify(taskRepository, never()).recountOpenPredecessorsOfDependents(any());
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof TaskDependencyChangedEvent changed && changed.getAdded().isEmpty()
+                        && Set.copyOf(changed.getRemoved()).equals(Set.of(
+                        new TaskDependency.TaskDependencyId(task.getId(), 7L),
+                        new TaskDependency.TaskDependencyId(5L, task.getId()),
+                        new TaskDependency.TaskDependencyId(6L, task.getId())))));
     }
 
     @Test
@@ -267,6 +375,39 @@ class TaskServiceTest {
         assertThat(tasks).containsExactly(task);
     }
 
+    @Test
+    void findOverdueTasksByProject_shouldServeTheCurrentDayFromTheIndex() {
+        LocalDate today = LocalDate.of(2024, 5, 1);
+        Task older = new Task();
+        ReflectionTestUtils.setField(older, "id", 2L);
+        given(overdueTaskIndex.covers(today)).willReturn(true);
+        given(overdueTaskIndex.findOverdueTaskIds(project.getId(), TaskCursor.FIRST_DATE, 0L, Integer.MAX_VALUE))
+                .willReturn(List.of(2L, 1L, 3L));
+        given(taskRepository.findWithReferencesByIdIn(List.of(2L, 1L, 3L))).willReturn(List.of(task, older));
+
+        List<Task> tasks = taskService.findOverdueTasksByProject(project, today);
+
+        assertThat(tasks).containsExactly(older, task);
+        verify(taskRepository, never()).findOverdueTasksByProject(any(), any());
+    }
+
+    @Test
+    void findOverdueTasksByProjectPage_shouldPageThroughTheIndex() {
+        LocalDate today = LocalDate.of(2024, 5, 1);
+        task.setTaskDueDate(LocalDate.of(2024, 4, 20));
+        String cursor = new TaskCursor("2024-04-10", 5L).encode();
+        given(overdueTaskIndex.covers(today)).willReturn(true);
+        given(overdueTaskIndex.findOverdueTaskIds(project.getId(), LocalDate.of(2024, 4, 10), 5L, 2))
+                .willReturn(List.of(1L));
+        given(taskRepository.findWithReferencesByIdIn(List.of(1L))).willReturn(List.of(task));
+
+        CursorPage<TaskSummary> page = taskService.findOverdueTasksByProjectPage(project.getId(), today, cursor, 1);
+
+        assertThat(page.getItems()).extracting(TaskSummary::getId).containsExactly(1L);
+        assertThat(page.isHasMore()).isFalse();
+        verify(taskRepository, never()).findOverdueByProjectAfterCursor(any(), any(), any(), any(), any());
+    }
+
     @Test
     void findAllDeletedTasks_shouldReturnSoftDeletedTasks() {
         given(taskRepository.findAllDeleted()).willReturn(List.of(task));
@@ -275,4 +416,516 @@ class TaskServiceTest {
 
         assertThat(tasks).containsExactly(task);
     }
+
+    @Test
+    void findTasksPage_shouldReturnCursorWhenMoreRowsExist() {
+        Task next = new Task();
+        ReflectionTestUtils.setField(next, "id", 2L);
+        given(taskRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).willReturn(List.of(task, next));
+
+        CursorPage<TaskSummary> page = taskService.findTasksPage(null, 1);
+
+        assertThat(page.getItems()).extracting(TaskSummary::getId).containsExactly(task.getId());
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(TaskCursor.decode(page.getNextCursor()).getId()).isEqualTo(task.getId());
+    }
+
+    @Test
+    void findTasksPage_shouldSeekPastCursorAndEndWithoutNextCursor() {
+        String cursor = new TaskCursor(null, 1L).encode();
+        given(taskRepository.findByIdGreaterThanOrderByIdAsc(eq(1L), any(Pageable.class))).willReturn(List.of());
+
+        CursorPage<TaskSummary> page = taskService.findTasksPage(cursor, 10);
+
+        assertThat(page.getItems()).isEmpty();
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+        verify(taskRepository).findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, 11));
+    }
+
+    @Test
+    void findTasksDueBetweenPage_shouldEncodeDueDateInCursor() {
+        Task next = new Task();
+        ReflectionTestUtils.setField(next, "id", 2L);
+        next.setTaskDueDate(task.getTaskDueDate());
+        LocalDate start = LocalDate.now();
+        LocalDate end = start.plusDays(10);
+        given(taskRepository.findDueBetweenAfterCursor(eq(start), eq(end), eq(TaskCursor.FIRST_DATE), eq(0L), any(Pageable.class)))
+                .willReturn(List.of(task, next));
+
+        CursorPage<TaskSummary> page = taskService.findTasksDueBetweenPage(start, end, null, 1);
+
+        TaskCursor cursor = TaskCursor.decode(page.getNextCursor());
+        assertThat(cursor.sortValueAsDate()).isEqualTo(task.getTaskDueDate());
+        assertThat(cursor.getId()).isEqualTo(task.getId());
+    }
+
+    @Test
+    void findTasksPage_shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> taskService.findTasksPage("not a cursor!", 10))
+                .isInstanceOf(TaskValidationException.class);
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void searchTasks_shouldRejectSearchNotNarrowedByAnIndexedColumn() {
+        TaskSearchCriteria criteria = new TaskSearchCriteria();
+        criteria.setPriorityId(1L);
+
+        assertThatThrownBy(() -> taskService.searchTasks(criteria, null, 10))
+                .isInstanceOf(TaskValidationException.class)
+                .hasMessageContaining("narrowed");
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void searchTasks_shouldRejectDueDateRangeSortedById() {
+        TaskSearchCriteria criteria = new TaskSearchCriteria();
+        criteria.setDueFrom(LocalDate.of(2024, 1, 1));
+        criteria.setDueTo(LocalDate.of(2024, 1, 31));
+        criteria.setSort(TaskSearchCriteria.SortKey.ID);
+
+        assertThatThrownBy(() -> taskService.searchTasks(criteria, null, 10))
+                .isInstanceOf(TaskValidationException.class)
+                .hasMessageContaining("sort=DUE_DATE");
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchTasks_shouldAcceptDueDateRangeSortedByDueDate() {
+        TaskSearchCriteria criteria = new TaskSearchCriteria();
+        criteria.setDueFrom(LocalDate.of(2024, 1, 1));
+        criteria.setSort(TaskSearchCriteria.SortKey.DUE_DATE);
+
+        given(taskRepository.findBy(any(Specification.class), any())).willReturn(List.of());
+
+        assertThat(taskService.searchTasks(criteria, null, 10).getItems()).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchTasks_shouldRunOneSpecificationQuery() {
+        TaskSearchCriteria criteria = new TaskSearchCriteria();
+        criteria.setProjectId(project.getId());
+        criteria.setStatusId(status.getId());
+        criteria.setCompleted(false);
+
+        given(taskRepository.findBy(any(Specification.class), any())).willReturn(List.of(task));
+
+        CursorPage<TaskSummary> page = taskService.searchTasks(criteria, null, 10);
+
+        assertThat(page.getItems()).extracting(TaskSummary::getId).containsExactly(task.getId());
+        assertThat(page.isHasMore()).isFalse();
+        verify(taskRepository, times(1)).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findReadyTasks_shouldRunOneSpecificationQuery() {
+        given(taskRepository.findBy(any(Specification.class), any())).willReturn(List.of(task));
+
+        CursorPage<TaskSummary> page = taskService.findReadyTasks(project.getId(), null, null, 10);
+
+        assertThat(page.getItems()).extracting(TaskSummary::getId).containsExactly(task.getId());
+        assertThat(page.isHasMore()).isFalse();
+        verify(taskRepository, times(1)).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void findBlockedTasks_shouldRejectListingNotNarrowedByProjectOrAssignee() {
+        assertThatThrownBy(() -> taskService.findBlockedTasks(null, null, null, 10))
+                .isInstanceOf(TaskValidationException.class)
+                .hasMessageContaining("narrowed");
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void patchTask_shouldBindReferencesWithoutLoadingThem() {
+        Status done = new Status();
+        ReflectionTestUtils.setField(done, "id", 2L);
+        given(taskRepository.findById(task.getId())).willReturn(Optional.of(task));
+        given(entityManager.getReference(Status.class, 2L)).willReturn(done);
+
+        Task patched = taskService.patchTask(task.getId(), Map.of("statusId", 2, "taskDueDate", "2030-01-31"));
+
+        assertThat(patched.getStatus()).isSameAs(done);
+        assertThat(patched.getTaskDueDate()).isEqualTo(LocalDate.of(2030, 1, 31));
+        assertThat(patched.getTaskTitle()).isEqualTo("Test Task");
+        verify(taskRepository).flush();
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    void patchTask_shouldClearFieldsSetToNull() {
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("assigneeId", null);
+        changes.put("taskDescription", null);
+        given(taskRepository.findById(task.getId())).willReturn(Optional.of(task));
+
+        Task patched = taskService.patchTask(task.getId(), changes);
+
+        assertThat(patched.getAssignee()).isNull();
+        assertThat(patched.getTaskDescription()).isNull();
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void patchTask_shouldSetEstimatedDurationAndRejectNegativeOne() {
+        given(taskRepository.findById(task.getId())).willReturn(Optional.of(task));
+
+        Task patched = taskService.patchTask(task.getId(), Map.of("estimatedDurationDays", 3));
+
+        assertThat(patched.getEstimatedDurationDays()).isEqualTo(3);
+        assertThatThrownBy(() -> taskService.patchTask(task.getId(), Map.of("estimatedDurationDays", -1)))
+                .isInstanceOf(TaskValidationException.class)
+                .hasMessageContaining("estimatedDurationDays");
+    }
+
+    @Test
+    void patchTask_shouldRejectUnknownFields() {
+        given(taskRepository.findById(task.getId())).willReturn(Optional.of(task));
+
+        assertThatThrownBy(() -> taskService.patchTask(task.getId(), Map.of("deletedAt", "2030-01-01T00:00:00")))
+                .isInstanceOf(TaskValidationException.class)
+                .hasMessageContaining("deletedAt");
+        verify(taskRepository, never()).flush();
+    }
+
+    @Test
+    void patchTask_shouldRejectBlankTitle() {
+        given(taskRepository.findById(task.getId())).willReturn(Optional.of(task));
+
+        assertThatThrownBy(() -> taskService.patchTask(task.getId(), Map.of("taskTitle", " ")))
+                .isInstanceOf(TaskValidationException.class);
+    }
+
+    @Test
+    void patchTask_shouldReportMissingReferenceAsValidationError() {
+        given(taskRepository.findById(task.getId())).willReturn(Optional.of(task));
+        given(entityManager.getReference(Project.class, 99L)).willReturn(new Project());
+        doThrow(new DataIntegrityViolationException("fk_task_project")).when(taskRepository).flush();
+
+        assertThatThrownBy(() -> taskService.patchTask(task.getId(), Map.of("projectId", 99)))
+                .isInstanceOf(TaskValidationException.class)
+                .hasMessageContaining("projectId");
+    }
+
+    @Test
+    void patchTask_shouldRejectStaleVersionWithoutApplyingChanges() {
+        ReflectionTestUtils.setField(task, "version", 4L);
+        given(taskRepository.findById(task.getId())).willReturn(Optional.of(task));
+
+        assertThatThrownBy(() -> taskService.patchTask(task.getId(), Map.of("taskTitle", "Renamed"), 3L))
+                .isInstanceOf(TaskVersionConflictException.class);
+        assertThat(task.getTaskTitle()).isEqualTo("Test Task");
+        verify(taskRepository, never()).flush();
+    }
+
+    @Test
+    void patchTask_shouldApplyChangesWhenVersionMatches() {
+        ReflectionTestUtils.setField(task, "version", 4L);
+        given(taskRepository.findById(task.getId())).willReturn(Optional.of(task));
+
+        Task patched = taskService.patchTask(task.getId(), Map.of("taskTitle", "Renamed"), 4L);
+
+        assertThat(patched.getTaskTitle()).isEqualTo("Renamed");
+        verify(taskRepository).flush();
+    }
+
+    @Test
+    void patchTask_shouldReportConcurrentModificationAsVersionConflict() {
+        given(taskRepository.findById(task.getId())).willReturn(Optional.of(task));
+        doThrow(new ObjectOptimisticLockingFailureException(Task.class, task.getId())).when(taskRepository).flush();
+
+        assertThatThrownBy(() -> taskService.patchTask(task.getId(), Map.of("taskTitle", "Renamed")))
+                .isInstanceOf(TaskVersionConflictException.class);
+    }
+
+    @Test
+    void findTaskVersion_shouldReadOnlyTheVersion() {
+        given(taskRepository.findVersionById(1L)).willReturn(Optional.of(7L));
+
+        assertThat(taskService.findTaskVersion(1L)).contains(7L);
+        verify(taskRepository, never()).findById(any());
+    }
+
+    @Test
+    void patchTask_shouldThrowExceptionIfTaskNotFound() {
+        given(taskRepository.findById(100L)).willReturn(Optional.empty());
+
+        assertThatThrownBy(() -> taskService.patchTask(100L, Map.of("statusId", 2)))
+                .isInstanceOf(TaskNotFoundException.class);
+    }
+
+    @Test
+    void createTasks_shouldPersistValidTasksAndReportInvalidOnes() {
+        Task valid = new Task();
+        valid.setTaskTitle("Imported");
+        Project projectRef = new Project();
+        ReflectionTestUtils.setField(projectRef, "id", 7L);
+        valid.setProject(projectRef);
+
+        Task untitled = new Task();
+
+        given(entityManager.getReference(Project.class, 7L)).willReturn(project);
+        doAnswer(invocation -> {
+            ReflectionTestUtils.setField(invocation.getArgument(0), "id", 42L);
+            return null;
+        }).when(entityManager).persist(valid);
+
+        List<BulkItemResult> results = taskService.createTasks(List.of(valid, untitled));
+
+        assertThat(results).extracting(BulkItemResult::getOutcome)
+                .containsExactly(BulkItemResult.Outcome.CREATED, BulkItemResult.Outcome.FAILED);
+        assertThat(results.get(0).getId()).isEqualTo(42L);
+        assertThat(valid.getProject()).isSameAs(project);
+        verify(entityManager).flush();
+        verify(entityManager, never()).persist(untitled);
+    }
+
+    @Test
+    void createTasks_shouldFailWholeChunkWhenTheDatabaseRejectsIt() {
+        Task first = new Task();
+        first.setTaskTitle("First");
+        Task second = new Task();
+        second.setTaskTitle("Second");
+        doThrow(new DataIntegrityViolationException("fk_task_status")).when(entityManager).flush();
+
+        List<BulkItemResult> results = taskService.createTasks(List.of(first, second));
+
+        assertThat(results).extracting(BulkItemResult::getOutcome)
+                .containsOnly(BulkItemResult.Outcome.FAILED);
+        assertThat(results.get(0).getError()).contains("fk_task_status");
+    }
+
+    @Test
+    void createTasks_shouldRejectOversizedRequests() {
+        List<Task> tasks = Collections.nCopies(TaskService.MAX_BULK_SIZE + 1, task);
+
+        assertThatThrownBy(() -> taskService.createTasks(tasks))
+                .isInstanceOf(TaskValidationException.class);
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void updateTasks_shouldPatchFoundTasksAndReportMissingOnes() {
+        given(taskRepository.findAllById(List.of(1L, 2L))).willReturn(List.of(task));
+
+        List<BulkItemResult> results = taskService.updateTasks(List.of(
+                new TaskBulkUpdate(1L, null, Map.of("taskTitle", "Renamed")),
+                new TaskBulkUpdate(2L, null, Map.of("taskTitle", "Missing"))));
+
+        assertThat(results).extracting(BulkItemResult::getOutcome)
+                .containsExactly(BulkItemResult.Outcome.UPDATED, BulkItemResult.Outcome.NOT_FOUND);
+        assertThat(task.getTaskTitle()).isEqualTo("Renamed");
+        verify(entityManager).flush();
+    }
+
+    @Test
+    void updateTasks_shouldLeaveTaskUntouchedByInvalidPatch() {
+        task.setTaskTitle("Original");
+        given(taskRepository.findAllById(List.of(1L))).willReturn(List.of(task));
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("taskTitle", "Renamed");
+        changes.put("unknownField", 1);
+        List<BulkItemResult> results = taskService.updateTasks(List.of(new TaskBulkUpdate(1L, null, changes)));
+
+        assertThat(results.get(0).getOutcome()).isEqualTo(BulkItemResult.Outcome.FAILED);
+        assertThat(task.getTaskTitle()).isEqualTo("Original");
+        verify(entityManager, never()).detach(any());
+    }
+
+    @Test
+    void updateTasks_shouldKeepEarlierPatchToSameTaskWhenLaterOneIsInvalid() {
+        given(taskRepository.findAllById(List.of(1L, 1L))).willReturn(List.of(task));
+
+        List<BulkItemResult> results = taskService.updateTasks(List.of(
+                new TaskBulkUpdate(1L, null, Map.of("taskTitle", "Renamed")),
+                new TaskBulkUpdate(1L, null, Map.of("taskTitle", ""))));
+
+        assertThat(results).extracting(BulkItemResult::getOutcome)
+                .containsExactly(BulkItemResult.Outcome.UPDATED, BulkItemResult.Outcome.FAILED);
+        assertThat(task.getTaskTitle()).isEqualTo("Renamed");
+        verify(entityManager).flush();
+    }
+
+    @Test
+    void updateTasks_shouldFailItemWhoseVersionIsStale() {
+        task.setTaskTitle("Original");
+        ReflectionTestUtils.setField(task, "version", 3L);
+        given(taskRepository.findAllById(List.of(1L))).willReturn(List.of(task));
+
+        List<BulkItemResult> results = taskService.updateTasks(List.of(
+                new TaskBulkUpdate(1L, 2L, Map.of("taskTitle", "Renamed"))));
+
+        assertThat(results.get(0).getOutcome()).isEqualTo(BulkItemResult.Outcome.FAILED);
+        assertThat(results.get(0).getError()).contains("version 3");
+        assertThat(task.getTaskTitle()).isEqualTo("Original");
+    }
+
+    @Test
+    void updateTasks_shouldApplyItemWhoseVersionMatches() {
+        ReflectionTestUtils.setField(task, "version", 3L);
+        given(taskRepository.findAllById(List.of(1L))).willReturn(List.of(task));
+
+        List<BulkItemResult> results = taskService.updateTasks(List.of(
+                new TaskBulkUpdate(1L, 3L, Map.of("taskTitle", "Renamed"))));
+
+        assertThat(results.get(0).getOutcome()).isEqualTo(BulkItemResult.Outcome.UPDATED);
+        assertThat(task.getTaskTitle()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void deleteTasks_shouldSoftDeleteLiveTasksInOneStatement() {
+        given(taskRepository.findLiveIds(List.of(1L, 2L))).willReturn(List.of(1L));
+
+        List<BulkItemResult> results = taskService.deleteTasks(List.of(1L, 2L));
+
+        assertThat(results).extracting(BulkItemResult::getOutcome)
+                .containsExactly(BulkItemResult.Outcome.DELETED, BulkItemResult.Outcome.NOT_FOUND);
+        verify(taskRepository).softDeleteAllById(eq(Set.of(1L)), any(LocalDateTime.class));
+        verify(taskRepository).recountOpenPredecessorsOfDependents(Set.of(1L));
+    }
+
+    @Test
+    void findTaskChanges_shouldReturnUpsertsAndTombstonesWithNextCursor() {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        TaskChangeKey live = changeKey(1L, updatedAt, null);
+        TaskChangeKey deleted = changeKey(2L, updatedAt.plusSeconds(1), updatedAt.plusSeconds(1));
+        given(taskRepository.findChangesAfterCursor(eq(TaskCursor.FIRST_DATE.atStartOfDay()), eq(0L), any(LocalDateTime.class), eq(PageRequest.of(0, 3))))
+                .willReturn(List.of(live, deleted));
+        given(taskRepository.findWithReferencesByIdIn(List.of(1L))).willReturn(List.of(task));
+
+        CursorPage<TaskChange> page = taskService.findTaskChanges(null, 2);
+
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getItems()).extracting(TaskChange::isDeleted).containsExactly(false, true);
+        assertThat(page.getItems().get(0).getTask().getTaskTitle()).isEqualTo("Test Task");
+        assertThat(page.getItems().get(1).getTask()).isNull();
+        TaskCursor next = TaskCursor.decode(page.getNextCursor());
+        assertThat(next.getId()).isEqualTo(2L);
+        assertThat(next.sortValueAsDateTime()).isEqualTo(updatedAt.plusSeconds(1));
+    }
+
+    @Test
+    void findTaskChanges_shouldMoveCursorToHighWaterMarkWhenNothingChanged() {
+        String since = new TaskCursor(LocalDateTime.of(2024, 5, 1, 12, 0).toString(), 9L).encode();
+        ArgumentCaptor<LocalDateTime> until = ArgumentCaptor.forClass(LocalDateTime.class);
+        given(taskRepository.findChangesAfterCursor(eq(LocalDateTime.of(2024, 5, 1, 12, 0)), eq(9L), until.capture(), any(Pageable.class)))
+                .willReturn(List.of());
+
+        CursorPage<TaskChange> page = taskService.findTaskChanges(since, 50);
+
+        assertThat(page.getItems()).isEmpty();
+        TaskCursor next = TaskCursor.decode(page.getNextCursor());
+        assertThat(next.sortValueAsDateTime()).isEqualTo(until.getValue());
+        assertThat(next.getId()).isZero();
+        verify(taskRepository, never()).findWithReferencesByIdIn(any());
+    }
+
+    @Test
+    void findTaskChanges_shouldReturnCursorFromEmptyFirstSync() {
+        LocalDateTime before = LocalDateTime.now();
+        ArgumentCaptor<LocalDateTime> until = ArgumentCaptor.forClass(LocalDateTime.class);
+        given(taskRepository.findChangesAfterCursor(eq(TaskCursor.FIRST_DATE.atStartOfDay()), eq(0L), until.capture(), any(Pageable.class)))
+                .willReturn(List.of());
+
+        CursorPage<TaskChange> page = taskService.findTaskChanges(null, 50);
+
+        assertThat(page.getNextCursor()).isNotNull();
+        assertThat(TaskCursor.decode(page.getNextCursor()).sortValueAsDateTime()).isEqualTo(until.getValue());
+        assertThat(until.getValue()).isBetween(before.minus(TaskService.CHANGE_FEED_LAG),
+                LocalDateTime.now().minus(TaskService.CHANGE_FEED_LAG));
+    }
+
+    @Test
+    void findTaskChanges_shouldKeepCursorAheadOfHighWaterMark() {
+        String since = new TaskCursor(LocalDateTime.now().plusDays(1).toString(), 9L).encode();
+        given(taskRepository.findChangesAfterCursor(any(LocalDateTime.class), eq(9L), any(LocalDateTime.class), any(Pageable.class)))
+                .willReturn(List.of());
+
+        CursorPage<TaskChange> page = taskService.findTaskChanges(since, 50);
+
+        assertThat(page.getNextCursor()).isEqualTo(since);
+    }
+
+    @Test
+    void findTaskChanges_shouldRejectCursorsOfOtherListings() {
+        String dueDateCursor = new TaskCursor(LocalDate.of(2024, 5, 1).toString(), 9L).encode();
+
+        assertThatThrownBy(() -> taskService.findTaskChanges(dueDateCursor, 50))
+                .isInstanceOf(TaskValidationException.class);
+    }
+
+    private static TaskChangeKey changeKey(Long id, LocalDateTime updatedAt, LocalDateTime deletedAt) {
+        return new TaskChangeKey() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return updatedAt;
+            }
+
+            @Override
+            public LocalDateTime getDeletedAt() {
+                return deletedAt;
+            }
+        };
+    }
+
+    @Test
+    void findProjectStats_shouldCombineTotalsAndGroupCounts() {
+        LocalDate today = LocalDate.of(2024, 5, 1);
+        given(taskRepository.countTotalsByProject(7L, today)).willReturn(totals(10L, 4L, 2L));
+        given(taskRepository.countByStatus(7L)).willReturn(List.of(new TaskCount(1L, "Open", 6L), new TaskCount(2L, "Done", 4L)));
+        given(taskRepository.countByPriority(7L)).willReturn(List.of(new TaskCount(3L, "High", 10L)));
+        given(taskRepository.countByCategory(7L)).willReturn(List.of());
+        given(taskRepository.countByAssignee(7L)).willReturn(List.of(new TaskCount(null, null, 10L)));
+
+        TaskProjectStats stats = taskService.findProjectStats(7L, today);
+
+        assertThat(stats.getTotal()).isEqualTo(10);
+        assertThat(stats.getCompleted()).isEqualTo(4);
+        assertThat(stats.getOpen()).isEqualTo(6);
+        assertThat(stats.getOverdue()).isEqualTo(2);
+        assertThat(stats.getByStatus()).extracting(TaskCount::getName).containsExactly("Open", "Done");
+        verify(taskRepository, never()).findByProject(any());
+    }
+
+    @Test
+    void findProjectStats_shouldReportZerosForAProjectWithoutTasks() {
+        LocalDate today = LocalDate.of(2024, 5, 1);
+        given(taskRepository.countTotalsByProject(7L, today)).willReturn(totals(0L, null, null));
+
+        TaskProjectStats stats = taskService.findProjectStats(7L, today);
+
+        assertThat(stats.getTotal()).isZero();
+        assertThat(stats.getCompleted()).isZero();
+        assertThat(stats.getOverdue()).isZero();
+        assertThat(stats.getByAssignee()).isEmpty();
+    }
+
+    private static TaskTotals totals(Long total, Long completed, Long overdue) {
+        return new TaskTotals() {
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+
+            @Override
+            public Long getCompleted() {
+                return completed;
+            }
+
+            @Override
+            public Long getOverdue() {
+                return overdue;
+            }
+        };
+    }
 }
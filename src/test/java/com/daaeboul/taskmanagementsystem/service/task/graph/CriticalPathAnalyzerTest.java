@@ -0,0 +1,103 @@
+package com.daaeboul.taskmanagementsystem.service.task.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CriticalPathAnalyzerTest {
+
+    private static final int NONE = CriticalPathAnalyzer.NO_DEADLINE;
+
+    @Test
+    void analyze_shouldScheduleDiamondAndFindCriticalChain() {
+        // 1 and 2 depend on 0, 3 depends on 1 and 2.
+        CriticalPathAnalyzer.Schedule schedule = CriticalPathAnalyzer.analyze(4,
+                new int[]{2, 3, 1, 1}, new int[]{NONE, NONE, NONE, NONE},
+                new int[]{1, 2, 3, 3}, new int[]{0, 0, 1, 2});
+
+        assertThat(schedule.isAcyclic()).isTrue();
+        assertThat(schedule.finish()).isEqualTo(6);
+        assertThat(schedule.earliestStart(3)).isEqualTo(5);
+        assertThat(schedule.slack(1)).isZero();
+        assertThat(schedule.slack(2)).isEqualTo(2);
+        assertThat(schedule.latestFinish(2)).isEqualTo(5);
+        assertThat(schedule.criticalChain()).containsExactly(0, 1, 3);
+    }
+
+    @Test
+    void analyze_shouldReportNegativeSlackForMissedDeadline() {
+        // 1 depends on 0; 1 is due after 2 days but cannot finish before day 4.
+        CriticalPathAnalyzer.Schedule schedule = CriticalPathAnalyzer.analyze(2,
+                new int[]{3, 1}, new int[]{NONE, 2},
+                new int[]{1}, new int[]{0});
+
+        assertThat(schedule.slack(1)).isEqualTo(-2);
+        assertThat(schedule.slack(0)).isEqualTo(-2);
+        assertThat(schedule.criticalChain()).containsExactly(0, 1);
+    }
+
+    @Test
+    void analyze_shouldReturnCycle() {
+        // 0 depends on 1, 1 on 2, 2 on 1.
+        CriticalPathAnalyzer.Schedule schedule = CriticalPathAnalyzer.analyze(3,
+                new int[]{1, 1, 1}, new int[]{NONE, NONE, NONE},
+                new int[]{0, 1, 2}, new int[]{1, 2, 1});
+
+        assertThat(schedule.isAcyclic()).isFalse();
+        assertThat(schedule.cycle()).containsExactly(1, 2, 1);
+    }
+
+    @Test
+    void analyze_shouldHandleEmptyGraph() {
+        CriticalPathAnalyzer.Schedule schedule = CriticalPathAnalyzer.analyze(0, new int[0], new int[0], new int[0], new int[0]);
+
+        assertThat(schedule.finish()).isZero();
+        assertThat(schedule.criticalChain()).isEmpty();
+    }
+
+    @Test
+    void analyze_shouldScheduleLargeProject() {
+        int nodeCount = 200_000;
+        int edgeCount = 600_000;
+        Random random = new Random(42);
+        int[] durations = new int[nodeCount];
+        int[] deadlines = new int[nodeCount];
+        Arrays.fill(deadlines, NONE);
+        for (int v = 0; v < nodeCount; v++) {
+            durations[v] = 1 + random.nextInt(5);
+        }
+        // Edges only point to lower node numbers, so the graph is acyclic.
+        int[] dependents = new int[edgeCount];
+        int[] dependedOn = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            dependents[e] = 1 + random.nextInt(nodeCount - 1);
+            dependedOn[e] = random.nextInt(dependents[e]);
+        }
+
+        CriticalPathAnalyzer.Schedule schedule = CriticalPathAnalyzer.analyze(nodeCount, durations, deadlines, dependents, dependedOn);
+
+        assertThat(schedule.isAcyclic()).isTrue();
+        int latestFinish = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            assertThat(schedule.earliestFinish(v)).isEqualTo(schedule.earliestStart(v) + durations[v]);
+            assertThat(schedule.slack(v)).isNotNegative();
+            latestFinish = Math.max(latestFinish, schedule.earliestFinish(v));
+        }
+        assertThat(schedule.finish()).isEqualTo(latestFinish);
+        for (int e = 0; e < edgeCount; e++) {
+            assertThat(schedule.earliestStart(dependents[e])).isGreaterThanOrEqualTo(schedule.earliestFinish(dependedOn[e]));
+        }
+        int[] chain = schedule.criticalChain();
+        assertThat(schedule.earliestStart(chain[0])).isZero();
+        assertThat(schedule.earliestFinish(chain[chain.length - 1])).isEqualTo(schedule.finish());
+        for (int i = 0; i < chain.length; i++) {
+            assertThat(schedule.slack(chain[i])).isZero();
+            if (i > 0) {
+                assertThat(schedule.earliestStart(chain[i])).isEqualTo(schedule.earliestFinish(chain[i - 1]));
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.daaeboul.taskmanagementsystem.service.task.graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DependencyGraphTest {
+
+    @Test
+    void addEdge_shouldIndexBothDirectionsAndIgnoreDuplicates() {
+        DependencyGraph graph = new DependencyGraph();
+
+        assertThat(graph.addEdge(1L, 2L)).isTrue();
+        assertThat(graph.addEdge(1L, 3L)).isTrue();
+        assertThat(graph.addEdge(4L, 3L)).isTrue();
+        assertThat(graph.addEdge(1L, 2L)).isFalse();
+
+        assertThat(graph.nodeCount()).isEqualTo(4);
+        assertThat(graph.edgeCount()).isEqualTo(3);
+        assertThat(graph.dependenciesOf(1L)).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(graph.dependentsOf(3L)).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(graph.dependencyCount(1L)).isEqualTo(2);
+        assertThat(graph.dependentCount(2L)).isEqualTo(1);
+        assertThat(graph.hasEdge(1L, 2L)).isTrue();
+        assertThat(graph.hasEdge(2L, 1L)).isFalse();
+    }
+
+    @Test
+    void removeEdge_shouldKeepNodesAndOtherEdges() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.addEdge(1L, 2L);
+        graph.addEdge(1L, 3L);
+
+        assertThat(graph.removeEdge(1L, 2L)).isTrue();
+        assertThat(graph.removeEdge(1L, 2L)).isFalse();
+        assertThat(graph.removeEdge(7L, 8L)).isFalse();
+
+        assertThat(graph.dependenciesOf(1L)).containsExactly(3L);
+        assertThat(graph.dependentsOf(2L)).isEmpty();
+        assertThat(graph.containsTask(2L)).isTrue();
+        assertThat(graph.edgeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void addEdge_shouldIgnoreDuplicatesOfATaskWithManyDependencies() {
+        DependencyGraph graph = new DependencyGraph(1000);
+        for (long id = 1; id <= 1000; id++) {
+            assertThat(graph.addEdge(0L, id)).isTrue();
+        }
+        for (long id = 1; id <= 1000; id++) {
+            assertThat(graph.addEdge(0L, id)).isFalse();
+        }
+
+        assertThat(graph.removeEdge(0L, 500L)).isTrue();
+        assertThat(graph.hasEdge(0L, 500L)).isFalse();
+        assertThat(graph.dependentsOf(500L)).isEmpty();
+        assertThat(graph.addEdge(0L, 500L)).isTrue();
+
+        assertThat(graph.edgeCount()).isEqualTo(1000);
+        assertThat(graph.dependencyCount(0L)).isEqualTo(1000);
+        assertThat(graph.hasEdge(0L, 999L)).isTrue();
+        assertThat(graph.hasEdge(999L, 0L)).isFalse();
+    }
+
+    @Test
+    void dependenciesOf_shouldReturnEmptyForUnknownTask() {
+        DependencyGraph graph = new DependencyGraph();
+
+        assertThat(graph.dependenciesOf(1L)).isEmpty();
+        assertThat(graph.dependentsOf(1L)).isEmpty();
+        assertThat(graph.dependencyCount(1L)).isZero();
+        assertThat(graph.containsTask(1L)).isFalse();
+    }
+
+    @Test
+    void addEdge_shouldGrowPastInitialCapacity() {
+        DependencyGraph graph = new DependencyGraph();
+        for (long id = 1; id < 1000; id++) {
+            graph.addEdge(id, 0L);
+        }
+
+        assertThat(graph.nodeCount()).isEqualTo(1000);
+        assertThat(graph.dependentCount(0L)).isEqualTo(999);
+        assertThat(graph.dependenciesOf(500L)).containsExactly(0L);
+    }
+
+    @Test
+    void cyclicComponents_shouldLabelTasksOnCyclesByComponent() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.addEdge(1L, 2L);
+        graph.addEdge(2L, 3L);
+        graph.addEdge(3L, 1L);
+        graph.addEdge(3L, 4L);
+        graph.addEdge(5L, 5L);
+        graph.addEdge(6L, 4L);
+
+        LongLongHashMap labels = graph.cyclicComponents();
+
+        assertThat(labels.size()).isEqualTo(4);
+        assertThat(labels.get(2L, -1)).isEqualTo(labels.get(1L, -1));
+        assertThat(labels.get(3L, -1)).isEqualTo(labels.get(1L, -1));
+        assertThat(labels.get(5L, -1)).isNotEqualTo(labels.get(1L, -1)).isNotNegative();
+        assertThat(labels.containsKey(4L)).isFalse();
+        assertThat(labels.containsKey(6L)).isFalse();
+    }
+
+    @Test
+    void cyclicComponents_shouldHandleLongChainsWithoutRecursion() {
+        DependencyGraph graph = new DependencyGraph();
+        for (long id = 0; id < 100_000; id++) {
+            graph.addEdge(id, id + 1);
+        }
+
+        assertThat(graph.cyclicComponents().size()).isZero();
+        graph.addEdge(100_000L, 0L);
+        assertThat(graph.cyclicComponents().size()).isEqualTo(100_001);
+    }
+
+    @Test
+    void findPath_shouldReturnShortestChainOfDependencies() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.addEdge(1L, 2L);
+        graph.addEdge(2L, 3L);
+        graph.addEdge(3L, 4L);
+        graph.addEdge(1L, 4L);
+
+        assertThat(graph.findPath(1L, 4L)).containsExactly(1L, 4L);
+        assertThat(graph.findPath(2L, 4L)).containsExactly(2L, 3L, 4L);
+        assertThat(graph.findPath(4L, 1L)).isEmpty();
+        assertThat(graph.findPath(1L, 9L)).isEmpty();
+    }
+}
@@ -0,0 +1,69 @@
+package com.daaeboul.taskmanagementsystem.service.task.graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DueDatePropagationTest {
+
+    @Test
+    void propagate_shouldPushProposedDateThroughDependents() {
+        // 2 and 3 depend on 1, 4 depends on 2 and 3.
+        DependencyGraph downstream = graph(2L, 1L, 3L, 1L, 4L, 2L, 4L, 3L);
+        LongLongHashMap proposed = map(1L, 100L);
+        LongLongHashMap dueDates = map(2L, 90L, 3L, 110L, 4L, 105L);
+        LongLongHashMap durations = map(2L, 2L, 3L, 5L, 4L, 1L);
+
+        LongLongHashMap earliest = DueDatePropagation.propagate(downstream, proposed, dueDates, durations);
+
+        assertThat(earliest.get(2L, -1)).isEqualTo(102L);
+        assertThat(earliest.get(3L, -1)).isEqualTo(105L);
+        // 3 keeps its later due date of 110, which 4 then has to follow.
+        assertThat(earliest.get(4L, -1)).isEqualTo(111L);
+        assertThat(earliest.containsKey(1L)).isFalse();
+    }
+
+    @Test
+    void propagate_shouldStopAtCompletedTasks() {
+        // 2 depends on 1, 3 depends on 2.
+        DependencyGraph downstream = graph(2L, 1L, 3L, 2L);
+
+        LongLongHashMap earliest = DueDatePropagation.propagate(downstream, map(1L, 100L), map(2L, 50L, 3L, 60L),
+                map(3L, 1L));
+
+        assertThat(earliest.size()).isZero();
+    }
+
+    @Test
+    void propagate_shouldCarryDatesAcrossTasksWithoutDueDate() {
+        DependencyGraph downstream = graph(2L, 1L, 3L, 2L);
+
+        LongLongHashMap earliest = DueDatePropagation.propagate(downstream, map(1L, 100L), map(3L, 101L),
+                map(2L, 1L, 3L, 1L));
+
+        assertThat(earliest.get(3L, -1)).isEqualTo(102L);
+    }
+
+    @Test
+    void propagate_shouldReturnNullForCycle() {
+        DependencyGraph downstream = graph(2L, 1L, 3L, 2L, 2L, 3L);
+
+        assertThat(DueDatePropagation.propagate(downstream, map(1L, 100L), map(), map(2L, 1L, 3L, 1L))).isNull();
+    }
+
+    private static DependencyGraph graph(long... edges) {
+        DependencyGraph graph = new DependencyGraph();
+        for (int i = 0; i < edges.length; i += 2) {
+            graph.addEdge(edges[i], edges[i + 1]);
+        }
+        return graph;
+    }
+
+    private static LongLongHashMap map(long... entries) {
+        LongLongHashMap map = new LongLongHashMap();
+        for (int i = 0; i < entries.length; i += 2) {
+            map.put(entries[i], entries[i + 1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,56 @@
+package com.daaeboul.taskmanagementsystem.service.task.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongLongHashMapTest {
+
+    @Test
+    void put_shouldStoreAndReplaceValues() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        map.put(1L, 10L);
+        map.put(2L, 20L);
+        map.put(1L, 11L);
+
+        assertThat(map.size()).isEqualTo(2);
+        assertThat(map.get(1L, -1L)).isEqualTo(11L);
+        assertThat(map.get(3L, -1L)).isEqualTo(-1L);
+        assertThat(map.containsKey(2L)).isTrue();
+    }
+
+    @Test
+    void put_shouldRejectReservedKey() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        assertThatThrownBy(() -> map.put(Long.MIN_VALUE, 1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(map.containsKey(Long.MIN_VALUE)).isFalse();
+    }
+
+    @Test
+    void remove_shouldKeepRemainingKeysReachable() {
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, (long) i);
+            } else {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 0; key < 2_000; key++) {
+            assertThat(map.get(key, -1L)).isEqualTo(expected.getOrDefault(key, -1L));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.daaeboul.taskmanagementsystem.service.task.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+
+class TopologicalLevelsTest {
+
+    @Test
+    void sort_shouldPlaceEveryTaskOneLevelAfterItsLastDependency() {
+        // 3 depends on 1 and 2, 4 depends on 3, 5 depends on 1.
+        TopologicalLevels order = TopologicalLevels.sort(new long[]{10L, 20L, 30L, 40L, 50L, 60L},
+                new int[]{2, 2, 3, 4}, new int[]{0, 1, 2, 0});
+
+        assertThat(order.isAcyclic()).isTrue();
+        assertThat(order.levelCount()).isEqualTo(3);
+        assertThat(taskIds(order)).containsExactly(10L, 20L, 60L, 30L, 50L, 40L);
+        assertThat(levels(order)).containsExactly(0, 0, 0, 1, 1, 2);
+    }
+
+    @Test
+    void sort_shouldReportCycle() {
+        TopologicalLevels order = TopologicalLevels.sort(new long[]{10L, 20L, 30L, 40L},
+                new int[]{0, 1, 2, 3}, new int[]{1, 2, 1, 0});
+
+        assertThat(order.isAcyclic()).isFalse();
+        assertThat(order.cycle()).hasSize(3).startsWith(order.cycle()[2]).contains(20L, 30L);
+    }
+
+    @Test
+    void sort_shouldHandleEmptyGraph() {
+        TopologicalLevels order = TopologicalLevels.sort(new long[0], new int[0], new int[0]);
+
+        assertThat(order.size()).isZero();
+        assertThat(order.levelCount()).isZero();
+    }
+
+    @Test
+    void sort_shouldHandleLargeGraphs() {
+        int nodeCount = 200_000;
+        long[] taskIds = new long[nodeCount];
+        int[] dependents = new int[nodeCount - 1];
+        int[] dependedOn = new int[nodeCount - 1];
+        for (int v = 0; v < nodeCount; v++) {
+            taskIds[v] = v + 1;
+            if (v > 0) {
+                dependents[v - 1] = v;
+                dependedOn[v - 1] = (v - 1) / 2;
+            }
+        }
+
+        TopologicalLevels order = assertTimeout(Duration.ofSeconds(1),
+                () -> TopologicalLevels.sort(taskIds, dependents, dependedOn));
+
+        assertThat(order.size()).isEqualTo(nodeCount);
+        assertThat(order.levelCount()).isEqualTo(18);
+        assertThat(order.taskId(nodeCount - 1)).isEqualTo(nodeCount);
+    }
+
+    private static long[] taskIds(TopologicalLevels order) {
+        long[] ids = new long[order.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = order.taskId(i);
+        }
+        return ids;
+    }
+
+    private static int[] levels(TopologicalLevels order) {
+        int[] levels = new int[order.size()];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = order.level(i);
+        }
+        return levels;
+    }
+}